@@ -0,0 +1,68 @@
+package com.example.integrity_monitoring_service.service;
+
+import com.example.integrity_monitoring_service.similarity.TextTokenizer;
+import com.example.integrity_monitoring_service.similarity.TokenizedText;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AdvancedSimilarityService} on one pair of 50–5000 word answers, from
+ * raw Strings and from pre-tokenized texts (the peer-rescoring path), with the
+ * LCS kernel exact and banded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AdvancedSimilarityBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int words;
+
+    @Param({"0", "64"})
+    public int lcsBand;
+
+    private AdvancedSimilarityService service;
+    private String answer;
+    private String copy;
+    private TokenizedText answerTokens;
+    private TokenizedText copyTokens;
+
+    @Setup
+    public void setUp() {
+        BenchmarkCorpus corpus = new BenchmarkCorpus(7);
+        service = new AdvancedSimilarityService(lcsBand);
+        answer = corpus.answer(words);
+        copy = corpus.paraphrase(answer, 0.6);
+        answerTokens = TextTokenizer.tokenize(answer);
+        copyTokens = TextTokenizer.tokenize(copy);
+    }
+
+    @Benchmark
+    public double computeMaxSimilarity() {
+        return service.computeMaxSimilarity(answer, copy);
+    }
+
+    @Benchmark
+    public double computeMaxSimilarityTokenized() {
+        return service.computeMaxSimilarity(answerTokens, copyTokens);
+    }
+
+    @Benchmark
+    public double computeNormalisedLcs() {
+        return service.computeNormalisedLcs(answerTokens, copyTokens);
+    }
+}
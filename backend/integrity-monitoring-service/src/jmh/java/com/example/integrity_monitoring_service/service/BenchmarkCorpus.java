@@ -0,0 +1,133 @@
+package com.example.integrity_monitoring_service.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic answers for the JMH benchmarks.
+ *
+ * Words are drawn from a fixed pseudo-English vocabulary with a Zipf-like
+ * distribution (plus ~30% stop words), grouped into sentences of 8–25 words,
+ * so token, term and n-gram statistics resemble real student answers. Peers
+ * mix freshly written answers with partial copies of the reference answer
+ * (sentences reused, words swapped) so the scorers see realistic overlap.
+ */
+final class BenchmarkCorpus {
+
+    private static final String[] STOP_WORDS = {
+            "the", "is", "and", "of", "to", "in", "that", "this", "with", "for", "are", "was", "by", "it"
+    };
+    private static final String[] SYLLABLES = {
+            "pro", "cess", "en", "er", "gy", "cell", "mem", "brane", "sys", "tem", "data", "struc",
+            "ture", "net", "work", "func", "tion", "val", "ue", "an", "al", "y", "sis", "mod", "el",
+            "the", "or", "re", "ac", "ca", "pa", "ci", "ty", "lo", "gic", "com", "pute", "ment"
+    };
+    private static final int VOCABULARY_SIZE = 6_000;
+
+    private final SplittableRandom random;
+    private final String[] vocabulary;
+    private final double[] cumulative;
+
+    BenchmarkCorpus(long seed) {
+        this.random = new SplittableRandom(seed);
+        this.vocabulary = new String[VOCABULARY_SIZE];
+        this.cumulative = new double[VOCABULARY_SIZE];
+        double total = 0;
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            vocabulary[i] = inventWord(i);
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < VOCABULARY_SIZE; i++) cumulative[i] /= total;
+    }
+
+    /** A fresh answer of about {@code words} words. */
+    String answer(int words) {
+        StringBuilder text = new StringBuilder(words * 8);
+        int sentenceLeft = 0;
+        for (int i = 0; i < words; i++) {
+            if (sentenceLeft == 0) {
+                if (i > 0) text.append(". ");
+                sentenceLeft = 8 + random.nextInt(18);
+            } else {
+                text.append(' ');
+            }
+            text.append(random.nextInt(10) < 3 ? STOP_WORDS[random.nextInt(STOP_WORDS.length)] : word());
+            sentenceLeft--;
+        }
+        return text.append('.').toString();
+    }
+
+    /**
+     * A partial copy of {@code source}: each sentence is kept with probability
+     * {@code keep} (with ~10% of its words replaced), otherwise rewritten.
+     */
+    String paraphrase(String source, double keep) {
+        StringBuilder text = new StringBuilder(source.length());
+        for (String sentence : source.split("\\. ")) {
+            if (text.length() > 0) text.append(". ");
+            if (random.nextDouble() >= keep) {
+                String fresh = answer(sentence.split(" ").length);
+                text.append(fresh, 0, fresh.length() - 1);
+                continue;
+            }
+            String[] words = sentence.split(" ");
+            for (int i = 0; i < words.length; i++) {
+                if (i > 0) text.append(' ');
+                text.append(random.nextInt(10) == 0 ? word() : words[i]);
+            }
+        }
+        return text.toString();
+    }
+
+    /** {@code count} peers: every fifth is a partial copy of {@code reference}. */
+    List<String> peers(String reference, int count, int words) {
+        List<String> peers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            peers.add(i % 5 == 0 ? paraphrase(reference, 0.6) : answer(words));
+        }
+        return peers;
+    }
+
+    /** Search results shaped like the SerpAPI / Google ones (title, snippet, link, domain). */
+    List<Map<String, String>> searchResults(String reference, int count) {
+        String[] sentences = reference.split("\\. ");
+        List<Map<String, String>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String snippet = i % 3 == 0 && sentences.length > 0
+                    ? sentences[random.nextInt(sentences.length)]
+                    : answer(25);
+            if (snippet.length() > 160) snippet = snippet.substring(0, 160);
+            results.add(Map.of(
+                    "title", answer(6),
+                    "snippet", snippet,
+                    "link", "https://example" + i + ".org/article",
+                    "domain", "example" + i + ".org"));
+        }
+        return results;
+    }
+
+    private String word() {
+        double u = random.nextDouble();
+        int lo = 0, hi = VOCABULARY_SIZE - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] < u) lo = mid + 1;
+            else hi = mid;
+        }
+        return vocabulary[lo];
+    }
+
+    private static String inventWord(int index) {
+        StringBuilder word = new StringBuilder();
+        int n = index;
+        do {
+            word.append(SYLLABLES[n % SYLLABLES.length]);
+            n /= SYLLABLES.length;
+        } while (n > 0);
+        if (word.length() < 4) word.append("al");
+        return word.toString();
+    }
+}
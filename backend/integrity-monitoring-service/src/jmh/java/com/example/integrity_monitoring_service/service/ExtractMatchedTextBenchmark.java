@@ -0,0 +1,51 @@
+package com.example.integrity_monitoring_service.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RealtimeCheckService#extractMatchedStudentText} for every matched
+ * source of one realtime check (10 search results) on 50–5000 word answers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtractMatchedTextBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int words;
+
+    private String answer;
+    private List<Map<String, String>> searchResults;
+
+    @Setup
+    public void setUp() {
+        BenchmarkCorpus corpus = new BenchmarkCorpus(99);
+        answer = corpus.answer(words);
+        searchResults = corpus.searchResults(answer, 10);
+    }
+
+    @Benchmark
+    public void extractMatchedStudentText(Blackhole bh) {
+        for (Map<String, String> result : searchResults) {
+            bh.consume(RealtimeCheckService.extractMatchedStudentText(answer, result.get("snippet")));
+        }
+    }
+}
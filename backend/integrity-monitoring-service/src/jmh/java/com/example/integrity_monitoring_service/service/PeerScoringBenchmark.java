@@ -0,0 +1,74 @@
+package com.example.integrity_monitoring_service.service;
+
+import com.example.integrity_monitoring_service.similarity.TextTokenizer;
+import com.example.integrity_monitoring_service.similarity.TokenizedText;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One answer scored against every peer of its question (10–1000 peers of
+ * 50–2000 words), the way realtime and text checks rescore candidates: the
+ * answer is tokenized once per check, peers come pre-tokenized from the index.
+ * Peers stop at 2000 words to keep 1000 cached peers in a modest heap; longer
+ * pairs are covered by the one-pair benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PeerScoringBenchmark {
+
+    @Param({"50", "500", "2000"})
+    public int words;
+
+    @Param({"10", "100", "1000"})
+    public int peers;
+
+    private TextSimilarityService textSimilarity;
+    private AdvancedSimilarityService advancedSimilarity;
+    private String answer;
+    private List<TokenizedText> peerTokens;
+
+    @Setup
+    public void setUp() {
+        BenchmarkCorpus corpus = new BenchmarkCorpus(1234);
+        textSimilarity = new TextSimilarityService();
+        advancedSimilarity = new AdvancedSimilarityService(0);
+        answer = corpus.answer(words);
+        peerTokens = corpus.peers(answer, peers, words).stream().map(TextTokenizer::tokenize).toList();
+    }
+
+    @Benchmark
+    public double cosineAgainstPeers() {
+        TokenizedText student = TextTokenizer.tokenize(answer);
+        double max = 0;
+        for (TokenizedText peer : peerTokens) {
+            max = Math.max(max, textSimilarity.calculateSimilarity(student, peer));
+        }
+        return max;
+    }
+
+    @Benchmark
+    public double maxSimilarityAgainstPeers() {
+        TokenizedText student = TextTokenizer.tokenize(answer);
+        double max = 0;
+        for (TokenizedText peer : peerTokens) {
+            max = Math.max(max, advancedSimilarity.computeMaxSimilarity(student, peer));
+        }
+        return max;
+    }
+}
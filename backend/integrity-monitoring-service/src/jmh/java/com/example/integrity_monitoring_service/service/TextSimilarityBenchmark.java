@@ -0,0 +1,63 @@
+package com.example.integrity_monitoring_service.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One-pair scorers of {@link TextSimilarityService} on answers of 50–5000 words,
+ * each call starting from raw Strings (tokenization included), as the
+ * controllers call them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextSimilarityBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int words;
+
+    private TextSimilarityService service;
+    private String answer;
+    private String copy;
+    private List<Map<String, String>> searchResults;
+
+    @Setup
+    public void setUp() {
+        BenchmarkCorpus corpus = new BenchmarkCorpus(42);
+        service = new TextSimilarityService();
+        answer = corpus.answer(words);
+        copy = corpus.paraphrase(answer, 0.6);
+        searchResults = corpus.searchResults(answer, 10);
+    }
+
+    @Benchmark
+    public double calculateSimilarity() {
+        return service.calculateSimilarity(answer, copy);
+    }
+
+    @Benchmark
+    public double calculateBestSimilarity() {
+        return service.calculateBestSimilarity(answer, copy);
+    }
+
+    @Benchmark
+    public double calculateInternetSimilarity() {
+        return service.calculateInternetSimilarity(answer, searchResults);
+    }
+}
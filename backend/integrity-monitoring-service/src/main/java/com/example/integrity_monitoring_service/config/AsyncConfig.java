@@ -26,4 +26,36 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Executor that drives assignment-wide sweep jobs. Each job only coordinates —
+     * pair scoring runs on BatchSweepService's own ForkJoinPool — so two drivers
+     * are enough and further jobs wait in the queue.
+     */
+    @Bean(name = "sweepJobExecutor")
+    public Executor sweepJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("sweep-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor for coalesced realtime checks. The coalescer runs at most one check
+     * per (session, question), so the pool bounds how many students are checked
+     * concurrently; a full queue drops the snapshot (the next keystroke resubmits).
+     */
+    @Bean(name = "realtimeCheckExecutor")
+    public Executor realtimeCheckExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("realtime-");
+        executor.initialize();
+        return executor;
+    }
 }
@@ -15,9 +15,8 @@ public class CacheConfig {
 
     @Bean
     public CacheManager cacheManager() {
+        // Internet and scholar search results are cached by GoogleSearchService itself
         CaffeineCacheManager cacheManager = new CaffeineCacheManager(
-                "internetSearchCache",
-                "scholarSearchCache",
                 "questionAnalysisCache"
         );
 
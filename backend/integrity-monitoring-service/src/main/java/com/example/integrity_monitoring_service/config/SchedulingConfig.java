@@ -1,5 +1,7 @@
 package com.example.integrity_monitoring_service.config;
 
+import com.example.integrity_monitoring_service.service.CodeTokenCache;
+import com.example.integrity_monitoring_service.service.GoogleSearchService;
 import com.example.integrity_monitoring_service.service.RealtimeCheckService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +16,8 @@ import org.springframework.scheduling.annotation.Scheduled;
 public class SchedulingConfig {
 
     private final RealtimeCheckService realtimeCheckService;
+    private final CodeTokenCache codeTokenCache;
+    private final GoogleSearchService googleSearchService;
 
     /**
      * Clean up old real-time checks daily
@@ -24,4 +28,20 @@ public class SchedulingConfig {
         realtimeCheckService.cleanupOldChecks();
         log.info("Cleanup completed");
     }
-}
\ No newline at end of file
+
+    /**
+     * Drop stored code token streams past their retention daily
+     */
+    @Scheduled(cron = "0 30 2 * * ?") // 2:30 AM daily
+    public void pruneCodeTokenStreams() {
+        codeTokenCache.pruneStored();
+    }
+
+    /**
+     * Correct the SerpAPI search budget from the account API hourly
+     */
+    @Scheduled(cron = "0 15 * * * ?") // quarter past every hour
+    public void syncSearchBudget() {
+        googleSearchService.syncBudget();
+    }
+}
@@ -44,6 +44,16 @@ public class HealthController {
         return ResponseEntity.ok(ApiResponse.success(health));
     }
 
+    /**
+     * SerpAPI gateway counters and the remaining search budget.
+     *
+     * GET /api/health/search-budget
+     */
+    @GetMapping("/search-budget")
+    public ResponseEntity<ApiResponse<GoogleSearchService.Stats>> searchBudget() {
+        return ResponseEntity.ok(ApiResponse.success(googleSearch.stats()));
+    }
+
     /**
      * Live diagnostic for the Google Custom Search API.
      * Makes a real test call and returns the HTTP status + fix instructions.
@@ -2,8 +2,12 @@ package com.example.integrity_monitoring_service.contoller;
 
 import com.example.integrity_monitoring_service.dto.request.PlagiarismCheckRequest;
 import com.example.integrity_monitoring_service.dto.response.ApiResponse;
+import com.example.integrity_monitoring_service.dto.response.NearDuplicatePairResponse;
 import com.example.integrity_monitoring_service.dto.response.PlagiarismCheckResponse;
+import com.example.integrity_monitoring_service.dto.response.SweepJobResponse;
+import com.example.integrity_monitoring_service.service.BatchSweepService;
 import com.example.integrity_monitoring_service.service.IntegrityCheckService;
+import com.example.integrity_monitoring_service.service.NearDuplicateService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,6 +24,8 @@ import java.util.List;
 public class IntegrityCheckController {
 
     private final IntegrityCheckService integrityCheckService;
+    private final NearDuplicateService nearDuplicateService;
+    private final BatchSweepService batchSweepService;
 
     /**
      * Run plagiarism check
@@ -77,6 +83,70 @@ public class IntegrityCheckController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Find near-duplicate answer pairs across a whole assignment (MinHash/LSH sweep)
+     */
+    @GetMapping("/assignment/{assignmentId}/near-duplicates")
+    public ResponseEntity<ApiResponse<List<NearDuplicatePairResponse>>> getNearDuplicates(
+            @PathVariable String assignmentId) {
+        log.info("GET /api/integrity/checks/assignment/{}/near-duplicates - Running LSH sweep", assignmentId);
+
+        List<NearDuplicatePairResponse> pairs = nearDuplicateService.findNearDuplicates(assignmentId);
+
+        return ResponseEntity.ok(ApiResponse.success(
+                String.format("Found %d near-duplicate pairs", pairs.size()), pairs));
+    }
+
+    /**
+     * Start an assignment-wide batch sweep (all answer pairs per question)
+     */
+    @PostMapping("/assignment/{assignmentId}/sweep")
+    public ResponseEntity<ApiResponse<SweepJobResponse>> startSweep(
+            @PathVariable String assignmentId,
+            @RequestParam(defaultValue = "false") boolean lshPrefilter) {
+        log.info("POST /api/integrity/checks/assignment/{}/sweep - Starting batch sweep (lshPrefilter={})",
+                assignmentId, lshPrefilter);
+
+        SweepJobResponse job = batchSweepService.startSweep(assignmentId, lshPrefilter);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Sweep job started", job));
+    }
+
+    /**
+     * Get sweep jobs by assignment
+     */
+    @GetMapping("/assignment/{assignmentId}/sweeps")
+    public ResponseEntity<ApiResponse<List<SweepJobResponse>>> getSweepsByAssignment(
+            @PathVariable String assignmentId) {
+        log.info("GET /api/integrity/checks/assignment/{}/sweeps - Fetching sweep jobs", assignmentId);
+
+        return ResponseEntity.ok(ApiResponse.success(batchSweepService.getJobsByAssignment(assignmentId)));
+    }
+
+    /**
+     * Get sweep job progress and throughput
+     */
+    @GetMapping("/sweeps/{jobId}")
+    public ResponseEntity<ApiResponse<SweepJobResponse>> getSweep(@PathVariable Long jobId) {
+        log.info("GET /api/integrity/checks/sweeps/{} - Fetching sweep job", jobId);
+
+        return ResponseEntity.ok(ApiResponse.success(batchSweepService.getJob(jobId)));
+    }
+
+    /**
+     * Resume a failed or interrupted sweep from the last completed question
+     */
+    @PostMapping("/sweeps/{jobId}/resume")
+    public ResponseEntity<ApiResponse<SweepJobResponse>> resumeSweep(@PathVariable Long jobId) {
+        log.info("POST /api/integrity/checks/sweeps/{}/resume - Resuming sweep job", jobId);
+
+        SweepJobResponse job = batchSweepService.resumeSweep(jobId);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Sweep job resumed", job));
+    }
+
     /**
      * Get plagiarism checks by submission ID
      */
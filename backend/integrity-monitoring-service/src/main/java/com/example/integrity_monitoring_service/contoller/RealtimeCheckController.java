@@ -3,44 +3,48 @@ package com.example.integrity_monitoring_service.contoller;
 import com.example.integrity_monitoring_service.dto.request.RealtimeCheckRequest;
 import com.example.integrity_monitoring_service.dto.response.ApiResponse;
 import com.example.integrity_monitoring_service.dto.response.RealtimeCheckResponse;
-import com.example.integrity_monitoring_service.service.RealtimeCheckService;
+import com.example.integrity_monitoring_service.service.RealtimeCheckCoalescer;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/integrity/realtime")
 @RequiredArgsConstructor
 @Slf4j
 public class RealtimeCheckController {
 
-    private final RealtimeCheckService realtimeCheckService;
+    private final RealtimeCheckCoalescer checkCoalescer;
 
     /**
-     * Real-time plagiarism check (REST endpoint)
+     * Real-time plagiarism check (REST endpoint).
+     * Snapshots of the same session/question are coalesced: if a newer snapshot
+     * arrives before this one is checked, this request completes with the newer
+     * snapshot's result.
      */
     @PostMapping("/check")
-    public ResponseEntity<ApiResponse<RealtimeCheckResponse>> checkRealtime(
+    public CompletableFuture<ResponseEntity<ApiResponse<RealtimeCheckResponse>>> checkRealtime(
             @Valid @RequestBody RealtimeCheckRequest request) {
         log.info("POST /api/integrity/realtime/check — session={} student={} question={} textLen={}",
                 request.getSessionId(), request.getStudentId(),
                 request.getQuestionId(), request.getTextContent().length());
 
-        ApiResponse<RealtimeCheckResponse> response = realtimeCheckService.checkRealtime(request);
-
-        if (response.getData() != null) {
-            log.info("POST /api/integrity/realtime/check — DONE similarity={} flagged={}",
-                    response.getData().getSimilarityScore(), response.getData().getFlagged());
-        }
-        return ResponseEntity.ok(response);
+        return checkCoalescer.submit(request).thenApply(response -> {
+            if (response.getData() != null) {
+                log.info("POST /api/integrity/realtime/check — DONE similarity={} flagged={}",
+                        response.getData().getSimilarityScore(), response.getData().getFlagged());
+            }
+            return ResponseEntity.ok(response);
+        });
     }
 }
 
@@ -52,19 +56,15 @@ public class RealtimeCheckController {
 @Slf4j
 class RealtimeCheckWebSocketController {
 
-    private final RealtimeCheckService realtimeCheckService;
+    private final RealtimeCheckCoalescer checkCoalescer;
 
     /**
-     * WebSocket endpoint for real-time checking
+     * WebSocket endpoint for real-time checking. Snapshots are coalesced per
+     * session/question; the result arrives on /topic/plagiarism-warnings/{sessionId}.
      */
     @MessageMapping("/check-plagiarism")
-    @SendTo("/topic/plagiarism-results")
-    public RealtimeCheckResponse checkPlagiarism(RealtimeCheckRequest request) {
+    public void checkPlagiarism(RealtimeCheckRequest request) {
         log.debug("WebSocket check-plagiarism - Session: {}", request.getSessionId());
-
-        ApiResponse<RealtimeCheckResponse> response =
-                realtimeCheckService.checkRealtime(request);
-
-        return response.getData();
+        checkCoalescer.submit(request);
     }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.example.integrity_monitoring_service.dto.response;
+
+import lombok.*;
+
+/**
+ * One near-duplicate answer pair found by an assignment-wide MinHash/LSH sweep.
+ * {@code estimatedJaccard} comes from the signatures; {@code similarityScore} is
+ * the exact score from the Jaccard / n-gram / LCS scorers.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NearDuplicatePairResponse {
+
+    private String questionId;
+    private String submissionIdA;
+    private String studentIdA;
+    private String submissionIdB;
+    private String studentIdB;
+    private Double estimatedJaccard;
+    private Double similarityScore;
+}
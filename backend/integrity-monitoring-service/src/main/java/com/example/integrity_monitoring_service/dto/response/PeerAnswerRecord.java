@@ -0,0 +1,30 @@
+package com.example.integrity_monitoring_service.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+
+/**
+ * One line of the submission service's /api/answers/peer-stream NDJSON feed.
+ * (lastModified, answerId) is the cursor to resume the feed after this row.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PeerAnswerRecord {
+
+    private Long answerId;
+    private String questionId;
+    private String submissionId;
+
+    /** Null for rows saved before studentId was captured. */
+    private String studentId;
+
+    /** ISO-8601 local date-time, passed back verbatim as the {@code since} cursor. */
+    private String lastModified;
+
+    /** May be blank when the student cleared the answer. */
+    private String answerText;
+}
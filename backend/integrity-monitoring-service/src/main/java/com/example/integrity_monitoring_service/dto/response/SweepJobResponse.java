@@ -0,0 +1,65 @@
+package com.example.integrity_monitoring_service.dto.response;
+
+import com.example.integrity_monitoring_service.model.CheckStatus;
+import com.example.integrity_monitoring_service.model.SweepJob;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SweepJobResponse {
+
+    private Long id;
+    private String assignmentId;
+    private CheckStatus status;
+    private Boolean lshPrefilter;
+
+    // Progress
+    private Integer totalQuestions;
+    private Integer completedQuestions;
+    private String lastCompletedQuestionId;
+    private Double progressPct;
+
+    // Throughput
+    private Long answersProcessed;
+    private Long pairsScored;
+    private Long checksWritten;
+    private Long matchesWritten;
+    private Long elapsedMs;
+    private Double pairsPerSecond;
+
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public static SweepJobResponse fromEntity(SweepJob job) {
+        int total = job.getTotalQuestions() != null ? job.getTotalQuestions() : 0;
+        int completed = job.getCompletedQuestionIds().size();
+        long elapsed = job.getElapsedMs() != null ? job.getElapsedMs() : 0L;
+        long pairs = job.getPairsScored() != null ? job.getPairsScored() : 0L;
+
+        return SweepJobResponse.builder()
+                .id(job.getId())
+                .assignmentId(job.getAssignmentId())
+                .status(job.getStatus())
+                .lshPrefilter(job.getLshPrefilter())
+                .totalQuestions(total)
+                .completedQuestions(completed)
+                .lastCompletedQuestionId(job.getLastCompletedQuestionId())
+                .progressPct(total == 0 ? 0.0 : Math.round(completed * 1000.0 / total) / 10.0)
+                .answersProcessed(job.getAnswersProcessed())
+                .pairsScored(pairs)
+                .checksWritten(job.getChecksWritten())
+                .matchesWritten(job.getMatchesWritten())
+                .elapsedMs(elapsed)
+                .pairsPerSecond(elapsed == 0 ? 0.0 : Math.round(pairs * 1000.0 / elapsed * 10.0) / 10.0)
+                .errorMessage(job.getErrorMessage())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
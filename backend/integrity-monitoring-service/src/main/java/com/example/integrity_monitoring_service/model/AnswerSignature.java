@@ -0,0 +1,67 @@
+package com.example.integrity_monitoring_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted MinHash signature of one answer (one submission × one question).
+ *
+ * Stored next to plagiarism_checks so assignment-wide sweeps can reuse the
+ * signature of every answer whose text has not changed since the last sweep
+ * instead of re-shingling it. {@code contentHash} is the SHA-256 of the text
+ * the signature was computed from, prefixed with the shingle size and hash
+ * count, so changing either setting recomputes every signature.
+ */
+@Entity
+@Table(
+    name = "answer_signatures",
+    schema = "integrity_schema",
+    uniqueConstraints = @UniqueConstraint(
+            name = "uk_answer_signatures_submission_question",
+            columnNames = {"submission_id", "question_id"}),
+    indexes = @Index(name = "idx_answer_signatures_assignment_question",
+            columnList = "assignment_id, question_id")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnswerSignature {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "assignment_id")
+    private String assignmentId;
+
+    @Column(name = "question_id", nullable = false)
+    private String questionId;
+
+    @Column(name = "submission_id", nullable = false)
+    private String submissionId;
+
+    @Column(name = "student_id")
+    private String studentId;
+
+    @Column(name = "content_hash", length = 64, nullable = false)
+    private String contentHash;
+
+    @Column(name = "shingle_count")
+    private Integer shingleCount;
+
+    /** Fixed-width MinHash signature (integrity.minhash.num-hashes slots). */
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "signature", columnDefinition = "bigint[]", nullable = false)
+    private long[] signature;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,51 @@
+package com.example.integrity_monitoring_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted token sequence of one code submission (see CodeTokenCodec).
+ *
+ * Content-addressed: {@code cacheKey} is the SHA-256 of the token format,
+ * the JPlag language and the submission's files, so a row never goes stale —
+ * changed code simply gets a new key. Lets code checks skip re-parsing a
+ * cohort after a restart.
+ */
+@Entity
+@Table(
+    name = "code_token_streams",
+    schema = "integrity_schema",
+    uniqueConstraints = @UniqueConstraint(
+            name = "uk_code_token_streams_cache_key",
+            columnNames = "cache_key")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CodeTokenStream {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "cache_key", length = 64, nullable = false)
+    private String cacheKey;
+
+    @Column(name = "language", length = 32, nullable = false)
+    private String language;
+
+    @Column(name = "token_count", nullable = false)
+    private Integer tokenCount;
+
+    @Column(name = "tokens", columnDefinition = "bytea", nullable = false)
+    private byte[] tokens;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
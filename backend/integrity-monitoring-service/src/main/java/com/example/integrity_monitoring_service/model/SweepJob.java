@@ -0,0 +1,104 @@
+package com.example.integrity_monitoring_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress record of an assignment-wide batch plagiarism sweep.
+ *
+ * Each question is scored and persisted in its own transaction together with
+ * the update that appends it to {@code completedQuestionIds}, so a failed or
+ * interrupted sweep can be resumed from the last completed question without
+ * writing duplicate checks.
+ */
+@Entity
+@Table(name = "plagiarism_sweep_jobs", schema = "integrity_schema")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SweepJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "assignment_id", nullable = false)
+    private String assignmentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    @Builder.Default
+    private CheckStatus status = CheckStatus.PENDING;
+
+    /** Score only LSH candidate pairs instead of every pair. */
+    @Column(name = "lsh_prefilter")
+    @Builder.Default
+    private Boolean lshPrefilter = false;
+
+    @Column(name = "total_questions")
+    @Builder.Default
+    private Integer totalQuestions = 0;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "completed_question_ids", columnDefinition = "jsonb")
+    @Builder.Default
+    private List<String> completedQuestionIds = new ArrayList<>();
+
+    @Column(name = "last_completed_question_id")
+    private String lastCompletedQuestionId;
+
+    @Column(name = "answers_processed")
+    @Builder.Default
+    private Long answersProcessed = 0L;
+
+    @Column(name = "pairs_scored")
+    @Builder.Default
+    private Long pairsScored = 0L;
+
+    @Column(name = "checks_written")
+    @Builder.Default
+    private Long checksWritten = 0L;
+
+    @Column(name = "matches_written")
+    @Builder.Default
+    private Long matchesWritten = 0L;
+
+    /** Wall-clock time spent scoring and persisting, summed over all runs. */
+    @Column(name = "elapsed_ms")
+    @Builder.Default
+    private Long elapsedMs = 0L;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public List<String> getCompletedQuestionIds() {
+        if (completedQuestionIds == null) {
+            completedQuestionIds = new ArrayList<>();
+        }
+        return completedQuestionIds;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.integrity_monitoring_service.repository;
+
+import com.example.integrity_monitoring_service.model.AnswerSignature;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AnswerSignatureRepository extends JpaRepository<AnswerSignature, Long> {
+
+    Optional<AnswerSignature> findBySubmissionIdAndQuestionId(String submissionId, String questionId);
+
+    List<AnswerSignature> findByAssignmentId(String assignmentId);
+
+    List<AnswerSignature> findByAssignmentIdAndQuestionId(String assignmentId, String questionId);
+
+    List<AnswerSignature> findByQuestionIdAndSubmissionIdIn(String questionId, Collection<String> submissionIds);
+}
@@ -0,0 +1,40 @@
+package com.example.integrity_monitoring_service.repository;
+
+import com.example.integrity_monitoring_service.model.CodeTokenStream;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CodeTokenStreamRepository extends JpaRepository<CodeTokenStream, Long> {
+
+    List<CodeTokenStream> findByCacheKeyIn(Collection<String> cacheKeys);
+
+    /**
+     * Store a token stream unless its key is already present. Runs in its own
+     * transaction: a concurrent check that stored the same code first is not an
+     * error, and a failed write must not abort the caller's plagiarism check.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "INSERT INTO integrity_schema.code_token_streams (cache_key, language, token_count, tokens, created_at) " +
+                   "VALUES (:cacheKey, :language, :tokenCount, :tokens, now()) " +
+                   "ON CONFLICT (cache_key) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("cacheKey") String cacheKey,
+                       @Param("language") String language,
+                       @Param("tokenCount") int tokenCount,
+                       @Param("tokens") byte[] tokens);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CodeTokenStream s WHERE s.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
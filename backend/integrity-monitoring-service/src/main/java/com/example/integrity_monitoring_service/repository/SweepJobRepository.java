@@ -0,0 +1,13 @@
+package com.example.integrity_monitoring_service.repository;
+
+import com.example.integrity_monitoring_service.model.SweepJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SweepJobRepository extends JpaRepository<SweepJob, Long> {
+
+    List<SweepJob> findByAssignmentIdOrderByCreatedAtDesc(String assignmentId);
+}
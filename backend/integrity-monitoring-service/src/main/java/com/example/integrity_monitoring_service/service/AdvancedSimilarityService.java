@@ -1,27 +1,33 @@
 package com.example.integrity_monitoring_service.service;
 
+import com.example.integrity_monitoring_service.similarity.SimilarityKernels;
+import com.example.integrity_monitoring_service.similarity.TextTokenizer;
+import com.example.integrity_monitoring_service.similarity.TokenizedText;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.*;
-import java.util.stream.Collectors;
-
 /**
  * Advanced multi-algorithm text similarity service.
  * Complements TF-IDF cosine with Jaccard, N-gram, and LCS algorithms.
  * Returns the maximum score across all methods to maximise recall.
+ *
+ * Texts are tokenized once by the shared {@link TextTokenizer} (with the extended
+ * stop-word list); every algorithm then runs on primitive arrays via
+ * {@link SimilarityKernels}.
  */
 @Service
 @Slf4j
 public class AdvancedSimilarityService {
 
-    private static final Set<String> STOP_WORDS = Set.of(
-            "the","is","at","which","on","a","an","and","or","but","in","with",
-            "to","for","of","as","by","from","that","this","it","are","was",
-            "were","been","be","have","has","had","do","does","did","will",
-            "would","could","should","may","might","must","can","not","no",
-            "so","if","then","than","when","where","who","how","what","why"
-    );
+    private final int lcsBand;
+
+    /**
+     * @param lcsBand diagonal band (in words) for LCS; 0 compares the full texts exactly
+     */
+    public AdvancedSimilarityService(@Value("${integrity.lcs.band:0}") int lcsBand) {
+        this.lcsBand = Math.max(0, lcsBand);
+    }
 
     // ── Public API ────────────────────────────────────────────────────────────
 
@@ -31,7 +37,11 @@ public class AdvancedSimilarityService {
      */
     public double computeMaxSimilarity(String text1, String text2) {
         if (text1 == null || text2 == null || text1.isBlank() || text2.isBlank()) return 0.0;
+        return computeMaxSimilarity(TextTokenizer.tokenize(text1), TextTokenizer.tokenize(text2));
+    }
 
+    /** As {@link #computeMaxSimilarity(String, String)} for already tokenized texts. */
+    public double computeMaxSimilarity(TokenizedText text1, TokenizedText text2) {
         double jaccard = computeJaccardSimilarity(text1, text2);
         double ngram3  = computeNgramOverlap(text1, text2, 3);
         double ngram5  = computeNgramOverlap(text1, text2, 5);
@@ -48,17 +58,11 @@ public class AdvancedSimilarityService {
      * Good at detecting copy-paste even when word order changes slightly.
      */
     public double computeJaccardSimilarity(String text1, String text2) {
-        Set<String> set1 = tokeniseToSet(text1);
-        Set<String> set2 = tokeniseToSet(text2);
-        if (set1.isEmpty() || set2.isEmpty()) return 0.0;
-
-        Set<String> intersection = new HashSet<>(set1);
-        intersection.retainAll(set2);
-
-        Set<String> union = new HashSet<>(set1);
-        union.addAll(set2);
+        return computeJaccardSimilarity(TextTokenizer.tokenize(text1), TextTokenizer.tokenize(text2));
+    }
 
-        return (double) intersection.size() / union.size();
+    public double computeJaccardSimilarity(TokenizedText text1, TokenizedText text2) {
+        return SimilarityKernels.jaccard(text1.contentTerms().ids(), text2.contentTerms().ids());
     }
 
     /**
@@ -68,42 +72,31 @@ public class AdvancedSimilarityService {
      * @param n n-gram size (3 = trigrams, 5 = 5-grams)
      */
     public double computeNgramOverlap(String text1, String text2, int n) {
-        List<String> ngrams1 = buildNgrams(normalise(text1), n);
-        List<String> ngrams2 = buildNgrams(normalise(text2), n);
-        if (ngrams1.isEmpty() || ngrams2.isEmpty()) return 0.0;
+        return computeNgramOverlap(TextTokenizer.tokenize(text1), TextTokenizer.tokenize(text2), n);
+    }
 
+    public double computeNgramOverlap(TokenizedText text1, TokenizedText text2, int n) {
         // Dice coefficient: 2 * |intersection| / (|A| + |B|)
-        Map<String, Long> freq1 = ngrams1.stream()
-                .collect(Collectors.groupingBy(g -> g, Collectors.counting()));
-        Map<String, Long> freq2 = ngrams2.stream()
-                .collect(Collectors.groupingBy(g -> g, Collectors.counting()));
-
-        long intersection = 0;
-        for (Map.Entry<String, Long> e : freq1.entrySet()) {
-            long min = Math.min(e.getValue(), freq2.getOrDefault(e.getKey(), 0L));
-            intersection += min;
-        }
-
-        return (2.0 * intersection) / (ngrams1.size() + ngrams2.size());
+        return SimilarityKernels.dice(text1.charGrams(n), text2.charGrams(n));
     }
 
     /**
      * Compute normalised Longest Common Subsequence length.
      * Catches reordered but semantically identical text.
-     * Uses word-level LCS (not character) for efficiency.
+     * Uses word-level LCS (not character) over whole answers — the bit-parallel
+     * kernel makes essays of several thousand words cheap, so nothing is truncated.
      */
     public double computeNormalisedLcs(String text1, String text2) {
-        List<String> words1 = tokenise(text1);
-        List<String> words2 = tokenise(text2);
-        if (words1.isEmpty() || words2.isEmpty()) return 0.0;
+        return computeNormalisedLcs(TextTokenizer.tokenize(text1), TextTokenizer.tokenize(text2));
+    }
 
-        // Limit to 200 words each to keep O(m*n) tractable
-        if (words1.size() > 200) words1 = words1.subList(0, 200);
-        if (words2.size() > 200) words2 = words2.subList(0, 200);
+    public double computeNormalisedLcs(TokenizedText text1, TokenizedText text2) {
+        int[] words1 = text1.contentTokens();
+        int[] words2 = text2.contentTokens();
+        if (words1.length == 0 || words2.length == 0) return 0.0;
 
-        int lcsLen = computeLcsLength(words1, words2);
-        int maxLen = Math.max(words1.size(), words2.size());
-        return (double) lcsLen / maxLen;
+        int lcsLen = SimilarityKernels.lcsLengthBanded(words1, words1.length, words2, words2.length, lcsBand);
+        return (double) lcsLen / Math.max(words1.length, words2.length);
     }
 
     /**
@@ -112,9 +105,12 @@ public class AdvancedSimilarityService {
      * Returns 0.0-1.0 confidence that paraphrasing occurred.
      */
     public double detectParaphrase(String text1, String text2) {
+        TokenizedText t1 = TextTokenizer.tokenize(text1);
+        TokenizedText t2 = TextTokenizer.tokenize(text2);
+
         // Heuristic: high LCS on word-length sequences but low word overlap
-        double wordOverlap = computeJaccardSimilarity(text1, text2);
-        double lcs = computeNormalisedLcs(text1, text2);
+        double wordOverlap = computeJaccardSimilarity(t1, t2);
+        double lcs = computeNormalisedLcs(t1, t2);
 
         // Paraphrase signal: decent LCS (structure preserved) but low exact word overlap
         if (lcs > 0.4 && wordOverlap < 0.3) {
@@ -122,46 +118,4 @@ public class AdvancedSimilarityService {
         }
         return 0.0;
     }
-
-    // ── Internal helpers ──────────────────────────────────────────────────────
-
-    private Set<String> tokeniseToSet(String text) {
-        return new HashSet<>(tokenise(text));
-    }
-
-    private List<String> tokenise(String text) {
-        return Arrays.stream(normalise(text).split("\\s+"))
-                .filter(w -> w.length() >= 3)
-                .filter(w -> !STOP_WORDS.contains(w))
-                .collect(Collectors.toList());
-    }
-
-    private String normalise(String text) {
-        return text.toLowerCase()
-                .replaceAll("[^a-z0-9\\s]", " ")
-                .replaceAll("\\s+", " ")
-                .trim();
-    }
-
-    private List<String> buildNgrams(String text, int n) {
-        List<String> result = new ArrayList<>();
-        if (text.length() < n) return result;
-        for (int i = 0; i <= text.length() - n; i++) {
-            result.add(text.substring(i, i + n));
-        }
-        return result;
-    }
-
-    private int computeLcsLength(List<String> a, List<String> b) {
-        int m = a.size(), nn = b.size();
-        int[][] dp = new int[m + 1][nn + 1];
-        for (int i = 1; i <= m; i++) {
-            for (int j = 1; j <= nn; j++) {
-                dp[i][j] = a.get(i - 1).equals(b.get(j - 1))
-                        ? dp[i - 1][j - 1] + 1
-                        : Math.max(dp[i - 1][j], dp[i][j - 1]);
-            }
-        }
-        return dp[m][nn];
-    }
 }
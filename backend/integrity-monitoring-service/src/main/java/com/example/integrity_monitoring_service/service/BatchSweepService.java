@@ -0,0 +1,355 @@
+package com.example.integrity_monitoring_service.service;
+
+import com.example.integrity_monitoring_service.dto.response.SweepJobResponse;
+import com.example.integrity_monitoring_service.exception.IntegrityCheckException;
+import com.example.integrity_monitoring_service.exception.ResourceNotFoundException;
+import com.example.integrity_monitoring_service.model.CheckStatus;
+import com.example.integrity_monitoring_service.model.CheckType;
+import com.example.integrity_monitoring_service.model.SweepJob;
+import com.example.integrity_monitoring_service.repository.SweepJobRepository;
+import com.example.integrity_monitoring_service.similarity.DocumentFrequencyTable;
+import com.example.integrity_monitoring_service.similarity.LshBuckets;
+import com.example.integrity_monitoring_service.similarity.PairwiseScoringTask;
+import com.example.integrity_monitoring_service.similarity.SparseVector;
+import com.example.integrity_monitoring_service.similarity.TextTokenizer;
+import com.example.integrity_monitoring_service.similarity.TokenizedText;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Assignment-wide batch plagiarism sweep.
+ *
+ * Instead of one HTTP call per submission, a sweep fetches every answer of an
+ * assignment once and, question by question, scores all answer pairs on a
+ * dedicated ForkJoinPool ({@link PairwiseScoringTask} splits the upper triangle
+ * of the similarity matrix into row blocks and work-stealing balances them).
+ * Each answer gets one TEXT_COSINE PlagiarismCheck with its above-threshold
+ * peers as SimilarityMatch rows, written with JDBC batch inserts.
+ *
+ * A question's checks, matches and the job's progress update commit in one
+ * transaction, so a failed sweep resumes from the last completed question
+ * without duplicating rows. An answer fetch that fails fails the job too, so
+ * it can be resumed instead of completing with nothing swept.
+ */
+@Service
+@Slf4j
+public class BatchSweepService {
+
+    private static final String INSERT_CHECK_SQL =
+            "INSERT INTO integrity_schema.plagiarism_checks (id, submission_id, student_id, assignment_id, "
+            + "question_id, check_type, status, plagiarism_check_needed, overall_similarity_score, "
+            + "max_similarity_score, student_similarity_score, flagged, matches_found, internet_matches_found, "
+            + "processing_time_ms, metadata, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, TRUE, ?, ?, ?, ?, ?, 0, ?, CAST(? AS jsonb), ?, ?)";
+
+    private static final String INSERT_MATCH_SQL =
+            "INSERT INTO integrity_schema.similarity_matches (plagiarism_check_id, matched_submission_id, "
+            + "matched_student_id, similarity_score, details) VALUES (?, ?, ?, ?, ?)";
+
+    // Reserve a block of check ids up front so match rows can reference them without per-row round trips.
+    private static final String RESERVE_CHECK_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('integrity_schema.plagiarism_checks', 'id')) "
+            + "FROM generate_series(1, ?)";
+
+    private final SweepJobRepository jobRepository;
+    private final SubmissionFetchService submissionFetch;
+    private final TextSimilarityService textSimilarity;
+    private final NearDuplicateService nearDuplicates;
+    private final CorpusStatisticsService corpusStats;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor sweepJobExecutor;
+    private final ForkJoinPool scoringPool;
+    private final int blockSize;
+
+    /** Jobs currently executing on this instance — guards against a double resume. */
+    private final Set<Long> runningJobs = ConcurrentHashMap.newKeySet();
+
+    @Value("${integrity.text-similarity-threshold:0.70}")
+    private double textSimilarityThreshold;
+
+    public BatchSweepService(
+            SweepJobRepository jobRepository,
+            SubmissionFetchService submissionFetch,
+            TextSimilarityService textSimilarity,
+            NearDuplicateService nearDuplicates,
+            CorpusStatisticsService corpusStats,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("sweepJobExecutor") Executor sweepJobExecutor,
+            @Value("${integrity.sweep.parallelism:0}") int parallelism,
+            @Value("${integrity.sweep.block-size:8}") int blockSize) {
+        this.jobRepository       = jobRepository;
+        this.submissionFetch     = submissionFetch;
+        this.textSimilarity      = textSimilarity;
+        this.nearDuplicates      = nearDuplicates;
+        this.corpusStats         = corpusStats;
+        this.jdbcTemplate        = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sweepJobExecutor    = sweepJobExecutor;
+        this.scoringPool         = new ForkJoinPool(parallelism > 0
+                ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.blockSize           = Math.max(1, blockSize);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scoringPool.shutdownNow();
+    }
+
+    /**
+     * Create a sweep job for the assignment and start it in the background.
+     *
+     * @param lshPrefilter score only MinHash/LSH candidate pairs instead of all pairs
+     */
+    public SweepJobResponse startSweep(String assignmentId, boolean lshPrefilter) {
+        SweepJob job = jobRepository.save(SweepJob.builder()
+                .assignmentId(assignmentId)
+                .lshPrefilter(lshPrefilter)
+                .build());
+        log.info("[BatchSweep] Job {} created — assignmentId={} lshPrefilter={}", job.getId(), assignmentId, lshPrefilter);
+        submit(job.getId());
+        return SweepJobResponse.fromEntity(job);
+    }
+
+    /**
+     * Resume a failed or interrupted job; questions already completed are skipped.
+     */
+    public SweepJobResponse resumeSweep(Long jobId) {
+        SweepJob job = findJob(jobId);
+        if (job.getStatus() == CheckStatus.COMPLETED) {
+            throw new IntegrityCheckException("Sweep job " + jobId + " has already completed");
+        }
+        if (runningJobs.contains(jobId)) {
+            throw new IntegrityCheckException("Sweep job " + jobId + " is already running");
+        }
+        log.info("[BatchSweep] Job {} resuming — {}/{} questions done",
+                jobId, job.getCompletedQuestionIds().size(), job.getTotalQuestions());
+        submit(jobId);
+        return SweepJobResponse.fromEntity(job);
+    }
+
+    public SweepJobResponse getJob(Long jobId) {
+        return SweepJobResponse.fromEntity(findJob(jobId));
+    }
+
+    public List<SweepJobResponse> getJobsByAssignment(String assignmentId) {
+        return jobRepository.findByAssignmentIdOrderByCreatedAtDesc(assignmentId).stream()
+                .map(SweepJobResponse::fromEntity)
+                .toList();
+    }
+
+    // ── Job execution ─────────────────────────────────────────────────────────
+
+    private void submit(Long jobId) {
+        if (!runningJobs.add(jobId)) return;
+        try {
+            sweepJobExecutor.execute(() -> {
+                try {
+                    runJob(jobId);
+                } finally {
+                    runningJobs.remove(jobId);
+                }
+            });
+        } catch (RuntimeException e) {
+            runningJobs.remove(jobId);
+            throw e;
+        }
+    }
+
+    private void runJob(Long jobId) {
+        SweepJob job = findJob(jobId);
+        try {
+            Map<String, List<Map<String, String>>> byQuestion = NearDuplicateService.groupByQuestion(
+                    submissionFetch.fetchAnswersForAssignment(job.getAssignmentId()));
+
+            job.setStatus(CheckStatus.IN_PROGRESS);
+            job.setTotalQuestions(byQuestion.size());
+            job.setErrorMessage(null);
+            job.setFinishedAt(null);
+            if (job.getStartedAt() == null) job.setStartedAt(LocalDateTime.now());
+            job = jobRepository.save(job);
+
+            Set<String> completed = new HashSet<>(job.getCompletedQuestionIds());
+            for (Map.Entry<String, List<Map<String, String>>> entry : byQuestion.entrySet()) {
+                if (completed.contains(entry.getKey())) continue;
+                job = sweepQuestion(job, entry.getKey(), entry.getValue());
+            }
+
+            job.setStatus(CheckStatus.COMPLETED);
+            job.setFinishedAt(LocalDateTime.now());
+            job = jobRepository.save(job);
+            SweepJobResponse summary = SweepJobResponse.fromEntity(job);
+            log.info("[BatchSweep] Job {} completed — questions={} answers={} pairs={} checks={} matches={} in {}ms ({} pairs/s)",
+                    jobId, summary.getTotalQuestions(), summary.getAnswersProcessed(), summary.getPairsScored(),
+                    summary.getChecksWritten(), summary.getMatchesWritten(), summary.getElapsedMs(),
+                    summary.getPairsPerSecond());
+
+        } catch (Exception e) {
+            log.error("[BatchSweep] Job {} failed: {}", jobId, e.getMessage(), e);
+            SweepJob failed = findJob(jobId);
+            failed.setStatus(CheckStatus.FAILED);
+            failed.setErrorMessage(e.getMessage());
+            failed.setFinishedAt(LocalDateTime.now());
+            jobRepository.save(failed);
+        }
+    }
+
+    /**
+     * Score every pair of one question's answers and persist the results plus the
+     * job's progress in a single transaction.
+     */
+    private SweepJob sweepQuestion(SweepJob job, String questionId, List<Map<String, String>> answers) {
+        long t0 = System.currentTimeMillis();
+        int n = answers.size();
+
+        // Tokenize each answer once and feed the question's document frequencies; the
+        // O(n²) pair loop then only runs merge-joins over prebuilt TF-IDF vectors.
+        corpusStats.linkQuestion(questionId, job.getAssignmentId());
+        TokenizedText[] docs = new TokenizedText[n];
+        for (int i = 0; i < n; i++) {
+            docs[i] = TextTokenizer.tokenize(answers.get(i).get("content"));
+            corpusStats.recordAnswer(questionId, answers.get(i).get("submissionId"), docs[i]);
+        }
+        DocumentFrequencyTable idf = corpusStats.idfFor(questionId);
+        SparseVector[] vectors = new SparseVector[n];
+        for (int i = 0; i < n; i++) vectors[i] = textSimilarity.vectorFor(docs[i], idf);
+
+        int[][] rowCandidates = Boolean.TRUE.equals(job.getLshPrefilter())
+                ? lshCandidates(job.getAssignmentId(), questionId, answers)
+                : null;
+
+        PairwiseScoringTask task = new PairwiseScoringTask(
+                (i, j) -> NearDuplicateService.isSameStudent(answers.get(i), answers.get(j)) ? 0.0 : textSimilarity.calculateSimilarity(vectors[i], vectors[j]),
+                n, rowCandidates, blockSize, textSimilarityThreshold);
+        scoringPool.invoke(task);
+        long scoredAt = System.currentTimeMillis();
+
+        SweepJob jobSnapshot = job;
+        SweepJob saved = transactionTemplate.execute(status -> {
+            int[] written = persistQuestion(jobSnapshot, questionId, answers, task, scoredAt - t0);
+            long elapsed = System.currentTimeMillis() - t0;
+
+            jobSnapshot.getCompletedQuestionIds().add(questionId);
+            jobSnapshot.setLastCompletedQuestionId(questionId);
+            jobSnapshot.setAnswersProcessed(jobSnapshot.getAnswersProcessed() + n);
+            jobSnapshot.setPairsScored(jobSnapshot.getPairsScored() + task.pairsScored());
+            jobSnapshot.setChecksWritten(jobSnapshot.getChecksWritten() + written[0]);
+            jobSnapshot.setMatchesWritten(jobSnapshot.getMatchesWritten() + written[1]);
+            jobSnapshot.setElapsedMs(jobSnapshot.getElapsedMs() + elapsed);
+            return jobRepository.save(jobSnapshot);
+        });
+
+        log.debug("[BatchSweep] Job {} questionId={} answers={} pairs={} scored in {}ms, total {}ms",
+                job.getId(), questionId, n, task.pairsScored(), scoredAt - t0, System.currentTimeMillis() - t0);
+        return saved;
+    }
+
+    /**
+     * Batch-insert one TEXT_COSINE check per answer and its above-threshold matches.
+     * Answers whose submissionId is not numeric (legacy rows) are scored as peers
+     * but get no check of their own, since plagiarism_checks.submission_id is a bigint.
+     *
+     * @return {checks written, matches written}
+     */
+    private int[] persistQuestion(SweepJob job, String questionId, List<Map<String, String>> answers,
+                                  PairwiseScoringTask task, long scoringMs) {
+        List<Integer> owners = new ArrayList<>();
+        for (int i = 0; i < answers.size(); i++) {
+            if (parseLong(answers.get(i).get("submissionId")) != null) owners.add(i);
+        }
+        if (owners.isEmpty()) return new int[]{0, 0};
+
+        List<Long> ids = jdbcTemplate.queryForList(RESERVE_CHECK_IDS_SQL, Long.class, owners.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Long questionIdValue = parseLong(questionId);
+        String metadata = String.format("{\"source\":\"batch-sweep\",\"sweepJobId\":%d}", job.getId());
+        long perAnswerMs = scoringMs / answers.size();
+
+        List<Object[]> checkRows = new ArrayList<>(owners.size());
+        List<Object[]> matchRows = new ArrayList<>();
+        for (int k = 0; k < owners.size(); k++) {
+            int i = owners.get(k);
+            Map<String, String> answer = answers.get(i);
+            List<PairwiseScoringTask.Hit> hits = task.hits().get(i);
+            double max = task.maxScores()[i];
+
+            checkRows.add(new Object[]{
+                    ids.get(k),
+                    parseLong(answer.get("submissionId")),
+                    Objects.requireNonNullElse(answer.get("studentId"), ""),
+                    job.getAssignmentId(),
+                    questionIdValue,
+                    CheckType.TEXT_COSINE.name(),
+                    CheckStatus.COMPLETED.name(),
+                    max, max, max,
+                    !hits.isEmpty(),
+                    hits.size(),
+                    perAnswerMs,
+                    metadata,
+                    now, now
+            });
+            for (PairwiseScoringTask.Hit hit : hits) {
+                Map<String, String> peer = answers.get(hit.other());
+                matchRows.add(new Object[]{
+                        ids.get(k),
+                        parseLong(peer.get("submissionId")),
+                        NearDuplicateService.emptyToNull(peer.get("studentId")),
+                        hit.score(),
+                        String.format("Text similarity: %.2f%%", hit.score() * 100)
+                });
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_CHECK_SQL, checkRows);
+        if (!matchRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_MATCH_SQL, matchRows);
+        }
+        return new int[]{checkRows.size(), matchRows.size()};
+    }
+
+    /** Per-row candidate columns (j &gt; i) from the MinHash/LSH buckets of this question. */
+    private int[][] lshCandidates(String assignmentId, String questionId, List<Map<String, String>> answers) {
+        Set<Long> pairs = nearDuplicates.candidatePairs(
+                nearDuplicates.signaturesFor(assignmentId, questionId, answers));
+
+        int[] counts = new int[answers.size()];
+        for (long pair : pairs) counts[LshBuckets.first(pair)]++;
+
+        int[][] rows = new int[answers.size()][];
+        for (int i = 0; i < rows.length; i++) rows[i] = counts[i] == 0 ? null : new int[counts[i]];
+        int[] fill = new int[answers.size()];
+        for (long pair : pairs) {
+            int i = LshBuckets.first(pair);
+            rows[i][fill[i]++] = LshBuckets.second(pair);
+        }
+        return rows;
+    }
+
+    private SweepJob findJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Sweep job not found with ID: " + jobId));
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.integrity_monitoring_service.service;
+
+import com.example.integrity_monitoring_service.similarity.CodeFingerprintIndex;
+import com.example.integrity_monitoring_service.similarity.CodeTokenSequence;
+import com.example.integrity_monitoring_service.similarity.Winnower;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps one resident {@link CodeFingerprintIndex} per (assignment, language)
+ * so code checks tile only the likeliest matches instead of the whole cohort.
+ *
+ * Every submission that passes through a check is winnowed once (keyed by its
+ * token-cache content key) and reused by later checks of the same assignment.
+ * Queries only return members of the check's current cohort — candidates are
+ * tiled against cohort token sequences, so there is no history to compare with.
+ * Entries superseded by resubmissions are therefore dead weight: once the index
+ * holds more than {@value #MAX_INDEX_TO_COHORT} times the current cohort it is
+ * rebuilt from that cohort, which bounds it however often students resubmit.
+ * The winnowing window is derived from {@code jplag.min-token-match}: any pair
+ * with even one tile shares a fingerprint, so pruning only ever drops pairs
+ * ranked below the candidate limit, never a pair JPlag would score above zero
+ * while candidates remain.
+ */
+@Service
+@Slf4j
+public class CodeFingerprintIndexService {
+
+    private static final int MAX_INDEX_TO_COHORT = 2;
+
+    private final int kgram;
+    private final int window;
+    private final int candidateLimit;
+    private final Cache<String, CodeFingerprintIndex> indexes;
+
+    public CodeFingerprintIndexService(
+            @Value("${jplag.min-token-match:9}") int minTokenMatch,
+            @Value("${jplag.fingerprint.k-gram:5}") int kgram,
+            @Value("${jplag.fingerprint.candidate-limit:50}") int candidateLimit,
+            @Value("${jplag.fingerprint.max-assignments:200}") long maxAssignments,
+            @Value("${jplag.fingerprint.idle-expiry-minutes:360}") long idleExpiryMinutes) {
+        this.kgram          = Math.max(1, Math.min(kgram, minTokenMatch));
+        this.window         = minTokenMatch - this.kgram + 1;
+        this.candidateLimit = candidateLimit;
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maxAssignments)
+                .expireAfterAccess(Duration.ofMinutes(idleExpiryMinutes))
+                .build();
+    }
+
+    /**
+     * Content keys of the cohort submissions worth comparing with the student,
+     * best first. Indexes the student and any cohort submission not yet indexed.
+     *
+     * @param assignmentId  Index scope; null uses a throwaway index for this check only
+     * @param cohortKeys    Content keys index-aligned with {@code cohort} (null entries are skipped)
+     */
+    public List<CodeFingerprintIndex.Candidate> candidates(String assignmentId, String languageId,
+                                                           String studentKey, CodeTokenSequence student,
+                                                           List<String> cohortKeys, List<CodeTokenSequence> cohort) {
+        String scope = assignmentId + ":" + languageId;
+        CodeFingerprintIndex index = assignmentId != null
+                ? indexes.get(scope, k -> new CodeFingerprintIndex())
+                : new CodeFingerprintIndex();
+        if (index.size() > MAX_INDEX_TO_COHORT * (cohort.size() + 1)) {
+            log.debug("[CodeFingerprintIndex] Rebuilding assignmentId={} — {} indexed for a cohort of {}",
+                    assignmentId, index.size(), cohort.size());
+            index = new CodeFingerprintIndex();
+            indexes.put(scope, index);
+        }
+
+        Set<String> among = new HashSet<>();
+        int added = 0;
+        for (int i = 0; i < cohort.size(); i++) {
+            CodeTokenSequence sequence = cohort.get(i);
+            if (sequence == null) continue;
+            String key = cohortKeys.get(i);
+            among.add(key);
+            if (!index.contains(key)) {
+                index.add(key, fingerprints(sequence));
+                added++;
+            }
+        }
+
+        long[] studentFingerprints = fingerprints(student);
+        if (!index.contains(studentKey)) index.add(studentKey, studentFingerprints);
+
+        List<CodeFingerprintIndex.Candidate> candidates = index.query(studentFingerprints, among, candidateLimit);
+        log.debug("[CodeFingerprintIndex] assignmentId={} indexed={} (+{}) cohort={} candidates={}",
+                assignmentId, index.size(), added, among.size(), candidates.size());
+        return candidates;
+    }
+
+    /** Number of submissions indexed for an assignment and language (0 when none is resident). */
+    public int indexedCount(String assignmentId, String languageId) {
+        CodeFingerprintIndex index = indexes.getIfPresent(assignmentId + ":" + languageId);
+        return index != null ? index.size() : 0;
+    }
+
+    public long[] fingerprints(CodeTokenSequence sequence) {
+        return Winnower.fingerprints(sequence, kgram, window);
+    }
+}
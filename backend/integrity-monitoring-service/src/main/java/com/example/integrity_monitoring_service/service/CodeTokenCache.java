@@ -0,0 +1,186 @@
+package com.example.integrity_monitoring_service.service;
+
+import com.example.integrity_monitoring_service.model.CodeTokenStream;
+import com.example.integrity_monitoring_service.repository.CodeTokenStreamRepository;
+import com.example.integrity_monitoring_service.similarity.CodeTokenCodec;
+import com.example.integrity_monitoring_service.similarity.CodeTokenSequence;
+import com.example.integrity_monitoring_service.similarity.CodeTokenVocabulary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Parsed token sequences of code submissions, keyed by content.
+ *
+ * The key is a SHA-256 over the token format version, the language and every
+ * (file name, content) pair in name order, so an unchanged submission is
+ * parsed once no matter how many checks compare against it, and any edit
+ * produces a new key.
+ *
+ * Two tiers: a Caffeine cache bounded by total token count (cohorts mix
+ * one-file exercises with multi-file projects), backed by the
+ * code_token_streams table so the cohort survives restarts and is shared
+ * between instances. A check looks up all its misses in one query; only
+ * submissions missing from both tiers are parsed, then stored in both.
+ * The store is an optimisation — if it is unavailable, checks fall back to parsing.
+ */
+@Service
+@Slf4j
+public class CodeTokenCache {
+
+    private final CodeTokenStreamRepository repository;
+    private final CodeTokenVocabulary vocabulary = new CodeTokenVocabulary();
+    private final Cache<String, CodeTokenSequence> sequences;
+    private final int retentionDays;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong storeHits = new AtomicLong();
+    private final AtomicLong parsed = new AtomicLong();
+
+    public CodeTokenCache(
+            CodeTokenStreamRepository repository,
+            @Value("${jplag.token-cache.max-tokens:20000000}") long maxTokens,
+            @Value("${jplag.token-store.retention-days:180}") int retentionDays) {
+        this.repository = repository;
+        this.retentionDays = retentionDays;
+        this.sequences = Caffeine.newBuilder()
+                .maximumWeight(maxTokens)
+                .weigher((String key, CodeTokenSequence sequence) -> Math.max(sequence.length(), 1))
+                .build();
+    }
+
+    /** Id of a parser token type in the sequences this cache hands out. */
+    public int tokenId(String tokenTypeName) {
+        return vocabulary.id(tokenTypeName);
+    }
+
+    /**
+     * Token sequences of {@code submissions} (file name → content), index-aligned.
+     * {@code parser} runs only for submissions in neither tier; a submission it
+     * fails on (throws for) is returned as null and not cached.
+     */
+    public List<CodeTokenSequence> getAll(String languageId,
+                                          List<SortedMap<String, String>> submissions,
+                                          Function<SortedMap<String, String>, CodeTokenSequence> parser) {
+        List<String> keys = new ArrayList<>(submissions.size());
+        for (SortedMap<String, String> files : submissions) keys.add(key(languageId, files));
+        return getAll(languageId, keys, submissions, parser);
+    }
+
+    /** As {@link #getAll(String, List, Function)} with the caller's {@link #key}s, index-aligned. */
+    public List<CodeTokenSequence> getAll(String languageId, List<String> keys,
+                                          List<SortedMap<String, String>> submissions,
+                                          Function<SortedMap<String, String>, CodeTokenSequence> parser) {
+        Map<String, CodeTokenSequence> found = new HashMap<>(sequences.getAllPresent(keys));
+        memoryHits.addAndGet(found.size());
+
+        Set<String> missing = new HashSet<>(keys);
+        missing.removeAll(found.keySet());
+        if (!missing.isEmpty()) {
+            found.putAll(loadStored(missing));
+        }
+
+        List<CodeTokenSequence> result = new ArrayList<>(submissions.size());
+        for (int i = 0; i < submissions.size(); i++) {
+            String key = keys.get(i);
+            CodeTokenSequence sequence = found.get(key);
+            if (sequence == null) {
+                sequence = parseAndStore(key, languageId, submissions.get(i), parser);
+                if (sequence != null) found.put(key, sequence); // same files listed twice
+            }
+            result.add(sequence);
+        }
+        return result;
+    }
+
+    /** Fraction of lookups served without parsing since startup. */
+    public double hitRate() {
+        long hits = memoryHits.get() + storeHits.get();
+        long total = hits + parsed.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /** Delete stored token streams past the retention period. */
+    public void pruneStored() {
+        int deleted = repository.deleteCreatedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("[CodeTokenCache] Pruned {} stored token streams older than {} days", deleted, retentionDays);
+        }
+    }
+
+    /** Content key of a submission's files for one language. */
+    public static String key(String languageId, SortedMap<String, String> files) {
+        MessageDigest digest = sha256();
+        update(digest, "v" + CodeTokenCodec.FORMAT_VERSION);
+        update(digest, languageId);
+        for (Map.Entry<String, String> file : files.entrySet()) {
+            update(digest, file.getKey());
+            update(digest, file.getValue());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    private Map<String, CodeTokenSequence> loadStored(Set<String> keys) {
+        Map<String, CodeTokenSequence> loaded = new HashMap<>();
+        try {
+            for (CodeTokenStream row : repository.findByCacheKeyIn(keys)) {
+                CodeTokenSequence sequence = CodeTokenCodec.decode(row.getTokens(), vocabulary);
+                sequences.put(row.getCacheKey(), sequence);
+                loaded.put(row.getCacheKey(), sequence);
+            }
+        } catch (RuntimeException e) {
+            log.warn("[CodeTokenCache] Token store lookup failed, parsing instead: {}", e.getMessage());
+        }
+        storeHits.addAndGet(loaded.size());
+        return loaded;
+    }
+
+    private CodeTokenSequence parseAndStore(String key, String languageId, SortedMap<String, String> files,
+                                            Function<SortedMap<String, String>, CodeTokenSequence> parser) {
+        CodeTokenSequence sequence;
+        try {
+            sequence = parser.apply(files);
+        } catch (RuntimeException e) {
+            log.warn("[CodeTokenCache] Could not parse submission ({} files): {}", files.size(), e.getMessage());
+            return null;
+        }
+        parsed.incrementAndGet();
+        sequences.put(key, sequence);
+        try {
+            repository.insertIfAbsent(key, languageId, sequence.length(), CodeTokenCodec.encode(sequence, vocabulary));
+        } catch (RuntimeException e) {
+            log.warn("[CodeTokenCache] Could not store token stream: {}", e.getMessage());
+        }
+        return sequence;
+    }
+
+    /** Length-prefixed, so ("ab", "c") and ("a", "bc") hash differently. */
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.integrity_monitoring_service.service;
+
+import com.example.integrity_monitoring_service.similarity.DocumentFrequencyTable;
+import com.example.integrity_monitoring_service.similarity.TokenizedText;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Document-frequency statistics per question and per assignment, so TF-IDF
+ * cosine can down-weight vocabulary the whole cohort shares (usually words
+ * lifted from the question text) instead of treating every term alike.
+ *
+ * Tables are fed by every answer that reaches the peer index (realtime checks,
+ * text checks and periodic reloads) and by assignment-wide sweeps. A question
+ * is linked to its assignment whenever a caller knows both; from then on its
+ * answers also feed the assignment table. The assignment table is the fallback
+ * while a question has too few answers for meaningful IDF.
+ */
+@Service
+@Slf4j
+public class CorpusStatisticsService {
+
+    private final int minDocuments;
+    private final double commonTermDocumentShare;
+    private final Cache<String, DocumentFrequencyTable> questionTables;
+    private final Cache<String, DocumentFrequencyTable> assignmentTables;
+    private final Cache<String, String> assignmentByQuestion;
+
+    public CorpusStatisticsService(
+            @Value("${integrity.idf.min-documents:5}") int minDocuments,
+            @Value("${integrity.idf.common-term-document-share:0.5}") double commonTermDocumentShare,
+            @Value("${integrity.peer-index.max-questions:500}") long maxQuestions,
+            @Value("${integrity.peer-index.idle-expiry-minutes:180}") long idleExpiryMinutes) {
+        this.minDocuments            = Math.max(1, minDocuments);
+        this.commonTermDocumentShare = commonTermDocumentShare;
+        this.questionTables = Caffeine.newBuilder()
+                .maximumSize(maxQuestions)
+                .expireAfterAccess(Duration.ofMinutes(idleExpiryMinutes))
+                .build();
+        this.assignmentTables = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maxQuestions / 10))
+                .expireAfterAccess(Duration.ofMinutes(idleExpiryMinutes))
+                .build();
+        this.assignmentByQuestion = Caffeine.newBuilder()
+                .maximumSize(maxQuestions * 4)
+                .build();
+    }
+
+    /**
+     * Record (or replace) one answer's terms. {@code answerKey} identifies the
+     * answer within the question (submissionId, or a student fallback key).
+     */
+    public void recordAnswer(String questionId, String answerKey, TokenizedText tokens) {
+        if (questionId == null || answerKey == null) return;
+        questionTables.get(questionId, q -> new DocumentFrequencyTable()).update(answerKey, tokens);
+
+        String assignmentId = assignmentByQuestion.getIfPresent(questionId);
+        if (assignmentId != null) {
+            assignmentTable(assignmentId).update(assignmentKey(questionId, answerKey), tokens);
+        }
+    }
+
+    /**
+     * Remember that {@code questionId} belongs to {@code assignmentId}. The first
+     * time a link is seen, the question's existing answers are copied into the
+     * assignment table.
+     */
+    public void linkQuestion(String questionId, String assignmentId) {
+        if (questionId == null || assignmentId == null || assignmentId.isBlank()) return;
+        if (assignmentId.equals(assignmentByQuestion.getIfPresent(questionId))) return;
+        assignmentByQuestion.put(questionId, assignmentId);
+
+        DocumentFrequencyTable question = questionTables.getIfPresent(questionId);
+        if (question == null) return;
+        DocumentFrequencyTable assignment = assignmentTable(assignmentId);
+        for (Map.Entry<String, int[]> doc : question.documents().entrySet()) {
+            assignment.update(assignmentKey(questionId, doc.getKey()), doc.getValue());
+        }
+        log.debug("[CorpusStats] Linked questionId={} to assignmentId={} ({} answers seeded)",
+                questionId, assignmentId, question.documentCount());
+    }
+
+    /**
+     * The table to weight a question's answers with: the question's own corpus
+     * once it holds {@code min-documents} answers, else its assignment's corpus,
+     * else null (plain TF cosine).
+     */
+    public DocumentFrequencyTable idfFor(String questionId) {
+        if (questionId == null) return null;
+        DocumentFrequencyTable question = questionTables.getIfPresent(questionId);
+        if (question != null && question.documentCount() >= minDocuments) return question;
+
+        String assignmentId = assignmentByQuestion.getIfPresent(questionId);
+        DocumentFrequencyTable assignment = assignmentId != null ? assignmentTables.getIfPresent(assignmentId) : null;
+        if (assignment != null && assignment.documentCount() >= minDocuments) return assignment;
+        return null;
+    }
+
+    /**
+     * Share of the answer's term weight made of vocabulary that at least
+     * {@code common-term-document-share} of the question's answers also use;
+     * 0.0 while the question corpus is too small to tell.
+     */
+    public double commonVocabularyRatio(String questionId, TokenizedText tokens) {
+        DocumentFrequencyTable table = questionId != null ? questionTables.getIfPresent(questionId) : null;
+        if (table == null || table.documentCount() < minDocuments) return 0.0;
+        return table.commonVocabularyRatio(tokens, commonTermDocumentShare);
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    private DocumentFrequencyTable assignmentTable(String assignmentId) {
+        return assignmentTables.get(assignmentId, a -> new DocumentFrequencyTable());
+    }
+
+    private static String assignmentKey(String questionId, String answerKey) {
+        return questionId + "/" + answerKey;
+    }
+}
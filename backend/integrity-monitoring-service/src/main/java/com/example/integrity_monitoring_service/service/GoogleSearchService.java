@@ -2,48 +2,106 @@ package com.example.integrity_monitoring_service.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * SerpAPI Web Search Integration (FREE - 100 searches/month)
  * Docs: https://serpapi.com/search-api
+ *
+ * Every search goes through one gateway:
+ *   - queries are normalised to the 32-word prefix actually sent, so texts that
+ *     differ only after it (or in case) share one result;
+ *   - results are cached per (engine, query) — always fetched at the 10-result
+ *     maximum, which costs SerpAPI the same one search, and sliced per caller;
+ *   - concurrent identical lookups wait on the one in-flight call;
+ *   - a {@link SearchQuotaBucket} spends the monthly quota, refilled evenly
+ *     across the month and corrected from the account API.
+ * Failed searches are not cached, so the next lookup retries; callers that
+ * cache results themselves use {@link #lookupInternet}, which tells a search
+ * that found nothing apart from one that was never made.
  */
 @Service
 @Slf4j
 public class GoogleSearchService {
 
+    /** SerpAPI's maximum page size; a search costs one credit whatever the size. */
+    private static final int FETCH_RESULTS = 10;
+
+    /** Counters since startup, with the current quota budget. */
+    public record Stats(long lookups, long cacheHits, long sharedInFlight, long networkCalls,
+                        long rejectedByBudget, SearchQuotaBucket.Budget budget) {
+    }
+
+    /**
+     * Results of one lookup. {@code searched} is false when no search result
+     * exists — disabled, no API key, budget rejected, HTTP error or network
+     * failure — so the results are empty for now rather than for good.
+     */
+    public record Lookup(boolean searched, List<Map<String, String>> results) {
+        public static final Lookup NOT_SEARCHED = new Lookup(false, List.of());
+    }
+
     private final OkHttpClient client;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    @Value("${serp.search.enabled:true}")
-    private boolean searchEnabled;
-
-    @Value("${serp.api-key}")
-    private String apiKey;
+    private final boolean searchEnabled;
+    private final String apiKey;
+    private final String searchApiUrl;
+    private final String accountApiUrl;
+    private final SearchQuotaBucket quota;
+    /** Completed and in-flight searches; an in-flight future is what concurrent callers wait on. */
+    private final AsyncCache<String, List<Map<String, String>>> results;
 
-    @Value("${serp.search-api-url:https://serpapi.com/search}")
-    private String searchApiUrl;
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong sharedInFlight = new AtomicLong();
+    private final AtomicLong networkCalls = new AtomicLong();
+    private final AtomicLong rejectedByBudget = new AtomicLong();
 
-    public GoogleSearchService() {
+    public GoogleSearchService(
+            @Value("${serp.search.enabled:true}") boolean searchEnabled,
+            @Value("${serp.api-key}") String apiKey,
+            @Value("${serp.search-api-url:https://serpapi.com/search}") String searchApiUrl,
+            @Value("${serp.account-api-url:https://serpapi.com/account}") String accountApiUrl,
+            @Value("${serp.quota.monthly:100}") int monthlyQuota,
+            @Value("${serp.quota.burst:10}") int burst,
+            @Value("${serp.cache.ttl-minutes:1440}") long cacheTtlMinutes) {
         this.client = new OkHttpClient.Builder()
                 .connectTimeout(30, TimeUnit.SECONDS)
                 .readTimeout(60, TimeUnit.SECONDS)
                 .build();
+        this.searchEnabled = searchEnabled;
+        this.apiKey        = apiKey;
+        this.searchApiUrl  = searchApiUrl;
+        this.accountApiUrl = accountApiUrl;
+        this.quota         = new SearchQuotaBucket(monthlyQuota, burst, Clock.systemUTC());
+        this.results = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .buildAsync();
     }
 
     /**
@@ -55,99 +113,160 @@ public class GoogleSearchService {
 
     /**
      * Search internet with custom result count.
-     * Results are cached by (query, numResults) for 1 hour to avoid burning monthly quota.
      */
-    @Cacheable(value = "internetSearchCache", key = "#query + ':' + #numResults")
     public List<Map<String, String>> searchInternet(String query, int numResults) {
+        return new ArrayList<>(lookupInternet(query, numResults).results());
+    }
+
+    /**
+     * Search internet with custom result count, reporting whether a search
+     * result actually exists (see {@link Lookup}).
+     */
+    public Lookup lookupInternet(String query, int numResults) {
         if (!searchEnabled) {
             log.info("[SerpAPI] DISABLED via serp.search.enabled=false — skipping internet check");
-            return new ArrayList<>();
+            return Lookup.NOT_SEARCHED;
         }
 
         if (apiKey == null || apiKey.isBlank()) {
             log.warn("[SerpAPI] serp.api-key is not set — skipping internet check");
+            return Lookup.NOT_SEARCHED;
+        }
+
+        return search("google", "[SerpAPI]", query, numResults);
+    }
+
+    /**
+     * Search Google Scholar for academic sources matching the query.
+     * Uses SerpAPI engine=google_scholar.
+     */
+    public List<Map<String, String>> searchScholar(String query, int numResults) {
+        if (!searchEnabled || apiKey == null || apiKey.isBlank()) {
+            log.info("[SerpAPI Scholar] Disabled or no API key — skipping scholar check");
             return new ArrayList<>();
         }
+        return new ArrayList<>(search("google_scholar", "[SerpAPI Scholar]", query, numResults).results());
+    }
+
+    /**
+     * Correct the quota budget from SerpAPI's account API, which does not count
+     * as a search. Runs at startup and hourly (see SchedulingConfig).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void syncBudget() {
+        if (!searchEnabled || apiKey == null || apiKey.isBlank()) return;
+        String url = String.format("%s?api_key=%s", accountApiUrl, apiKey);
+        try (Response response = client.newCall(new Request.Builder().url(url).get().build()).execute()) {
+            if (!response.isSuccessful() || response.body() == null) {
+                log.warn("[SerpAPI] Account API returned HTTP {} — keeping local budget", response.code());
+                return;
+            }
+            JsonNode account = objectMapper.readTree(response.body().string());
+            JsonNode left = account.has("total_searches_left")
+                    ? account.get("total_searches_left") : account.get("plan_searches_left");
+            if (left == null || !left.canConvertToInt()) {
+                log.warn("[SerpAPI] Account API response has no searches-left count — keeping local budget");
+                return;
+            }
+            quota.sync(left.asInt());
+            log.info("[SerpAPI] Budget synced — {} searches left this month", left.asInt());
+        } catch (IOException e) {
+            log.warn("[SerpAPI] Account API unreachable — {} — keeping local budget", e.getMessage());
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(lookups.get(), cacheHits.get(), sharedInFlight.get(), networkCalls.get(),
+                rejectedByBudget.get(), quota.budget());
+    }
+
+    /**
+     * Look the normalised query up in the result cache, joining an identical
+     * in-flight search if there is one, and fetch it from SerpAPI otherwise.
+     */
+    private Lookup search(String engine, String tag, String query, int numResults) {
+        String searchQuery = prepareSearchQuery(query);
+        if (searchQuery.isEmpty()) return Lookup.NOT_SEARCHED;
+        lookups.incrementAndGet();
 
-        String queryPreview = query.substring(0, Math.min(80, query.length()));
-        log.info("[SerpAPI] Starting search — numResults={} queryPreview=\"{}\"", numResults, queryPreview);
+        String key = engine + ':' + searchQuery.toLowerCase(Locale.ROOT);
+        CompletableFuture<List<Map<String, String>>> mine = new CompletableFuture<>();
+        CompletableFuture<List<Map<String, String>>> existing = results.asMap().putIfAbsent(key, mine);
+
+        List<Map<String, String>> found = null;
+        if (existing != null) {
+            (existing.isDone() ? cacheHits : sharedInFlight).incrementAndGet();
+            found = existing.join();
+        } else {
+            try {
+                found = fetch(engine, tag, searchQuery);
+            } finally {
+                // A failed search is dropped from the cache; callers waiting on it see it as not searched
+                if (found == null) results.asMap().remove(key, mine);
+                mine.complete(found);
+            }
+        }
+        if (found == null) return Lookup.NOT_SEARCHED;
+        return new Lookup(true, List.copyOf(found.subList(0, Math.min(numResults, found.size()))));
+    }
+
+    /** One SerpAPI search, or null if it was not made or failed. */
+    private List<Map<String, String>> fetch(String engine, String tag, String searchQuery) {
+        if (!quota.tryAcquire()) {
+            rejectedByBudget.incrementAndGet();
+            SearchQuotaBucket.Budget budget = quota.budget();
+            log.warn("{} Search budget exhausted — {} left this month, {} tokens — skipping",
+                    tag, budget.remainingThisMonth(), budget.availableTokens());
+            return null;
+        }
+
+        String queryPreview = searchQuery.substring(0, Math.min(80, searchQuery.length()));
+        log.info("{} Starting search — queryPreview=\"{}\"", tag, queryPreview);
 
         try {
-            String searchQuery = prepareSearchQuery(query);
             String encodedQuery = URLEncoder.encode(searchQuery, StandardCharsets.UTF_8);
-            String url = String.format("%s?engine=google&q=%s&num=%d&api_key=%s",
-                    searchApiUrl, encodedQuery, Math.min(numResults, 10), apiKey);
+            String url = String.format("%s?engine=%s&q=%s&num=%d&api_key=%s",
+                    searchApiUrl, engine, encodedQuery, FETCH_RESULTS, apiKey);
 
             Request request = new Request.Builder()
                     .url(url)
                     .get()
                     .build();
 
+            networkCalls.incrementAndGet();
             long t0 = System.currentTimeMillis();
             try (Response response = client.newCall(request).execute()) {
                 long elapsed = System.currentTimeMillis() - t0;
-                log.info("[SerpAPI] Response — HTTP {} in {}ms", response.code(), elapsed);
+                log.info("{} Response — HTTP {} in {}ms", tag, response.code(), elapsed);
 
                 if (!response.isSuccessful()) {
                     String errorBody = response.body() != null ? response.body().string() : "(empty body)";
-                    log.warn("[SerpAPI] HTTP {} error — body: {}", response.code(), errorBody);
+                    log.warn("{} HTTP {} error — body: {}", tag, response.code(), errorBody);
                     if (response.code() == 401) {
-                        log.warn("[SerpAPI] 401 Unauthorized — check that serp.api-key is correct in application.properties");
+                        log.warn("{} 401 Unauthorized — check that serp.api-key is correct in application.properties", tag);
                     } else if (response.code() == 429) {
-                        log.warn("[SerpAPI] 429 Too Many Requests — monthly quota exceeded (100 searches/month on free tier)");
+                        log.warn("{} 429 Too Many Requests — monthly quota exceeded, pausing searches until it resets", tag);
+                        quota.exhaust();
                     }
-                    return new ArrayList<>();
+                    return null;
                 }
 
                 String responseBody = response.body() != null ? response.body().string() : "";
                 if (responseBody.isEmpty()) {
-                    log.warn("[SerpAPI] 200 OK but empty response body");
-                    return new ArrayList<>();
+                    log.warn("{} 200 OK but empty response body", tag);
+                    return null;
                 }
 
-                List<Map<String, String>> results = parseSearchResults(responseBody);
-                log.info("[SerpAPI] Search succeeded — {} results returned", results.size());
-                return results;
+                List<Map<String, String>> parsed = "google_scholar".equals(engine)
+                        ? parseScholarResults(responseBody)
+                        : parseSearchResults(responseBody);
+                log.info("{} Search succeeded — {} results returned", tag, parsed.size());
+                return parsed;
             }
 
         } catch (IOException e) {
-            log.warn("[SerpAPI] Network error — {} — skipping internet check", e.getMessage());
-            return new ArrayList<>();
-        }
-    }
-
-    /**
-     * Search Google Scholar for academic sources matching the query.
-     * Uses SerpAPI engine=google_scholar.
-     * Results are cached for 1 hour.
-     */
-    @Cacheable(value = "scholarSearchCache", key = "#query + ':' + #numResults")
-    public List<Map<String, String>> searchScholar(String query, int numResults) {
-        if (!searchEnabled || apiKey == null || apiKey.isBlank()) {
-            log.info("[SerpAPI Scholar] Disabled or no API key — skipping scholar check");
-            return new ArrayList<>();
-        }
-        String queryPreview = query.substring(0, Math.min(60, query.length()));
-        log.info("[SerpAPI Scholar] Starting scholar search — numResults={} query=\"{}\"", numResults, queryPreview);
-        try {
-            String searchQuery = prepareSearchQuery(query);
-            String encodedQuery = URLEncoder.encode(searchQuery, StandardCharsets.UTF_8);
-            String url = String.format("%s?engine=google_scholar&q=%s&num=%d&api_key=%s",
-                    searchApiUrl, encodedQuery, Math.min(numResults, 10), apiKey);
-            Request request = new Request.Builder().url(url).get().build();
-            long t0 = System.currentTimeMillis();
-            try (Response response = client.newCall(request).execute()) {
-                log.info("[SerpAPI Scholar] Response — HTTP {} in {}ms", response.code(), System.currentTimeMillis() - t0);
-                if (!response.isSuccessful()) {
-                    log.warn("[SerpAPI Scholar] HTTP {} — skipping scholar results", response.code());
-                    return new ArrayList<>();
-                }
-                String body = response.body() != null ? response.body().string() : "";
-                return parseScholarResults(body);
-            }
-        } catch (IOException e) {
-            log.warn("[SerpAPI Scholar] Network error — {} — skipping", e.getMessage());
-            return new ArrayList<>();
+            log.warn("{} Network error — {} — skipping", tag, e.getMessage());
+            return null;
         }
     }
 
@@ -257,6 +376,15 @@ public class GoogleSearchService {
             return result;
         }
 
+        result.put("budget", quota.budget());
+        // The live test is a billable search, so it spends budget like any other
+        if (!quota.tryAcquire()) {
+            result.put("httpStatus", -1);
+            result.put("success", false);
+            result.put("fix", "Search budget exhausted for now — see budget.resetsAt, or raise serp.quota.monthly / serp.quota.burst");
+            return result;
+        }
+
         try {
             String testQuery = URLEncoder.encode("plagiarism detection test", StandardCharsets.UTF_8);
             String url = String.format("%s?engine=google&q=%s&num=1&api_key=%s", searchApiUrl, testQuery, apiKey);
@@ -272,6 +400,7 @@ public class GoogleSearchService {
                     result.put("errorBody", body.length() > 500 ? body.substring(0, 500) : body);
                     result.put("fix", "Invalid API key. Check serp.api-key in application.properties matches your key at https://serpapi.com/manage-api-key");
                 } else if (status == 429) {
+                    quota.exhaust();
                     result.put("fix", "Monthly quota of 100 searches exceeded on free tier. Upgrade at https://serpapi.com/pricing");
                 } else if (response.isSuccessful()) {
                     result.put("fix", "SerpAPI is working correctly");
@@ -7,6 +7,12 @@ import com.example.integrity_monitoring_service.exception.IntegrityCheckExceptio
 import com.example.integrity_monitoring_service.exception.ResourceNotFoundException;
 import com.example.integrity_monitoring_service.model.*;
 import com.example.integrity_monitoring_service.repository.PlagiarismCheckRepository;
+import com.example.integrity_monitoring_service.similarity.DocumentFrequencyTable;
+import com.example.integrity_monitoring_service.similarity.PeerAnswerIndex;
+import com.example.integrity_monitoring_service.similarity.SimilarityKernels;
+import com.example.integrity_monitoring_service.similarity.SparseVector;
+import com.example.integrity_monitoring_service.similarity.TextTokenizer;
+import com.example.integrity_monitoring_service.similarity.TokenizedText;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -31,6 +37,9 @@ public class IntegrityCheckService {
     private final JPlagService jplagService;
     private final GoogleSearchService googleSearch;
     private final SubmissionFetchService submissionFetch;
+    private final PeerAnswerIndexService peerIndex;
+    private final CorpusStatisticsService corpusStats;
+    private final NearDuplicateService nearDuplicates;
     private final Executor plagiarismTaskExecutor;
 
     public IntegrityCheckService(
@@ -40,6 +49,9 @@ public class IntegrityCheckService {
             JPlagService jplagService,
             GoogleSearchService googleSearch,
             SubmissionFetchService submissionFetch,
+            PeerAnswerIndexService peerIndex,
+            CorpusStatisticsService corpusStats,
+            NearDuplicateService nearDuplicates,
             @Qualifier("plagiarismTaskExecutor") Executor plagiarismTaskExecutor) {
         this.checkRepository         = checkRepository;
         this.questionAnalyzer        = questionAnalyzer;
@@ -47,6 +59,9 @@ public class IntegrityCheckService {
         this.jplagService            = jplagService;
         this.googleSearch            = googleSearch;
         this.submissionFetch         = submissionFetch;
+        this.peerIndex               = peerIndex;
+        this.corpusStats             = corpusStats;
+        this.nearDuplicates          = nearDuplicates;
         this.plagiarismTaskExecutor  = plagiarismTaskExecutor;
     }
 
@@ -168,8 +183,9 @@ public class IntegrityCheckService {
             return;
         }
 
-        // Run JPlag
+        // Run JPlag on the top fingerprint candidates of the assignment
         List<Map<String, Object>> matches = jplagService.checkCodePlagiarism(
+                request.getAssignmentId(),
                 studentCode,
                 comparisonCodes,
                 determineLanguage(request.getFileName())
@@ -218,31 +234,45 @@ public class IntegrityCheckService {
             return;
         }
 
-        // Get comparison submissions
-        List<Map<String, String>> comparisonTexts = fetchComparisonTexts(request);
+        if (request.getQuestionId() == null) {
+            log.warn("No questionId provided — cannot select peer answers for comparison");
+            check.setOverallSimilarityScore(0.0);
+            check.setFlagged(false);
+            return;
+        }
 
-        if (comparisonTexts.isEmpty()) {
+        // Get top-k comparison candidates from the resident per-question index
+        String questionId = request.getQuestionId().toString();
+        String submissionId = request.getSubmissionId() != null ? request.getSubmissionId().toString() : null;
+        TokenizedText studentTokens = TextTokenizer.tokenize(studentText);
+        corpusStats.linkQuestion(questionId, request.getAssignmentId());
+        List<PeerAnswerIndex.Candidate> candidates = peerIndex.findCandidates(
+                questionId, studentTokens, request.getStudentId(), submissionId);
+        peerIndex.recordAnswer(questionId, submissionId, request.getStudentId(), studentText, studentTokens);
+        nearDuplicates.recordSignature(request.getAssignmentId(), questionId, submissionId,
+                request.getStudentId(), studentText);
+
+        if (candidates.isEmpty()) {
             log.warn("No submissions found for comparison");
             check.setOverallSimilarityScore(0.0);
             check.setFlagged(false);
             return;
         }
 
-        // Calculate similarities
+        // Calculate similarities (TF-IDF once the question/assignment corpus is large enough)
         double maxSimilarity = 0.0;
         int matchCount = 0;
+        DocumentFrequencyTable idf = corpusStats.idfFor(questionId);
+        SparseVector studentVector = textSimilarity.vectorFor(studentTokens, idf);
 
-        for (Map<String, String> comparison : comparisonTexts) {
-            String otherText = comparison.get("content");
-            String otherStudentId = comparison.get("studentId");
-            Long otherSubmissionId = Long.parseLong(comparison.get("submissionId"));
+        for (PeerAnswerIndex.Candidate candidate : candidates) {
+            double similarity = textSimilarity.calculateSimilarity(
+                    studentVector, textSimilarity.vectorFor(candidate.tokens(), idf));
 
-            double similarity = textSimilarity.calculateSimilarity(studentText, otherText);
-
-            if (similarity > textSimilarityThreshold) {
+            if (SimilarityKernels.exceeds(similarity, textSimilarityThreshold)) {
                 SimilarityMatch match = SimilarityMatch.builder()
-                        .matchedSubmissionId(otherSubmissionId)
-                        .matchedStudentId(otherStudentId)
+                        .matchedSubmissionId(parseSubmissionId(candidate.submissionId()))
+                        .matchedStudentId(candidate.studentId())
                         .similarityScore(similarity)
                         .details(String.format("Text similarity: %.2f%%", similarity * 100))
                         .build();
@@ -257,7 +287,7 @@ public class IntegrityCheckService {
         check.setMaxSimilarityScore(maxSimilarity);
         check.setOverallSimilarityScore(maxSimilarity);
         check.setMatchesFound(matchCount);
-        check.setFlagged(maxSimilarity > textSimilarityThreshold);
+        check.setFlagged(SimilarityKernels.exceeds(maxSimilarity, textSimilarityThreshold));
     }
 
     /**
@@ -372,7 +402,7 @@ public class IntegrityCheckService {
         check.setOverallSimilarityScore(overallScore);
         check.setMaxSimilarityScore(overallScore);
 
-        check.setFlagged(studentScore > (isCode ? codeSimilarityThreshold : textSimilarityThreshold) ||
+        check.setFlagged(SimilarityKernels.exceeds(studentScore, isCode ? codeSimilarityThreshold : textSimilarityThreshold) ||
                 internetScore > internetSimilarityThreshold);
     }
 
@@ -440,9 +470,13 @@ public class IntegrityCheckService {
         return submissionFetch.fetchSubmissionsForComparison(request);
     }
 
-    private List<Map<String, String>> fetchComparisonTexts(PlagiarismCheckRequest request) {
-        // Fetch from submission service
-        return submissionFetch.fetchTextSubmissionsForComparison(request);
+    private Long parseSubmissionId(String submissionId) {
+        if (submissionId == null) return null;
+        try {
+            return Long.parseLong(submissionId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     private String determineLanguage(String fileName) {
@@ -0,0 +1,103 @@
+package com.example.integrity_monitoring_service.service;
+
+import de.jplag.Language;
+import de.jplag.ParsingException;
+import de.jplag.Token;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Supplier;
+
+/**
+ * Preconstructed JPlag language frontends, looked up by the file-extension
+ * style hints code checks pass in.
+ *
+ * Frontend objects keep per-parse state (the token list being built), so one
+ * instance must not parse on two threads at once. Each language therefore has
+ * a small pool: {@link #parse} borrows an idle instance, or builds one if all
+ * are busy, and returns it afterwards — the pool grows to the number of
+ * concurrent parses (bounded by JPlagService's gate) and is then reused
+ * for the life of the process. One instance per language is built at startup.
+ *
+ * A frontend that fails to load is logged once and its hints fall back to Java.
+ */
+@Service
+@Slf4j
+public class JPlagLanguageRegistry {
+
+    private record Pool(Supplier<Language> factory, Language primary, Deque<Language> idle) {}
+
+    private final Pool defaultPool;
+    private final Map<String, Pool> byHint;
+    private final Map<String, Pool> byIdentifier;
+
+    public JPlagLanguageRegistry() {
+        this.defaultPool = pool(de.jplag.java.JavaLanguage::new);
+
+        Map<String, Pool> pools = new HashMap<>();
+        pools.put("java", defaultPool);
+        register(pools, de.jplag.python3.PythonLanguage::new, "python", "py");
+        register(pools, de.jplag.c.CLanguage::new, "c");
+        register(pools, de.jplag.cpp.CPPLanguage::new, "cpp", "c++");
+        register(pools, de.jplag.csharp.CSharpLanguage::new, "csharp", "c#", "cs");
+        register(pools, de.jplag.javascript.JavaScriptLanguage::new, "javascript", "js");
+        register(pools, de.jplag.typescript.TypeScriptLanguage::new, "typescript", "ts");
+        register(pools, de.jplag.kotlin.KotlinLanguage::new, "kotlin", "kt");
+        register(pools, de.jplag.scala.ScalaLanguage::new, "scala");
+        register(pools, de.jplag.swift.SwiftLanguage::new, "swift");
+        register(pools, de.jplag.golang.GoLanguage::new, "go", "golang");
+        register(pools, de.jplag.rust.RustLanguage::new, "rust", "rs");
+        register(pools, de.jplag.rlang.RLanguage::new, "r");
+        register(pools, de.jplag.scheme.SchemeLanguage::new, "scheme");
+        this.byHint = Map.copyOf(pools);
+
+        Map<String, Pool> identifiers = new HashMap<>();
+        for (Pool pool : pools.values()) identifiers.put(pool.primary().getIdentifier(), pool);
+        this.byIdentifier = Map.copyOf(identifiers);
+    }
+
+    /**
+     * Determine JPlag language from file extension or language name; unknown
+     * or missing hints default to Java. The returned instance is for metadata
+     * (name, identifier, suffixes) — parse through {@link #parse}.
+     */
+    public Language forHint(String languageHint) {
+        if (languageHint == null) return defaultPool.primary();
+        return byHint.getOrDefault(languageHint.toLowerCase(), defaultPool).primary();
+    }
+
+    /** Parse {@code files} with an instance of {@code language} no other thread is using. */
+    public List<Token> parse(Language language, Set<File> files) throws ParsingException {
+        Pool pool = byIdentifier.getOrDefault(language.getIdentifier(), defaultPool);
+        Language frontend = pool.idle().pollFirst();
+        if (frontend == null) frontend = pool.factory().get();
+        try {
+            return frontend.parse(files, false);
+        } finally {
+            pool.idle().offerFirst(frontend);
+        }
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    private void register(Map<String, Pool> pools, Supplier<Language> factory, String... hints) {
+        Pool pool;
+        try {
+            pool = pool(factory);
+        } catch (RuntimeException | LinkageError e) {
+            log.warn("Error loading language {}, defaulting to Java: {}", hints[0], e.getMessage());
+            pool = defaultPool;
+        }
+        for (String hint : hints) pools.put(hint, pool);
+    }
+
+    private static Pool pool(Supplier<Language> factory) {
+        Language primary = factory.get();
+        Deque<Language> idle = new ConcurrentLinkedDeque<>();
+        idle.add(primary);
+        return new Pool(factory, primary, idle);
+    }
+}
@@ -1,13 +1,17 @@
 package com.example.integrity_monitoring_service.service;
 
 import com.example.integrity_monitoring_service.exception.IntegrityCheckException;
-import de.jplag.JPlag;
-import de.jplag.JPlagComparison;
-import de.jplag.JPlagResult;
+import com.example.integrity_monitoring_service.similarity.CodeFingerprintIndex;
+import com.example.integrity_monitoring_service.similarity.CodeTokenSequence;
+import com.example.integrity_monitoring_service.similarity.GreedyStringTiling;
 import de.jplag.Language;
-import de.jplag.options.JPlagOptions;
+import de.jplag.SharedTokenType;
+import de.jplag.Token;
+import de.jplag.TokenType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
@@ -15,20 +19,66 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JPlag integration for code plagiarism detection
- * Using JPlag 5.1.0+ with language-specific classes
+ * Using JPlag 5.1.0+ language frontends for tokenization
+ *
+ * Only the new submission is compared against the cohort: its token sequence
+ * is tiled against each comparison submission with the same Greedy String
+ * Tiling and minimum match JPlag uses, instead of running JPlag over the whole
+ * cohort and discarding the N² pairs that do not involve the student. Token
+ * sequences come from {@link CodeTokenCache} (memory, then the persistent
+ * token store), so a cohort submission is parsed — and written to disk for
+ * the frontend — only the first time any instance sees it. Before tiling, the
+ * cohort is narrowed to the top candidates by shared winnowed fingerprints
+ * (see {@link CodeFingerprintIndexService}).
+ *
+ * Language frontends are shared from {@link JPlagLanguageRegistry}, the common
+ * ones are warmed up at startup, and a fair semaphore sized to the CPU count
+ * bounds how many checks parse and tile at once.
  */
 @Service
 @Slf4j
 public class JPlagService {
 
-    @Value("${jplag.temp-dir:./temp/integrity}")
-    private String tempDir;
+    /** Same cap as the previous {@code JPlagResult.getComparisons(100)}. */
+    private static final int MAX_MATCHES = 100;
 
-    @Value("${jplag.min-token-match:9}")
-    private int minTokenMatch;
+    /** Small, valid programs for the languages most assignments use. */
+    private static final Map<String, String> WARM_UP_SAMPLES = Map.of(
+            "java", "public class WarmUp { int add(int a, int b) { return a + b; } }\n",
+            "python", "def add(a, b):\n    return a + b\n",
+            "c", "int add(int a, int b) { return a + b; }\n",
+            "cpp", "int add(int a, int b) { return a + b; }\n");
+
+    private final CodeTokenCache tokenCache;
+    private final CodeFingerprintIndexService fingerprintIndex;
+    private final JPlagLanguageRegistry languages;
+    private final int minTokenMatch;
+    /** Bounds concurrent parse + tiling work; checks beyond it queue (fairly) instead of oversubscribing the CPU. */
+    private final Semaphore gate;
+    private final long gateTimeoutMs;
+    private final List<String> warmUpLanguages;
+
+    public JPlagService(CodeTokenCache tokenCache,
+                        CodeFingerprintIndexService fingerprintIndex,
+                        JPlagLanguageRegistry languages,
+                        @Value("${jplag.min-token-match:9}") int minTokenMatch,
+                        @Value("${jplag.max-concurrent-checks:0}") int maxConcurrentChecks,
+                        @Value("${jplag.gate-timeout-ms:30000}") long gateTimeoutMs,
+                        @Value("${jplag.warm-up-languages:java,python}") List<String> warmUpLanguages) {
+        this.tokenCache       = tokenCache;
+        this.fingerprintIndex = fingerprintIndex;
+        this.languages        = languages;
+        this.minTokenMatch    = minTokenMatch;
+        this.gate             = new Semaphore(maxConcurrentChecks > 0
+                ? maxConcurrentChecks : Runtime.getRuntime().availableProcessors(), true);
+        this.gateTimeoutMs    = gateTimeoutMs;
+        this.warmUpLanguages  = warmUpLanguages;
+    }
 
     /**
      * Check code plagiarism using JPlag
@@ -37,106 +87,187 @@ public class JPlagService {
             Map<String, String> studentCode,
             List<Map<String, String>> otherStudentsCodes,
             String language) {
+        return checkCodePlagiarism(null, studentCode, otherStudentsCodes, language);
+    }
+
+    /**
+     * Check code plagiarism using JPlag, tiling only the candidates the
+     * assignment's fingerprint index ranks highest
+     */
+    public List<Map<String, Object>> checkCodePlagiarism(
+            String assignmentId,
+            Map<String, String> studentCode,
+            List<Map<String, String>> otherStudentsCodes,
+            String language) {
 
         List<Map<String, Object>> matches = new ArrayList<>();
 
+        acquirePermit();
         try {
-            // Create temporary directory structure
-            File tempDirectory = createTempDirectory();
+            long t0 = System.currentTimeMillis();
 
             // Determine language
-            Language jplagLanguage = determineLanguage(language);
-
-            // Write student's code
-            File studentDir = new File(tempDirectory, "student_current");
-            writeCodeToDirectory(studentCode, studentDir);
+            Language jplagLanguage = languages.forHint(language);
 
-            // Write other students' codes
-            int index = 0;
+            // Student first, then the cohort — all from the token cache in one lookup
+            List<SortedMap<String, String>> submissions = new ArrayList<>(otherStudentsCodes.size() + 1);
+            submissions.add(codeFiles(studentCode, jplagLanguage));
             for (Map<String, String> otherCode : otherStudentsCodes) {
-                File otherDir = new File(tempDirectory, "student_" + index);
-                writeCodeToDirectory(otherCode, otherDir);
-                index++;
+                submissions.add(codeFiles(otherCode, jplagLanguage));
             }
+            String languageId = jplagLanguage.getIdentifier();
+            List<String> keys = new ArrayList<>(submissions.size());
+            for (SortedMap<String, String> files : submissions) keys.add(CodeTokenCache.key(languageId, files));
+            List<CodeTokenSequence> sequences = tokenCache.getAll(
+                    languageId, keys, submissions, files -> parse(files, jplagLanguage));
 
-            // Configure JPlag
-            JPlagOptions options = new JPlagOptions(
-                    jplagLanguage,
-                    Set.of(tempDirectory),
-                    Set.of()
-            );
-            options = options.withMinimumTokenMatch(minTokenMatch);
-
-            // Run JPlag
-            log.debug("Running JPlag comparison for {} submissions", otherStudentsCodes.size());
-            JPlagResult result = JPlag.run(options);
-
-            // Extract comparisons involving the current student
-            for (JPlagComparison comparison : result.getComparisons(100)) {
-                String name1 = comparison.firstSubmission().getName();
-                String name2 = comparison.secondSubmission().getName();
-
-                // Only include comparisons with the current student
-                if (name1.equals("student_current") || name2.equals("student_current")) {
-                    Map<String, Object> match = new HashMap<>();
-                    match.put("similarity", comparison.similarity());
-                    match.put("matchedStudent", name1.equals("student_current") ? name2 : name1);
-                    match.put("tokensMatched", comparison.matches().size());
-                    match.put("details", "JPlag similarity: " +
-                            String.format("%.2f%%", comparison.similarity() * 100));
-
-                    matches.add(match);
-                }
+            CodeTokenSequence student = sequences.get(0);
+            if (student == null) {
+                throw new IntegrityCheckException("Student code could not be parsed as " + jplagLanguage.getName());
             }
+            if (student.matchableLength() < minTokenMatch) {
+                log.debug("Student code has {} tokens (< {}), nothing to compare",
+                        student.matchableLength(), minTokenMatch);
+                return matches;
+            }
+            GreedyStringTiling tiling = new GreedyStringTiling(student, minTokenMatch);
+
+            // Narrow the cohort to the submissions sharing the most fingerprints
+            List<String> cohortKeys = keys.subList(1, keys.size());
+            List<CodeTokenSequence> cohort = sequences.subList(1, sequences.size());
+            Set<String> candidates = new HashSet<>();
+            for (CodeFingerprintIndex.Candidate candidate : fingerprintIndex.candidates(
+                    assignmentId, languageId, keys.get(0), student, cohortKeys, cohort)) {
+                candidates.add(candidate.key());
+            }
+
+            // Compare the student against each candidate; unparseable or
+            // too-small submissions are skipped, as JPlag excluded them too
+            int compared = 0;
+            for (int index = 0; index < otherStudentsCodes.size(); index++) {
+                CodeTokenSequence other = cohort.get(index);
+                if (other == null || other.matchableLength() < minTokenMatch) continue;
+                if (!candidates.contains(cohortKeys.get(index))) continue;
 
-            // Cleanup
-            deleteDirectory(tempDirectory);
+                GreedyStringTiling.Tiling result = tiling.compare(other);
+                compared++;
 
-            log.debug("JPlag found {} matches", matches.size());
+                Map<String, Object> match = new HashMap<>();
+                match.put("similarity", result.similarity());
+                match.put("matchedStudent", "student_" + index);
+                match.put("tokensMatched", result.tiles());
+                match.put("details", "JPlag similarity: " +
+                        String.format("%.2f%%", result.similarity() * 100));
+
+                matches.add(match);
+            }
+
+            matches.sort(Comparator.comparingDouble((Map<String, Object> m) -> (double) m.get("similarity")).reversed());
+            if (matches.size() > MAX_MATCHES) {
+                matches = new ArrayList<>(matches.subList(0, MAX_MATCHES));
+            }
+
+            log.debug("JPlag compared against {} of {} submissions in {}ms (token cache hit rate {})",
+                    compared, otherStudentsCodes.size(), System.currentTimeMillis() - t0,
+                    String.format("%.2f", tokenCache.hitRate()));
 
         } catch (Exception e) {
             log.error("Error running JPlag: {}", e.getMessage(), e);
             throw new IntegrityCheckException("JPlag execution failed", e);
+        } finally {
+            gate.release();
         }
 
         return matches;
     }
 
     /**
-     * Determine JPlag language from file extension
-     * JPlag 5.1.0+ uses language-specific classes
+     * Parse a small sample in each warm-up language once the application is up,
+     * so the first real checks after a deploy do not pay for parser class
+     * loading and initialisation.
      */
-    private Language determineLanguage(String languageHint) {
-        if (languageHint == null) {
-            return new de.jplag.java.JavaLanguage();
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (String hint : warmUpLanguages) {
+            String sample = WARM_UP_SAMPLES.get(hint.trim().toLowerCase());
+            if (sample == null) continue;
+            Language language = languages.forHint(hint.trim());
+            long t0 = System.currentTimeMillis();
+            try {
+                SortedMap<String, String> files = new TreeMap<>();
+                files.put("WarmUp" + language.suffixes()[0], sample);
+                parse(files, language);
+                log.info("JPlag {} frontend warmed up in {}ms", language.getName(), System.currentTimeMillis() - t0);
+            } catch (RuntimeException e) {
+                log.warn("JPlag warm-up for {} failed: {}", hint, e.getMessage());
+            }
         }
+    }
 
-        String hint = languageHint.toLowerCase();
+    /** Wait for a slot in the concurrency gate, failing the check if none frees up in time. */
+    private void acquirePermit() {
+        try {
+            if (!gate.tryAcquire(gateTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IntegrityCheckException("Code plagiarism checks are busy — try again shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IntegrityCheckException("Interrupted while waiting for a code check slot", e);
+        }
+    }
+
+    /** The files of a submission the language handles, in name order (JPlag ignores the rest too). */
+    private static SortedMap<String, String> codeFiles(Map<String, String> codeFiles, Language language) {
+        SortedMap<String, String> files = new TreeMap<>();
+        for (Map.Entry<String, String> entry : codeFiles.entrySet()) {
+            if (entry.getValue() != null && hasSuffix(entry.getKey(), language)) {
+                files.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return files;
+    }
 
+    /**
+     * Run the language frontend over the files. Frontends only read from disk,
+     * so the files are written to a temporary directory for the duration of the parse.
+     */
+    private CodeTokenSequence parse(SortedMap<String, String> files, Language language) {
+        if (files.isEmpty()) return new CodeTokenSequence(new int[0]);
+        File directory = null;
         try {
-            return switch (hint) {
-                case "java" -> new de.jplag.java.JavaLanguage();
-                case "python", "py" -> new de.jplag.python3.PythonLanguage();
-                case "c" -> new de.jplag.c.CLanguage();
-                case "cpp", "c++" -> new de.jplag.cpp.CPPLanguage();
-                case "csharp", "c#", "cs" -> new de.jplag.csharp.CSharpLanguage();
-                case "javascript", "js" -> new de.jplag.javascript.JavaScriptLanguage();
-                case "typescript", "ts" -> new de.jplag.typescript.TypeScriptLanguage();
-                case "kotlin", "kt" -> new de.jplag.kotlin.KotlinLanguage();
-                case "scala" -> new de.jplag.scala.ScalaLanguage();
-                case "swift" -> new de.jplag.swift.SwiftLanguage();
-                case "go", "golang" -> new de.jplag.golang.GoLanguage();
-                case "rust", "rs" -> new de.jplag.rust.RustLanguage();
-                case "r" -> new de.jplag.rlang.RLanguage();
-                case "scheme" -> new de.jplag.scheme.SchemeLanguage();
-                default -> new de.jplag.java.JavaLanguage();
-            };
+            directory = createTempDirectory();
+            Set<File> parseSet = new TreeSet<>();
+            for (Map.Entry<String, String> entry : files.entrySet()) {
+                File file = new File(directory, entry.getKey());
+                Files.createDirectories(file.toPath().getParent());
+                Files.writeString(file.toPath(), entry.getValue());
+                parseSet.add(file);
+            }
+
+            List<Token> parsed = languages.parse(language, parseSet);
+            int[] ids = new int[parsed.size()];
+            for (int i = 0; i < ids.length; i++) {
+                TokenType type = parsed.get(i).getType();
+                ids[i] = type == SharedTokenType.FILE_END
+                        ? CodeTokenSequence.SEPARATOR
+                        : tokenCache.tokenId(type.getDescription());
+            }
+            return new CodeTokenSequence(ids);
         } catch (Exception e) {
-            log.warn("Error loading language {}, defaulting to Java: {}", hint, e.getMessage());
-            return new de.jplag.java.JavaLanguage();
+            throw new IntegrityCheckException("JPlag parsing failed: " + e.getMessage(), e);
+        } finally {
+            if (directory != null) deleteDirectory(directory);
         }
     }
 
+    private static boolean hasSuffix(String fileName, Language language) {
+        if (fileName == null) return false;
+        for (String suffix : language.suffixes()) {
+            if (fileName.endsWith(suffix)) return true;
+        }
+        return false;
+    }
+
     /**
      * Create temporary directory for JPlag
      */
@@ -147,26 +278,6 @@ public class JPlagService {
         return dir;
     }
 
-    /**
-     * Write code files to directory
-     */
-    private void writeCodeToDirectory(Map<String, String> codeFiles, File directory) throws IOException {
-        if (!directory.exists()) {
-            boolean created = directory.mkdirs();
-            if (!created) {
-                throw new IOException("Failed to create directory: " + directory.getAbsolutePath());
-            }
-        }
-
-        for (Map.Entry<String, String> entry : codeFiles.entrySet()) {
-            String fileName = entry.getKey();
-            String content = entry.getValue();
-
-            File file = new File(directory, fileName);
-            Files.writeString(file.toPath(), content);
-        }
-    }
-
     /**
      * Delete directory recursively
      */
@@ -191,4 +302,4 @@ public class JPlagService {
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,279 @@
+package com.example.integrity_monitoring_service.service;
+
+import com.example.integrity_monitoring_service.dto.response.NearDuplicatePairResponse;
+import com.example.integrity_monitoring_service.model.AnswerSignature;
+import com.example.integrity_monitoring_service.repository.AnswerSignatureRepository;
+import com.example.integrity_monitoring_service.similarity.LshBuckets;
+import com.example.integrity_monitoring_service.similarity.MinHasher;
+import com.example.integrity_monitoring_service.similarity.Shingler;
+import com.example.integrity_monitoring_service.similarity.SimilarityKernels;
+import com.example.integrity_monitoring_service.similarity.TextTokenizer;
+import com.example.integrity_monitoring_service.similarity.TokenizedText;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Assignment-wide near-duplicate detection using MinHash signatures and banded LSH.
+ *
+ * An exact "every answer vs every answer" pass is quadratic per question. Here each
+ * answer is reduced once to a fixed-width MinHash signature (persisted in
+ * answer_signatures and reused while its text and the shingle size and hash
+ * count it was built with are unchanged); LSH buckets then
+ * yield only the pairs likely to be similar, and just those candidates are scored
+ * with the exact Jaccard / n-gram / LCS scorers in AdvancedSimilarityService.
+ * Blank and sub-shingle answers have no signature to bucket and are skipped.
+ *
+ * A sweep only holds a database transaction while it reads and saves one
+ * question's signatures; fetching the answers and scoring run outside it.
+ */
+@Service
+@Slf4j
+public class NearDuplicateService {
+
+    /** Submission ids per IN-list lookup of stored signatures. */
+    private static final int LOOKUP_BATCH = 1000;
+
+    private final AnswerSignatureRepository signatureRepository;
+    private final SubmissionFetchService submissionFetch;
+    private final AdvancedSimilarityService advancedSimilarity;
+    private final TransactionTemplate transactionTemplate;
+    private final MinHasher minHasher;
+    private final int shingleSize;
+    /** Prefixed to the hashed text, so a signature built with other parameters never matches. */
+    private final String signatureParams;
+    private final int bands;
+    private final int rows;
+
+    @Value("${integrity.text-similarity-threshold:0.70}")
+    private double textSimilarityThreshold;
+
+    public NearDuplicateService(
+            AnswerSignatureRepository signatureRepository,
+            SubmissionFetchService submissionFetch,
+            AdvancedSimilarityService advancedSimilarity,
+            PlatformTransactionManager transactionManager,
+            @Value("${integrity.minhash.num-hashes:128}") int numHashes,
+            @Value("${integrity.minhash.bands:32}") int bands,
+            @Value("${integrity.peer-index.shingle-size:3}") int shingleSize) {
+        if (bands <= 0 || numHashes % bands != 0) {
+            throw new IllegalArgumentException("integrity.minhash.num-hashes (" + numHashes
+                    + ") must be a positive multiple of integrity.minhash.bands (" + bands + ")");
+        }
+        this.signatureRepository = signatureRepository;
+        this.submissionFetch     = submissionFetch;
+        this.advancedSimilarity  = advancedSimilarity;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.minHasher           = new MinHasher(numHashes);
+        this.shingleSize         = shingleSize;
+        this.signatureParams     = "k=" + shingleSize + ";n=" + numHashes + "\n";
+        this.bands               = bands;
+        this.rows                = numHashes / bands;
+    }
+
+    /**
+     * Compute and upsert the signature of one answer. Called whenever an answer
+     * passes through a text plagiarism check so the store stays warm between sweeps.
+     */
+    @Transactional
+    public AnswerSignature recordSignature(String assignmentId, String questionId,
+                                           String submissionId, String studentId, String text) {
+        if (questionId == null || submissionId == null || text == null || text.isBlank()) return null;
+
+        AnswerSignature signature = signatureRepository
+                .findBySubmissionIdAndQuestionId(submissionId, questionId)
+                .orElseGet(() -> AnswerSignature.builder()
+                        .submissionId(submissionId)
+                        .questionId(questionId)
+                        .build());
+        if (refresh(signature, text)) {
+            signature.setAssignmentId(assignmentId);
+            signature.setStudentId(studentId);
+            signature = signatureRepository.save(signature);
+        }
+        return signature;
+    }
+
+    /**
+     * Find every near-duplicate answer pair in an assignment.
+     *
+     * Steps per question:
+     *   1. Reuse the stored signature of each answer whose content hash is unchanged,
+     *      otherwise shingle + MinHash it (new/changed signatures saved in one batch).
+     *   2. Bucket the signatures with banded LSH and collect candidate pairs.
+     *   3. Score only the candidates with the exact scorers; keep pairs above the
+     *      text-similarity threshold.
+     */
+    public List<NearDuplicatePairResponse> findNearDuplicates(String assignmentId) {
+        long t0 = System.currentTimeMillis();
+        log.info("[NearDuplicate] Sweep started — assignmentId={}", assignmentId);
+
+        Map<String, List<Map<String, String>>> byQuestion = groupByQuestion(
+                submissionFetch.fetchAnswersForAssignment(assignmentId));
+
+        List<NearDuplicatePairResponse> pairs = new ArrayList<>();
+        long totalAnswers = 0, totalCandidates = 0;
+
+        for (Map.Entry<String, List<Map<String, String>>> entry : byQuestion.entrySet()) {
+            String questionId = entry.getKey();
+            List<Map<String, String>> answers = entry.getValue();
+            List<long[]> signatures = transactionTemplate.execute(
+                    status -> signaturesFor(assignmentId, questionId, answers));
+
+            Set<Long> candidates = candidatePairs(signatures);
+            totalAnswers += answers.size();
+            totalCandidates += candidates.size();
+
+            // Candidates share answers; tokenize each answer at most once.
+            TokenizedText[] docs = new TokenizedText[answers.size()];
+            for (long pair : candidates) {
+                int i = LshBuckets.first(pair), j = LshBuckets.second(pair);
+                Map<String, String> a = answers.get(i);
+                Map<String, String> b = answers.get(j);
+                if (isSameStudent(a, b)) continue;
+
+                if (docs[i] == null) docs[i] = TextTokenizer.tokenize(a.get("content"));
+                if (docs[j] == null) docs[j] = TextTokenizer.tokenize(b.get("content"));
+                double score = advancedSimilarity.computeMaxSimilarity(docs[i], docs[j]);
+                if (!SimilarityKernels.exceeds(score, textSimilarityThreshold)) continue;
+
+                pairs.add(NearDuplicatePairResponse.builder()
+                        .questionId(questionId)
+                        .submissionIdA(a.get("submissionId"))
+                        .studentIdA(a.get("studentId"))
+                        .submissionIdB(b.get("submissionId"))
+                        .studentIdB(b.get("studentId"))
+                        .estimatedJaccard(MinHasher.estimateJaccard(signatures.get(i), signatures.get(j)))
+                        .similarityScore(score)
+                        .build());
+            }
+        }
+
+        pairs.sort(Comparator.comparingDouble(NearDuplicatePairResponse::getSimilarityScore).reversed());
+        long allPairs = byQuestion.values().stream().mapToLong(l -> (long) l.size() * (l.size() - 1) / 2).sum();
+        log.info("[NearDuplicate] Sweep done — assignmentId={} questions={} answers={} candidates={} (of {} pairs) flagged={} in {}ms",
+                assignmentId, byQuestion.size(), totalAnswers, totalCandidates, allPairs, pairs.size(),
+                System.currentTimeMillis() - t0);
+        return pairs;
+    }
+
+    /**
+     * MinHash signatures for the answers of one question, index-aligned with
+     * {@code answers}. Stored signatures are reused when the content hash matches;
+     * new or changed ones are recomputed and saved in a single batch.
+     */
+    @Transactional
+    public List<long[]> signaturesFor(String assignmentId, String questionId, List<Map<String, String>> answers) {
+        Map<String, AnswerSignature> stored = new HashMap<>();
+        for (AnswerSignature s : signatureRepository.findByAssignmentIdAndQuestionId(assignmentId, questionId)) {
+            stored.put(s.getSubmissionId(), s);
+        }
+
+        // Misses may still have rows recorded by single checks without an assignmentId; load them in batches.
+        List<String> missing = new ArrayList<>();
+        for (Map<String, String> answer : answers) {
+            if (!stored.containsKey(answer.get("submissionId"))) missing.add(answer.get("submissionId"));
+        }
+        for (int from = 0; from < missing.size(); from += LOOKUP_BATCH) {
+            List<String> batch = missing.subList(from, Math.min(from + LOOKUP_BATCH, missing.size()));
+            for (AnswerSignature s : signatureRepository.findByQuestionIdAndSubmissionIdIn(questionId, batch)) {
+                stored.put(s.getSubmissionId(), s);
+            }
+        }
+
+        List<long[]> signatures = new ArrayList<>(answers.size());
+        List<AnswerSignature> dirty = new ArrayList<>();
+        for (Map<String, String> answer : answers) {
+            AnswerSignature signature = stored.computeIfAbsent(answer.get("submissionId"), id -> AnswerSignature.builder()
+                    .questionId(questionId)
+                    .submissionId(id)
+                    .build());
+            boolean changed = refresh(signature, answer.get("content"));
+            if (changed || !Objects.equals(assignmentId, signature.getAssignmentId())) {
+                signature.setAssignmentId(assignmentId);
+                signature.setStudentId(emptyToNull(answer.get("studentId")));
+                dirty.add(signature);
+            }
+            signatures.add(signature.getSignature());
+        }
+
+        if (!dirty.isEmpty()) {
+            signatureRepository.saveAll(dirty);
+            log.debug("[NearDuplicate] questionId={} reused={} recomputed={}",
+                    questionId, answers.size() - dirty.size(), dirty.size());
+        }
+        return signatures;
+    }
+
+    /**
+     * LSH candidate pairs over index-aligned signatures (see {@link LshBuckets#candidatePairs()}).
+     * Empty signatures are left out: they would all share every bucket.
+     */
+    public Set<Long> candidatePairs(List<long[]> signatures) {
+        LshBuckets lsh = new LshBuckets(bands, rows);
+        for (int i = 0; i < signatures.size(); i++) {
+            long[] signature = signatures.get(i);
+            if (signature == null || MinHasher.isEmpty(signature)) continue;
+            lsh.add(i, signature);
+        }
+        return lsh.candidatePairs();
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    /**
+     * Recompute the signature if the text, the shingle size or the hash count
+     * changed since it was last stored — all three are folded into contentHash.
+     * @return true when the entity was modified and needs saving
+     */
+    private boolean refresh(AnswerSignature signature, String text) {
+        String hash = sha256(signatureParams + text);
+        if (hash.equals(signature.getContentHash()) && signature.getSignature() != null
+                && signature.getSignature().length == minHasher.numHashes()) return false;
+
+        long[] shingles = Shingler.shingle(text, shingleSize);
+        signature.setContentHash(hash);
+        signature.setShingleCount(shingles.length);
+        signature.setSignature(minHasher.signature(shingles));
+        return true;
+    }
+
+    static Map<String, List<Map<String, String>>> groupByQuestion(List<Map<String, String>> answers) {
+        Map<String, List<Map<String, String>>> byQuestion = new LinkedHashMap<>();
+        for (Map<String, String> answer : answers) {
+            String questionId = answer.get("questionId");
+            String submissionId = answer.get("submissionId");
+            if (questionId == null || questionId.isBlank() || submissionId == null || submissionId.isBlank()) continue;
+            byQuestion.computeIfAbsent(questionId, q -> new ArrayList<>()).add(answer);
+        }
+        return byQuestion;
+    }
+
+    static boolean isSameStudent(Map<String, String> a, Map<String, String> b) {
+        String studentA = emptyToNull(a.get("studentId"));
+        String studentB = emptyToNull(b.get("studentId"));
+        if (studentA != null && studentA.equals(studentB)) return true;
+        return Objects.equals(a.get("submissionId"), b.get("submissionId"));
+    }
+
+    static String emptyToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
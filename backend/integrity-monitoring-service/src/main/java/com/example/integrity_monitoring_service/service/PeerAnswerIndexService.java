@@ -0,0 +1,260 @@
+package com.example.integrity_monitoring_service.service;
+
+import com.example.integrity_monitoring_service.dto.response.PeerAnswerRecord;
+import com.example.integrity_monitoring_service.similarity.PeerAnswerIndex;
+import com.example.integrity_monitoring_service.similarity.TextTokenizer;
+import com.example.integrity_monitoring_service.similarity.TokenizedText;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps one resident {@link PeerAnswerIndex} per questionId so peer comparison
+ * no longer re-downloads and re-tokenizes every peer answer on each check.
+ *
+ * Lifecycle of a question index:
+ *   - Loaded lazily on first use with ALL saved answers for the question
+ *     (no 200-peer cap — older copies stay visible), streamed row by row
+ *     from the submission service's NDJSON peer feed.
+ *   - Updated incrementally whenever an answer passes through this service
+ *     (every realtime check and every text plagiarism check records the
+ *     student's latest text).
+ *   - Delta-synced once per refresh interval: only answers whose lastModified
+ *     is past the question's (lastModified, answerId) cursor are requested, so
+ *     answers saved without a realtime check are picked up at the cost of one
+ *     small request. Answers cleared to blank text leave the index.
+ *   - Evicted after a period of inactivity to bound memory.
+ *
+ * A check that finds the index stale runs the delta sync itself (one small
+ * request) before querying; concurrent checks do not wait for it and query the
+ * current contents. Only the very first load of a question is waited for by all.
+ *
+ * Answers are keyed by submissionId. An answer seen before its submission is
+ * known (a realtime check without one) sits under a provisional
+ * {@code student:<id>} key, dropped as soon as the student's submission is
+ * seen, and each feed row's answerId maps to the one key it is indexed under,
+ * so the same answer is never counted twice.
+ *
+ * Every answer indexed here is also recorded in {@link CorpusStatisticsService}
+ * so the question's document frequencies track the same corpus.
+ */
+@Service
+@Slf4j
+public class PeerAnswerIndexService {
+
+    private static final String PROVISIONAL_PREFIX = "student:";
+
+    private final SubmissionFetchService submissionFetch;
+    private final CorpusStatisticsService corpusStats;
+    private final int shingleSize;
+    private final int topK;
+    private final long refreshIntervalMs;
+    private final Duration deltaOverlap;
+    private final Cache<String, QuestionIndex> indexes;
+
+    public PeerAnswerIndexService(
+            SubmissionFetchService submissionFetch,
+            CorpusStatisticsService corpusStats,
+            @Value("${integrity.peer-index.shingle-size:3}") int shingleSize,
+            @Value("${integrity.peer-index.top-k:10}") int topK,
+            @Value("${integrity.peer-index.refresh-interval-ms:30000}") long refreshIntervalMs,
+            @Value("${integrity.peer-index.delta-overlap-ms:2000}") long deltaOverlapMs,
+            @Value("${integrity.peer-index.max-questions:500}") long maxQuestions,
+            @Value("${integrity.peer-index.idle-expiry-minutes:180}") long idleExpiryMinutes) {
+        this.submissionFetch   = submissionFetch;
+        this.corpusStats       = corpusStats;
+        this.shingleSize       = shingleSize;
+        this.topK              = topK;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.deltaOverlap      = Duration.ofMillis(Math.max(0, deltaOverlapMs));
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maxQuestions)
+                .expireAfterAccess(Duration.ofMinutes(idleExpiryMinutes))
+                .build();
+    }
+
+    /**
+     * Record the latest text of one student's answer to a question.
+     * Safe to call on every autosave-driven check; unchanged shingle sets are a no-op.
+     */
+    public void recordAnswer(String questionId, String submissionId, String studentId, String text) {
+        recordAnswer(questionId, submissionId, studentId, text, TextTokenizer.tokenize(text));
+    }
+
+    /** As {@link #recordAnswer(String, String, String, String)} reusing the caller's tokenization. */
+    public void recordAnswer(String questionId, String submissionId, String studentId,
+                             String text, TokenizedText tokens) {
+        if (questionId == null || questionId.isBlank()) return;
+        QuestionIndex qi = indexFor(questionId);
+        String key = answerKey(questionId, qi, submissionId, studentId);
+        if (key == null) return;
+        qi.index.upsert(key, submissionOf(key), blankToNull(studentId), text, tokens);
+        corpusStats.recordAnswer(questionId, key, tokens);
+    }
+
+    /**
+     * Return the top-k peer answers for a question ranked by shared shingles,
+     * excluding the requesting student's own answers.
+     */
+    public List<PeerAnswerIndex.Candidate> findCandidates(String questionId, String text,
+                                                          String excludeStudentId,
+                                                          String excludeSubmissionId) {
+        return findCandidates(questionId, TextTokenizer.tokenize(text), excludeStudentId, excludeSubmissionId);
+    }
+
+    /**
+     * As {@link #findCandidates(String, String, String, String)} for an already
+     * tokenized text, so callers that rescore the candidates tokenize only once.
+     */
+    public List<PeerAnswerIndex.Candidate> findCandidates(String questionId, TokenizedText text,
+                                                          String excludeStudentId,
+                                                          String excludeSubmissionId) {
+        if (questionId == null || questionId.isBlank()) return List.of();
+        QuestionIndex qi = indexFor(questionId);
+        refreshIfStale(questionId, qi);
+
+        List<PeerAnswerIndex.Candidate> candidates = qi.index.query(
+                text, blankToNull(excludeStudentId), blankToNull(excludeSubmissionId), topK);
+        log.debug("[PeerIndex] questionId={} indexed={} candidates={}", questionId, qi.index.size(), candidates.size());
+        return candidates;
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    private QuestionIndex indexFor(String questionId) {
+        return indexes.get(questionId, q -> new QuestionIndex(new PeerAnswerIndex(shingleSize)));
+    }
+
+    /**
+     * Bring the question index up to date when it has never been loaded (every
+     * caller waits) or its last sync is older than the refresh interval (this
+     * caller runs the delta sync inline, unless another thread already is, in
+     * which case it goes on with the current contents).
+     */
+    private void refreshIfStale(String questionId, QuestionIndex qi) {
+        if (qi.syncedAt == 0L) {
+            qi.sync.lock();
+        } else if (System.currentTimeMillis() - qi.syncedAt < refreshIntervalMs || !qi.sync.tryLock()) {
+            return;
+        }
+        try {
+            if (System.currentTimeMillis() - qi.syncedAt >= refreshIntervalMs) sync(questionId, qi);
+        } finally {
+            qi.sync.unlock();
+        }
+    }
+
+    /**
+     * Stream every answer changed since the cursor (all answers on first load)
+     * into the index and advance the cursor to the last row applied. The request
+     * starts {@code delta-overlap-ms} before the cursor because lastModified is
+     * stamped before commit, so a slow transaction can become visible after a
+     * later-stamped row was read; re-delivered unchanged rows are skipped cheaply.
+     */
+    private void sync(String questionId, QuestionIndex qi) {
+        long t0 = System.currentTimeMillis();
+        boolean initial = qi.cursorTime == null;
+        String since = initial ? null : qi.cursorTime.minus(deltaOverlap).toString();
+        long afterId = initial || !deltaOverlap.isZero() ? 0L : qi.cursorId;
+
+        int[] applied = {0};
+        long rows = submissionFetch.streamAnswersForQuestions(List.of(questionId), since, afterId, row -> {
+            advanceCursor(qi, row);
+            String key = answerKey(questionId, qi, row.getSubmissionId(), row.getStudentId());
+            if (key == null) return;
+            if (row.getAnswerId() != null) {
+                String previous = qi.keyByAnswerId.put(row.getAnswerId(), key);
+                if (previous != null && !previous.equals(key)) drop(questionId, qi, previous);
+            }
+            String text = row.getAnswerText();
+            if (!initial && qi.index.holds(key, text)) return;
+
+            TokenizedText tokens = text == null || text.isBlank() ? TokenizedText.EMPTY : TextTokenizer.tokenize(text);
+            qi.index.upsert(key, submissionOf(key), blankToNull(row.getStudentId()), text, tokens);
+            corpusStats.recordAnswer(questionId, key, tokens);
+            applied[0]++;
+        });
+        qi.syncedAt = System.currentTimeMillis();
+
+        if (initial) {
+            log.info("[PeerIndex] Loaded questionId={} rows={} indexed={} in {}ms",
+                    questionId, rows, qi.index.size(), qi.syncedAt - t0);
+        } else {
+            log.debug("[PeerIndex] Delta questionId={} since={} rows={} applied={} indexed={} in {}ms",
+                    questionId, since, rows, applied[0], qi.index.size(), qi.syncedAt - t0);
+        }
+    }
+
+    private static void advanceCursor(QuestionIndex qi, PeerAnswerRecord row) {
+        if (row.getLastModified() == null || row.getAnswerId() == null) return;
+        LocalDateTime modified = LocalDateTime.parse(row.getLastModified());
+        if (qi.cursorTime == null || modified.isAfter(qi.cursorTime)
+                || modified.isEqual(qi.cursorTime) && row.getAnswerId() > qi.cursorId) {
+            qi.cursorTime = modified;
+            qi.cursorId   = row.getAnswerId();
+        }
+    }
+
+    /**
+     * The key an answer is indexed under: its submissionId, or — while the
+     * student's submission is not known yet — a provisional student key. Once a
+     * submission is seen for the student, their provisional entry is dropped and
+     * later submission-less records resolve to the submission key.
+     */
+    private String answerKey(String questionId, QuestionIndex qi, String submissionId, String studentId) {
+        String submission = blankToNull(submissionId);
+        String student = blankToNull(studentId);
+        if (submission == null) {
+            if (student == null) return null;
+            String known = qi.submissionByStudent.get(student);
+            return known != null ? known : PROVISIONAL_PREFIX + student;
+        }
+        if (student != null) {
+            qi.submissionByStudent.put(student, submission);
+            String provisional = PROVISIONAL_PREFIX + student;
+            if (!qi.index.holds(provisional, null)) drop(questionId, qi, provisional);
+        }
+        return submission;
+    }
+
+    private static String submissionOf(String key) {
+        return key.startsWith(PROVISIONAL_PREFIX) ? null : key;
+    }
+
+    private void drop(String questionId, QuestionIndex qi, String key) {
+        qi.index.remove(key);
+        corpusStats.recordAnswer(questionId, key, TokenizedText.EMPTY);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static final class QuestionIndex {
+        final PeerAnswerIndex index;
+        final ReentrantLock sync = new ReentrantLock();
+        volatile long syncedAt = 0L;
+
+        /** Feed cursor: (lastModified, answerId) of the newest row applied; guarded by {@code sync}. */
+        LocalDateTime cursorTime;
+        long cursorId;
+        /** Key each feed row was last indexed under; guarded by {@code sync}. */
+        final Map<Long, String> keyByAnswerId = new HashMap<>();
+        /** Submission each student's answer is indexed under, once known. */
+        final Map<String, String> submissionByStudent = new ConcurrentHashMap<>();
+
+        QuestionIndex(PeerAnswerIndex index) {
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.integrity_monitoring_service.service;
+
+import com.example.integrity_monitoring_service.dto.request.RealtimeCheckRequest;
+import com.example.integrity_monitoring_service.dto.response.ApiResponse;
+import com.example.integrity_monitoring_service.dto.response.RealtimeCheckResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Debouncing, coalescing front of {@link RealtimeCheckService}.
+ *
+ * The editor sends a snapshot on every pause in typing, so a check for a
+ * (session, question) is often still queued or running when the next snapshot
+ * arrives. Per key this stage keeps only the latest pending snapshot:
+ *   - a snapshot waits {@code debounce-ms} of quiet (at most {@code max-wait-ms}
+ *     after the first pending one) before its check starts;
+ *   - a newer snapshot replaces a pending one, and every caller waiting on the
+ *     replaced snapshot receives the newer result instead;
+ *   - a newer snapshot marks the in-flight check superseded, which stops it at
+ *     its next stage boundary (before the internet search, peer comparison or
+ *     DB insert) — unless the student has had no result for max-wait, so
+ *     continuous typing cannot starve the answer of checks.
+ * At most one check per key runs at a time. Each completed result is published
+ * to {@code /topic/plagiarism-warnings/{sessionId}}.
+ */
+@Service
+@Slf4j
+public class RealtimeCheckCoalescer {
+
+    record Key(String sessionId, Long questionId) {
+    }
+
+    /** Counters since startup. */
+    public record Stats(long submitted, long coalesced, long cancelledInFlight, long executed) {
+    }
+
+    private final RealtimeCheckService realtimeCheckService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Executor checkExecutor;
+    private final ScheduledExecutorService timer;
+    private final long debounceNanos;
+    private final long maxWaitNanos;
+
+    private final Map<Key, Slot> slots = new ConcurrentHashMap<>();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong cancelledInFlight = new AtomicLong();
+    private final AtomicLong executed = new AtomicLong();
+
+    public RealtimeCheckCoalescer(
+            RealtimeCheckService realtimeCheckService,
+            SimpMessagingTemplate messagingTemplate,
+            @Qualifier("realtimeCheckExecutor") Executor checkExecutor,
+            @Value("${integrity.realtime.debounce-ms:750}") long debounceMs,
+            @Value("${integrity.realtime.max-wait-ms:3000}") long maxWaitMs) {
+        this.realtimeCheckService = realtimeCheckService;
+        this.messagingTemplate    = messagingTemplate;
+        this.checkExecutor        = checkExecutor;
+        this.debounceNanos        = TimeUnit.MILLISECONDS.toNanos(Math.max(0, debounceMs));
+        this.maxWaitNanos         = TimeUnit.MILLISECONDS.toNanos(Math.max(debounceMs, maxWaitMs));
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "realtime-debounce");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Queue a snapshot for checking. The future completes with the result of the
+     * check that covers this snapshot — its own, or that of a newer snapshot of
+     * the same answer that superseded it.
+     */
+    public CompletableFuture<ApiResponse<RealtimeCheckResponse>> submit(RealtimeCheckRequest request) {
+        submitted.incrementAndGet();
+        Key key = new Key(request.getSessionId(), request.getQuestionId());
+        while (true) {
+            Slot slot = slots.computeIfAbsent(key, k -> new Slot(System.nanoTime()));
+            synchronized (slot) {
+                if (slot.retired) continue;
+                long now = System.nanoTime();
+                if (slot.pending == null) {
+                    slot.pendingResult = new CompletableFuture<>();
+                    slot.firstPendingAt = now;
+                } else {
+                    coalesced.incrementAndGet();
+                }
+                slot.pending = request;
+                slot.lastSubmitAt = now;
+
+                if (slot.running != null) {
+                    // Supersede the in-flight check unless the student has gone max-wait without
+                    // any result — otherwise continuous typing could cancel every check.
+                    if (now - slot.lastDeliveredAt < maxWaitNanos
+                            && slot.running.superseded().compareAndSet(false, true)) {
+                        cancelledInFlight.incrementAndGet();
+                    }
+                } else if (!slot.drainScheduled) {
+                    scheduleDrain(key, slot, debounceNanos);
+                }
+                return slot.pendingResult;
+            }
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(submitted.get(), coalesced.get(), cancelledInFlight.get(), executed.get());
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    /** Per-key state; every field is guarded by the slot's monitor. */
+    private static final class Slot {
+        RealtimeCheckRequest pending;
+        CompletableFuture<ApiResponse<RealtimeCheckResponse>> pendingResult;
+        long firstPendingAt;
+        long lastSubmitAt;
+        long lastDeliveredAt;
+        boolean drainScheduled;
+        Run running;
+        boolean retired;
+
+        Slot(long createdAt) {
+            this.lastDeliveredAt = createdAt;
+        }
+    }
+
+    private record Run(RealtimeCheckRequest request,
+                       CompletableFuture<ApiResponse<RealtimeCheckResponse>> result,
+                       AtomicBoolean superseded) {
+    }
+
+    private void scheduleDrain(Key key, Slot slot, long delayNanos) {
+        slot.drainScheduled = true;
+        timer.schedule(() -> drain(key, slot), delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Timer callback: start the pending check once the answer has been quiet long enough. */
+    private void drain(Key key, Slot slot) {
+        Run run;
+        synchronized (slot) {
+            slot.drainScheduled = false;
+            if (slot.pending == null || slot.running != null) return;
+
+            long due = Math.min(slot.lastSubmitAt + debounceNanos, slot.firstPendingAt + maxWaitNanos);
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                scheduleDrain(key, slot, wait);
+                return;
+            }
+            run = new Run(slot.pending, slot.pendingResult, new AtomicBoolean());
+            slot.pending = null;
+            slot.pendingResult = null;
+            slot.running = run;
+        }
+        try {
+            checkExecutor.execute(() -> execute(key, slot, run));
+        } catch (RejectedExecutionException e) {
+            log.warn("[RealtimeCoalescer] Executor saturated — dropping check session={} question={}",
+                    key.sessionId(), key.questionId());
+            finish(key, slot, run, ApiResponse.error("Real-time check queue is full"));
+        }
+    }
+
+    private void execute(Key key, Slot slot, Run run) {
+        ApiResponse<RealtimeCheckResponse> result;
+        try {
+            result = realtimeCheckService.checkRealtime(run.request(), run.superseded()::get);
+            executed.incrementAndGet();
+        } catch (Exception e) {
+            log.error("[RealtimeCoalescer] Check failed session={} question={}: {}",
+                    key.sessionId(), key.questionId(), e.getMessage(), e);
+            result = ApiResponse.error("Real-time check failed: " + e.getMessage());
+        }
+        finish(key, slot, run, result);
+    }
+
+    private void finish(Key key, Slot slot, Run run, ApiResponse<RealtimeCheckResponse> result) {
+        CompletableFuture<ApiResponse<RealtimeCheckResponse>> successor = null;
+        synchronized (slot) {
+            slot.running = null;
+            if (run.superseded().get()) successor = slot.pendingResult;
+            else slot.lastDeliveredAt = System.nanoTime();
+            if (slot.pending != null) {
+                if (!slot.drainScheduled) scheduleDrain(key, slot, 0);
+            } else {
+                slot.retired = true;
+                slots.remove(key, slot);
+            }
+        }
+
+        if (successor != null) {
+            // Callers of the superseded snapshot get the newer snapshot's result.
+            successor.whenComplete((r, e) -> {
+                if (e != null) run.result().completeExceptionally(e);
+                else run.result().complete(r);
+            });
+            return;
+        }
+        run.result().complete(result);
+        RealtimeCheckResponse response = result.getData();
+        if (response != null) publish(key, response);
+    }
+
+    private void publish(Key key, RealtimeCheckResponse response) {
+        try {
+            messagingTemplate.convertAndSend(RealtimeCheckService.WARNINGS_DESTINATION + key.sessionId(), response);
+        } catch (Exception e) {
+            log.error("[RealtimeCoalescer] Error sending result to session={}: {}", key.sessionId(), e.getMessage());
+        }
+    }
+}
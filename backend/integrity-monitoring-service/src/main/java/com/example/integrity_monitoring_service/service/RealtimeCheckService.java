@@ -7,6 +7,10 @@ import com.example.integrity_monitoring_service.dto.response.RealtimeCheckRespon
 import com.example.integrity_monitoring_service.model.QuestionType;
 import com.example.integrity_monitoring_service.model.RealtimeCheck;
 import com.example.integrity_monitoring_service.repository.RealtimeCheckRepository;
+import com.example.integrity_monitoring_service.similarity.DocumentFrequencyTable;
+import com.example.integrity_monitoring_service.similarity.PeerAnswerIndex;
+import com.example.integrity_monitoring_service.similarity.SparseVector;
+import com.example.integrity_monitoring_service.similarity.TokenizedText;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,9 +21,11 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
 
 /**
  * Real-time plagiarism checking as students type
@@ -29,12 +35,17 @@ import java.util.Set;
 @Slf4j
 public class RealtimeCheckService {
 
+    /** STOMP destination prefix for per-session results; the session id is appended. */
+    public static final String WARNINGS_DESTINATION = "/topic/plagiarism-warnings/";
+
     private final RealtimeCheckRepository realtimeCheckRepository;
     private final TextSimilarityService textSimilarity;
     private final GoogleSearchService googleSearch;
     private final QuestionAnalyzerService questionAnalyzer;
     private final SimpMessagingTemplate messagingTemplate;
-    private final SubmissionFetchService submissionFetch;
+    private final PeerAnswerIndexService peerIndex;
+    private final CorpusStatisticsService corpusStats;
+    private final RealtimeParagraphCache paragraphCache;
 
     @Value("${integrity.realtime.enabled:true}")
     private boolean realtimeEnabled;
@@ -49,11 +60,37 @@ public class RealtimeCheckService {
     @Value("${integrity.internet-similarity-threshold:0.85}")
     private double internetSimilarityThreshold;
 
+    /** Changed paragraphs searched per check; the rest are searched on later checks. */
+    @Value("${integrity.realtime.max-paragraph-searches:2}")
+    private int maxParagraphSearches;
+
+    /** Skip the internet search when at least this share of the answer is cohort-wide vocabulary and it matches no peer. */
+    @Value("${integrity.idf.internet-skip-common-ratio:0.9}")
+    private double internetSkipCommonRatio;
+
     /**
      * Check text in real-time as student types
      */
     @Transactional
     public ApiResponse<RealtimeCheckResponse> checkRealtime(RealtimeCheckRequest request) {
+        ApiResponse<RealtimeCheckResponse> result = checkRealtime(request, () -> false);
+        RealtimeCheckResponse response = result.getData();
+        if (response != null && Boolean.TRUE.equals(response.getFlagged())) {
+            log.warn("[RealtimeCheck] FLAGGED — sending WebSocket warning to session={}",
+                    request.getSessionId());
+            sendWarningNotification(request.getSessionId(), response);
+        }
+        return result;
+    }
+
+    /**
+     * Run one check without notifying the session; the caller delivers the result.
+     * {@code superseded} is polled before each expensive stage (internet search,
+     * peer comparison, DB insert) — once it turns true the check stops and
+     * returns no data, because a newer snapshot of the same answer is queued.
+     */
+    @Transactional
+    public ApiResponse<RealtimeCheckResponse> checkRealtime(RealtimeCheckRequest request, BooleanSupplier superseded) {
         if (!realtimeEnabled) {
             return ApiResponse.success("Real-time checking disabled", null);
         }
@@ -94,58 +131,19 @@ public class RealtimeCheckService {
             double peerSimilarityScore = 0.0;
 
             if (request.getTextContent().length() > 100) {
-                // ── Internet search (Google Custom Search API) ─────────────────
-                log.debug("[RealtimeCheck] Calling Google search for text ({} chars)", request.getTextContent().length());
-                List<Map<String, String>> searchResults = googleSearch.searchInternet(
-                        request.getTextContent(), 3);
-                log.debug("[RealtimeCheck] Google returned {} results", searchResults.size());
-
-                double internetSimilarity = textSimilarity.calculateInternetSimilarity(
-                    request.getTextContent(), searchResults);
-                internetSimilarityScore = internetSimilarity; // track separately
-                log.info("[RealtimeCheck] Internet similarity={} threshold={}", internetSimilarity, internetSimilarityThreshold);
-                // Internet results require minimum similarity before being included in the final
-                // score. Snippet-based TF-IDF naturally tops out ~0.55 even for exact copy-paste,
-                // so the threshold is kept low (0.30) to avoid discarding real plagiarism.
-                if (internetSimilarity >= internetSimilarityThreshold) {
-                    maxSimilarity = Math.max(maxSimilarity, internetSimilarity);
-                    log.info("[RealtimeCheck] Internet similarity exceeds threshold — including in score");
-                } else {
-                    log.debug("[RealtimeCheck] Internet similarity {} below threshold {} — not included in final score",
-                            internetSimilarity, internetSimilarityThreshold);
-                }
-
-                // Always collect per-source scores when internet similarity is detected,
-                // so the UI can display matched sources even when not flagged.
-                if (internetSimilarity > 0 && !searchResults.isEmpty()) {
-                    List<Double> perSnippet = textSimilarity.calculatePerSnippetSimilarities(
-                            request.getTextContent(), searchResults);
-                    for (int i = 0; i < searchResults.size(); i++) {
-                        Map<String, String> sr = searchResults.get(i);
-                        String domain = sr.getOrDefault("domain", "");
-                        String category = sr.getOrDefault("category", categorizeSource(domain));
-                        double rawScore = i < perSnippet.size() ? perSnippet.get(i) : 0.0;
-                        double displayScore = Math.round(rawScore * 1000.0) / 10.0;
-                        if (rawScore > 0) {
-                            internetMatches.add(InternetMatchResponse.builder()
-                                    .url(sr.getOrDefault("url", ""))
-                                    .title(sr.getOrDefault("title", ""))
-                                    .snippet(sr.getOrDefault("snippet", ""))
-                                    .similarityScore(displayScore)
-                                    .sourceDomain(domain)
-                                    .sourceCategory(category)
-                                    .confidenceLevel(determineConfidence(displayScore))
-                                    .matchedStudentText(extractMatchedStudentText(request.getTextContent(), sr.getOrDefault("snippet", "")))
-                                    .build());
-                            log.debug("[RealtimeCheck] Matched source: domain={} score={}", domain, rawScore);
-                        }
-                    }
-                }
-
-                // ── Peer comparison (TF-IDF vs other students' answers) ────────
+                if (superseded.getAsBoolean()) return supersededResult(request);
                 String questionId = request.getQuestionId() != null
                         ? request.getQuestionId().toString() : null;
 
+                // Diff against the previous snapshot: unchanged paragraphs keep their tokens and
+                // internet results; the whole answer's tokens are assembled from the paragraphs.
+                RealtimeParagraphCache.Diff diff = paragraphCache.diff(
+                        request.getSessionId(), request.getQuestionId(), request.getTextContent());
+                TokenizedText studentTokens = diff.tokens();
+                log.debug("[RealtimeCheck] Paragraphs={} unchanged={}", diff.paragraphs().size(), diff.reused());
+
+                // ── Peer comparison (resident shingle index → TF-IDF on top-k) ──
+                // Runs first: it is cheap, and its result decides whether the internet search can be skipped.
                 if (questionId != null && !questionId.isBlank()) {
                     // Exclude by studentId — removes ALL of the student's answers across every
                     // submission version so none of their own text inflates the similarity score.
@@ -153,29 +151,93 @@ public class RealtimeCheckService {
                     // were saved before studentId was captured.
                     String excludeStudentId = request.getStudentId();
                     String excludeSubmissionId = request.getSubmissionId(); // may be null for old clients
-                    log.debug("[RealtimeCheck] Fetching peer answers for questionId={} excludeStudentId={} excludeSubmissionId={}",
+                    log.debug("[RealtimeCheck] Querying peer index for questionId={} excludeStudentId={} excludeSubmissionId={}",
                             questionId, excludeStudentId, excludeSubmissionId);
-                    List<Map<String, String>> peerAnswers =
-                            submissionFetch.fetchPeerAnswersForQuestion(questionId, excludeStudentId, excludeSubmissionId);
-                    log.debug("[RealtimeCheck] Got {} peer answers", peerAnswers.size());
-
-                    for (Map<String, String> peer : peerAnswers) {
-                        String peerText = peer.get("content");
-                        if (peerText == null || peerText.isBlank()) continue;
+                    List<PeerAnswerIndex.Candidate> candidates = peerIndex.findCandidates(
+                            questionId, studentTokens, excludeStudentId, excludeSubmissionId);
+                    log.debug("[RealtimeCheck] Peer index returned {} candidates", candidates.size());
+
+                    // Only the top-k shingle candidates are rescored with TF-IDF cosine so the
+                    // final score stays on the same scale as the configured thresholds. IDF comes
+                    // from the question's answer corpus once it is large enough.
+                    DocumentFrequencyTable idf = corpusStats.idfFor(questionId);
+                    SparseVector studentVector = textSimilarity.vectorFor(studentTokens, idf);
+                    for (PeerAnswerIndex.Candidate peer : candidates) {
                         double peerSim = textSimilarity.calculateSimilarity(
-                                request.getTextContent(), peerText);
+                                studentVector, textSimilarity.vectorFor(peer.tokens(), idf));
                         if (peerSim > maxSimilarity) {
-                            log.debug("[RealtimeCheck] New max peer similarity={} submissionId={}",
-                                    peerSim, peer.get("submissionId"));
+                            log.debug("[RealtimeCheck] New max peer similarity={} shingleScore={} submissionId={}",
+                                    peerSim, peer.score(), peer.submissionId());
                             maxSimilarity = peerSim;
                         }
                         if (peerSim > peerSimilarityScore) peerSimilarityScore = peerSim;
                     }
+
+                    // Record this student's latest text so peers checked after them see it.
+                    peerIndex.recordAnswer(questionId, excludeSubmissionId, excludeStudentId,
+                            request.getTextContent(), studentTokens);
                     log.info("[RealtimeCheck] After peer comparison maxSimilarity={}", maxSimilarity);
                 } else {
                     log.debug("[RealtimeCheck] No questionId — skipping peer comparison");
                 }
 
+                // ── Internet search (per changed paragraph) ────────────────────
+                // An answer made almost entirely of vocabulary most of the cohort also uses
+                // (typically words from the question itself) has nothing distinctive to search for.
+                // Unless it is also close to a peer answer: when many students paste the same web
+                // source its terms become cohort-common, and exactly those answers must be searched.
+                double commonVocabulary = corpusStats.commonVocabularyRatio(questionId, studentTokens);
+                boolean explainedBySharedVocabulary = commonVocabulary >= internetSkipCommonRatio
+                        && peerSimilarityScore <= textSimilarityThreshold;
+                if (explainedBySharedVocabulary) {
+                    log.info("[RealtimeCheck] Skipping internet search — {}% of the answer is shared question vocabulary",
+                            Math.round(commonVocabulary * 100));
+                }
+
+                List<RealtimeParagraphCache.ScoredParagraph> paragraphs = new ArrayList<>(diff.paragraphs().size());
+                Map<String, InternetMatchResponse> matchesByUrl = new LinkedHashMap<>();
+                double internetSimilarity = 0.0;
+                int searched = 0;
+                boolean stopSearching = explainedBySharedVocabulary;
+                for (RealtimeParagraphCache.ScoredParagraph paragraph : diff.paragraphs()) {
+                    if (!stopSearching && paragraph.internet() == null && paragraph.searchable()) {
+                        stopSearching = searched == maxParagraphSearches || superseded.getAsBoolean();
+                        if (!stopSearching) {
+                            RealtimeParagraphCache.InternetLeg leg = searchParagraph(paragraph);
+                            paragraph = paragraph.withInternet(leg);
+                            searched++;
+                            // No search was made (budget, HTTP or network failure): leave the rest for a later check
+                            stopSearching = leg == null;
+                        }
+                    }
+                    paragraphs.add(paragraph);
+                    if (explainedBySharedVocabulary || paragraph.internet() == null) continue;
+
+                    internetSimilarity = Math.max(internetSimilarity, paragraph.internet().similarity());
+                    for (InternetMatchResponse match : paragraph.internet().matches()) {
+                        matchesByUrl.merge(match.getUrl(), match,
+                                (a, b) -> a.getSimilarityScore() >= b.getSimilarityScore() ? a : b);
+                    }
+                }
+                // Stored before any early exit so searches already paid for are kept.
+                paragraphCache.store(request.getSessionId(), request.getQuestionId(), paragraphs);
+                if (superseded.getAsBoolean()) return supersededResult(request);
+                internetMatches.addAll(matchesByUrl.values());
+
+                internetSimilarityScore = internetSimilarity; // track separately
+                log.info("[RealtimeCheck] Internet similarity={} threshold={} (paragraphs searched={} reused={})",
+                        internetSimilarity, internetSimilarityThreshold, searched, diff.reused());
+                // Internet results require minimum similarity before being included in the final
+                // score. Snippet-based TF-IDF naturally tops out ~0.55 even for exact copy-paste,
+                // so the threshold is kept low (0.30) to avoid discarding real plagiarism.
+                if (internetSimilarity >= internetSimilarityThreshold) {
+                    maxSimilarity = Math.max(maxSimilarity, internetSimilarity);
+                    log.info("[RealtimeCheck] Internet similarity exceeds threshold — including in score");
+                } else {
+                    log.debug("[RealtimeCheck] Internet similarity {} below threshold {} — not included in final score",
+                            internetSimilarity, internetSimilarityThreshold);
+                }
+
                 flagged = maxSimilarity > textSimilarityThreshold;
                 log.info("[RealtimeCheck] Final similarity={} threshold={} flagged={}",
                         maxSimilarity, textSimilarityThreshold, flagged);
@@ -183,6 +245,7 @@ public class RealtimeCheckService {
                 log.debug("[RealtimeCheck] Text <100 chars — skipping internet search and peer comparison");
             }
 
+            if (superseded.getAsBoolean()) return supersededResult(request);
             RealtimeCheck check = RealtimeCheck.builder()
                     .sessionId(request.getSessionId())
                     .studentId(request.getStudentId())
@@ -198,13 +261,6 @@ public class RealtimeCheckService {
 
             RealtimeCheckResponse response = buildResponse(request, maxSimilarity, flagged, internetMatches,
                     internetSimilarityScore, peerSimilarityScore);
-
-            if (flagged) {
-                log.warn("[RealtimeCheck] FLAGGED — sending WebSocket warning to session={}",
-                        request.getSessionId());
-                sendWarningNotification(request.getSessionId(), response);
-            }
-
             return ApiResponse.success("Real-time check completed", response);
 
         } catch (Exception e) {
@@ -214,6 +270,60 @@ public class RealtimeCheckService {
         }
     }
 
+    /**
+     * Search the internet for one paragraph and score it against the results.
+     * Per-source scores are always collected when any similarity is detected,
+     * so the UI can display matched sources even when not flagged.
+     *
+     * Returns null when no search was made, so the paragraph stays unsearched in
+     * the paragraph cache and a later check retries it.
+     */
+    private RealtimeParagraphCache.InternetLeg searchParagraph(RealtimeParagraphCache.ScoredParagraph paragraph) {
+        log.debug("[RealtimeCheck] Calling Google search for paragraph ({} chars)", paragraph.text().length());
+        GoogleSearchService.Lookup lookup = googleSearch.lookupInternet(paragraph.text(), 3);
+        if (!lookup.searched()) {
+            log.debug("[RealtimeCheck] No internet search made for paragraph — will retry on a later check");
+            return null;
+        }
+        List<Map<String, String>> searchResults = lookup.results();
+        log.debug("[RealtimeCheck] Google returned {} results", searchResults.size());
+
+        double similarity = textSimilarity.calculateInternetSimilarity(paragraph.tokens(), searchResults);
+        if (similarity <= 0 || searchResults.isEmpty()) {
+            return new RealtimeParagraphCache.InternetLeg(similarity, List.of());
+        }
+
+        List<InternetMatchResponse> matches = new ArrayList<>();
+        List<Double> perSnippet = textSimilarity.calculatePerSnippetSimilarities(paragraph.tokens(), searchResults);
+        for (int i = 0; i < searchResults.size(); i++) {
+            Map<String, String> sr = searchResults.get(i);
+            String domain = sr.getOrDefault("domain", "");
+            String category = sr.getOrDefault("category", categorizeSource(domain));
+            double rawScore = i < perSnippet.size() ? perSnippet.get(i) : 0.0;
+            double displayScore = Math.round(rawScore * 1000.0) / 10.0;
+            if (rawScore > 0) {
+                matches.add(InternetMatchResponse.builder()
+                        .url(sr.getOrDefault("url", ""))
+                        .title(sr.getOrDefault("title", ""))
+                        .snippet(sr.getOrDefault("snippet", ""))
+                        .similarityScore(displayScore)
+                        .sourceDomain(domain)
+                        .sourceCategory(category)
+                        .confidenceLevel(determineConfidence(displayScore))
+                        .matchedStudentText(extractMatchedStudentText(paragraph.text(), sr.getOrDefault("snippet", "")))
+                        .build());
+                log.debug("[RealtimeCheck] Matched source: domain={} score={}", domain, rawScore);
+            }
+        }
+        return new RealtimeParagraphCache.InternetLeg(similarity, List.copyOf(matches));
+    }
+
+    private ApiResponse<RealtimeCheckResponse> supersededResult(RealtimeCheckRequest request) {
+        log.debug("[RealtimeCheck] Superseded — session={} question={} has a newer snapshot queued",
+                request.getSessionId(), request.getQuestionId());
+        return ApiResponse.success("Superseded by a newer check", null);
+    }
+
     /**
      * Build real-time check response
      */
@@ -301,8 +411,9 @@ public class RealtimeCheckService {
     /**
      * Find the sentence in the student's text that best overlaps with the source snippet.
      * Returns null if no meaningful overlap found (fewer than 3 keyword words in common).
+     * Package-private and static so the JMH benchmarks can call it directly.
      */
-    private String extractMatchedStudentText(String studentText, String snippet) {
+    static String extractMatchedStudentText(String studentText, String snippet) {
         if (studentText == null || snippet == null || snippet.isBlank()) return null;
 
         // Build keyword set from snippet (words longer than 4 chars)
@@ -355,7 +466,7 @@ public class RealtimeCheckService {
     private void sendWarningNotification(String sessionId, RealtimeCheckResponse response) {
         try {
             messagingTemplate.convertAndSend(
-                    "/topic/plagiarism-warnings/" + sessionId,
+                    WARNINGS_DESTINATION + sessionId,
                     response
             );
             log.debug("Sent plagiarism warning to session: {}", sessionId);
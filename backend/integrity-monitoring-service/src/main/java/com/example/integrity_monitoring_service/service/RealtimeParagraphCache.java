@@ -0,0 +1,101 @@
+package com.example.integrity_monitoring_service.service;
+
+import com.example.integrity_monitoring_service.dto.response.InternetMatchResponse;
+import com.example.integrity_monitoring_service.similarity.ParagraphSplitter;
+import com.example.integrity_monitoring_service.similarity.TextTokenizer;
+import com.example.integrity_monitoring_service.similarity.TokenizedText;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Paragraph-level memory of each (session, question)'s latest realtime snapshot.
+ *
+ * A new snapshot is split into paragraphs and diffed against the previous one
+ * by fingerprint: unchanged paragraphs keep their tokenization and their
+ * internet-search result, so a check only tokenizes and searches what the
+ * student actually edited. Paragraphs dropped from the answer are forgotten.
+ */
+@Service
+public class RealtimeParagraphCache {
+
+    /** Internet leg of one paragraph: its search results' best similarity and the matched sources. */
+    public record InternetLeg(double similarity, List<InternetMatchResponse> matches) {
+        public static final InternetLeg NONE = new InternetLeg(0.0, List.of());
+    }
+
+    /** One paragraph of the latest snapshot; {@code internet} is null until it has been searched. */
+    public record ScoredParagraph(String text, long fingerprint, TokenizedText tokens, InternetLeg internet) {
+        /** Long enough to search on its own — the same bound the splitter groups lines up to. */
+        public boolean searchable() {
+            return text.length() >= MIN_PARAGRAPH_CHARS;
+        }
+
+        public ScoredParagraph withInternet(InternetLeg leg) {
+            return new ScoredParagraph(text, fingerprint, tokens, leg);
+        }
+    }
+
+    /** Current paragraphs in order, with how many were carried over from the previous snapshot. */
+    public record Diff(List<ScoredParagraph> paragraphs, int reused) {
+        public TokenizedText tokens() {
+            List<TokenizedText> parts = new ArrayList<>(paragraphs.size());
+            for (ScoredParagraph p : paragraphs) parts.add(p.tokens());
+            return TokenizedText.join(parts);
+        }
+    }
+
+    /** Shorter lines are grouped with the following ones; also the internet-search minimum per paragraph. */
+    public static final int MIN_PARAGRAPH_CHARS = 100;
+
+    private final Cache<String, List<ScoredParagraph>> snapshots;
+
+    public RealtimeParagraphCache(
+            @Value("${integrity.realtime.paragraph-cache.max-sessions:20000}") long maxSessions,
+            @Value("${integrity.realtime.paragraph-cache.idle-expiry-minutes:120}") long idleExpiryMinutes) {
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSessions)
+                .expireAfterAccess(Duration.ofMinutes(idleExpiryMinutes))
+                .build();
+    }
+
+    /** Split {@code text} and reuse every paragraph the previous snapshot already had. */
+    public Diff diff(String sessionId, Long questionId, String text) {
+        List<ScoredParagraph> previous = snapshots.getIfPresent(key(sessionId, questionId));
+        Map<Long, ScoredParagraph> known = new HashMap<>();
+        if (previous != null) {
+            for (ScoredParagraph p : previous) known.put(p.fingerprint(), p);
+        }
+
+        List<ParagraphSplitter.Paragraph> split = ParagraphSplitter.split(text, MIN_PARAGRAPH_CHARS);
+        List<ScoredParagraph> current = new ArrayList<>(split.size());
+        int reused = 0;
+        for (ParagraphSplitter.Paragraph paragraph : split) {
+            ScoredParagraph cached = known.get(paragraph.fingerprint());
+            if (cached != null && cached.text().equals(paragraph.text())) {
+                current.add(cached);
+                reused++;
+            } else {
+                current.add(new ScoredParagraph(paragraph.text(), paragraph.fingerprint(),
+                        TextTokenizer.tokenize(paragraph.text()), null));
+            }
+        }
+        return new Diff(current, reused);
+    }
+
+    /** Remember the paragraphs (with any newly computed internet legs) for the next snapshot. */
+    public void store(String sessionId, Long questionId, List<ScoredParagraph> paragraphs) {
+        snapshots.put(key(sessionId, questionId), List.copyOf(paragraphs));
+    }
+
+    private static String key(String sessionId, Long questionId) {
+        return sessionId + "/" + questionId;
+    }
+}
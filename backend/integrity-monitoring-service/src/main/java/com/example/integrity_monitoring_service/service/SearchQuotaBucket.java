@@ -0,0 +1,100 @@
+package com.example.integrity_monitoring_service.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+/**
+ * Token bucket spending a monthly search quota.
+ *
+ * Two limits apply to every search:
+ *   - the month's remaining quota, reset at the start of each UTC month (the
+ *     way SerpAPI counts) and corrected from the account API when available;
+ *   - a bucket of {@code burst} tokens refilled at quota / 30 days, so a busy
+ *     afternoon cannot spend the whole month's allowance.
+ * Thread-safe; every method synchronises on the bucket.
+ */
+public class SearchQuotaBucket {
+
+    /** Snapshot for health and metrics endpoints. */
+    public record Budget(int monthlyQuota, int usedThisMonth, int remainingThisMonth,
+                         double availableTokens, int burst, Instant resetsAt) {
+    }
+
+    private final Clock clock;
+    private final int monthlyQuota;
+    private final int burst;
+    private final double tokensPerNano;
+
+    private YearMonth month;
+    private int usedThisMonth;
+    private int remainingThisMonth;
+    private double tokens;
+    private long refilledAt;
+
+    public SearchQuotaBucket(int monthlyQuota, int burst, Clock clock) {
+        this.clock         = clock;
+        this.monthlyQuota  = Math.max(0, monthlyQuota);
+        this.burst         = Math.max(1, burst);
+        this.tokensPerNano = (double) this.monthlyQuota / Duration.ofDays(30).toNanos();
+        this.month              = currentMonth();
+        this.remainingThisMonth = this.monthlyQuota;
+        this.tokens             = Math.min(this.burst, this.monthlyQuota);
+        this.refilledAt         = nanos();
+    }
+
+    /** Take one search from the budget; false when the bucket or the month is empty. */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens < 1 || remainingThisMonth <= 0) return false;
+        tokens -= 1;
+        usedThisMonth++;
+        remainingThisMonth--;
+        return true;
+    }
+
+    /** The provider reported the quota exhausted (HTTP 429): stop spending until the month resets. */
+    public synchronized void exhaust() {
+        refill();
+        remainingThisMonth = 0;
+    }
+
+    /** Align the month's remaining budget with the provider's own count. */
+    public synchronized void sync(int searchesLeft) {
+        refill();
+        remainingThisMonth = Math.max(0, searchesLeft);
+        usedThisMonth = Math.max(0, monthlyQuota - remainingThisMonth);
+    }
+
+    public synchronized Budget budget() {
+        refill();
+        Instant resetsAt = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        return new Budget(monthlyQuota, usedThisMonth, remainingThisMonth,
+                Math.floor(tokens * 100) / 100, burst, resetsAt);
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    private void refill() {
+        YearMonth now = currentMonth();
+        if (!now.equals(month)) {
+            month = now;
+            usedThisMonth = 0;
+            remainingThisMonth = monthlyQuota;
+        }
+        long t = nanos();
+        tokens = Math.min(burst, tokens + Math.max(0, t - refilledAt) * tokensPerNano);
+        refilledAt = t;
+    }
+
+    private YearMonth currentMonth() {
+        return YearMonth.now(clock.withZone(ZoneOffset.UTC));
+    }
+
+    private long nanos() {
+        Instant now = clock.instant();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+}
@@ -1,17 +1,26 @@
 package com.example.integrity_monitoring_service.service;
 
 import com.example.integrity_monitoring_service.dto.request.PlagiarismCheckRequest;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.integrity_monitoring_service.dto.response.PeerAnswerRecord;
+import com.example.integrity_monitoring_service.exception.IntegrityCheckException;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Fetches student answers from the Submission Management Service for peer-comparison
@@ -30,16 +39,20 @@ public class SubmissionFetchService {
 
     private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectReader peerRowReader = objectMapper.readerFor(PeerAnswerRecord.class);
 
     /**
      * Fetch peer text answers for a given question, excluding the student currently
      * being checked.
      *
-     * Calls: GET {submissionServiceUrl}/api/answers/by-question?questionId={id}&excludeSubmissionId={id}
+     * Reads the lean NDJSON peer feed (see {@link #streamAnswersForQuestions}) and
+     * applies the exclusions while parsing, so only the kept peers are materialised.
+     * Rows without a studentId are dropped when a student is being excluded, since
+     * they cannot be shown to belong to someone else.
      *
      * Returns a list of maps, each with keys:
      *   "content"      → the peer's answer text
-     *   "studentId"    → their studentId (from answerResponse; may be empty)
+     *   "studentId"    → always empty (omitted to avoid PII leakage)
      *   "submissionId" → their submissionId
      *
      * Returns an empty list on any error (network, JSON parse, 4xx/5xx).
@@ -54,53 +67,135 @@ public class SubmissionFetchService {
             return peers;
         }
 
-        try {
-            StringBuilder url = new StringBuilder(submissionServiceUrl)
-                    .append("/api/answers/by-question?questionId=")
-                    .append(questionId);
-
-            if (excludeStudentId != null && !excludeStudentId.isBlank()) {
-                url.append("&excludeStudentId=").append(excludeStudentId);
-            }
-            if (excludeSubmissionId != null && !excludeSubmissionId.isBlank()) {
-                url.append("&excludeSubmissionId=").append(excludeSubmissionId);
-            }
-
-            log.debug("[SubmissionFetchService] Calling {}", url);
-
-            String responseBody = restTemplate.getForObject(url.toString(), String.class);
-            if (responseBody == null) {
-                log.warn("[SubmissionFetchService] Empty response from submission service for questionId={}", questionId);
-                return peers;
-            }
+        String excludeStudent = excludeStudentId != null && !excludeStudentId.isBlank() ? excludeStudentId : null;
+        String excludeSubmission = excludeSubmissionId != null && !excludeSubmissionId.isBlank() ? excludeSubmissionId : null;
+
+        long rows = streamAnswersForQuestions(List.of(questionId), null, 0L, row -> {
+            String answerText = row.getAnswerText();
+            if (answerText == null || answerText.isBlank()) return; // skip empty answers
+            if (excludeStudent != null && (row.getStudentId() == null || excludeStudent.equals(row.getStudentId()))) return;
+            if (excludeSubmission != null && excludeSubmission.equals(row.getSubmissionId())) return;
+
+            Map<String, String> peer = new HashMap<>();
+            peer.put("content", answerText);
+            peer.put("submissionId", row.getSubmissionId() != null ? row.getSubmissionId() : "");
+            peer.put("studentId", ""); // omit to avoid PII leakage
+            peers.add(peer);
+        });
+        if (rows < 0) {
+            log.warn("[SubmissionFetchService] fetchPeerAnswers failed for questionId={} — skipping peer comparison", questionId);
+            return new ArrayList<>();
+        }
 
-            JsonNode root = objectMapper.readTree(responseBody);
-            JsonNode data = root.get("data");
+        log.info("[SubmissionFetchService] fetchPeerAnswers — questionId={} peers={}", questionId, peers.size());
+        return peers;
+    }
 
-            if (data == null || !data.isArray()) {
-                log.debug("[SubmissionFetchService] No 'data' array in response for questionId={}", questionId);
-                return peers;
-            }
+    /**
+     * Stream the saved answers of one or more questions — no peer cap and no
+     * exclusions — handing each row to {@code sink} as it is parsed, oldest change
+     * first. Used to load and refresh the resident PeerAnswerIndex; per-student
+     * exclusion is applied by the index at query time instead.
+     *
+     * Calls: GET {submissionServiceUrl}/api/answers/peer-stream?questionIds={ids}[&since={ts}&afterId={id}]
+     *
+     * The response is NDJSON and is read incrementally, so neither side holds
+     * the whole answer set in memory. Rows with blank text are delivered too.
+     * Pass the last delivered row's (lastModified, answerId) as (since, afterId)
+     * to resume; a null {@code since} streams from the beginning.
+     *
+     * Returns the number of rows delivered, or -1 if the request failed (rows
+     * delivered before a mid-stream failure have still been consumed).
+     */
+    public long streamAnswersForQuestions(Collection<String> questionIds, String since, long afterId,
+                                          Consumer<PeerAnswerRecord> sink) {
+        if (questionIds == null || questionIds.isEmpty()) return 0;
+
+        UriComponentsBuilder uri = UriComponentsBuilder.fromUriString(submissionServiceUrl)
+                .path("/api/answers/peer-stream")
+                .queryParam("questionIds", String.join(",", questionIds));
+        if (since != null && !since.isBlank()) {
+            uri.queryParam("since", since).queryParam("afterId", afterId);
+        }
+        URI url = uri.encode().build().toUri();
 
-            for (JsonNode item : data) {
-                String answerText = item.has("answerText") ? item.get("answerText").asText("") : "";
-                if (answerText.isBlank()) continue; // skip empty answers
+        long delivered = streamRows(url, sink);
+        if (delivered >= 0) {
+            log.info("[SubmissionFetchService] streamAnswers — questionIds={} since={} rows={}",
+                    questionIds, since, delivered);
+        }
+        return delivered;
+    }
 
-                Map<String, String> peer = new HashMap<>();
-                peer.put("content", answerText);
-                peer.put("submissionId", item.has("submissionId") ? item.get("submissionId").asText("") : "");
-                peer.put("studentId", ""); // not stored on answer row; omit to avoid PII leakage
-                peers.add(peer);
-            }
+    /**
+     * Fetch every saved, non-blank answer for every submission of an assignment.
+     *
+     * Calls: GET {submissionServiceUrl}/api/answers/assignment-stream?assignmentId={id}
+     *
+     * The response is the same NDJSON row format as the peer stream and is read
+     * incrementally. Returns a list of maps with keys "content", "submissionId",
+     * "studentId" and "questionId".
+     *
+     * @throws IntegrityCheckException if the answers could not be fetched — an
+     *         empty list always means the assignment has no answers, so a sweep
+     *         never completes on a failed read
+     */
+    public List<Map<String, String>> fetchAnswersForAssignment(String assignmentId) {
+        if (assignmentId == null || assignmentId.isBlank()) {
+            return new ArrayList<>();
+        }
+        URI url = UriComponentsBuilder.fromUriString(submissionServiceUrl)
+                .path("/api/answers/assignment-stream")
+                .queryParam("assignmentId", assignmentId)
+                .encode().build().toUri();
+
+        List<Map<String, String>> answers = new ArrayList<>();
+        long rows = streamRows(url, row -> {
+            String answerText = row.getAnswerText();
+            if (answerText == null || answerText.isBlank()) return;
+
+            Map<String, String> answer = new HashMap<>();
+            answer.put("content", answerText);
+            answer.put("submissionId", row.getSubmissionId() != null ? row.getSubmissionId() : "");
+            answer.put("studentId", row.getStudentId() != null ? row.getStudentId() : "");
+            answer.put("questionId", row.getQuestionId() != null ? row.getQuestionId() : "");
+            answers.add(answer);
+        });
+        if (rows < 0) {
+            throw new IntegrityCheckException("Could not fetch the answers of assignment " + assignmentId
+                    + " from the submission service");
+        }
 
-            log.info("[SubmissionFetchService] fetchPeerAnswers — questionId={} peers={}", questionId, peers.size());
+        log.info("[SubmissionFetchService] fetchAnswersForAssignment — assignmentId={} rows={} answers={}",
+                assignmentId, rows, answers.size());
+        return answers;
+    }
 
+    /**
+     * GET an NDJSON answer feed and hand each row to {@code sink} as it is parsed.
+     *
+     * Returns the number of rows delivered, or -1 if the request failed.
+     */
+    private long streamRows(URI url, Consumer<PeerAnswerRecord> sink) {
+        long[] delivered = {0};
+        try {
+            log.debug("[SubmissionFetchService] Streaming {}", url);
+            restTemplate.execute(url, HttpMethod.GET,
+                    request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON)),
+                    response -> {
+                        try (MappingIterator<PeerAnswerRecord> rows = peerRowReader.readValues(response.getBody())) {
+                            while (rows.hasNextValue()) {
+                                sink.accept(rows.nextValue());
+                                delivered[0]++;
+                            }
+                        }
+                        return null;
+                    });
         } catch (Exception e) {
-            log.warn("[SubmissionFetchService] fetchPeerAnswers failed for questionId={}: {} — skipping peer comparison",
-                    questionId, e.getMessage());
+            log.warn("[SubmissionFetchService] GET {} failed after {} rows: {}", url, delivered[0], e.getMessage());
+            return -1;
         }
-
-        return peers;
+        return delivered[0];
     }
 
     // ── Legacy methods (code plagiarism — kept for IntegrityCheckService) ────────
@@ -128,21 +223,4 @@ public class SubmissionFetchService {
 
         return submissions;
     }
-
-    /**
-     * Alias used by text-based plagiarism path in IntegrityCheckService.
-     * Now delegates to fetchPeerAnswersForQuestion when a questionId is available.
-     */
-    public List<Map<String, String>> fetchTextSubmissionsForComparison(PlagiarismCheckRequest request) {
-        // If the request carries a questionId, use the real peer-answer API
-        if (request.getQuestionId() != null) {
-            return fetchPeerAnswersForQuestion(
-                    request.getQuestionId().toString(),
-                    null, // no studentId available in legacy PlagiarismCheckRequest
-                    request.getSubmissionId() != null ? request.getSubmissionId().toString() : null);
-        }
-        // Fallback: no questionId available — return empty (no false positives)
-        log.debug("[SubmissionFetchService] fetchTextSubmissionsForComparison — no questionId, returning empty");
-        return new ArrayList<>();
-    }
 }
@@ -1,15 +1,23 @@
 package com.example.integrity_monitoring_service.service;
 
+import com.example.integrity_monitoring_service.similarity.DocumentFrequencyTable;
+import com.example.integrity_monitoring_service.similarity.SimilarityKernels;
+import com.example.integrity_monitoring_service.similarity.SparseVector;
+import com.example.integrity_monitoring_service.similarity.TextTokenizer;
+import com.example.integrity_monitoring_service.similarity.TokenizedText;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.math3.linear.ArrayRealVector;
-import org.apache.commons.math3.linear.RealVector;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
- * Text similarity calculation using TF-IDF and Cosine Similarity
+ * Text similarity calculation using TF-IDF and Cosine Similarity.
+ *
+ * Texts are tokenized once by the shared {@link TextTokenizer}; each
+ * {@link TokenizedText} caches its sparse TF vector (sorted term ids, float
+ * weights, precomputed norm), so cosine against a peer is one merge-join.
+ * Jaccard and n-gram scores are merge-joins over the same primitive arrays
+ * ({@link SimilarityKernels}).
  */
 @Service
 @Slf4j
@@ -22,99 +30,46 @@ public class TextSimilarityService {
         if (text1 == null || text2 == null || text1.isEmpty() || text2.isEmpty()) {
             return 0.0;
         }
-
-        try {
-            // Tokenize
-            List<String> tokens1 = tokenize(text1);
-            List<String> tokens2 = tokenize(text2);
-
-            if (tokens1.isEmpty() || tokens2.isEmpty()) {
-                return 0.0;
-            }
-
-            // Build vocabulary
-            Set<String> vocabulary = new HashSet<>();
-            vocabulary.addAll(tokens1);
-            vocabulary.addAll(tokens2);
-
-            // Compute TF-IDF vectors
-            RealVector vector1 = computeTfIdfVector(tokens1, vocabulary);
-            RealVector vector2 = computeTfIdfVector(tokens2, vocabulary);
-
-            // Calculate cosine similarity
-            double dotProduct = vector1.dotProduct(vector2);
-            double norm1 = vector1.getNorm();
-            double norm2 = vector2.getNorm();
-
-            if (norm1 == 0 || norm2 == 0) {
-                return 0.0;
-            }
-
-            return dotProduct / (norm1 * norm2);
-
-        } catch (Exception e) {
-            log.error("Error calculating text similarity: {}", e.getMessage(), e);
-            return 0.0;
-        }
-    }
-
-    /**
-     * Tokenize text into words
-     */
-    private List<String> tokenize(String text) {
-        // Convert to lowercase and split by non-alphanumeric characters
-        String cleaned = text.toLowerCase()
-                .replaceAll("[^a-z0-9\\s]", " ")
-                .replaceAll("\\s+", " ")
-                .trim();
-
-        return Arrays.stream(cleaned.split("\\s+"))
-                .filter(word -> word.length() > 2) // Remove very short words
-                .filter(word -> !isStopWord(word))   // Remove stop words
-                .collect(Collectors.toList());
+        return calculateSimilarity(TextTokenizer.tokenize(text1), TextTokenizer.tokenize(text2));
     }
 
     /**
-     * Check if word is a stop word
+     * Calculate similarity between two already tokenized texts.
+     *
+     * Term weights are sublinear TF (1 + ln tf) with no IDF; see the
+     * {@link DocumentFrequencyTable} overload for corpus-weighted cosine. Both
+     * vectors are cached on the TokenizedText, so repeated comparisons against
+     * the same peer cost one merge-join each.
      */
-    private boolean isStopWord(String word) {
-        Set<String> stopWords = Set.of(
-                "the", "is", "at", "which", "on", "a", "an", "and", "or",
-                "but", "in", "with", "to", "for", "of", "as", "by", "from",
-                "that", "this", "it", "are", "was", "were", "been", "be",
-                "have", "has", "had", "do", "does", "did", "will", "would",
-                "could", "should", "may", "might", "must", "can"
-        );
-        return stopWords.contains(word);
+    public double calculateSimilarity(TokenizedText text1, TokenizedText text2) {
+        if (text1.isEmpty() || text2.isEmpty()) {
+            return 0.0;
+        }
+        return text1.tfVector().cosine(text2.tfVector());
     }
 
     /**
-     * Compute TF-IDF vector for a document
+     * Cosine between two texts weighted with IDF from {@code idf} (a question or
+     * assignment corpus); plain TF cosine when {@code idf} is null.
      */
-    private RealVector computeTfIdfVector(List<String> tokens, Set<String> vocabulary) {
-        double[] vector = new double[vocabulary.size()];
-        Map<String, Integer> termFrequency = calculateTermFrequency(tokens);
-
-        List<String> vocabList = new ArrayList<>(vocabulary);
-        for (int i = 0; i < vocabList.size(); i++) {
-            String term = vocabList.get(i);
-            int tf = termFrequency.getOrDefault(term, 0);
-            // Simplified TF-IDF (IDF component would require document collection)
-            vector[i] = tf > 0 ? 1 + Math.log(tf) : 0;
+    public double calculateSimilarity(TokenizedText text1, TokenizedText text2, DocumentFrequencyTable idf) {
+        if (text1.isEmpty() || text2.isEmpty()) {
+            return 0.0;
         }
+        return calculateSimilarity(vectorFor(text1, idf), vectorFor(text2, idf));
+    }
 
-        return new ArrayRealVector(vector);
+    /** Cosine between two prepared vectors (see {@link #vectorFor}). */
+    public double calculateSimilarity(SparseVector vector1, SparseVector vector2) {
+        return vector1.cosine(vector2);
     }
 
     /**
-     * Calculate term frequency
+     * The vector used for cosine: the cached TF vector, or its TF-IDF form when a
+     * corpus is given. Build once per text when comparing it against many peers.
      */
-    private Map<String, Integer> calculateTermFrequency(List<String> tokens) {
-        Map<String, Integer> frequency = new HashMap<>();
-        for (String token : tokens) {
-            frequency.put(token, frequency.getOrDefault(token, 0) + 1);
-        }
-        return frequency;
+    public SparseVector vectorFor(TokenizedText text, DocumentFrequencyTable idf) {
+        return idf == null ? text.tfVector() : idf.weigh(text.tfVector());
     }
 
     /**
@@ -133,6 +88,14 @@ public class TextSimilarityService {
         if (searchResults == null || searchResults.isEmpty()) {
             return 0.0;
         }
+        return calculateInternetSimilarity(TextTokenizer.tokenize(studentText), searchResults);
+    }
+
+    /** As {@link #calculateInternetSimilarity(String, List)} for an already tokenized student text. */
+    public double calculateInternetSimilarity(TokenizedText student, List<Map<String, String>> searchResults) {
+        if (searchResults == null || searchResults.isEmpty()) {
+            return 0.0;
+        }
 
         // ── 1. Concatenated corpus comparison ─────────────────────────────────
         // Join all snippets + titles into one document. More shared vocabulary
@@ -145,7 +108,7 @@ public class TextSimilarityService {
             if (!snippet.isEmpty()) corpus.append(snippet).append(" ");
         }
         double corpusSim = corpus.length() > 0
-                ? calculateSimilarity(studentText, corpus.toString().trim())
+                ? calculateSimilarity(student, TextTokenizer.tokenize(corpus.toString().trim()))
                 : 0.0;
         log.debug("[TextSimilarity] Internet corpus similarity={} (corpusLen={})", corpusSim, corpus.length());
 
@@ -154,7 +117,7 @@ public class TextSimilarityService {
         for (Map<String, String> result : searchResults) {
             String snippet = result.getOrDefault("snippet", "");
             if (!snippet.isEmpty()) {
-                double sim = calculateSimilarity(studentText, snippet);
+                double sim = calculateSimilarity(student, TextTokenizer.tokenize(snippet));
                 if (sim > maxSnippetSim) {
                     log.debug("[TextSimilarity] Per-snippet sim={} domain={}", sim, result.getOrDefault("domain", "?"));
                     maxSnippetSim = sim;
@@ -176,48 +139,15 @@ public class TextSimilarityService {
     public double calculateBestSimilarity(String text1, String text2) {
         if (text1 == null || text2 == null || text1.isBlank() || text2.isBlank()) return 0.0;
 
-        double cosine = calculateSimilarity(text1, text2);
-        double jaccard = computeJaccard(text1, text2);
-        double ngram3  = computeNgramDice(text1, text2, 3);
-        double ngram5  = computeNgramDice(text1, text2, 5);
-
-        return Math.max(Math.max(cosine, jaccard), Math.max(ngram3, ngram5));
-    }
-
-    private double computeJaccard(String t1, String t2) {
-        Set<String> s1 = new HashSet<>(tokenize(t1));
-        Set<String> s2 = new HashSet<>(tokenize(t2));
-        if (s1.isEmpty() || s2.isEmpty()) return 0.0;
-        Set<String> inter = new HashSet<>(s1); inter.retainAll(s2);
-        Set<String> union = new HashSet<>(s1); union.addAll(s2);
-        return (double) inter.size() / union.size();
-    }
-
-    private double computeNgramDice(String t1, String t2, int n) {
-        String n1 = t1.toLowerCase().replaceAll("[^a-z0-9 ]", " ").replaceAll("\\s+", " ").trim();
-        String n2 = t2.toLowerCase().replaceAll("[^a-z0-9 ]", " ").replaceAll("\\s+", " ").trim();
-        if (n1.length() < n || n2.length() < n) return 0.0;
-
-        Map<String, Long> f1 = buildNgramFreq(n1, n);
-        Map<String, Long> f2 = buildNgramFreq(n2, n);
-
-        long intersection = 0;
-        for (Map.Entry<String, Long> e : f1.entrySet()) {
-            intersection += Math.min(e.getValue(), f2.getOrDefault(e.getKey(), 0L));
-        }
+        TokenizedText t1 = TextTokenizer.tokenize(text1);
+        TokenizedText t2 = TextTokenizer.tokenize(text2);
 
-        long total = f1.values().stream().mapToLong(Long::longValue).sum()
-                   + f2.values().stream().mapToLong(Long::longValue).sum();
-        return total == 0 ? 0.0 : (2.0 * intersection) / total;
-    }
+        double cosine  = calculateSimilarity(t1, t2);
+        double jaccard = SimilarityKernels.jaccard(t1.terms().ids(), t2.terms().ids());
+        double ngram3  = SimilarityKernels.dice(t1.charGrams(3), t2.charGrams(3));
+        double ngram5  = SimilarityKernels.dice(t1.charGrams(5), t2.charGrams(5));
 
-    private Map<String, Long> buildNgramFreq(String text, int n) {
-        Map<String, Long> freq = new HashMap<>();
-        for (int i = 0; i <= text.length() - n; i++) {
-            String ng = text.substring(i, i + n);
-            freq.merge(ng, 1L, Long::sum);
-        }
-        return freq;
+        return Math.max(Math.max(cosine, jaccard), Math.max(ngram3, ngram5));
     }
 
     /**
@@ -227,13 +157,17 @@ public class TextSimilarityService {
      * Each entry in the returned list corresponds (by index) to the entry in searchResults.
      */
     public List<Double> calculatePerSnippetSimilarities(String studentText, List<Map<String, String>> searchResults) {
+        return calculatePerSnippetSimilarities(TextTokenizer.tokenize(studentText), searchResults);
+    }
+
+    public List<Double> calculatePerSnippetSimilarities(TokenizedText student, List<Map<String, String>> searchResults) {
         List<Double> scores = new ArrayList<>();
         for (Map<String, String> result : searchResults) {
             String snippet = result.getOrDefault("snippet", "");
             String title   = result.getOrDefault("title", "");
             // Score against snippet + title combined for better signal
             String combined = title + ". " + snippet;
-            scores.add(combined.isBlank() ? 0.0 : calculateSimilarity(studentText, combined));
+            scores.add(combined.isBlank() ? 0.0 : calculateSimilarity(student, TextTokenizer.tokenize(combined)));
         }
         return scores;
     }
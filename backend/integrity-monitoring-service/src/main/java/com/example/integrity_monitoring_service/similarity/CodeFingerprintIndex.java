@@ -0,0 +1,96 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from winnowed code fingerprints to the submissions that
+ * contain them (see {@link Winnower}).
+ *
+ * Submissions are identified by content key, so an unchanged submission is
+ * indexed once however many checks it appears in. A query counts, for every
+ * indexed submission, how many of the query's fingerprints it shares and
+ * returns the best-sharing ones — the candidates worth an exact tiling.
+ * Reads run concurrently; adds take the write lock.
+ */
+public final class CodeFingerprintIndex {
+
+    /** An indexed submission and the number of query fingerprints it shares. */
+    public record Candidate(String key, int sharedFingerprints) {}
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final List<String> docKeys = new ArrayList<>();
+    /** Fingerprint → [count, docId, docId, …]. */
+    private final Map<Long, int[]> postings = new HashMap<>();
+
+    public boolean contains(String key) {
+        lock.readLock().lock();
+        try {
+            return docIds.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Index a submission's distinct fingerprints; a key already present is left as is. */
+    public void add(String key, long[] fingerprints) {
+        lock.writeLock().lock();
+        try {
+            if (docIds.containsKey(key)) return;
+            int docId = docKeys.size();
+            docKeys.add(key);
+            docIds.put(key, docId);
+            for (long fingerprint : fingerprints) {
+                int[] list = postings.get(fingerprint);
+                if (list == null) {
+                    list = new int[4];
+                    postings.put(fingerprint, list);
+                } else if (list[0] + 1 == list.length) {
+                    list = Arrays.copyOf(list, list.length * 2);
+                    postings.put(fingerprint, list);
+                }
+                list[++list[0]] = docId;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The (at most {@code limit}) submissions among {@code among} that share the
+     * most fingerprints with the query, best first. Submissions sharing none are
+     * never returned.
+     */
+    public List<Candidate> query(long[] fingerprints, Set<String> among, int limit) {
+        List<Candidate> candidates = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int[] shared = new int[docKeys.size()];
+            for (long fingerprint : fingerprints) {
+                int[] list = postings.get(fingerprint);
+                if (list == null) continue;
+                for (int i = 1; i <= list[0]; i++) shared[list[i]]++;
+            }
+            for (int docId = 0; docId < shared.length; docId++) {
+                if (shared[docId] > 0 && among.contains(docKeys.get(docId))) {
+                    candidates.add(new Candidate(docKeys.get(docId), shared[docId]));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        candidates.sort(Comparator.comparingInt(Candidate::sharedFingerprints).reversed());
+        return candidates.size() > limit ? candidates.subList(0, limit) : candidates;
+    }
+
+    /** Number of indexed submissions. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docKeys.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
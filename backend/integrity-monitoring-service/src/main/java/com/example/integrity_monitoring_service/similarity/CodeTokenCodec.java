@@ -0,0 +1,97 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact, JVM-independent binary form of a {@link CodeTokenSequence}.
+ *
+ * Layout (all integers unsigned LEB128 varints):
+ * <pre>
+ *   byte    format version
+ *   varint  n — distinct token types used
+ *   n ×     varint length, UTF-8 type name
+ *   varint  token count
+ *   each    0 for a separator, else 1 + index into the names above
+ * </pre>
+ * A language has well under 128 token types, so a token costs one byte.
+ * Names rather than ids are stored because ids are only stable within one JVM.
+ */
+public final class CodeTokenCodec {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private CodeTokenCodec() {}
+
+    public static byte[] encode(CodeTokenSequence sequence, CodeTokenVocabulary vocabulary) {
+        int[] tokens = sequence.tokens();
+        Map<Integer, Integer> localIndex = new HashMap<>();
+        ByteArrayOutputStream names = new ByteArrayOutputStream();
+        int[] codes = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i] == CodeTokenSequence.SEPARATOR) continue;
+            Integer index = localIndex.get(tokens[i]);
+            if (index == null) {
+                index = localIndex.size();
+                localIndex.put(tokens[i], index);
+                byte[] name = vocabulary.name(tokens[i]).getBytes(StandardCharsets.UTF_8);
+                writeVarint(names, name.length);
+                names.writeBytes(name);
+            }
+            codes[i] = index + 1;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(tokens.length + names.size() + 8);
+        out.write(FORMAT_VERSION);
+        writeVarint(out, localIndex.size());
+        out.writeBytes(names.toByteArray());
+        writeVarint(out, tokens.length);
+        for (int code : codes) writeVarint(out, code);
+        return out.toByteArray();
+    }
+
+    /** @throws IllegalArgumentException for an unknown format version or truncated input */
+    public static CodeTokenSequence decode(byte[] bytes, CodeTokenVocabulary vocabulary) {
+        int[] pos = { 0 };
+        if (bytes.length == 0 || bytes[pos[0]++] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported token stream format");
+        }
+        try {
+            int[] ids = new int[readVarint(bytes, pos)];
+            for (int i = 0; i < ids.length; i++) {
+                int length = readVarint(bytes, pos);
+                ids[i] = vocabulary.id(new String(bytes, pos[0], length, StandardCharsets.UTF_8));
+                pos[0] += length;
+            }
+            int[] tokens = new int[readVarint(bytes, pos)];
+            for (int i = 0; i < tokens.length; i++) {
+                int code = readVarint(bytes, pos);
+                tokens[i] = code == 0 ? CodeTokenSequence.SEPARATOR : ids[code - 1];
+            }
+            return new CodeTokenSequence(tokens);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated token stream", e);
+        }
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] bytes, int[] pos) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = bytes[pos[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.integrity_monitoring_service.similarity;
+
+/**
+ * A code submission as the sequence of its parser token types, each mapped to
+ * a non-negative int id by the caller.
+ *
+ * File boundaries are stored as {@link #SEPARATOR}, which never matches any
+ * token (itself included), so no tile can span two files. Instances are
+ * immutable and safe to share between concurrent comparisons.
+ */
+public final class CodeTokenSequence {
+
+    /** Marks a file boundary; excluded from matching and from {@link #matchableLength()}. */
+    public static final int SEPARATOR = -1;
+
+    private final int[] tokens;
+    private final int matchableLength;
+
+    public CodeTokenSequence(int[] tokens) {
+        this.tokens = tokens;
+        int matchable = 0;
+        for (int token : tokens) {
+            if (token != SEPARATOR) matchable++;
+        }
+        this.matchableLength = matchable;
+    }
+
+    /** The raw sequence, separators included. Callers must not modify it. */
+    public int[] tokens() {
+        return tokens;
+    }
+
+    public int length() {
+        return tokens.length;
+    }
+
+    /** Number of tokens that can take part in a match (the similarity divisor). */
+    public int matchableLength() {
+        return matchableLength;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide token type name ↔ int id mapping for {@link CodeTokenSequence}.
+ *
+ * Ids are dense and assigned in first-seen order, so they differ between
+ * JVMs; anything persisted stores the names (see {@link CodeTokenCodec}).
+ * Lookups of known names are lock-free; only a new name takes the lock.
+ */
+public final class CodeTokenVocabulary {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private int size;
+
+    /** Id of {@code name}, assigning the next one if unseen. */
+    public int id(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : add(name);
+    }
+
+    /** Name behind an id handed out by {@link #id}. */
+    public String name(int id) {
+        return names[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized int add(String name) {
+        Integer existing = ids.get(name);
+        if (existing != null) return existing;
+        if (size == names.length) names = Arrays.copyOf(names, size * 2);
+        int id = size++;
+        names[id] = name;
+        ids.put(name, id);
+        return id;
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Incrementally maintained document frequencies over one corpus (all answers to
+ * a question, or all answers in an assignment).
+ *
+ * Documents are keyed (by submission), and the distinct term set of each key is
+ * remembered, so re-recording an edited answer moves its counts instead of
+ * counting it twice. IDF uses the smoothed form
+ *
+ *   idf(t) = ln((N + 1) / (df(t) + 1)) + 1
+ *
+ * so a term every student uses (typically vocabulary taken from the question
+ * text) keeps weight ≈ 1 while rare terms weigh more.
+ *
+ * Thread-safe: lookups share a read lock, updates take the write lock.
+ */
+public class DocumentFrequencyTable {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, int[]> termsByDocument = new HashMap<>();
+    private final IntCounter documentFrequency = new IntCounter();
+
+    /** Record (or replace) the distinct terms of {@code doc} under {@code key}. Empty text removes it. */
+    public void update(String key, TokenizedText doc) {
+        update(key, doc.terms().ids());
+    }
+
+    /** As {@link #update(String, TokenizedText)} given the sorted distinct term ids. */
+    public void update(String key, int[] distinctTerms) {
+        if (key == null) return;
+        if (distinctTerms.length == 0) {
+            remove(key);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int[] previous = termsByDocument.put(key, distinctTerms);
+            if (previous == null) {
+                for (int id : distinctTerms) documentFrequency.add(id, 1);
+            } else if (!Arrays.equals(previous, distinctTerms)) {
+                applyDiff(previous, distinctTerms);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            int[] previous = termsByDocument.remove(key);
+            if (previous != null) {
+                for (int id : previous) documentFrequency.add(id, -1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Number of documents recorded. */
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return termsByDocument.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int documentFrequency(int termId) {
+        lock.readLock().lock();
+        try {
+            return documentFrequency.get(termId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * TF-IDF form of {@code tf}: every weight multiplied by the term's current IDF.
+     * One read-lock acquisition per vector.
+     */
+    public SparseVector weigh(SparseVector tf) {
+        lock.readLock().lock();
+        try {
+            int n = termsByDocument.size();
+            return tf.scaled(id -> idf(n, documentFrequency.get(id)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Share of the document's TF weight carried by terms that at least
+     * {@code minDocumentShare} of the corpus also uses. Close to 1.0 means the
+     * answer is built almost entirely from the cohort's shared vocabulary.
+     */
+    public double commonVocabularyRatio(TokenizedText doc, double minDocumentShare) {
+        TokenizedText.TermCounts terms = doc.terms();
+        if (terms.size() == 0) return 0.0;
+        lock.readLock().lock();
+        try {
+            int n = termsByDocument.size();
+            if (n == 0) return 0.0;
+            double common = 0, total = 0;
+            int[] ids = terms.ids(), counts = terms.counts();
+            for (int i = 0; i < ids.length; i++) {
+                total += counts[i];
+                if (documentFrequency.get(ids[i]) >= minDocumentShare * n) common += counts[i];
+            }
+            return common / total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Snapshot of every recorded document's term set (for seeding a wider corpus). */
+    public Map<String, int[]> documents() {
+        lock.readLock().lock();
+        try {
+            return new HashMap<>(termsByDocument);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    private static double idf(int documents, int df) {
+        return Math.log((documents + 1.0) / (df + 1.0)) + 1.0;
+    }
+
+    /** Merge-walk two sorted term sets, touching only terms that changed. */
+    private void applyDiff(int[] previous, int[] current) {
+        int i = 0, j = 0;
+        while (i < previous.length || j < current.length) {
+            if (j == current.length || i < previous.length && previous[i] < current[j]) {
+                documentFrequency.add(previous[i++], -1);
+            } else if (i == previous.length || current[j] < previous[i]) {
+                documentFrequency.add(current[j++], 1);
+            } else {
+                i++;
+                j++;
+            }
+        }
+    }
+
+    /** Open-addressed int → int counter; entries that drop to zero are removed. */
+    private static final class IntCounter {
+        private int[] keys = new int[64];
+        private int[] values = new int[64];
+        private boolean[] used = new boolean[64];
+        private int size;
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; used[slot]; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) return values[slot];
+            }
+            return 0;
+        }
+
+        void add(int key, int delta) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (used[slot]) {
+                if (keys[slot] == key) {
+                    values[slot] += delta;
+                    if (values[slot] <= 0) delete(slot);
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (delta <= 0) return;
+            used[slot] = true;
+            keys[slot] = key;
+            values[slot] = delta;
+            if (++size * 2 > keys.length) resize(keys.length * 2);
+        }
+
+        /** Backward-shift deletion keeps probe chains intact without tombstones. */
+        private void delete(int slot) {
+            int mask = keys.length - 1;
+            used[slot] = false;
+            size--;
+            int hole = slot;
+            for (int next = (slot + 1) & mask; used[next]; next = (next + 1) & mask) {
+                int home = mix(keys[next]) & mask;
+                boolean movable = hole <= next ? home <= hole || home > next : home <= hole && home > next;
+                if (movable) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    used[hole] = true;
+                    used[next] = false;
+                    hole = next;
+                }
+            }
+        }
+
+        private void resize(int capacity) {
+            int[] oldKeys = keys, oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new int[capacity];
+            values = new int[capacity];
+            used = new boolean[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (!oldUsed[i]) continue;
+                int slot = mix(oldKeys[i]) & mask;
+                while (used[slot]) slot = (slot + 1) & mask;
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+
+        private static int mix(int h) {
+            h *= 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Greedy String Tiling (Wise, 1993) of one token sequence against many — the
+ * comparison JPlag runs, restricted to the pairs that involve one submission.
+ *
+ * The constructor indexes every {@code minimumMatch}-token window of the
+ * pattern sequence once by a polynomial hash (sorted, binary-searched), so
+ * each {@link #compare} only extends candidate starts that share a window
+ * with the pattern instead of trying every token pair. Each round collects
+ * the longest unmarked common runs and tiles those not occluded by an earlier
+ * tile of the round; rounds repeat until the longest run is the minimum.
+ *
+ * Similarity is JPlag's average similarity: 2 × tiled tokens divided by the
+ * matchable tokens of both sequences. Instances are immutable and thread-safe.
+ */
+public final class GreedyStringTiling {
+
+    private static final long BASE = 1_000_003L;
+
+    /** Outcome of one comparison: tokens covered by tiles, and the number of tiles. */
+    public record Tiling(int matchedTokens, int tiles, double similarity) {}
+
+    private final CodeTokenSequence pattern;
+    private final int minimumMatch;
+    private final long power;
+    /** Window hashes of the pattern, ascending, with the window start at the same index in {@link #windowStarts}. */
+    private final long[] windowHashes;
+    private final int[] windowStarts;
+
+    public GreedyStringTiling(CodeTokenSequence pattern, int minimumMatch) {
+        if (minimumMatch < 1) throw new IllegalArgumentException("minimumMatch must be positive");
+        this.pattern = pattern;
+        this.minimumMatch = minimumMatch;
+
+        long p = 1;
+        for (int i = 1; i < minimumMatch; i++) p *= BASE;
+        this.power = p;
+
+        long[] hashes = windowHashes(pattern.tokens());
+        int count = 0;
+        for (long hash : hashes) {
+            if (hash != Long.MIN_VALUE) count++;
+        }
+        long[] packed = new long[count];
+        int[] order = new int[count];
+        Integer[] starts = new Integer[count];
+        for (int i = 0, k = 0; i < hashes.length; i++) {
+            if (hashes[i] != Long.MIN_VALUE) starts[k++] = i;
+        }
+        Arrays.sort(starts, (x, y) -> Long.compare(hashes[x], hashes[y]));
+        for (int k = 0; k < count; k++) {
+            order[k] = starts[k];
+            packed[k] = hashes[starts[k]];
+        }
+        this.windowHashes = packed;
+        this.windowStarts = order;
+    }
+
+    public CodeTokenSequence pattern() {
+        return pattern;
+    }
+
+    /** Tile the pattern against {@code text}. */
+    public Tiling compare(CodeTokenSequence text) {
+        int[] a = pattern.tokens();
+        int[] b = text.tokens();
+        boolean[] markedA = new boolean[a.length];
+        boolean[] markedB = new boolean[b.length];
+        long[] textHashes = windowHashes(b);
+
+        int matchedTokens = 0;
+        int tiles = 0;
+        List<int[]> longest = new ArrayList<>();
+        int maxLength;
+        do {
+            maxLength = minimumMatch;
+            longest.clear();
+            for (int j = 0; j < textHashes.length; j++) {
+                if (textHashes[j] == Long.MIN_VALUE || markedB[j]) continue;
+                int from = lowerBound(textHashes[j]);
+                for (int k = from; k < windowHashes.length && windowHashes[k] == textHashes[j]; k++) {
+                    int i = windowStarts[k];
+                    if (markedA[i]) continue;
+                    int length = extend(a, b, markedA, markedB, i, j);
+                    if (length < minimumMatch) continue; // hash collision, or runs into a tile
+                    if (length > maxLength) {
+                        longest.clear();
+                        maxLength = length;
+                    }
+                    if (length == maxLength) longest.add(new int[]{ i, j, length });
+                }
+            }
+            for (int[] match : longest) {
+                if (occluded(markedA, markedB, match)) continue;
+                Arrays.fill(markedA, match[0], match[0] + match[2], true);
+                Arrays.fill(markedB, match[1], match[1] + match[2], true);
+                matchedTokens += match[2];
+                tiles++;
+            }
+        } while (maxLength > minimumMatch);
+
+        int divisor = pattern.matchableLength() + text.matchableLength();
+        double similarity = divisor == 0 ? 0.0 : 2.0 * matchedTokens / divisor;
+        return new Tiling(matchedTokens, tiles, similarity);
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    /**
+     * Hash of the window starting at each position, or Long.MIN_VALUE where the
+     * window is shorter than the minimum or contains a separator.
+     */
+    private long[] windowHashes(int[] tokens) {
+        int windows = Math.max(tokens.length - minimumMatch + 1, 0);
+        long[] hashes = new long[windows];
+        long hash = 0;
+        int lastSeparator = -1;
+        for (int i = 0; i < tokens.length; i++) {
+            if (i >= minimumMatch) hash -= tokens[i - minimumMatch] * power;
+            hash = hash * BASE + tokens[i];
+            if (tokens[i] == CodeTokenSequence.SEPARATOR) lastSeparator = i;
+            int start = i - minimumMatch + 1;
+            if (start >= 0) hashes[start] = lastSeparator >= start ? Long.MIN_VALUE : hash;
+        }
+        return hashes;
+    }
+
+    private int lowerBound(long hash) {
+        int lo = 0;
+        int hi = windowHashes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (windowHashes[mid] < hash) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int extend(int[] a, int[] b, boolean[] markedA, boolean[] markedB, int i, int j) {
+        int length = 0;
+        while (i + length < a.length && j + length < b.length
+                && a[i + length] == b[j + length]
+                && a[i + length] != CodeTokenSequence.SEPARATOR
+                && !markedA[i + length] && !markedB[j + length]) {
+            length++;
+        }
+        return length;
+    }
+
+    private static boolean occluded(boolean[] markedA, boolean[] markedB, int[] match) {
+        for (int k = 0; k < match[2]; k++) {
+            if (markedA[match[0] + k] || markedB[match[1] + k]) return true;
+        }
+        return false;
+    }
+}
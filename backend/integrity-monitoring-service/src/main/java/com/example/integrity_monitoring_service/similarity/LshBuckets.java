@@ -0,0 +1,81 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.util.*;
+
+/**
+ * Banded locality-sensitive hashing over MinHash signatures.
+ *
+ * A signature of {@code bands × rows} slots is cut into {@code bands} bands;
+ * two answers become a candidate pair when ANY band hashes to the same bucket.
+ * The probability of that is 1 − (1 − J^rows)^bands for shingle Jaccard J,
+ * an S-curve whose threshold sits near (1/bands)^(1/rows) — with the defaults
+ * (32 bands × 4 rows) pairs above ≈0.42 are almost always caught while
+ * unrelated answers rarely share a bucket.
+ *
+ * Adding N signatures and reading back the candidates is O(N × bands) plus the
+ * size of the colliding buckets, instead of the N²/2 exact comparisons of an
+ * all-pairs sweep. Not thread-safe; build one instance per question.
+ */
+public final class LshBuckets {
+
+    private final int bands;
+    private final int rows;
+    private final List<Map<Long, List<Integer>>> buckets;
+
+    public LshBuckets(int bands, int rows) {
+        if (bands <= 0 || rows <= 0) throw new IllegalArgumentException("bands and rows must be positive");
+        this.bands = bands;
+        this.rows = rows;
+        this.buckets = new ArrayList<>(bands);
+        for (int b = 0; b < bands; b++) buckets.add(new HashMap<>());
+    }
+
+    /** Register document {@code id} with its MinHash signature (length ≥ bands × rows). */
+    public void add(int id, long[] signature) {
+        if (signature.length < bands * rows) {
+            throw new IllegalArgumentException("Signature has " + signature.length
+                    + " slots but LSH needs " + (bands * rows));
+        }
+        for (int b = 0; b < bands; b++) {
+            long key = 1469598103934665603L;
+            int base = b * rows;
+            for (int r = 0; r < rows; r++) {
+                key = Shingler.mix(key ^ signature[base + r]);
+            }
+            buckets.get(b).computeIfAbsent(key, k -> new ArrayList<>(2)).add(id);
+        }
+    }
+
+    /**
+     * Distinct candidate pairs across all bands, each encoded as
+     * {@code ((long) lower << 32) | higher} with lower &lt; higher.
+     */
+    public Set<Long> candidatePairs() {
+        Set<Long> pairs = new HashSet<>();
+        for (Map<Long, List<Integer>> band : buckets) {
+            for (List<Integer> bucket : band.values()) {
+                int size = bucket.size();
+                if (size < 2) continue;
+                for (int i = 0; i < size; i++) {
+                    for (int j = i + 1; j < size; j++) {
+                        int a = bucket.get(i), c = bucket.get(j);
+                        pairs.add(a < c ? pack(a, c) : pack(c, a));
+                    }
+                }
+            }
+        }
+        return pairs;
+    }
+
+    public static long pack(int lower, int higher) {
+        return ((long) lower << 32) | (higher & 0xffffffffL);
+    }
+
+    public static int first(long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    public static int second(long pair) {
+        return (int) pair;
+    }
+}
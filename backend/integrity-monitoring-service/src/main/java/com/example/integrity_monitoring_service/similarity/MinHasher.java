@@ -0,0 +1,72 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Fixed-width MinHash signatures over shingle hashes.
+ *
+ * Each of the {@code numHashes} slots holds the minimum of one independent
+ * hash function over the answer's shingle set; the fraction of equal slots
+ * between two signatures is an unbiased estimate of their shingle Jaccard
+ * similarity. The hash family is derived from a fixed seed so signatures
+ * persisted by one JVM stay comparable after a restart.
+ */
+public final class MinHasher {
+
+    private static final long SEED = 0x5EEDC0DE2024L;
+
+    private final long[] multipliers;
+    private final long[] offsets;
+
+    public MinHasher(int numHashes) {
+        if (numHashes <= 0) throw new IllegalArgumentException("numHashes must be positive");
+        SplittableRandom random = new SplittableRandom(SEED);
+        this.multipliers = new long[numHashes];
+        this.offsets = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            multipliers[i] = random.nextLong() | 1L; // odd → bijective over 2^64
+            offsets[i] = random.nextLong();
+        }
+    }
+
+    public int numHashes() {
+        return multipliers.length;
+    }
+
+    /**
+     * Compute the signature of a shingle set. An empty set yields a signature of
+     * Long.MAX_VALUE in every slot: it never agrees with a real answer, but all
+     * empty signatures share every LSH bucket, so leave them out (see {@link #isEmpty}).
+     */
+    public long[] signature(long[] shingles) {
+        long[] sig = new long[multipliers.length];
+        Arrays.fill(sig, Long.MAX_VALUE);
+        for (long shingle : shingles) {
+            for (int i = 0; i < sig.length; i++) {
+                long h = Shingler.mix(shingle * multipliers[i] + offsets[i]);
+                if (h < sig[i]) sig[i] = h;
+            }
+        }
+        return sig;
+    }
+
+    /** Whether the signature is that of an empty shingle set (blank or sub-shingle text). */
+    public static boolean isEmpty(long[] signature) {
+        for (long slot : signature) {
+            if (slot != Long.MAX_VALUE) return false;
+        }
+        return true;
+    }
+
+    /** Estimated Jaccard similarity — fraction of slots on which both signatures agree. */
+    public static double estimateJaccard(long[] a, long[] b) {
+        int n = Math.min(a.length, b.length);
+        if (n == 0) return 0.0;
+        int equal = 0;
+        for (int i = 0; i < n; i++) {
+            if (a[i] == b[i] && a[i] != Long.MAX_VALUE) equal++;
+        }
+        return (double) equal / n;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join scoring of the upper triangle of an N × N similarity matrix.
+ *
+ * The row range is split in half recursively until a block holds at most
+ * {@code blockSize} rows; each leaf scores its rows against every column
+ * j &gt; i (or against the row's candidate columns when an LSH prefilter is
+ * supplied). Rows near the top of the triangle carry more pairs than rows near
+ * the bottom, so blocks are deliberately small and the pool's work-stealing
+ * evens the load out across workers.
+ *
+ * Leaves share no mutable state: each keeps its own per-answer maxima and
+ * list of hits, and sibling results are merged as the recursion unwinds.
+ * Every score above {@code threshold} (see {@link SimilarityKernels#exceeds})
+ * is then recorded for BOTH endpoints, so after {@code invoke()} row i's hits
+ * describe all of answer i's matches.
+ */
+public class PairwiseScoringTask extends RecursiveAction {
+
+    /** Symmetric similarity function over answer indices. Must be thread-safe. */
+    @FunctionalInterface
+    public interface PairScorer {
+        double score(int i, int j);
+    }
+
+    /** A score above the threshold against answer {@code other}. */
+    public record Hit(int other, double score) {}
+
+    private static final long serialVersionUID = 1L;
+
+    // Tasks are never serialized; RecursiveAction is Serializable only by inheritance
+    private final transient PairScorer scorer;
+    private final int[][] rowCandidates;
+    private final int n;
+    private final int blockSize;
+    private final double threshold;
+
+    private double[] maxScores;
+    private transient List<List<Hit>> hits;
+    private long pairsScored;
+
+    /**
+     * @param scorer         pair scorer
+     * @param n              number of answers
+     * @param rowCandidates  optional per-row columns (j &gt; i) to score; null scores all pairs
+     * @param blockSize      max rows per leaf task
+     * @param threshold      scores above it are recorded as hits
+     */
+    public PairwiseScoringTask(PairScorer scorer, int n, int[][] rowCandidates, int blockSize, double threshold) {
+        this.scorer        = scorer;
+        this.rowCandidates = rowCandidates;
+        this.n             = n;
+        this.blockSize     = Math.max(1, blockSize);
+        this.threshold     = threshold;
+    }
+
+    @Override
+    protected void compute() {
+        Partial result = new Block(0, n).invoke();
+
+        List<List<Hit>> lists = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) lists.add(new ArrayList<>(0));
+        for (int k = 0; k < result.hitCount; k++) {
+            int i = result.hitRows[k], j = result.hitColumns[k];
+            double score = result.hitScores[k];
+            lists.get(i).add(new Hit(j, score));
+            lists.get(j).add(new Hit(i, score));
+        }
+        maxScores   = result.maxScores;
+        hits        = lists;
+        pairsScored = result.pairs;
+    }
+
+    /** Highest score seen for each answer (valid after invoke). */
+    public double[] maxScores() {
+        return maxScores;
+    }
+
+    /** Hits above the threshold for each answer (valid after invoke). */
+    public List<List<Hit>> hits() {
+        return hits;
+    }
+
+    public long pairsScored() {
+        return pairsScored;
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    /** Scores rows [from, to) and returns what it saw; merges its halves when split. */
+    private final class Block extends RecursiveTask<Partial> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        Block(int from, int to) {
+            this.from = from;
+            this.to   = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= blockSize) {
+                Partial partial = new Partial(n);
+                for (int i = from; i < to; i++) scoreRow(i, partial);
+                return partial;
+            }
+            int mid = (from + to) >>> 1;
+            Block upper = new Block(from, mid);
+            upper.fork();
+            Partial lower = new Block(mid, to).compute();
+            return upper.join().mergeFrom(lower);
+        }
+
+        private void scoreRow(int i, Partial partial) {
+            if (rowCandidates != null) {
+                int[] columns = rowCandidates[i];
+                if (columns == null) return;
+                for (int j : columns) partial.record(i, j, scorer.score(i, j), threshold);
+                partial.pairs += columns.length;
+            } else {
+                for (int j = i + 1; j < n; j++) partial.record(i, j, scorer.score(i, j), threshold);
+                partial.pairs += n - i - 1;
+            }
+        }
+    }
+
+    /** One block's maxima and hits, owned by a single task until it is merged. */
+    private static final class Partial {
+        final double[] maxScores;
+        int[] hitRows = new int[0];
+        int[] hitColumns = new int[0];
+        double[] hitScores = new double[0];
+        int hitCount;
+        long pairs;
+
+        Partial(int n) {
+            this.maxScores = new double[n];
+        }
+
+        void record(int i, int j, double score, double threshold) {
+            if (score > maxScores[i]) maxScores[i] = score;
+            if (score > maxScores[j]) maxScores[j] = score;
+            if (SimilarityKernels.exceeds(score, threshold)) addHit(i, j, score);
+        }
+
+        private void addHit(int i, int j, double score) {
+            if (hitCount == hitRows.length) grow(Math.max(8, hitCount * 2));
+            hitRows[hitCount] = i;
+            hitColumns[hitCount] = j;
+            hitScores[hitCount] = score;
+            hitCount++;
+        }
+
+        /** Fold {@code other} into this partial; hits keep row order (this block's rows come first). */
+        Partial mergeFrom(Partial other) {
+            for (int k = 0; k < maxScores.length; k++) {
+                if (other.maxScores[k] > maxScores[k]) maxScores[k] = other.maxScores[k];
+            }
+            if (other.hitCount > 0) {
+                if (hitCount + other.hitCount > hitRows.length) grow(hitCount + other.hitCount);
+                System.arraycopy(other.hitRows, 0, hitRows, hitCount, other.hitCount);
+                System.arraycopy(other.hitColumns, 0, hitColumns, hitCount, other.hitCount);
+                System.arraycopy(other.hitScores, 0, hitScores, hitCount, other.hitCount);
+                hitCount += other.hitCount;
+            }
+            pairs += other.pairs;
+            return this;
+        }
+
+        private void grow(int capacity) {
+            hitRows    = Arrays.copyOf(hitRows, capacity);
+            hitColumns = Arrays.copyOf(hitColumns, capacity);
+            hitScores  = Arrays.copyOf(hitScores, capacity);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits an answer into paragraphs with a 64-bit FNV-1a fingerprint each, so
+ * consecutive snapshots of the same answer can be diffed paragraph by paragraph.
+ *
+ * A paragraph is a run of lines at least {@code minChars} long: consecutive
+ * short lines (lists, headings) are grouped with the lines after them until
+ * the group is long enough, and only the final paragraph may be shorter.
+ * Blank lines between paragraphs are dropped.
+ */
+public final class ParagraphSplitter {
+
+    /** One paragraph and the fingerprint of its exact text. */
+    public record Paragraph(String text, long fingerprint) {
+    }
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ParagraphSplitter() {
+    }
+
+    public static List<Paragraph> split(String text, int minChars) {
+        List<Paragraph> paragraphs = new ArrayList<>();
+        if (text == null || text.isEmpty()) return paragraphs;
+
+        int start = -1;                     // first char of the current paragraph, -1 while only blanks seen
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : '\n';
+            boolean lineEnd = c == '\n' || c == '\r';
+            if (!lineEnd) {
+                if (start < 0 && !Character.isWhitespace(c)) start = lineStart(text, i);
+                continue;
+            }
+            if (start >= 0 && (i - start >= minChars || i == text.length())) {
+                paragraphs.add(paragraph(text, start, i));
+                start = -1;
+            }
+        }
+        return paragraphs;
+    }
+
+    private static int lineStart(String text, int i) {
+        while (i > 0 && text.charAt(i - 1) != '\n' && text.charAt(i - 1) != '\r') i--;
+        return i;
+    }
+
+    private static Paragraph paragraph(String text, int start, int end) {
+        long hash = FNV_OFFSET;
+        for (int i = start; i < end; i++) hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+        return new Paragraph(text.substring(start, end), hash);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Resident inverted index over every known answer to ONE question.
+ *
+ * Each answer is reduced to the distinct set of hashed word n-grams ("shingles")
+ * it contains. The index maps every shingle hash to a posting list (a BitSet of
+ * document slots), so scoring a new answer against the whole cohort only walks
+ * the postings of the query's own shingles:
+ *
+ *   cost ≈ O(query shingles × posting length)   instead of   O(peers × text length)
+ *
+ * Answers are keyed by submissionId (the (submission, question) pair is unique on
+ * the submission side), so re-indexing the same answer after an autosave replaces
+ * its previous postings rather than adding a duplicate.
+ *
+ * Each entry also keeps its {@link TokenizedText}, whose TF vector is built once
+ * and cached, so rescoring the top-k candidates with cosine costs one merge-join
+ * per candidate instead of re-tokenizing every peer on every check.
+ *
+ * Thread-safe: queries share a read lock, upserts take the write lock.
+ */
+public class PeerAnswerIndex {
+
+    /** One indexed answer. {@code shingles} is sorted and de-duplicated. */
+    public record Entry(String key, String submissionId, String studentId, String text,
+                        TokenizedText tokens, long[] shingles) {}
+
+    /** One ranked peer returned by {@link #query}. {@code tokens} is shared with the index entry. */
+    public record Candidate(String submissionId, String studentId, String text, TokenizedText tokens,
+                            double score, int sharedShingles) {}
+
+    private final int shingleSize;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> slotByKey = new HashMap<>();
+    private final List<Entry> slots = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<Long, BitSet> postings = new HashMap<>();
+
+    public PeerAnswerIndex(int shingleSize) {
+        this.shingleSize = Math.max(1, shingleSize);
+    }
+
+    /**
+     * Insert or replace the answer identified by {@code key}.
+     * Blank text removes the answer from the index.
+     */
+    public void upsert(String key, String submissionId, String studentId, String text) {
+        upsert(key, submissionId, studentId, text, text == null ? TokenizedText.EMPTY : TextTokenizer.tokenize(text));
+    }
+
+    /** As {@link #upsert(String, String, String, String)} with {@code tokens} already computed from {@code text}. */
+    public void upsert(String key, String submissionId, String studentId, String text, TokenizedText tokens) {
+        if (key == null) return;
+        if (text == null || text.isBlank()) {
+            remove(key);
+            return;
+        }
+
+        long[] shingles = Shingler.shingle(tokens, shingleSize);
+
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotByKey.get(key);
+            if (slot != null) {
+                Entry previous = slots.get(slot);
+                if (Arrays.equals(previous.shingles(), shingles)) {
+                    // Same shingle set (e.g. whitespace-only edit) — keep postings, refresh text.
+                    slots.set(slot, new Entry(key, submissionId, studentId, text, tokens, shingles));
+                    return;
+                }
+                unlink(slot, previous.shingles());
+            } else {
+                slot = freeSlots.isEmpty() ? slots.size() : freeSlots.pop();
+                if (slot == slots.size()) slots.add(null);
+                slotByKey.put(key, slot);
+            }
+
+            slots.set(slot, new Entry(key, submissionId, studentId, text, tokens, shingles));
+            for (long h : shingles) {
+                postings.computeIfAbsent(h, x -> new BitSet()).set(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Remove the answer identified by {@code key}, if indexed. */
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotByKey.remove(key);
+            if (slot == null) return;
+            unlink(slot, slots.get(slot).shingles());
+            slots.set(slot, null);
+            freeSlots.push(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Return the top-k indexed answers ranked by shingle Jaccard similarity to
+     * {@code text}, skipping answers that belong to the requesting student.
+     *
+     * Exclusion mirrors the submission-service peer query: rows from the same
+     * student or the same submission are dropped, and rows with no studentId are
+     * dropped whenever a student context is available (they could be that student's
+     * own earlier drafts).
+     */
+    public List<Candidate> query(String text, String excludeStudentId, String excludeSubmissionId, int k) {
+        if (text == null || text.isBlank()) return List.of();
+        return query(TextTokenizer.tokenize(text), excludeStudentId, excludeSubmissionId, k);
+    }
+
+    /** As {@link #query(String, String, String, int)} for an already tokenized text. */
+    public List<Candidate> query(TokenizedText text, String excludeStudentId, String excludeSubmissionId, int k) {
+        if (k <= 0) return List.of();
+        long[] queryShingles = Shingler.shingle(text, shingleSize);
+        if (queryShingles.length == 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            int[] shared = new int[slots.size()];
+            for (long h : queryShingles) {
+                BitSet posting = postings.get(h);
+                if (posting == null) continue;
+                for (int s = posting.nextSetBit(0); s >= 0; s = posting.nextSetBit(s + 1)) {
+                    shared[s]++;
+                }
+            }
+
+            PriorityQueue<Candidate> top = new PriorityQueue<>(k + 1, Comparator.comparingDouble(Candidate::score));
+            for (int s = 0; s < shared.length; s++) {
+                if (shared[s] == 0) continue;
+                Entry e = slots.get(s);
+                if (isExcluded(e, excludeStudentId, excludeSubmissionId)) continue;
+
+                int union = queryShingles.length + e.shingles().length - shared[s];
+                double score = union == 0 ? 0.0 : (double) shared[s] / union;
+                top.offer(new Candidate(e.submissionId(), e.studentId(), e.text(), e.tokens(), score, shared[s]));
+                if (top.size() > k) top.poll();
+            }
+
+            List<Candidate> ranked = new ArrayList<>(top);
+            ranked.sort(Comparator.comparingDouble(Candidate::score).reversed());
+            return ranked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the answer identified by {@code key} is indexed with exactly
+     * {@code text} (blank text: whether it is absent), so a re-delivered,
+     * unchanged answer can be skipped without re-tokenizing it.
+     */
+    public boolean holds(String key, String text) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotByKey.get(key);
+            if (slot == null) return text == null || text.isBlank();
+            return slots.get(slot).text().equals(text);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of answers currently indexed. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    private void unlink(int slot, long[] shingles) {
+        for (long h : shingles) {
+            BitSet posting = postings.get(h);
+            if (posting == null) continue;
+            posting.clear(slot);
+            if (posting.isEmpty()) postings.remove(h);
+        }
+    }
+
+    private static boolean isExcluded(Entry e, String excludeStudentId, String excludeSubmissionId) {
+        if (excludeStudentId != null && excludeStudentId.equals(e.studentId())) return true;
+        if (excludeSubmissionId != null && excludeSubmissionId.equals(e.submissionId())) return true;
+        return e.studentId() == null && excludeStudentId != null;
+    }
+}
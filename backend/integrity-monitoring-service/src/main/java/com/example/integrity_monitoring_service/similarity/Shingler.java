@@ -0,0 +1,61 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.util.Arrays;
+
+/**
+ * Reduces answer text to the sorted, distinct 64-bit hashes of its word n-grams.
+ *
+ * Shared by the resident peer index and the MinHash signature store so both
+ * see exactly the same shingle set for a given answer. Shingles are built from
+ * the tokens' stable String hashes rather than their dictionary ids, so
+ * persisted signatures stay valid across restarts.
+ */
+public final class Shingler {
+
+    private Shingler() {
+    }
+
+    /**
+     * Hash every word n-gram of {@code text}. Texts shorter than one shingle
+     * collapse to a single shingle of all their tokens; empty text yields an
+     * empty array.
+     */
+    public static long[] shingle(String text, int shingleSize) {
+        return shingle(TextTokenizer.tokenize(text), shingleSize);
+    }
+
+    /** As {@link #shingle(String, int)} for an already tokenized text. */
+    public static long[] shingle(TokenizedText text, int shingleSize) {
+        int[] tokens = text.tokens();
+        if (tokens.length == 0) return new long[0];
+
+        int size = Math.max(1, shingleSize);
+        int count = Math.max(1, tokens.length - size + 1);
+        long[] hashes = new long[count];
+        for (int i = 0; i < count; i++) {
+            long h = 0;
+            int end = Math.min(tokens.length, i + size);
+            for (int j = i; j < end; j++) {
+                h = h * 31 + TextTokenizer.stableHash(tokens[j]);
+            }
+            hashes[i] = mix(h);
+        }
+
+        Arrays.sort(hashes);
+        int unique = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            if (i == 0 || hashes[i] != hashes[i - 1]) hashes[unique++] = hashes[i];
+        }
+        return Arrays.copyOf(hashes, unique);
+    }
+
+    /** MurmurHash3 fmix64 — spreads a 64-bit value over all output bits. */
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.util.Arrays;
+
+/**
+ * Allocation-free similarity measures over the primitive arrays of
+ * {@link TokenizedText}. All inputs are sorted ascending unless stated otherwise;
+ * every measure is a single merge-join pass except LCS, which is bit-parallel.
+ * Cosine lives on {@link SparseVector}.
+ */
+public final class SimilarityKernels {
+
+    private static final ThreadLocal<LcsScratch> LCS_SCRATCH = ThreadLocal.withInitial(LcsScratch::new);
+
+    private SimilarityKernels() {
+    }
+
+    /**
+     * Whether {@code score} counts as a match at {@code threshold}: strictly above it.
+     * Every text-similarity flagging path uses this one comparison, so a pair
+     * scoring exactly the threshold gets the same verdict from a per-answer check
+     * and from an assignment sweep.
+     */
+    public static boolean exceeds(double score, double threshold) {
+        return score > threshold;
+    }
+
+    /** Jaccard over two sorted, distinct id arrays. */
+    public static double jaccard(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) return 0.0;
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) shared / (a.length + b.length - shared);
+    }
+
+    /** Dice coefficient over two sorted multisets: 2·|A ∩ B| / (|A| + |B|). */
+    public static double dice(long[] a, long[] b) {
+        if (a.length == 0 || b.length == 0) return 0.0;
+        long shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (2.0 * shared) / (a.length + b.length);
+    }
+
+    /**
+     * Length of the longest common subsequence of {@code a[0..aLen)} and
+     * {@code b[0..bLen)} (token order, not sorted).
+     *
+     * Bit-parallel (Allison–Dix / Hyyrö): the shorter sequence is the pattern,
+     * one bit per position in a {@code long[]} row V, and each token of the other
+     * sequence updates V with one multi-word add and subtract,
+     *
+     *   U = V & match(token);  V = (V + U) | (V - U)
+     *
+     * after which the LCS is the number of zero bits in V. O(m·n/64) time and
+     * O(m) memory from a per-thread scratch buffer; tokens absent from the
+     * pattern cost one binary search.
+     */
+    public static int lcsLength(int[] a, int aLen, int[] b, int bLen) {
+        return lcsLengthBanded(a, aLen, b, bLen, 0);
+    }
+
+    /**
+     * As {@link #lcsLength}, but only matches within {@code band} positions of
+     * the (length-scaled) main diagonal count. A lower bound on the exact LCS,
+     * equal to it whenever the copied material keeps its relative position;
+     * each token then touches only the ~band/32 words around the diagonal.
+     * {@code band <= 0} means unbanded.
+     */
+    public static int lcsLengthBanded(int[] a, int aLen, int[] b, int bLen, int band) {
+        if (aLen == 0 || bLen == 0) return 0;
+        if (aLen > bLen) return lcsLengthBanded(b, bLen, a, aLen, band);
+
+        LcsScratch s = LCS_SCRATCH.get();
+        int symbols = s.index(a, aLen);
+        int words = (aLen + 63) >>> 6;
+        long[] v = s.row(words);
+        long[] u = s.u;
+        int[] syms = s.symbols, start = s.start, positions = s.positions;
+
+        for (int j = 0; j < bLen; j++) {
+            int k = Arrays.binarySearch(syms, 0, symbols, b[j]);
+            if (k < 0) continue;
+
+            int first = start[k], end = start[k + 1], hi = aLen - 1;
+            if (band > 0) {
+                int centre = (int) ((long) j * aLen / bLen);
+                int from = Arrays.binarySearch(positions, first, end, centre - band);
+                first = from >= 0 ? from : -from - 1;
+                hi = centre + band;
+            }
+
+            // U = V & match(b[j]), restricted to the band
+            int wLo = Integer.MAX_VALUE, wHi = -1;
+            for (int p = first; p < end; p++) {
+                int pos = positions[p];
+                if (pos > hi) break;
+                int w = pos >>> 6;
+                long bit = 1L << pos;
+                if ((v[w] & bit) != 0) {
+                    u[w] |= bit;
+                    if (w < wLo) wLo = w;
+                    wHi = w;
+                }
+            }
+            if (wHi < 0) continue;
+
+            // V = (V + U) | (V - U); words below wLo are unchanged, and past wHi
+            // only a pending carry or borrow can still change anything
+            long carry = 0, borrow = 0;
+            for (int w = wLo; w < words && (w <= wHi || (carry | borrow) != 0); w++) {
+                long vw = v[w], uw = u[w];
+                u[w] = 0;
+
+                long sum = vw + uw;
+                long sumCarry = Long.compareUnsigned(sum, vw) < 0 ? 1 : 0;
+                sum += carry;
+                if (carry != 0 && sum == 0) sumCarry = 1;
+
+                long diff = vw - uw;
+                long diffBorrow = Long.compareUnsigned(vw, uw) < 0 ? 1 : 0;
+                if (borrow != 0 && diff == 0) diffBorrow = 1;
+                diff -= borrow;
+
+                v[w] = sum | diff;
+                carry = sumCarry;
+                borrow = diffBorrow;
+            }
+        }
+
+        int ones = 0;
+        for (int w = 0; w < words - 1; w++) ones += Long.bitCount(v[w]);
+        int tail = aLen - ((words - 1) << 6);
+        long tailMask = tail == 64 ? -1L : (1L << tail) - 1;
+        ones += Long.bitCount(v[words - 1] & tailMask);
+        return aLen - ones;
+    }
+
+    /** Per-thread buffers for {@link #lcsLengthBanded}: the pattern's position lists and the bit rows. */
+    private static final class LcsScratch {
+        long[] packed = new long[256];
+        int[] symbols = new int[256];
+        int[] start = new int[257];
+        int[] positions = new int[256];
+        long[] v = new long[4];
+        long[] u = new long[4];
+
+        /**
+         * Group the positions of {@code a[0..len)} by token id: symbol k occurs at
+         * {@code positions[start[k]..start[k+1])}, ascending. Returns the symbol count.
+         */
+        int index(int[] a, int len) {
+            if (packed.length < len) {
+                packed = new long[len];
+                symbols = new int[len];
+                start = new int[len + 1];
+                positions = new int[len];
+            }
+            for (int i = 0; i < len; i++) packed[i] = ((long) a[i] << 32) | i;
+            Arrays.sort(packed, 0, len);
+
+            int k = -1;
+            for (int i = 0; i < len; i++) {
+                int id = (int) (packed[i] >> 32);
+                if (k < 0 || symbols[k] != id) {
+                    symbols[++k] = id;
+                    start[k] = i;
+                }
+                positions[i] = (int) packed[i];
+            }
+            start[k + 1] = len;
+            return k + 1;
+        }
+
+        /** V row of {@code words} all-ones words, with a zeroed U row of the same size. */
+        long[] row(int words) {
+            if (v.length < words) {
+                v = new long[words];
+                u = new long[words];
+            }
+            Arrays.fill(v, 0, words, -1L);
+            return v;
+        }
+    }
+}
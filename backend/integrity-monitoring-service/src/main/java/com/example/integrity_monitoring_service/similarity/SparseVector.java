@@ -0,0 +1,80 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Sparse term vector: sorted {@code int[]} term ids with index-aligned
+ * {@code float[]} weights and the L2 norm computed once at construction.
+ *
+ * Cosine between two vectors is a single merge-join over the id arrays — no
+ * shared vocabulary, no dense allocation — so a vector built once per document
+ * can be compared against any number of peers.
+ */
+public final class SparseVector {
+
+    public static final SparseVector EMPTY = new SparseVector(new int[0], new float[0]);
+
+    private final int[] ids;
+    private final float[] weights;
+    private final double norm;
+
+    /** @param ids sorted ascending, distinct; {@code weights} index-aligned. Arrays are not copied. */
+    public SparseVector(int[] ids, float[] weights) {
+        this.ids = ids;
+        this.weights = weights;
+        double sum = 0;
+        for (float w : weights) sum += (double) w * w;
+        this.norm = Math.sqrt(sum);
+    }
+
+    /** Sublinear TF weights (1 + ln tf) — the weighting TextSimilarityService has always used. */
+    public static SparseVector tf(TokenizedText.TermCounts terms) {
+        if (terms.size() == 0) return EMPTY;
+        int[] counts = terms.counts();
+        float[] weights = new float[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            weights[i] = (float) (1 + Math.log(counts[i]));
+        }
+        return new SparseVector(terms.ids(), weights);
+    }
+
+    /** Copy with each weight multiplied by {@code factorById(termId)} (e.g. IDF); ids are shared. */
+    public SparseVector scaled(IntToDoubleFunction factorById) {
+        if (ids.length == 0) return this;
+        float[] scaled = new float[weights.length];
+        for (int i = 0; i < ids.length; i++) {
+            scaled[i] = (float) (weights[i] * factorById.applyAsDouble(ids[i]));
+        }
+        return new SparseVector(ids, scaled);
+    }
+
+    public double dot(SparseVector other) {
+        int[] a = ids, b = other.ids;
+        float[] wa = weights, wb = other.weights;
+        double dot = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                dot += (double) wa[i++] * wb[j++];
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return dot;
+    }
+
+    /** Cosine similarity; 0 when either vector is empty. */
+    public double cosine(SparseVector other) {
+        if (norm == 0 || other.norm == 0) return 0.0;
+        return Math.min(1.0, dot(other) / (norm * other.norm));
+    }
+
+    public double norm() {
+        return norm;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Single-pass tokenizer shared by every text scorer.
+ *
+ * One scan over the input lowercases each char, treats anything outside
+ * [a-z0-9] as a separator, and in the same pass
+ *   - writes the normalised text (words joined by single spaces) used for
+ *     character n-grams, and
+ *   - interns every word of 3+ chars into the process-wide {@link TokenDictionary},
+ *     dropping stop words by id.
+ *
+ * This reproduces the old {@code toLowerCase().replaceAll("[^a-z0-9\\s]", " ")
+ * .split("\\s+")} pipeline without regexes, intermediate Strings or boxing.
+ * Scratch buffers are per-thread; the only allocations per call are the
+ * exact-size result arrays held by {@link TokenizedText}.
+ */
+public final class TextTokenizer {
+
+    /** Stop words removed by every scorer. */
+    private static final List<String> STOP_WORDS = List.of(
+            "the", "is", "at", "which", "on", "a", "an", "and", "or",
+            "but", "in", "with", "to", "for", "of", "as", "by", "from",
+            "that", "this", "it", "are", "was", "were", "been", "be",
+            "have", "has", "had", "do", "does", "did", "will", "would",
+            "could", "should", "may", "might", "must", "can"
+    );
+
+    /** Additional stop words dropped from {@link TokenizedText#contentTokens()}. */
+    private static final List<String> EXTENDED_STOP_WORDS = List.of(
+            "not", "no", "so", "if", "then", "than", "when", "where", "who", "how", "what", "why"
+    );
+
+    private static final int MAX_TERMS = 1 << 21;
+    private static final TokenDictionary DICTIONARY = new TokenDictionary(MAX_TERMS);
+
+    // Stop words are interned first, so a stop word is simply a small id.
+    private static final boolean[] STOP_BY_ID;
+    private static final boolean[] EXTENDED_STOP_BY_ID;
+
+    static {
+        int[] stop = STOP_WORDS.stream().mapToInt(DICTIONARY::intern).toArray();
+        int[] extended = EXTENDED_STOP_WORDS.stream().mapToInt(DICTIONARY::intern).toArray();
+        STOP_BY_ID = new boolean[DICTIONARY.size()];
+        EXTENDED_STOP_BY_ID = new boolean[DICTIONARY.size()];
+        for (int id : stop) {
+            STOP_BY_ID[id] = true;
+            EXTENDED_STOP_BY_ID[id] = true;
+        }
+        for (int id : extended) EXTENDED_STOP_BY_ID[id] = true;
+    }
+
+    private static final int MIN_TOKEN_LENGTH = 3;
+
+    private static final class Scratch {
+        char[] word = new char[64];
+        char[] normalised = new char[1024];
+        int[] tokens = new int[256];
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private TextTokenizer() {
+    }
+
+    /** Tokenize {@code text}; null or blank text yields {@link TokenizedText#EMPTY}. */
+    public static TokenizedText tokenize(String text) {
+        if (text == null || text.isEmpty()) return TokenizedText.EMPTY;
+
+        Scratch s = SCRATCH.get();
+        int length = text.length();
+        if (s.normalised.length < length) s.normalised = new char[Math.max(length, s.normalised.length * 2)];
+        char[] normalised = s.normalised;
+        char[] word = s.word;
+        int[] tokens = s.tokens;
+
+        int normLen = 0, wordLen = 0, wordHash = 0, tokenCount = 0;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? fold(text.charAt(i)) : 0;
+            if (c != 0) {
+                if (wordLen == 0 && normLen > 0) normalised[normLen++] = ' ';
+                normalised[normLen++] = c;
+                if (wordLen == word.length) s.word = word = Arrays.copyOf(word, word.length * 2);
+                word[wordLen++] = c;
+                wordHash = 31 * wordHash + c;
+            } else if (wordLen > 0) {
+                if (wordLen >= MIN_TOKEN_LENGTH) {
+                    int id = DICTIONARY.intern(word, wordLen, wordHash);
+                    if (!isStopWord(id)) {
+                        if (tokenCount == tokens.length) s.tokens = tokens = Arrays.copyOf(tokens, tokens.length * 2);
+                        tokens[tokenCount++] = id;
+                    }
+                }
+                wordLen = 0;
+                wordHash = 0;
+            }
+        }
+
+        if (normLen == 0) return TokenizedText.EMPTY;
+        return new TokenizedText(Arrays.copyOf(tokens, tokenCount), Arrays.copyOf(normalised, normLen));
+    }
+
+    /** {@code String.hashCode()} of the token behind {@code id} — stable across restarts. */
+    public static int stableHash(int id) {
+        return DICTIONARY.stableHash(id);
+    }
+
+    /** Size of the shared dictionary (for metrics / tests). */
+    public static int dictionarySize() {
+        return DICTIONARY.size();
+    }
+
+    static boolean isExtendedStopWord(int id) {
+        return id >= 0 && id < EXTENDED_STOP_BY_ID.length && EXTENDED_STOP_BY_ID[id];
+    }
+
+    private static boolean isStopWord(int id) {
+        return id >= 0 && id < STOP_BY_ID.length && STOP_BY_ID[id];
+    }
+
+    /** Lowercase a char and map everything outside [a-z0-9] to 0 (separator). */
+    private static char fold(char c) {
+        if (c < 128) {
+            if (c >= 'a' && c <= 'z' || c >= '0' && c <= '9') return c;
+            if (c >= 'A' && c <= 'Z') return (char) (c + ('a' - 'A'));
+            return 0;
+        }
+        char lower = Character.toLowerCase(c);
+        return lower >= 'a' && lower <= 'z' ? lower : 0;
+    }
+}
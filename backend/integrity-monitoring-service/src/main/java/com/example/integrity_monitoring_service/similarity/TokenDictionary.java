@@ -0,0 +1,175 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Process-wide token → int id dictionary.
+ *
+ * Lookups take the token straight from the tokenizer's char buffer, so a token
+ * that is already known costs no String allocation. The table is open-addressed
+ * (linear probing, load ≤ 0.5) and read with an optimistic StampedLock stamp;
+ * only the first sighting of a new token takes the write lock.
+ *
+ * The dictionary stops growing at {@code maxTerms}. Tokens seen after that get
+ * a negative overflow id derived from their hash, so they still compare equal to
+ * themselves (a collision between two overflow tokens is possible but harmless
+ * for similarity scoring).
+ */
+public final class TokenDictionary {
+
+    /** Returned by {@link #find} when the token is not in the table. */
+    private static final int MISSING = Integer.MIN_VALUE;
+
+    private static final class Table {
+        final char[][] keys;
+        final int[] hashes;
+        final int[] ids;
+        final int[] hashById;
+
+        Table(int capacity, int idCapacity) {
+            keys = new char[capacity][];
+            hashes = new int[capacity];
+            ids = new int[capacity];
+            hashById = new int[idCapacity];
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private final int maxTerms;
+    private volatile Table table;
+    private int size;
+
+    public TokenDictionary(int maxTerms) {
+        this.maxTerms = maxTerms;
+        this.table = new Table(1 << 12, 1 << 11);
+    }
+
+    /**
+     * Id of the token held in {@code buf[0..len)}, adding it if unseen.
+     *
+     * @param hash {@code String.hashCode()} of the token (computed during the scan)
+     */
+    public int intern(char[] buf, int len, int hash) {
+        long stamp = lock.tryOptimisticRead();
+        int id = find(table, buf, len, hash);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                id = find(table, buf, len, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (id != MISSING) return id;
+
+        stamp = lock.writeLock();
+        try {
+            id = find(table, buf, len, hash);
+            if (id != MISSING) return id;
+            if (size >= maxTerms) return hash | Integer.MIN_VALUE;
+            return insert(buf, len, hash);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Convenience for seeding fixed vocabularies (stop words). */
+    public int intern(String token) {
+        return intern(token.toCharArray(), token.length(), token.hashCode());
+    }
+
+    /**
+     * {@code String.hashCode()} of the token behind {@code id}. Stable across
+     * restarts, unlike the id itself, so it is safe to persist anything derived
+     * from it. Overflow ids return the id (which embeds the hash).
+     */
+    public int stableHash(int id) {
+        if (id < 0) return id;
+        long stamp = lock.tryOptimisticRead();
+        Table t = table;
+        int hash = id < t.hashById.length ? t.hashById[id] : 0;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                hash = table.hashById[id];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return hash;
+    }
+
+    /** Number of interned tokens. */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    /** Probe for the token. Must never throw — it also runs under an optimistic stamp. */
+    private static int find(Table t, char[] buf, int len, int hash) {
+        int mask = t.keys.length - 1;
+        for (int probe = 0, slot = spread(hash) & mask; probe <= mask; probe++, slot = (slot + 1) & mask) {
+            char[] key = t.keys[slot];
+            if (key == null) return MISSING;
+            if (t.hashes[slot] == hash && key.length == len && equals(key, buf, len)) return t.ids[slot];
+        }
+        return MISSING;
+    }
+
+    private int insert(char[] buf, int len, int hash) {
+        Table t = table;
+        if ((size + 1) * 2 > t.keys.length || size >= t.hashById.length) {
+            t = grow(t);
+        }
+        int mask = t.keys.length - 1;
+        int slot = spread(hash) & mask;
+        while (t.keys[slot] != null) slot = (slot + 1) & mask;
+
+        int id = size++;
+        t.hashes[slot] = hash;
+        t.ids[slot] = id;
+        t.hashById[id] = hash;
+        t.keys[slot] = Arrays.copyOf(buf, len);
+        return id;
+    }
+
+    private Table grow(Table old) {
+        Table t = new Table(old.keys.length * 2, old.hashById.length * 2);
+        int mask = t.keys.length - 1;
+        for (int i = 0; i < old.keys.length; i++) {
+            if (old.keys[i] == null) continue;
+            int slot = spread(old.hashes[i]) & mask;
+            while (t.keys[slot] != null) slot = (slot + 1) & mask;
+            t.keys[slot] = old.keys[i];
+            t.hashes[slot] = old.hashes[i];
+            t.ids[slot] = old.ids[i];
+        }
+        System.arraycopy(old.hashById, 0, t.hashById, 0, size);
+        table = t;
+        return t;
+    }
+
+    /** MurmurHash3 fmix32 — String hashes of short tokens are poorly spread in the low bits. */
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static boolean equals(char[] key, char[] buf, int len) {
+        for (int i = 0; i < len; i++) {
+            if (key[i] != buf[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Primitive form of one text, produced by {@link TextTokenizer}.
+ *
+ * Holds the token ids (in order, stop words removed) and the normalised text;
+ * derived views — distinct term counts, the TF sparse vector, the
+ * extended-stop-word token stream and sorted character n-gram fingerprints —
+ * are computed on first use and cached,
+ * so a document tokenized once can be compared against any number of peers
+ * without further allocation.
+ *
+ * Immutable apart from those caches; safe to share between threads.
+ */
+public final class TokenizedText {
+
+    /** Sorted distinct term ids with their occurrence counts (index-aligned). */
+    public record TermCounts(int[] ids, int[] counts) {
+        static final TermCounts EMPTY = new TermCounts(new int[0], new int[0]);
+
+        public int size() {
+            return ids.length;
+        }
+    }
+
+    public static final TokenizedText EMPTY = new TokenizedText(new int[0], new char[0]);
+
+    // n-grams up to this size pack exactly into a long (6 bits per symbol)
+    private static final int MAX_PACKED_GRAM = 10;
+    private static final int MAX_CACHED_GRAM = 8;
+
+    private final int[] tokens;
+    private final char[] normalised;
+
+    private volatile TermCounts terms;
+    private volatile SparseVector tfVector;
+    private volatile int[] contentTokens;
+    private volatile TermCounts contentTerms;
+    private volatile long[][] charGrams;
+
+    TokenizedText(int[] tokens, char[] normalised) {
+        this.tokens = tokens;
+        this.normalised = normalised;
+    }
+
+    /**
+     * The tokenization of the texts joined by line breaks, built by concatenating
+     * their token and normalised arrays — no re-tokenizing. Used to assemble a
+     * whole answer from per-paragraph tokenizations.
+     */
+    public static TokenizedText join(List<TokenizedText> parts) {
+        if (parts.isEmpty()) return EMPTY;
+        if (parts.size() == 1) return parts.get(0);
+        int tokenCount = 0, charCount = 0;
+        for (TokenizedText part : parts) {
+            tokenCount += part.tokens.length;
+            if (part.normalised.length > 0) charCount += part.normalised.length + 1;
+        }
+        if (charCount == 0) return EMPTY;
+
+        int[] tokens = new int[tokenCount];
+        char[] normalised = new char[charCount - 1];
+        int t = 0, c = 0;
+        for (TokenizedText part : parts) {
+            System.arraycopy(part.tokens, 0, tokens, t, part.tokens.length);
+            t += part.tokens.length;
+            if (part.normalised.length == 0) continue;
+            if (c > 0) normalised[c++] = ' ';
+            System.arraycopy(part.normalised, 0, normalised, c, part.normalised.length);
+            c += part.normalised.length;
+        }
+        return new TokenizedText(tokens, normalised);
+    }
+
+    /** Token ids in text order, words shorter than 3 chars and stop words removed. Do not modify. */
+    public int[] tokens() {
+        return tokens;
+    }
+
+    public boolean isEmpty() {
+        return tokens.length == 0;
+    }
+
+    /** Distinct term ids of {@link #tokens()} with their counts. */
+    public TermCounts terms() {
+        TermCounts t = terms;
+        if (t == null) terms = t = countTerms(tokens);
+        return t;
+    }
+
+    /** TF vector of {@link #terms()} with its norm precomputed. */
+    public SparseVector tfVector() {
+        SparseVector v = tfVector;
+        if (v == null) tfVector = v = SparseVector.tf(terms());
+        return v;
+    }
+
+    /** {@link #tokens()} with the extended stop-word list (not, if, when, how, …) also removed. */
+    public int[] contentTokens() {
+        int[] c = contentTokens;
+        if (c == null) {
+            int[] filtered = new int[tokens.length];
+            int n = 0;
+            for (int id : tokens) {
+                if (!TextTokenizer.isExtendedStopWord(id)) filtered[n++] = id;
+            }
+            contentTokens = c = n == tokens.length ? tokens : Arrays.copyOf(filtered, n);
+        }
+        return c;
+    }
+
+    /** Distinct term ids of {@link #contentTokens()} with their counts. */
+    public TermCounts contentTerms() {
+        TermCounts t = contentTerms;
+        if (t == null) contentTerms = t = countTerms(contentTokens());
+        return t;
+    }
+
+    /** Length of the normalised text (lowercase words joined by single spaces). */
+    public int normalisedLength() {
+        return normalised.length;
+    }
+
+    /**
+     * Sorted fingerprints of every character n-gram of the normalised text,
+     * duplicates kept (multiset). For n ≤ 10 the fingerprint is the exact packed
+     * n-gram, so equal fingerprints mean equal n-grams.
+     */
+    public long[] charGrams(int n) {
+        if (n <= 0 || normalised.length < n) return new long[0];
+        if (n > MAX_CACHED_GRAM) return buildCharGrams(n);
+
+        long[][] cache = charGrams;
+        if (cache != null && cache[n] != null) return cache[n];
+
+        long[] grams = buildCharGrams(n);
+        long[][] updated = cache == null ? new long[MAX_CACHED_GRAM + 1][] : cache.clone();
+        updated[n] = grams;
+        charGrams = updated;
+        return grams;
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    private long[] buildCharGrams(int n) {
+        int count = normalised.length - n + 1;
+        long[] grams = new long[count];
+        if (n <= MAX_PACKED_GRAM) {
+            long mask = (1L << (n * 6)) - 1;
+            long rolling = 0;
+            for (int i = 0; i < normalised.length; i++) {
+                rolling = ((rolling << 6) | symbol(normalised[i])) & mask;
+                if (i >= n - 1) grams[i - n + 1] = rolling;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                long h = 0;
+                for (int j = i; j < i + n; j++) h = h * 1_000_003L + normalised[j];
+                grams[i] = Shingler.mix(h);
+            }
+        }
+        Arrays.sort(grams);
+        return grams;
+    }
+
+    /** 6-bit code: space = 1, a-z = 2..27, 0-9 = 28..37. */
+    private static long symbol(char c) {
+        if (c == ' ') return 1;
+        if (c <= '9') return 28 + (c - '0');
+        return 2 + (c - 'a');
+    }
+
+    private static TermCounts countTerms(int[] tokens) {
+        if (tokens.length == 0) return TermCounts.EMPTY;
+        int[] sorted = tokens.clone();
+        Arrays.sort(sorted);
+
+        int distinct = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[i - 1]) distinct++;
+        }
+        int[] ids = new int[distinct];
+        int[] counts = new int[distinct];
+        int k = -1;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) ids[++k] = sorted[i];
+            counts[k]++;
+        }
+        return new TermCounts(ids, counts);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.integrity_monitoring_service.similarity;
+
+import java.util.Arrays;
+
+/**
+ * Winnowing (Schleimer, Wilkerson and Aiken, 2003 — the MOSS fingerprinting
+ * scheme) over code token sequences.
+ *
+ * Every k-token window (k-gram) is hashed; from each run of {@code window}
+ * consecutive k-gram hashes the minimum is kept as a fingerprint. Any common
+ * run of at least {@code k + window − 1} tokens is then guaranteed to yield a
+ * shared fingerprint, so choosing that length ≤ the tiling's minimum match
+ * means a pair sharing no fingerprint cannot have a single tile. k-grams never
+ * span a file separator; a file too short for a full window contributes its
+ * smallest k-gram hash.
+ */
+public final class Winnower {
+
+    private Winnower() {}
+
+    /** Distinct fingerprints of {@code sequence}, ascending. */
+    public static long[] fingerprints(CodeTokenSequence sequence, int k, int window) {
+        if (k < 1 || window < 1) throw new IllegalArgumentException("k and window must be positive");
+        int[] tokens = sequence.tokens();
+        long[] selected = new long[Math.max(tokens.length, 1)];
+        int count = 0;
+
+        long[] hashes = new long[Math.max(tokens.length - k + 1, 0)];
+        int segmentStart = 0;
+        for (int i = 0; i <= tokens.length; i++) {
+            if (i == tokens.length || tokens[i] == CodeTokenSequence.SEPARATOR) {
+                int n = kgramHashes(tokens, segmentStart, i, k, hashes);
+                count = winnow(hashes, n, window, selected, count);
+                segmentStart = i + 1;
+            }
+        }
+
+        long[] distinct = Arrays.copyOf(selected, count);
+        Arrays.sort(distinct);
+        int unique = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) distinct[unique++] = distinct[i];
+        }
+        return Arrays.copyOf(distinct, unique);
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    /** Hash every k-gram of tokens[from..to) into {@code out}; returns how many. */
+    private static int kgramHashes(int[] tokens, int from, int to, int k, long[] out) {
+        int n = 0;
+        for (int start = from; start + k <= to; start++) {
+            long h = 0;
+            for (int j = 0; j < k; j++) h = h * 0x100000001B3L + tokens[start + j] + 1;
+            out[n++] = mix(h);
+        }
+        return n;
+    }
+
+    /** Append the winnowed minima of hashes[0..n) (rightmost minimum per window, each position once). */
+    private static int winnow(long[] hashes, int n, int window, long[] out, int count) {
+        if (n == 0) return count;
+        int w = Math.min(window, n);
+        int lastPicked = -1;
+        for (int start = 0; start + w <= n; start++) {
+            int min = start;
+            for (int j = start + 1; j < start + w; j++) {
+                if (hashes[j] <= hashes[min]) min = j;
+            }
+            if (min != lastPicked) {
+                out[count++] = hashes[min];
+                lastPicked = min;
+            }
+        }
+        return count;
+    }
+
+    /** MurmurHash3 fmix64 — spreads the polynomial hash so window minima are unbiased. */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
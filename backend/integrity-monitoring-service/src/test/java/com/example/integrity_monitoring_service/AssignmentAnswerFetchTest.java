@@ -0,0 +1,90 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.exception.IntegrityCheckException;
+import com.example.integrity_monitoring_service.service.SubmissionFetchService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the assignment-wide answer fetch used by sweeps — a local HTTP
+ * server stands in for the submission service's NDJSON assignment stream.
+ */
+@DisplayName("SubmissionFetchService — assignment answer stream")
+class AssignmentAnswerFetchTest {
+
+    private HttpServer server;
+    private volatile int status = 200;
+    private volatile String body = "";
+
+    private final SubmissionFetchService service = new SubmissionFetchService();
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/answers/assignment-stream", this::respond);
+        server.start();
+        ReflectionTestUtils.setField(service, "submissionServiceUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Reads every NDJSON row and drops blank answers")
+    void readsRows() {
+        body = """
+                {"answerId":1,"questionId":"q1","submissionId":"100","studentId":"s1","lastModified":"2026-03-01T10:00:00","answerText":"one"}
+                {"answerId":2,"questionId":"q1","submissionId":"101","studentId":null,"lastModified":"2026-03-01T10:00:00","answerText":"two"}
+                {"answerId":3,"questionId":"q2","submissionId":"100","studentId":"s1","lastModified":"2026-03-01T10:00:00","answerText":"  "}
+                """;
+
+        List<Map<String, String>> answers = service.fetchAnswersForAssignment("A1");
+
+        assertThat(answers).extracting(a -> a.get("content")).containsExactly("one", "two");
+        assertThat(answers.get(1).get("studentId")).isEmpty();
+        assertThat(answers.get(1).get("questionId")).isEqualTo("q1");
+    }
+
+    @Test
+    @DisplayName("A failed read throws instead of looking like an assignment without answers")
+    void failedReadThrows() {
+        status = 503;
+
+        assertThatThrownBy(() -> service.fetchAnswersForAssignment("A1"))
+                .isInstanceOf(IntegrityCheckException.class)
+                .hasMessageContaining("A1");
+    }
+
+    @Test
+    @DisplayName("An assignment without answers is an empty list")
+    void emptyAssignment() {
+        assertThat(service.fetchAnswersForAssignment("A1")).isEmpty();
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.service.AdvancedSimilarityService;
+import com.example.integrity_monitoring_service.similarity.SimilarityKernels;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the bit-parallel LCS kernel against a plain DP reference.
+ */
+@DisplayName("SimilarityKernels — bit-parallel LCS")
+class BitParallelLcsTest {
+
+    @Test
+    @DisplayName("Matches the DP table on random sequences spanning several 64-bit words")
+    void matchesDynamicProgramming() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 500; trial++) {
+            int[] a = randomTokens(random, random.nextInt(300), 1 + random.nextInt(40));
+            int[] b = randomTokens(random, random.nextInt(300), 1 + random.nextInt(40));
+
+            assertThat(SimilarityKernels.lcsLength(a, a.length, b, b.length))
+                    .as("trial %d", trial)
+                    .isEqualTo(referenceLcs(a, b));
+        }
+    }
+
+    @Test
+    @DisplayName("Banded mode is a lower bound and exact for position-preserving copies")
+    void bandedIsLowerBound() {
+        Random random = new Random(11);
+        int[] original = randomTokens(random, 2_000, 500);
+        int[] copy = original.clone();
+        for (int i = 0; i < copy.length; i += 10) copy[i] = 1_000 + i;   // light edits in place
+
+        int exact = SimilarityKernels.lcsLength(original, original.length, copy, copy.length);
+        int banded = SimilarityKernels.lcsLengthBanded(original, original.length, copy, copy.length, 16);
+        assertThat(banded).isEqualTo(exact).isEqualTo(1_800);
+
+        int[] other = randomTokens(random, 1_500, 500);
+        assertThat(SimilarityKernels.lcsLengthBanded(original, original.length, other, other.length, 16))
+                .isLessThanOrEqualTo(SimilarityKernels.lcsLength(original, original.length, other, other.length));
+    }
+
+    @Test
+    @DisplayName("Copying in the second half of a long essay is no longer truncated away")
+    void longEssaysAreComparedInFull() {
+        StringBuilder own = new StringBuilder();
+        StringBuilder copied = new StringBuilder();
+        for (int i = 0; i < 400; i++) own.append("original").append(i).append(' ');
+        for (int i = 0; i < 400; i++) copied.append("borrowed").append(i).append(' ');
+        String essay1 = own + copied.toString();
+        String essay2 = own.toString().replace("original", "different") + copied;
+
+        double lcs = new AdvancedSimilarityService(0).computeNormalisedLcs(essay1, essay2);
+        assertThat(lcs).isEqualTo(0.5);
+    }
+
+    private static int[] randomTokens(Random random, int length, int alphabet) {
+        int[] tokens = new int[length];
+        for (int i = 0; i < length; i++) tokens[i] = random.nextInt(alphabet);
+        return tokens;
+    }
+
+    private static int referenceLcs(int[] a, int[] b) {
+        int[][] table = new int[a.length + 1][b.length + 1];
+        for (int i = 1; i <= a.length; i++) {
+            for (int j = 1; j <= b.length; j++) {
+                table[i][j] = a[i - 1] == b[j - 1]
+                        ? table[i - 1][j - 1] + 1
+                        : Math.max(table[i - 1][j], table[i][j - 1]);
+            }
+        }
+        return table[a.length][b.length];
+    }
+}
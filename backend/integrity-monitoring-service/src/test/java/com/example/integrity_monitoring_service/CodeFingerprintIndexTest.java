@@ -0,0 +1,122 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.service.CodeFingerprintIndexService;
+import com.example.integrity_monitoring_service.similarity.CodeFingerprintIndex;
+import com.example.integrity_monitoring_service.similarity.CodeTokenSequence;
+import com.example.integrity_monitoring_service.similarity.Winnower;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for winnowed code fingerprints and the candidate index built on them.
+ */
+@DisplayName("Winnowing + CodeFingerprintIndex — candidate pruning before tiling")
+class CodeFingerprintIndexTest {
+
+    private static final int K = 5;
+    private static final int WINDOW = 5; // K + WINDOW − 1 = 9 = default minimum token match
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Test
+    @DisplayName("A common run of minimum-match length always shares a fingerprint")
+    void sharedRunIsAlwaysFingerprinted() {
+        for (int trial = 0; trial < 200; trial++) {
+            int[] run = noise(9);
+            CodeTokenSequence a = seq(noise(40), run, noise(40));
+            CodeTokenSequence b = seq(noise(25), run, noise(60));
+
+            assertThat(shared(fingerprints(a), fingerprints(b))).as("trial %d", trial).isPositive();
+        }
+    }
+
+    @Test
+    @DisplayName("Unrelated code shares no fingerprints, and k-grams never span a file separator")
+    void unrelatedAndSeparatedCodeSharesNone() {
+        assertThat(shared(fingerprints(seq(noise(200))), fingerprints(seq(noise(200))))).isZero();
+
+        int[] left = noise(4);
+        int[] right = noise(4);
+        CodeTokenSequence split = seq(left, new int[]{ CodeTokenSequence.SEPARATOR }, right);
+        CodeTokenSequence joined = seq(left, right);
+        assertThat(shared(fingerprints(split), fingerprints(joined))).isZero();
+    }
+
+    @Test
+    @DisplayName("Queries rank by shared fingerprints, within the cohort, up to the limit")
+    void queryRanksAndFilters() {
+        int[] original = noise(300);
+        CodeFingerprintIndex index = new CodeFingerprintIndex();
+        index.add("copy", fingerprints(seq(original)));
+        index.add("half", fingerprints(seq(IntStream.range(0, 150).map(i -> original[i]).toArray(), noise(150))));
+        index.add("other", fingerprints(seq(noise(300))));
+        index.add("old-copy", fingerprints(seq(original)));
+
+        List<CodeFingerprintIndex.Candidate> candidates =
+                index.query(fingerprints(seq(original)), Set.of("copy", "half", "other"), 10);
+
+        assertThat(candidates).extracting(CodeFingerprintIndex.Candidate::key).containsExactly("copy", "half");
+        assertThat(index.query(fingerprints(seq(original)), Set.of("copy", "half"), 1))
+                .extracting(CodeFingerprintIndex.Candidate::key).containsExactly("copy");
+    }
+
+    @Test
+    @DisplayName("The assignment index is reused across checks and only winnows new submissions")
+    void assignmentIndexIsReused() {
+        CodeFingerprintIndexService service = new CodeFingerprintIndexService(9, K, 10, 10, 60);
+        int[] original = noise(200);
+
+        service.candidates("A1", "java", "s1", seq(noise(200)), List.of("c1"), List.of(seq(original)));
+        List<CodeFingerprintIndex.Candidate> candidates = service.candidates("A1", "java", "s2", seq(original),
+                List.of("c1", "c2"), List.of(seq(original), seq(noise(200))));
+
+        assertThat(candidates).extracting(CodeFingerprintIndex.Candidate::key).containsExactly("c1");
+    }
+
+    @Test
+    @DisplayName("Resubmissions do not grow the assignment index without bound")
+    void resubmissionsAreBounded() {
+        CodeFingerprintIndexService service = new CodeFingerprintIndexService(9, K, 10, 10, 60);
+        int[] peer = noise(200);
+
+        for (int attempt = 0; attempt < 20; attempt++) {
+            List<CodeFingerprintIndex.Candidate> candidates = service.candidates("A1", "java",
+                    "s1-v" + attempt, seq(peer), List.of("c1", "c2"), List.of(seq(peer), seq(noise(200))));
+
+            assertThat(candidates).extracting(CodeFingerprintIndex.Candidate::key).containsExactly("c1");
+            assertThat(service.indexedCount("A1", "java")).isLessThanOrEqualTo(2 * (2 + 1) + 1);
+        }
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private static long[] fingerprints(CodeTokenSequence sequence) {
+        return Winnower.fingerprints(sequence, K, WINDOW);
+    }
+
+    private static int shared(long[] a, long[] b) {
+        int i = 0, j = 0, count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) { count++; i++; j++; }
+            else if (a[i] < b[j]) i++;
+            else j++;
+        }
+        return count;
+    }
+
+    /** Random token ids from a wide alphabet, so unrelated runs practically never coincide. */
+    private int[] noise(int length) {
+        return random.ints(length, 0, 1_000_000).toArray();
+    }
+
+    private static CodeTokenSequence seq(int[]... parts) {
+        return new CodeTokenSequence(IntStream.range(0, parts.length).flatMap(i -> IntStream.of(parts[i])).toArray());
+    }
+}
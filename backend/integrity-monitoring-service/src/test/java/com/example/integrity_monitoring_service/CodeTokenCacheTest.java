@@ -0,0 +1,143 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.model.CodeTokenStream;
+import com.example.integrity_monitoring_service.repository.CodeTokenStreamRepository;
+import com.example.integrity_monitoring_service.service.CodeTokenCache;
+import com.example.integrity_monitoring_service.similarity.CodeTokenCodec;
+import com.example.integrity_monitoring_service.similarity.CodeTokenSequence;
+import com.example.integrity_monitoring_service.similarity.CodeTokenVocabulary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the two-tier code token cache and its binary format — mocked token store.
+ */
+@DisplayName("CodeTokenCache — content-addressed token streams across restarts")
+class CodeTokenCacheTest {
+
+    private final List<CodeTokenStream> store = new ArrayList<>();
+    private final CodeTokenStreamRepository repository = storeBackedRepository();
+    private final AtomicInteger parses = new AtomicInteger();
+
+    @Test
+    @DisplayName("Encoded streams decode to the same token names in a JVM with different ids")
+    void codecIsJvmIndependent() {
+        CodeTokenVocabulary first = new CodeTokenVocabulary();
+        CodeTokenSequence original = new CodeTokenSequence(new int[]{
+                first.id("CLASS{"), first.id("METHOD{"), CodeTokenSequence.SEPARATOR,
+                first.id("METHOD{"), first.id("}CLASS") });
+
+        CodeTokenVocabulary second = new CodeTokenVocabulary();
+        second.id("}CLASS"); // ids assigned in a different order
+        CodeTokenSequence decoded = CodeTokenCodec.decode(CodeTokenCodec.encode(original, first), second);
+
+        assertThat(names(decoded, second)).containsExactly("CLASS{", "METHOD{", null, "METHOD{", "}CLASS");
+        assertThat(decoded.matchableLength()).isEqualTo(4);
+        assertThat(CodeTokenCodec.encode(original, first)).hasSizeLessThan(40);
+    }
+
+    @Test
+    @DisplayName("A restarted cache serves stored streams without parsing")
+    void storedStreamsSurviveRestart() {
+        List<SortedMap<String, String>> cohort = List.of(files("A.java", "class A {}"), files("B.java", "class B {}"));
+
+        CodeTokenCache cache = new CodeTokenCache(repository, 1_000_000, 180);
+        cache.getAll("java", cohort, parser(cache));
+        assertThat(parses).hasValue(2);
+        assertThat(store).hasSize(2);
+
+        CodeTokenCache restarted = new CodeTokenCache(repository, 1_000_000, 180);
+        List<CodeTokenSequence> sequences = restarted.getAll("java", cohort, parser(restarted));
+
+        assertThat(parses).hasValue(2);
+        assertThat(sequences).extracting(CodeTokenSequence::length).containsExactly(3, 3);
+        assertThat(restarted.hitRate()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Changed code or another language is a different key")
+    void keyCoversContentAndLanguage() {
+        CodeTokenCache cache = new CodeTokenCache(repository, 1_000_000, 180);
+
+        cache.getAll("java", List.of(files("A.java", "class A {}")), parser(cache));
+        cache.getAll("java", List.of(files("A.java", "class A { }")), parser(cache));
+        cache.getAll("kotlin", List.of(files("A.java", "class A {}")), parser(cache));
+        cache.getAll("java", List.of(files("A.java", "class A {}")), parser(cache));
+
+        assertThat(parses).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("A submission that fails to parse is returned as null and not stored")
+    void parseFailureIsNotCached() {
+        CodeTokenCache cache = new CodeTokenCache(repository, 1_000_000, 180);
+
+        List<CodeTokenSequence> sequences = cache.getAll("java", List.of(files("Bad.java", "class {")), files -> {
+            throw new IllegalStateException("syntax error");
+        });
+
+        assertThat(sequences).containsExactly((CodeTokenSequence) null);
+        verify(repository, never()).insertIfAbsent(anyString(), anyString(), anyInt(), any());
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    /** Stand-in for the JPlag frontend: counts calls and yields three tokens per submission. */
+    private Function<SortedMap<String, String>, CodeTokenSequence> parser(CodeTokenCache cache) {
+        return files -> {
+            parses.incrementAndGet();
+            return new CodeTokenSequence(new int[]{
+                    cache.tokenId("CLASS{"), cache.tokenId("}CLASS"), CodeTokenSequence.SEPARATOR });
+        };
+    }
+
+    private CodeTokenStreamRepository storeBackedRepository() {
+        CodeTokenStreamRepository repo = mock(CodeTokenStreamRepository.class);
+        when(repo.insertIfAbsent(anyString(), anyString(), anyInt(), any())).thenAnswer(invocation -> {
+            store.add(CodeTokenStream.builder()
+                    .cacheKey(invocation.getArgument(0))
+                    .language(invocation.getArgument(1))
+                    .tokenCount(invocation.getArgument(2))
+                    .tokens(invocation.getArgument(3))
+                    .build());
+            return 1;
+        });
+        when(repo.findByCacheKeyIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> keys = invocation.getArgument(0);
+            return store.stream().filter(row -> keys.contains(row.getCacheKey())).toList();
+        });
+        return repo;
+    }
+
+    private static SortedMap<String, String> files(String name, String content) {
+        SortedMap<String, String> files = new TreeMap<>();
+        files.put(name, content);
+        return files;
+    }
+
+    private static List<String> names(CodeTokenSequence sequence, CodeTokenVocabulary vocabulary) {
+        List<String> names = new ArrayList<>();
+        for (int token : sequence.tokens()) {
+            names.add(token == CodeTokenSequence.SEPARATOR ? null : vocabulary.name(token));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.similarity.DocumentFrequencyTable;
+import com.example.integrity_monitoring_service.similarity.TextTokenizer;
+import com.example.integrity_monitoring_service.similarity.TokenizedText;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for incrementally maintained per-corpus document frequencies.
+ */
+@DisplayName("DocumentFrequencyTable — incremental IDF")
+class DocumentFrequencyTableTest {
+
+    private static final String QUESTION_WORDS = "photosynthesis chlorophyll sunlight";
+
+    @Test
+    @DisplayName("Re-recording an edited answer moves its counts instead of double counting")
+    void updateReplacesPreviousTerms() {
+        DocumentFrequencyTable table = new DocumentFrequencyTable();
+        TokenizedText first = TextTokenizer.tokenize("glucose oxygen");
+        TokenizedText edited = TextTokenizer.tokenize("glucose carbon");
+
+        table.update("1", first);
+        table.update("1", edited);
+
+        assertThat(table.documentCount()).isEqualTo(1);
+        assertThat(table.documentFrequency(first.terms().ids()[0])).isEqualTo(1);
+        assertThat(table.documentFrequency(TextTokenizer.tokenize("oxygen").tokens()[0])).isZero();
+        assertThat(table.documentFrequency(TextTokenizer.tokenize("carbon").tokens()[0])).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Vocabulary shared by the whole cohort is down-weighted in cosine")
+    void sharedVocabularyIsDownWeighted() {
+        DocumentFrequencyTable table = new DocumentFrequencyTable();
+        for (int i = 0; i < 10; i++) {
+            table.update("s" + i, TextTokenizer.tokenize(QUESTION_WORDS + " distinct" + i + "word"));
+        }
+        TokenizedText a = TextTokenizer.tokenize(QUESTION_WORDS + " mitochondria");
+        TokenizedText b = TextTokenizer.tokenize(QUESTION_WORDS + " ribosome");
+
+        double tf = a.tfVector().cosine(b.tfVector());
+        double tfIdf = table.weigh(a.tfVector()).cosine(table.weigh(b.tfVector()));
+
+        assertThat(tfIdf).isLessThan(tf);
+        assertThat(table.commonVocabularyRatio(a, 0.5)).isEqualTo(0.75);
+    }
+}
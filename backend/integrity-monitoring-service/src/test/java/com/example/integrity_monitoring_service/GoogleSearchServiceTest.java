@@ -0,0 +1,231 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.service.GoogleSearchService;
+import com.example.integrity_monitoring_service.service.SearchQuotaBucket;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the SerpAPI gateway — a local HTTP server stands in for SerpAPI.
+ */
+@DisplayName("SerpAPI gateway — normalisation, single-flight and quota budget")
+class GoogleSearchServiceTest {
+
+    private static final String PARAGRAPH = String.join(" ", Collections.nCopies(8,
+            "the quick brown fox jumps over the lazy dog"));
+
+    private HttpServer server;
+    private final Queue<String> queries = new ConcurrentLinkedQueue<>();
+    /** Status codes to answer with, in order; 200 once exhausted. */
+    private final Queue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private volatile CountDownLatch release = new CountDownLatch(0);
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/search", this::search);
+        server.createContext("/account", exchange -> respond(exchange, 200, "{\"total_searches_left\": 3}"));
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Texts sharing the 32-word prefix cost one search, whatever the result count or case")
+    void normalisedQueriesShareOneSearch() {
+        GoogleSearchService service = service(100, 10);
+
+        List<Map<String, String>> first = service.searchInternet(PARAGRAPH + " and then something else", 3);
+        List<Map<String, String>> second = service.searchInternet(PARAGRAPH.toUpperCase() + "\n\n  entirely different ending", 5);
+
+        assertThat(queries).hasSize(1);
+        assertThat(queries.peek().split(" ")).hasSize(32);
+        assertThat(first).hasSize(3);
+        assertThat(second).hasSize(5);
+        assertThat(second.get(0).get("url")).isEqualTo("https://example.com/0");
+        assertThat(service.stats().cacheHits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Concurrent identical lookups wait on one in-flight call")
+    void concurrentLookupsAreCollapsed() throws Exception {
+        GoogleSearchService service = service(100, 10);
+        release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Map<String, String>>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> service.searchInternet(PARAGRAPH, 5)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (service.stats().sharedInFlight() < 7 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<List<Map<String, String>>> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).hasSize(5);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(queries).hasSize(1);
+        assertThat(service.stats().networkCalls()).isEqualTo(1);
+        assertThat(service.stats().sharedInFlight()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Failed searches are not cached and report no search; a 429 empties the month's budget")
+    void failuresAreRetriedAndQuotaErrorsStopSearching() {
+        GoogleSearchService service = service(100, 10);
+        statuses.add(500);
+        statuses.add(429);
+
+        assertThat(service.lookupInternet(PARAGRAPH, 5)).isEqualTo(GoogleSearchService.Lookup.NOT_SEARCHED);
+        assertThat(service.searchInternet(PARAGRAPH, 5)).isEmpty();
+        assertThat(service.stats().budget().remainingThisMonth()).isZero();
+
+        assertThat(service.lookupInternet(PARAGRAPH, 5).searched()).isFalse();
+        assertThat(queries).hasSize(2);
+        assertThat(service.stats().rejectedByBudget()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Searches beyond the burst are refused without reaching SerpAPI; the account API corrects the budget")
+    void burstIsEnforcedAndBudgetSynced() {
+        GoogleSearchService service = service(100, 2);
+
+        service.searchInternet("first distinct query", 5);
+        service.searchInternet("second distinct query", 5);
+        assertThat(service.searchInternet("third distinct query", 5)).isEmpty();
+        assertThat(queries).hasSize(2);
+
+        service.syncBudget();
+        assertThat(service.stats().budget().remainingThisMonth()).isEqualTo(3);
+        assertThat(service.stats().budget().usedThisMonth()).isEqualTo(97);
+    }
+
+    @Test
+    @DisplayName("The bucket refills at quota / 30 days and the month resets in UTC")
+    void bucketRefillsAndResetsMonthly() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-03-30T00:00:00Z"));
+        SearchQuotaBucket bucket = new SearchQuotaBucket(30, 1, clock);
+
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+
+        clock.advance(Duration.ofHours(23));
+        assertThat(bucket.tryAcquire()).isFalse();
+        clock.advance(Duration.ofHours(2));
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.budget().usedThisMonth()).isEqualTo(2);
+
+        clock.advance(Duration.ofDays(2));
+        SearchQuotaBucket.Budget budget = bucket.budget();
+        assertThat(budget.usedThisMonth()).isZero();
+        assertThat(budget.remainingThisMonth()).isEqualTo(30);
+        assertThat(budget.resetsAt()).isEqualTo(Instant.parse("2026-05-01T00:00:00Z"));
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    private GoogleSearchService service(int monthlyQuota, int burst) {
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        return new GoogleSearchService(true, "test-key", base + "/search", base + "/account",
+                monthlyQuota, burst, 60);
+    }
+
+    private void search(HttpExchange exchange) throws IOException {
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        for (String param : rawQuery.split("&")) {
+            if (param.startsWith("q=")) queries.add(URLDecoder.decode(param.substring(2), StandardCharsets.UTF_8));
+        }
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Integer status = statuses.poll();
+        if (status != null && status != 200) {
+            respond(exchange, status, "{\"error\": \"stub\"}");
+            return;
+        }
+        StringBuilder body = new StringBuilder("{\"organic_results\": [");
+        for (int i = 0; i < 10; i++) {
+            if (i > 0) body.append(',');
+            body.append("{\"title\": \"Result ").append(i)
+                    .append("\", \"link\": \"https://example.com/").append(i)
+                    .append("\", \"snippet\": \"snippet ").append(i).append("\"}");
+        }
+        respond(exchange, 200, body.append("]}").toString());
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.similarity.CodeTokenSequence;
+import com.example.integrity_monitoring_service.similarity.GreedyStringTiling;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for the Greedy String Tiling used by code plagiarism checks.
+ */
+@DisplayName("GreedyStringTiling — JPlag-style token tiling")
+class GreedyStringTilingTest {
+
+    private static final int SEP = CodeTokenSequence.SEPARATOR;
+
+    @Test
+    @DisplayName("Identical sequences are one tile and similarity 1")
+    void identicalSequences() {
+        CodeTokenSequence code = seq(range(0, 30));
+
+        GreedyStringTiling.Tiling tiling = new GreedyStringTiling(code, 9).compare(seq(range(0, 30)));
+
+        assertThat(tiling.matchedTokens()).isEqualTo(30);
+        assertThat(tiling.tiles()).isEqualTo(1);
+        assertThat(tiling.similarity()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Swapped blocks are still fully tiled")
+    void reorderedBlocks() {
+        CodeTokenSequence original = seq(concat(range(0, 12), range(100, 112)));
+        CodeTokenSequence swapped = seq(concat(range(100, 112), range(0, 12)));
+
+        GreedyStringTiling.Tiling tiling = new GreedyStringTiling(original, 9).compare(swapped);
+
+        assertThat(tiling.tiles()).isEqualTo(2);
+        assertThat(tiling.similarity()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Common runs shorter than the minimum match are ignored")
+    void shortRunsIgnored() {
+        CodeTokenSequence a = seq(concat(range(0, 8), range(200, 220)));
+        CodeTokenSequence b = seq(concat(range(0, 8), range(300, 320)));
+
+        assertThat(new GreedyStringTiling(a, 9).compare(b).matchedTokens()).isZero();
+    }
+
+    @Test
+    @DisplayName("Tiles never span a file separator, and separators do not count towards similarity")
+    void separatorsBreakTiles() {
+        CodeTokenSequence a = seq(concat(range(0, 6), new int[]{ SEP }, range(6, 12)));
+        CodeTokenSequence b = seq(range(0, 12));
+
+        assertThat(new GreedyStringTiling(a, 9).compare(b).matchedTokens()).isZero();
+        assertThat(a.matchableLength()).isEqualTo(12);
+
+        CodeTokenSequence c = seq(concat(range(0, 10), new int[]{ SEP }, range(50, 60)));
+        GreedyStringTiling.Tiling tiling = new GreedyStringTiling(c, 9).compare(seq(range(0, 10)));
+        assertThat(tiling.similarity()).isCloseTo(2.0 * 10 / (20 + 10), within(1e-9));
+    }
+
+    private static CodeTokenSequence seq(int[] tokens) {
+        return new CodeTokenSequence(tokens);
+    }
+
+    private static int[] range(int from, int to) {
+        return IntStream.range(from, to).toArray();
+    }
+
+    private static int[] concat(int[]... parts) {
+        return IntStream.range(0, parts.length).flatMap(i -> IntStream.of(parts[i])).toArray();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.repository.CodeTokenStreamRepository;
+import com.example.integrity_monitoring_service.service.CodeFingerprintIndexService;
+import com.example.integrity_monitoring_service.service.CodeTokenCache;
+import com.example.integrity_monitoring_service.service.JPlagLanguageRegistry;
+import com.example.integrity_monitoring_service.service.JPlagService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Code plagiarism checks through the real JPlag Java frontend.
+ */
+@DisplayName("JPlagService — student vs cohort comparison")
+class JPlagServiceTest {
+
+    private static final String SORT = """
+            public class Sorter {
+                public static void sort(int[] values) {
+                    for (int i = 0; i < values.length; i++) {
+                        for (int j = 0; j < values.length - i - 1; j++) {
+                            if (values[j] > values[j + 1]) {
+                                int tmp = values[j];
+                                values[j] = values[j + 1];
+                                values[j + 1] = tmp;
+                            }
+                        }
+                    }
+                }
+            }
+            """;
+
+    private static final String RENAMED = SORT
+            .replace("Sorter", "MySort").replace("values", "arr").replace("tmp", "swap");
+
+    private static final String UNRELATED = """
+            public class Greeter {
+                private final String name;
+                public Greeter(String name) { this.name = name; }
+                public String greet() { return "Hello, " + name; }
+            }
+            """;
+
+    private final CodeTokenCache cache = new CodeTokenCache(mock(CodeTokenStreamRepository.class), 1_000_000, 180);
+    private final JPlagLanguageRegistry languages = new JPlagLanguageRegistry();
+    private final JPlagService service = new JPlagService(cache,
+            new CodeFingerprintIndexService(9, 5, 50, 10, 60), languages, 9, 4, 10_000, List.of("java"));
+
+    @Test
+    @DisplayName("A renamed copy scores near 1 and ranks first; unrelated code scores near 0 if compared at all")
+    void ranksCohortBySimilarity() {
+        List<Map<String, Object>> matches = service.checkCodePlagiarism(
+                Map.of("Main.java", SORT),
+                List.of(Map.of("Greeter.java", UNRELATED), Map.of("MySort.java", RENAMED)),
+                "java");
+
+        assertThat(matches.get(0).get("matchedStudent")).isEqualTo("student_1");
+        assertThat((double) matches.get(0).get("similarity")).isGreaterThan(0.95);
+        assertThat(matches).filteredOn(m -> "student_0".equals(m.get("matchedStudent")))
+                .allSatisfy(m -> assertThat((double) m.get("similarity")).isLessThan(0.3));
+    }
+
+    @Test
+    @DisplayName("Repeat checks reuse cached token sequences; non-code files are ignored")
+    void reusesTokenSequences() {
+        List<Map<String, String>> cohort = List.of(
+                Map.of("MySort.java", RENAMED, "README.txt", "notes"),
+                Map.of("submissionId", "42"));
+
+        service.checkCodePlagiarism(Map.of("Main.java", SORT), cohort, "java");
+        List<Map<String, Object>> second = service.checkCodePlagiarism(Map.of("Main.java", SORT), cohort, "java");
+
+        assertThat(second).extracting(m -> m.get("matchedStudent")).containsExactly("student_0");
+        assertThat(cache.hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("Language hints share one registered frontend; unknown hints fall back to Java")
+    void registryReusesFrontends() {
+        assertThat(languages.forHint("py")).isSameAs(languages.forHint("Python"));
+        assertThat(languages.forHint("cobol")).isSameAs(languages.forHint("java"));
+        assertThat(languages.forHint(null)).isSameAs(languages.forHint("java"));
+    }
+
+    @Test
+    @DisplayName("Concurrent checks on pooled frontends give the same result as a single check")
+    void concurrentChecksAreConsistent() throws Exception {
+        service.warmUp();
+        List<Map<String, String>> cohort = List.of(Map.of("MySort.java", RENAMED));
+        Object expected = service.checkCodePlagiarism(Map.of("Main.java", SORT), cohort, "java")
+                .get(0).get("similarity");
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Map<String, Object>>>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                // Distinct student code per task, so every task really parses
+                String student = SORT.replace("Sorter", "Sorter" + i);
+                results.add(pool.submit(() -> service.checkCodePlagiarism(Map.of("Main.java", student), cohort, "java")));
+            }
+            for (Future<List<Map<String, Object>>> result : results) {
+                assertThat(result.get().get(0).get("similarity")).isEqualTo(expected);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
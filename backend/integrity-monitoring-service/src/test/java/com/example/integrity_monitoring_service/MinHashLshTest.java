@@ -0,0 +1,116 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.model.AnswerSignature;
+import com.example.integrity_monitoring_service.repository.AnswerSignatureRepository;
+import com.example.integrity_monitoring_service.service.AdvancedSimilarityService;
+import com.example.integrity_monitoring_service.service.NearDuplicateService;
+import com.example.integrity_monitoring_service.service.SubmissionFetchService;
+import com.example.integrity_monitoring_service.similarity.LshBuckets;
+import com.example.integrity_monitoring_service.similarity.MinHasher;
+import com.example.integrity_monitoring_service.similarity.Shingler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for MinHash signatures and banded LSH candidate generation
+ * used by assignment-wide near-duplicate sweeps.
+ */
+@DisplayName("MinHash + LSH — near-duplicate candidate generation")
+class MinHashLshTest {
+
+    private static final String ORIGINAL =
+            "Photosynthesis converts light energy into chemical energy stored in glucose molecules "
+            + "within plants and algae using chlorophyll pigments inside chloroplasts";
+    private static final String LIGHTLY_EDITED = ORIGINAL + " which also release oxygen";
+    private static final String UNRELATED =
+            "The mitochondria is the powerhouse of the cell producing ATP through cellular respiration "
+            + "in eukaryotic organisms";
+
+    private final MinHasher minHasher = new MinHasher(128);
+
+    private long[] signature(String text) {
+        return minHasher.signature(Shingler.shingle(text, 3));
+    }
+
+    @Test
+    @DisplayName("Signatures are deterministic across MinHasher instances")
+    void signaturesAreStable() {
+        assertThat(new MinHasher(128).signature(Shingler.shingle(ORIGINAL, 3)))
+                .isEqualTo(signature(ORIGINAL));
+    }
+
+    @Test
+    @DisplayName("Estimated Jaccard is high for an edited copy and near zero for unrelated text")
+    void estimateTracksJaccard() {
+        assertThat(MinHasher.estimateJaccard(signature(ORIGINAL), signature(LIGHTLY_EDITED))).isGreaterThan(0.7);
+        assertThat(MinHasher.estimateJaccard(signature(ORIGINAL), signature(UNRELATED))).isLessThan(0.1);
+    }
+
+    @Test
+    @DisplayName("Only the near-duplicate pair becomes an LSH candidate")
+    void lshReturnsOnlySimilarPairs() {
+        List<long[]> signatures = List.of(signature(ORIGINAL), signature(LIGHTLY_EDITED), signature(UNRELATED));
+        LshBuckets lsh = new LshBuckets(32, 4);
+        for (int i = 0; i < signatures.size(); i++) lsh.add(i, signatures.get(i));
+
+        Set<Long> pairs = lsh.candidatePairs();
+
+        assertThat(pairs).containsExactly(LshBuckets.pack(0, 1));
+        long pair = pairs.iterator().next();
+        assertThat(LshBuckets.first(pair)).isEqualTo(0);
+        assertThat(LshBuckets.second(pair)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Answers with no shingles are never LSH candidates")
+    void emptySignaturesAreSkipped() {
+        NearDuplicateService service = new NearDuplicateService(mock(AnswerSignatureRepository.class),
+                mock(SubmissionFetchService.class), mock(AdvancedSimilarityService.class),
+                mock(PlatformTransactionManager.class), 128, 32, 3);
+        List<long[]> signatures = List.of(signature(""), signature("?! ..."), signature(ORIGINAL),
+                signature("   "), signature(LIGHTLY_EDITED));
+
+        assertThat(MinHasher.isEmpty(signatures.get(0))).isTrue();
+        assertThat(MinHasher.isEmpty(signatures.get(2))).isFalse();
+        assertThat(service.candidatePairs(signatures)).containsExactly(LshBuckets.pack(2, 4));
+    }
+
+    @Test
+    @DisplayName("A stored signature is reused only while the text, shingle size and hash count match")
+    void signatureParametersArePartOfTheHash() {
+        AnswerSignatureRepository repository = mock(AnswerSignatureRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        AnswerSignature stored = service(repository, 64, 16, 3).recordSignature("A1", "q1", "100", "s1", ORIGINAL);
+        when(repository.findBySubmissionIdAndQuestionId("100", "q1")).thenReturn(Optional.of(stored));
+
+        service(repository, 64, 16, 3).recordSignature("A1", "q1", "100", "s1", ORIGINAL);
+        verify(repository, times(1)).save(any());
+
+        String shingleSize3 = stored.getContentHash();
+        service(repository, 64, 16, 2).recordSignature("A1", "q1", "100", "s1", ORIGINAL);
+        assertThat(stored.getContentHash()).isNotEqualTo(shingleSize3);
+
+        service(repository, 128, 32, 2).recordSignature("A1", "q1", "100", "s1", ORIGINAL);
+        assertThat(stored.getSignature()).hasSize(128);
+        verify(repository, times(3)).save(any());
+    }
+
+    private static NearDuplicateService service(AnswerSignatureRepository repository,
+                                                int numHashes, int bands, int shingleSize) {
+        return new NearDuplicateService(repository, mock(SubmissionFetchService.class),
+                mock(AdvancedSimilarityService.class), mock(PlatformTransactionManager.class),
+                numHashes, bands, shingleSize);
+    }
+}
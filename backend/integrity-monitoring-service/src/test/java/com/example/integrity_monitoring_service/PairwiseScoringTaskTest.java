@@ -0,0 +1,93 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.similarity.PairwiseScoringTask;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for fork-join pair scoring used by assignment-wide batch sweeps.
+ */
+@DisplayName("PairwiseScoringTask — fork-join all-pairs scoring")
+class PairwiseScoringTaskTest {
+
+    // Answers 0/1 and 2/3 are "copies" of each other; everything else scores low.
+    private static final PairwiseScoringTask.PairScorer SCORER =
+            (i, j) -> i / 2 == j / 2 ? 0.9 : 0.1;
+
+    @Test
+    @DisplayName("Every pair of the upper triangle is scored exactly once")
+    void scoresAllPairs() {
+        int n = 101;
+        PairwiseScoringTask task = new PairwiseScoringTask(SCORER, n, null, 4, 0.5);
+
+        new ForkJoinPool(4).invoke(task);
+
+        assertThat(task.pairsScored()).isEqualTo((long) n * (n - 1) / 2);
+    }
+
+    @Test
+    @DisplayName("Hits above the threshold are recorded for both answers")
+    void recordsHitsSymmetrically() {
+        PairwiseScoringTask task = new PairwiseScoringTask(SCORER, 5, null, 1, 0.5);
+
+        new ForkJoinPool(2).invoke(task);
+
+        assertThat(task.hits().get(0)).extracting(PairwiseScoringTask.Hit::other).containsExactly(1);
+        assertThat(task.hits().get(1)).extracting(PairwiseScoringTask.Hit::other).containsExactly(0);
+        assertThat(task.hits().get(4)).isEmpty();
+        assertThat(task.maxScores()[4]).isEqualTo(0.1);
+    }
+
+    @Test
+    @DisplayName("With row candidates only the candidate pairs are scored")
+    void scoresOnlyCandidates() {
+        int[][] candidates = {{1}, null, {3}, null};
+        PairwiseScoringTask task = new PairwiseScoringTask(SCORER, 4, candidates, 2, 0.5);
+
+        new ForkJoinPool(2).invoke(task);
+
+        assertThat(task.pairsScored()).isEqualTo(2);
+        assertThat(task.hits().get(3)).extracting(PairwiseScoringTask.Hit::other).containsExactly(2);
+    }
+
+    @Test
+    @DisplayName("A score exactly at the threshold is not a hit, as in a per-answer check")
+    void thresholdIsExclusive() {
+        PairwiseScoringTask task = new PairwiseScoringTask(SCORER, 4, null, 1, 0.9);
+
+        new ForkJoinPool(2).invoke(task);
+
+        assertThat(task.hits()).allSatisfy(hits -> assertThat(hits).isEmpty());
+        assertThat(task.maxScores()).containsExactly(0.9, 0.9, 0.9, 0.9);
+    }
+
+    @Test
+    @DisplayName("Maxima and hits merged from many blocks match a sequential pass")
+    void mergedBlocksMatchSequentialPass() {
+        int n = 97;
+        PairwiseScoringTask.PairScorer scorer = (i, j) -> ((i * 31 + j * 17) % 100) / 100.0;
+        PairwiseScoringTask task = new PairwiseScoringTask(scorer, n, null, 3, 0.95);
+
+        new ForkJoinPool(4).invoke(task);
+
+        double[] max = new double[n];
+        int[] hits = new int[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double score = scorer.score(i, j);
+                max[i] = Math.max(max[i], score);
+                max[j] = Math.max(max[j], score);
+                if (score > 0.95) {
+                    hits[i]++;
+                    hits[j]++;
+                }
+            }
+        }
+        assertThat(task.maxScores()).containsExactly(max);
+        for (int i = 0; i < n; i++) assertThat(task.hits().get(i)).hasSize(hits[i]);
+    }
+}
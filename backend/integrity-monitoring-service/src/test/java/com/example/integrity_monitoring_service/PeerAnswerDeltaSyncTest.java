@@ -0,0 +1,104 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.dto.response.PeerAnswerRecord;
+import com.example.integrity_monitoring_service.service.CorpusStatisticsService;
+import com.example.integrity_monitoring_service.service.PeerAnswerIndexService;
+import com.example.integrity_monitoring_service.service.SubmissionFetchService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the peer index's cursor-based delta sync — mocked NDJSON feed.
+ */
+@DisplayName("PeerAnswerIndexService — delta sync from the peer feed")
+class PeerAnswerDeltaSyncTest {
+
+    private static final String COPIED =
+            "photosynthesis converts light energy into chemical energy stored in glucose molecules";
+
+    private final SubmissionFetchService fetch = mock(SubmissionFetchService.class);
+    private final CorpusStatisticsService corpusStats = new CorpusStatisticsService(5, 0.5, 100, 60);
+
+    @Test
+    @DisplayName("The first load streams everything; later syncs resume from the cursor minus the overlap")
+    void resumesFromCursor() {
+        PeerAnswerIndexService service = new PeerAnswerIndexService(fetch, corpusStats, 3, 10, 0, 2_000, 100, 60);
+        when(fetch.streamAnswersForQuestions(eq(List.of("q1")), isNull(), anyLong(), any()))
+                .thenAnswer(inv -> feed(inv.getArgument(3),
+                        row(1L, "2026-03-01T10:00:00", "100", "alice", COPIED),
+                        row(2L, "2026-03-01T10:05:00", "101", "bob", "an unrelated answer about mitochondria")));
+        when(fetch.streamAnswersForQuestions(eq(List.of("q1")), eq("2026-03-01T10:04:58"), eq(0L), any()))
+                .thenAnswer(inv -> feed(inv.getArgument(3),
+                        row(2L, "2026-03-01T10:05:00", "101", "bob", "an unrelated answer about mitochondria"),
+                        row(3L, "2026-03-01T10:06:00", "102", "carol", COPIED)));
+
+        assertThat(service.findCandidates("q1", COPIED, "dave", null))
+                .extracting(c -> c.studentId()).containsExactly("alice");
+        assertThat(service.findCandidates("q1", COPIED, "dave", null))
+                .extracting(c -> c.studentId()).containsExactlyInAnyOrder("alice", "carol");
+
+        verify(fetch).streamAnswersForQuestions(eq(List.of("q1")), eq("2026-03-01T10:04:58"), eq(0L), any());
+    }
+
+    @Test
+    @DisplayName("An answer cleared to blank text leaves the index")
+    void blankRowRemovesAnswer() {
+        PeerAnswerIndexService service = new PeerAnswerIndexService(fetch, corpusStats, 3, 10, 0, 0, 100, 60);
+        when(fetch.streamAnswersForQuestions(eq(List.of("q1")), isNull(), anyLong(), any()))
+                .thenAnswer(inv -> feed(inv.getArgument(3), row(1L, "2026-03-01T10:00:00", "100", "alice", COPIED)));
+        when(fetch.streamAnswersForQuestions(eq(List.of("q1")), eq("2026-03-01T10:00"), eq(1L), any()))
+                .thenAnswer(inv -> feed(inv.getArgument(3), row(1L, "2026-03-01T10:07:00", "100", "alice", "")));
+
+        assertThat(service.findCandidates("q1", COPIED, "dave", null)).hasSize(1);
+        assertThat(service.findCandidates("q1", COPIED, "dave", null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("An answer recorded before its submission was known is not counted twice once the feed delivers it")
+    void provisionalAnswerIsReplacedBySubmissionRow() {
+        PeerAnswerIndexService service = new PeerAnswerIndexService(fetch, corpusStats, 3, 10, 0, 0, 100, 60);
+        when(fetch.streamAnswersForQuestions(eq(List.of("q1")), isNull(), anyLong(), any()))
+                .thenAnswer(inv -> feed(inv.getArgument(3)))
+                .thenAnswer(inv -> feed(inv.getArgument(3),
+                        row(7L, "2026-03-01T10:00:00", null, "alice", COPIED),
+                        row(7L, "2026-03-01T10:00:01", "100", "alice", COPIED)));
+
+        assertThat(service.findCandidates("q1", COPIED, "dave", null)).isEmpty();
+        service.recordAnswer("q1", null, "alice", COPIED);
+
+        assertThat(service.findCandidates("q1", COPIED, "dave", null))
+                .extracting(c -> c.submissionId()).containsExactly("100");
+        service.recordAnswer("q1", null, "alice", COPIED + " extended");
+        assertThat(service.findCandidates("q1", COPIED, "dave", null))
+                .extracting(c -> c.submissionId()).containsExactly("100");
+    }
+
+    @SafeVarargs
+    private static long feed(Consumer<PeerAnswerRecord> sink, PeerAnswerRecord... rows) {
+        for (PeerAnswerRecord row : rows) sink.accept(row);
+        return rows.length;
+    }
+
+    private static PeerAnswerRecord row(long id, String lastModified, String submissionId, String studentId, String text) {
+        return PeerAnswerRecord.builder()
+                .answerId(id)
+                .questionId("q1")
+                .submissionId(submissionId)
+                .studentId(studentId)
+                .lastModified(lastModified)
+                .answerText(text)
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.similarity.PeerAnswerIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the resident per-question shingle index used for peer comparison.
+ * Pure in-memory — no Spring context, no submission service.
+ */
+@DisplayName("PeerAnswerIndex — shingle posting lists")
+class PeerAnswerIndexTest {
+
+    private static final String PHOTOSYNTHESIS =
+            "Photosynthesis converts light energy into chemical energy stored in glucose molecules within plants";
+    private static final String MITOCHONDRIA =
+            "The mitochondria is the powerhouse of the cell producing ATP through cellular respiration";
+
+    @Test
+    @DisplayName("Copied answer is ranked first, unrelated answer is not returned")
+    void rankSharedShingles() {
+        PeerAnswerIndex index = new PeerAnswerIndex(3);
+        index.upsert("1", "1", "s1", PHOTOSYNTHESIS);
+        index.upsert("2", "2", "s2", MITOCHONDRIA);
+
+        List<PeerAnswerIndex.Candidate> result = index.query(PHOTOSYNTHESIS, "s9", "9", 5);
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).submissionId()).isEqualTo("1");
+        assertThat(result.get(0).score()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("The requesting student's own answers and studentId-less rows are excluded")
+    void excludeOwnAnswers() {
+        PeerAnswerIndex index = new PeerAnswerIndex(3);
+        index.upsert("1", "1", "s1", PHOTOSYNTHESIS);
+        index.upsert("2", "2", null, PHOTOSYNTHESIS);
+
+        assertThat(index.query(PHOTOSYNTHESIS, "s1", "5", 5)).isEmpty();
+        assertThat(index.query(PHOTOSYNTHESIS, null, "1", 5))
+                .extracting(PeerAnswerIndex.Candidate::submissionId)
+                .containsExactly("2");
+    }
+
+    @Test
+    @DisplayName("Re-saving an answer replaces its postings instead of duplicating it")
+    void upsertReplacesPreviousText() {
+        PeerAnswerIndex index = new PeerAnswerIndex(3);
+        index.upsert("1", "1", "s1", PHOTOSYNTHESIS);
+        index.upsert("1", "1", "s1", MITOCHONDRIA);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.query(PHOTOSYNTHESIS, "s9", null, 5)).isEmpty();
+        assertThat(index.query(MITOCHONDRIA, "s9", null, 5)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Blank text removes the answer and its slot is reused")
+    void blankTextRemovesAnswer() {
+        PeerAnswerIndex index = new PeerAnswerIndex(3);
+        index.upsert("1", "1", "s1", PHOTOSYNTHESIS);
+        index.upsert("1", "1", "s1", "   ");
+        index.upsert("2", "2", "s2", MITOCHONDRIA);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.query(MITOCHONDRIA, "s9", null, 5))
+                .extracting(PeerAnswerIndex.Candidate::submissionId)
+                .containsExactly("2");
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.dto.request.RealtimeCheckRequest;
+import com.example.integrity_monitoring_service.dto.response.ApiResponse;
+import com.example.integrity_monitoring_service.dto.response.RealtimeCheckResponse;
+import com.example.integrity_monitoring_service.service.RealtimeCheckCoalescer;
+import com.example.integrity_monitoring_service.service.RealtimeCheckService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the realtime debounce/coalescing stage — mocked check service,
+ * real executor and timer.
+ */
+@DisplayName("RealtimeCheckCoalescer — per session/question coalescing")
+class RealtimeCheckCoalescerTest {
+
+    private final RealtimeCheckService checkService = mock(RealtimeCheckService.class);
+    private final SimpMessagingTemplate messaging = mock(SimpMessagingTemplate.class);
+    private final List<String> checkedTexts = new CopyOnWriteArrayList<>();
+    private ExecutorService executor;
+    private RealtimeCheckCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        coalescer = new RealtimeCheckCoalescer(checkService, messaging, executor, 100, 2_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("A burst of snapshots runs one check on the latest text and answers every caller")
+    void burstIsCoalesced() throws Exception {
+        when(checkService.checkRealtime(any(), any())).thenAnswer(inv -> {
+            RealtimeCheckRequest request = inv.getArgument(0);
+            checkedTexts.add(request.getTextContent());
+            return result(request);
+        });
+
+        List<CompletableFuture<ApiResponse<RealtimeCheckResponse>>> futures = List.of(
+                coalescer.submit(snapshot("draft 1")),
+                coalescer.submit(snapshot("draft 2")),
+                coalescer.submit(snapshot("draft 3")));
+
+        for (CompletableFuture<ApiResponse<RealtimeCheckResponse>> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS).getData().getTextLength()).isEqualTo("draft 3".length());
+        }
+        assertThat(checkedTexts).containsExactly("draft 3");
+        verify(messaging, timeout(1_000).times(1))
+                .convertAndSend(eq("/topic/plagiarism-warnings/session-1"), any(Object.class));
+        assertThat(coalescer.stats().coalesced()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A newer snapshot supersedes the in-flight check, whose callers get the newer result")
+    void inFlightCheckIsSuperseded() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        List<Boolean> supersededSeen = new CopyOnWriteArrayList<>();
+        when(checkService.checkRealtime(any(), any())).thenAnswer(inv -> {
+            RealtimeCheckRequest request = inv.getArgument(0);
+            BooleanSupplier superseded = inv.getArgument(1);
+            checkedTexts.add(request.getTextContent());
+            if (request.getTextContent().equals("first")) {
+                firstStarted.countDown();
+                releaseFirst.await(5, TimeUnit.SECONDS);
+                supersededSeen.add(superseded.getAsBoolean());
+                return ApiResponse.success("Superseded by a newer check", null);
+            }
+            return result(request);
+        });
+
+        CompletableFuture<ApiResponse<RealtimeCheckResponse>> first = coalescer.submit(snapshot("first"));
+        assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<ApiResponse<RealtimeCheckResponse>> second = coalescer.submit(snapshot("second, longer"));
+        releaseFirst.countDown();
+
+        assertThat(second.get(5, TimeUnit.SECONDS).getData().getTextLength()).isEqualTo("second, longer".length());
+        assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(second.get());
+        assertThat(supersededSeen).containsExactly(true);
+        assertThat(checkedTexts).containsExactly("first", "second, longer");
+        verify(messaging, timeout(1_000).times(1)).convertAndSend(any(String.class), any(Object.class));
+        assertThat(coalescer.stats().cancelledInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Different questions of one session are checked independently")
+    void questionsAreIndependent() throws Exception {
+        when(checkService.checkRealtime(any(), any())).thenAnswer(inv -> result(inv.getArgument(0)));
+
+        RealtimeCheckRequest other = snapshot("other question");
+        other.setQuestionId(2L);
+        CompletableFuture<ApiResponse<RealtimeCheckResponse>> a = coalescer.submit(snapshot("question one"));
+        CompletableFuture<ApiResponse<RealtimeCheckResponse>> b = coalescer.submit(other);
+
+        assertThat(a.get(5, TimeUnit.SECONDS).getData().getQuestionId()).isEqualTo(1L);
+        assertThat(b.get(5, TimeUnit.SECONDS).getData().getQuestionId()).isEqualTo(2L);
+        verify(checkService, times(2)).checkRealtime(any(), any());
+    }
+
+    private static RealtimeCheckRequest snapshot(String text) {
+        return RealtimeCheckRequest.builder()
+                .sessionId("session-1")
+                .studentId("student-1")
+                .questionId(1L)
+                .textContent(text)
+                .build();
+    }
+
+    private static ApiResponse<RealtimeCheckResponse> result(RealtimeCheckRequest request) {
+        return ApiResponse.success("Real-time check completed", RealtimeCheckResponse.builder()
+                .sessionId(request.getSessionId())
+                .questionId(request.getQuestionId())
+                .textLength(request.getTextContent().length())
+                .similarityScore(0.0)
+                .flagged(false)
+                .build());
+    }
+}
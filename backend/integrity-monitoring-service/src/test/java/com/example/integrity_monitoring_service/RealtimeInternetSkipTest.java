@@ -0,0 +1,114 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.dto.request.RealtimeCheckRequest;
+import com.example.integrity_monitoring_service.dto.response.ApiResponse;
+import com.example.integrity_monitoring_service.dto.response.RealtimeCheckResponse;
+import com.example.integrity_monitoring_service.model.QuestionType;
+import com.example.integrity_monitoring_service.repository.RealtimeCheckRepository;
+import com.example.integrity_monitoring_service.service.CorpusStatisticsService;
+import com.example.integrity_monitoring_service.service.GoogleSearchService;
+import com.example.integrity_monitoring_service.service.PeerAnswerIndexService;
+import com.example.integrity_monitoring_service.service.QuestionAnalyzerService;
+import com.example.integrity_monitoring_service.service.RealtimeCheckService;
+import com.example.integrity_monitoring_service.service.RealtimeParagraphCache;
+import com.example.integrity_monitoring_service.service.SubmissionFetchService;
+import com.example.integrity_monitoring_service.service.TextSimilarityService;
+import com.example.integrity_monitoring_service.similarity.TextTokenizer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the realtime internet-search skip on shared cohort vocabulary —
+ * real peer index and corpus statistics, mocked search and persistence.
+ */
+@DisplayName("RealtimeCheckService — internet search skip on shared vocabulary")
+class RealtimeInternetSkipTest {
+
+    private static final String PASTED =
+            "Photosynthesis converts light energy into chemical energy stored in glucose molecules "
+            + "within plants and algae using chlorophyll pigments inside chloroplasts";
+
+    private final CorpusStatisticsService corpusStats = new CorpusStatisticsService(5, 0.5, 100, 60);
+    private final PeerAnswerIndexService peerIndex = new PeerAnswerIndexService(
+            mock(SubmissionFetchService.class), corpusStats, 3, 10, 60_000, 0, 100, 60);
+    private final GoogleSearchService googleSearch = mock(GoogleSearchService.class);
+    private final QuestionAnalyzerService questionAnalyzer = mock(QuestionAnalyzerService.class);
+
+    private static final GoogleSearchService.Lookup FOUND = new GoogleSearchService.Lookup(true, List.of(Map.of(
+            "url", "https://example.com/photosynthesis", "title", "Photosynthesis",
+            "snippet", PASTED, "domain", "example.com")));
+
+    @Test
+    @DisplayName("A paragraph pasted by many students is still searched although its terms are cohort-common")
+    void sharedPastedParagraphIsSearched() {
+        for (int i = 0; i < 8; i++) {
+            peerIndex.recordAnswer("1", "10" + i, "s" + i, PASTED);
+        }
+        assertThat(corpusStats.commonVocabularyRatio("1", TextTokenizer.tokenize(PASTED))).isEqualTo(1.0);
+        when(questionAnalyzer.determineQuestionType(any())).thenReturn(QuestionType.SUBJECTIVE);
+        when(googleSearch.lookupInternet(anyString(), anyInt())).thenReturn(FOUND);
+
+        ApiResponse<RealtimeCheckResponse> result = service().checkRealtime(RealtimeCheckRequest.builder()
+                .sessionId("session-9")
+                .studentId("s9")
+                .submissionId("109")
+                .questionId(1L)
+                .questionText("Explain how photosynthesis works.")
+                .textContent(PASTED)
+                .build(), () -> false);
+
+        verify(googleSearch, atLeastOnce()).lookupInternet(eq(PASTED), anyInt());
+        assertThat(result.getData().getFlagged()).isTrue();
+    }
+
+    @Test
+    @DisplayName("A paragraph whose search was not made is searched again by the next check")
+    void unsearchedParagraphIsRetried() {
+        when(questionAnalyzer.determineQuestionType(any())).thenReturn(QuestionType.SUBJECTIVE);
+        when(googleSearch.lookupInternet(anyString(), anyInt()))
+                .thenReturn(GoogleSearchService.Lookup.NOT_SEARCHED)
+                .thenReturn(FOUND);
+        RealtimeCheckService service = service();
+        RealtimeCheckRequest request = RealtimeCheckRequest.builder()
+                .sessionId("session-1")
+                .studentId("s1")
+                .submissionId("101")
+                .questionId(2L)
+                .questionText("Explain how photosynthesis works.")
+                .textContent(PASTED)
+                .build();
+
+        assertThat(service.checkRealtime(request, () -> false).getData().getFlagged()).isFalse();
+        assertThat(service.checkRealtime(request, () -> false).getData().getFlagged()).isTrue();
+        verify(googleSearch, times(2)).lookupInternet(eq(PASTED), anyInt());
+    }
+
+    private RealtimeCheckService service() {
+        RealtimeCheckService service = new RealtimeCheckService(mock(RealtimeCheckRepository.class),
+                new TextSimilarityService(), googleSearch, questionAnalyzer, mock(SimpMessagingTemplate.class),
+                peerIndex, corpusStats, new RealtimeParagraphCache(100, 60));
+        ReflectionTestUtils.setField(service, "realtimeEnabled", true);
+        ReflectionTestUtils.setField(service, "minTextLength", 50);
+        ReflectionTestUtils.setField(service, "textSimilarityThreshold", 0.70);
+        ReflectionTestUtils.setField(service, "internetSimilarityThreshold", 0.85);
+        ReflectionTestUtils.setField(service, "maxParagraphSearches", 2);
+        ReflectionTestUtils.setField(service, "internetSkipCommonRatio", 0.9);
+        return service;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.service.RealtimeParagraphCache;
+import com.example.integrity_monitoring_service.similarity.ParagraphSplitter;
+import com.example.integrity_monitoring_service.similarity.TextTokenizer;
+import com.example.integrity_monitoring_service.similarity.TokenizedText;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for paragraph splitting and the per-session paragraph diff used by
+ * incremental realtime checks.
+ */
+@DisplayName("RealtimeParagraphCache — paragraph-level diffing")
+class RealtimeParagraphCacheTest {
+
+    private static final String PARAGRAPH_1 =
+            "Photosynthesis converts light energy into chemical energy stored in glucose molecules inside the chloroplast.";
+    private static final String PARAGRAPH_2 =
+            "The light dependent reactions take place in the thylakoid membranes and produce ATP together with NADPH.";
+    private static final String PARAGRAPH_3 =
+            "The Calvin cycle then fixes carbon dioxide into sugars using the ATP and NADPH from the first stage.";
+
+    @Test
+    @DisplayName("Short lines are grouped and only the last paragraph may be short")
+    void shortLinesAreGrouped() {
+        List<ParagraphSplitter.Paragraph> paragraphs =
+                ParagraphSplitter.split("Heading\n- one\n- two\n\n" + PARAGRAPH_1 + "\n\nTail", 100);
+
+        assertThat(paragraphs).hasSize(2);
+        assertThat(paragraphs.get(0).text()).startsWith("Heading").endsWith("chloroplast.");
+        assertThat(paragraphs.get(1).text()).isEqualTo("Tail");
+    }
+
+    @Test
+    @DisplayName("A paragraph of exactly the minimum length is emitted on its own and is searchable")
+    void minimumLengthParagraphIsSearchable() {
+        String exact = "x".repeat(RealtimeParagraphCache.MIN_PARAGRAPH_CHARS);
+        RealtimeParagraphCache.Diff diff = new RealtimeParagraphCache(100, 60)
+                .diff("s", 1L, exact + "\n" + PARAGRAPH_1 + "\nTail");
+
+        assertThat(diff.paragraphs()).extracting(RealtimeParagraphCache.ScoredParagraph::text)
+                .containsExactly(exact, PARAGRAPH_1, "Tail");
+        assertThat(diff.paragraphs()).extracting(RealtimeParagraphCache.ScoredParagraph::searchable)
+                .containsExactly(true, true, false);
+    }
+
+    @Test
+    @DisplayName("Joined paragraph tokens equal tokenizing the whole answer")
+    void joinedTokensMatchWholeText() {
+        String text = PARAGRAPH_1 + "\n\n" + PARAGRAPH_2 + "\n" + PARAGRAPH_3;
+        RealtimeParagraphCache.Diff diff = new RealtimeParagraphCache(100, 60).diff("s", 1L, text);
+        TokenizedText whole = TextTokenizer.tokenize(text);
+
+        assertThat(diff.paragraphs()).hasSize(3);
+        assertThat(diff.tokens().tokens()).containsExactly(whole.tokens());
+        assertThat(diff.tokens().charGrams(3)).containsExactly(whole.charGrams(3));
+    }
+
+    @Test
+    @DisplayName("Appending a paragraph reuses the unchanged ones with their internet results")
+    void unchangedParagraphsAreReused() {
+        RealtimeParagraphCache cache = new RealtimeParagraphCache(100, 60);
+        RealtimeParagraphCache.Diff first = cache.diff("s", 1L, PARAGRAPH_1 + "\n\n" + PARAGRAPH_2);
+        RealtimeParagraphCache.InternetLeg leg = new RealtimeParagraphCache.InternetLeg(0.4, List.of());
+        cache.store("s", 1L, first.paragraphs().stream().map(p -> p.withInternet(leg)).toList());
+
+        RealtimeParagraphCache.Diff second = cache.diff("s", 1L,
+                PARAGRAPH_1 + "\n\n" + PARAGRAPH_2 + "\n\n" + PARAGRAPH_3);
+
+        assertThat(second.reused()).isEqualTo(2);
+        assertThat(second.paragraphs().get(0).internet()).isSameAs(leg);
+        assertThat(second.paragraphs().get(0).tokens()).isSameAs(first.paragraphs().get(0).tokens());
+        assertThat(second.paragraphs().get(2).internet()).isNull();
+
+        // Another question of the same session has its own history.
+        assertThat(cache.diff("s", 2L, PARAGRAPH_1).reused()).isZero();
+    }
+}
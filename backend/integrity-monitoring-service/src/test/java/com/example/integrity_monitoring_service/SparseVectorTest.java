@@ -0,0 +1,38 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.similarity.SparseVector;
+import com.example.integrity_monitoring_service.similarity.TextTokenizer;
+import com.example.integrity_monitoring_service.similarity.TokenizedText;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for sparse TF vectors (merge-join cosine, cached norms).
+ */
+@DisplayName("SparseVector — merge-join cosine")
+class SparseVectorTest {
+
+    @Test
+    @DisplayName("Cosine matches the dense (1 + ln tf) computation")
+    void cosineMatchesDenseFormula() {
+        SparseVector a = new SparseVector(new int[]{1, 4, 9}, new float[]{1f, 2f, 3f});
+        SparseVector b = new SparseVector(new int[]{4, 7, 9}, new float[]{1f, 5f, 1f});
+
+        double expected = (2 * 1 + 3 * 1) / (Math.sqrt(1 + 4 + 9) * Math.sqrt(1 + 25 + 1));
+        assertThat(a.cosine(b)).isCloseTo(expected, within(1e-6));
+        assertThat(a.norm()).isCloseTo(Math.sqrt(14), within(1e-6));
+    }
+
+    @Test
+    @DisplayName("Peer vectors are built once per document and reused")
+    void vectorIsCachedOnTheDocument() {
+        TokenizedText doc = TextTokenizer.tokenize("energy energy chemical glucose");
+
+        assertThat(doc.tfVector()).isSameAs(doc.tfVector());
+        assertThat(doc.tfVector().size()).isEqualTo(3);
+        assertThat(SparseVector.EMPTY.cosine(doc.tfVector())).isZero();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.integrity_monitoring_service;
+
+import com.example.integrity_monitoring_service.similarity.Shingler;
+import com.example.integrity_monitoring_service.similarity.SimilarityKernels;
+import com.example.integrity_monitoring_service.similarity.TextTokenizer;
+import com.example.integrity_monitoring_service.similarity.TokenizedText;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for the shared single-pass tokenizer and the primitive similarity kernels.
+ */
+@DisplayName("TextTokenizer — int token ids and primitive kernels")
+class TextTokenizerTest {
+
+    @Test
+    @DisplayName("Case, punctuation, short words and stop words are normalised away")
+    void normalisesLikeTheRegexPipeline() {
+        TokenizedText a = TextTokenizer.tokenize("The CELL, is the powerhouse!! of... an organism");
+        TokenizedText b = TextTokenizer.tokenize("cell powerhouse organism");
+
+        assertThat(a.tokens()).containsExactly(b.tokens());
+        assertThat(a.normalisedLength()).isEqualTo("the cell is the powerhouse of an organism".length());
+    }
+
+    @Test
+    @DisplayName("Extended stop words are dropped only from the content view")
+    void contentTokensDropExtendedStopWords() {
+        TokenizedText text = TextTokenizer.tokenize("what energy does not flow");
+
+        assertThat(text.tokens()).hasSize(4);
+        assertThat(text.contentTokens()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Shingles keep the String-hash based values of persisted signatures")
+    void shinglesAreStableAcrossDictionaries() {
+        long expected = Shingler.mix(("energy".hashCode() * 31L + "light".hashCode()) * 31L + "plants".hashCode());
+
+        assertThat(Shingler.shingle("Energy; LIGHT and plants", 3)).containsExactly(expected);
+    }
+
+    @Test
+    @DisplayName("Kernels score identical texts 1.0 and disjoint texts 0.0")
+    void kernelsOnPrimitiveArrays() {
+        TokenizedText a = TextTokenizer.tokenize("light energy converted into chemical energy");
+        TokenizedText b = TextTokenizer.tokenize("Light energy, converted into chemical energy.");
+        TokenizedText c = TextTokenizer.tokenize("mitochondria produce adenosine triphosphate");
+
+        assertThat(a.tfVector().cosine(b.tfVector())).isCloseTo(1.0, within(1e-9));
+        assertThat(SimilarityKernels.jaccard(a.terms().ids(), c.terms().ids())).isZero();
+        assertThat(SimilarityKernels.dice(a.charGrams(3), b.charGrams(3))).isEqualTo(1.0);
+        assertThat(SimilarityKernels.lcsLength(a.tokens(), a.tokens().length, b.tokens(), b.tokens().length))
+                .isEqualTo(a.tokens().length);
+    }
+}
@@ -0,0 +1,29 @@
+package com.smartlms.submission_management_service.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JDBC batching defaults for Hibernate.
+ *
+ * IDENTITY keys stop Hibernate from batching INSERTs (the id is only known
+ * after each row is written), so bulk snapshot inserts are done set-based in
+ * SQL instead. UPDATEs and DELETEs can still be batched: with these settings
+ * the per-answer UPDATEs of a submit or a grading request go out as one JDBC
+ * batch instead of one round trip per row.
+ *
+ * Values from application.properties take precedence.
+ */
+@Configuration
+public class JpaBatchingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.batch_size", "50");
+            properties.putIfAbsent("hibernate.order_updates", "true");
+            properties.putIfAbsent("hibernate.order_inserts", "true");
+        };
+    }
+}
@@ -4,6 +4,7 @@ import com.smartlms.submission_management_service.dto.request.SaveAnswerRequest;
 import com.smartlms.submission_management_service.dto.request.SaveAnswerAnalysisRequest;
 import com.smartlms.submission_management_service.dto.response.AnswerResponse;
 import com.smartlms.submission_management_service.dto.response.ApiResponse;
+import com.smartlms.submission_management_service.service.AnswerAutosaveBuffer;
 import com.smartlms.submission_management_service.service.AnswerService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +30,7 @@ import java.util.List;
 public class AnswerController {
 
     private final AnswerService answerService;
+    private final AnswerAutosaveBuffer answerAutosaveBuffer;
 
     /**
      * Save or update a student's answer for a specific question.
@@ -37,18 +39,30 @@ public class AnswerController {
      * Performs an upsert — safe to call multiple times with the same
      * (submissionId, questionId) pair.
      *
-     * PUT /api/submissions/{submissionId}/answers/{questionId}
+     * With {@code buffered=true} (autosave mode) the text is only queued in the
+     * write-coalescing buffer and the call returns 202 immediately; the row is
+     * written on the next periodic flush, or earlier when the submission is read,
+     * analysed or submitted.
+     *
+     * PUT /api/submissions/{submissionId}/answers/{questionId}?buffered={true|false}
      */
     @PutMapping("/{questionId}")
     public ResponseEntity<ApiResponse<AnswerResponse>> saveAnswer(
             @PathVariable String submissionId,
             @PathVariable String questionId,
+            @RequestParam(defaultValue = "false") boolean buffered,
             @Valid @RequestBody SaveAnswerRequest request) {
 
         int textLen = request.getAnswerText() != null ? request.getAnswerText().length() : 0;
-        log.info("[AnswerController] PUT /api/submissions/{}/answers/{} — wordCount={} chars={}",
-                submissionId, questionId, request.getWordCount(), textLen);
+        log.info("[AnswerController] PUT /api/submissions/{}/answers/{} — wordCount={} chars={} buffered={}",
+                submissionId, questionId, request.getWordCount(), textLen, buffered);
+
+        if (buffered) {
+            return ResponseEntity.accepted().body(answerService.bufferAnswer(submissionId, questionId, request));
+        }
 
+        // Flush first so an older buffered autosave cannot overwrite this save later.
+        answerAutosaveBuffer.flushSubmission(submissionId);
         ApiResponse<AnswerResponse> response = answerService.saveAnswer(submissionId, questionId, request);
 
         log.info("[AnswerController] PUT DONE — answerId={} success={}",
@@ -73,6 +87,7 @@ public class AnswerController {
             @RequestBody SaveAnswerAnalysisRequest request) {
 
         log.info("[AnswerController] PATCH /api/submissions/{}/answers/{}/analysis", submissionId, questionId);
+        answerAutosaveBuffer.flushSubmission(submissionId);
 
         ApiResponse<AnswerResponse> response = answerService.saveAnalysis(submissionId, questionId, request);
 
@@ -97,6 +112,7 @@ public class AnswerController {
             @PathVariable String submissionId) {
 
         log.info("[AnswerController] GET /api/submissions/{}/answers", submissionId);
+        answerAutosaveBuffer.flushSubmission(submissionId);
 
         ApiResponse<List<AnswerResponse>> response = answerService.getAnswers(submissionId);
 
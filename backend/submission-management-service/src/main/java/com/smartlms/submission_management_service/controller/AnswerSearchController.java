@@ -1,13 +1,19 @@
 package com.smartlms.submission_management_service.controller;
 
+import com.smartlms.submission_management_service.dto.response.AnswerChangeFeedResponse;
 import com.smartlms.submission_management_service.dto.response.AnswerResponse;
 import com.smartlms.submission_management_service.dto.response.ApiResponse;
+import com.smartlms.submission_management_service.service.AnswerChangeFeedService;
 import com.smartlms.submission_management_service.service.AnswerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -25,6 +31,7 @@ import java.util.List;
 public class AnswerSearchController {
 
     private final AnswerService answerService;
+    private final AnswerChangeFeedService changeFeedService;
 
     /**
      * Return all peer answers for a given question, excluding all answers from the
@@ -33,27 +40,106 @@ public class AnswerSearchController {
      *
      * Called by integrity-monitoring-service for TF-IDF peer comparison.
      *
-     * GET /api/answers/by-question?questionId={id}&excludeStudentId={id}&excludeSubmissionId={id}
+     * GET /api/answers/by-question?questionId={id}&excludeStudentId={id}&excludeSubmissionId={id}&limit={n}
      *
      * @param questionId           Required. The question whose peer answers to retrieve.
      * @param excludeStudentId     Optional. Exclude ALL answers from this student (all versions).
      * @param excludeSubmissionId  Optional. Fallback submissionId exclude for legacy rows.
+     * @param limit                Optional. Most-recent answers to return (default 200); must be positive.
      */
     @GetMapping("/by-question")
     public ResponseEntity<ApiResponse<List<AnswerResponse>>> getAnswersByQuestion(
             @RequestParam String questionId,
             @RequestParam(required = false) String excludeStudentId,
-            @RequestParam(required = false) String excludeSubmissionId) {
+            @RequestParam(required = false) String excludeSubmissionId,
+            @RequestParam(defaultValue = "200") int limit) {
 
         log.info("[AnswerSearchController] GET /api/answers/by-question — questionId={} excludeStudentId={} excludeSubmissionId={}",
                 questionId, excludeStudentId, excludeSubmissionId);
 
         ApiResponse<List<AnswerResponse>> response =
-                answerService.getAnswersByQuestion(questionId, excludeStudentId, excludeSubmissionId);
+                answerService.getAnswersByQuestion(questionId, excludeStudentId, excludeSubmissionId, limit);
 
         log.info("[AnswerSearchController] returning {} peer answers for questionId={}",
                 response.getData() != null ? response.getData().size() : 0, questionId);
 
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Stream every answer of every submission of an assignment as NDJSON, in
+     * (questionId, answerId) order, in the same lean row format as /peer-stream.
+     *
+     * Called by integrity-monitoring-service for assignment-wide plagiarism sweeps
+     * and MinHash/LSH near-duplicate detection.
+     *
+     * GET /api/answers/assignment-stream?assignmentId={id}
+     */
+    @GetMapping(value = "/assignment-stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAssignmentAnswers(@RequestParam String assignmentId) {
+
+        log.info("[AnswerSearchController] GET /api/answers/assignment-stream — assignmentId={}", assignmentId);
+
+        StreamingResponseBody body = out -> answerService.streamAssignmentAnswers(assignmentId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Stream the answers of one or more questions as NDJSON (one JSON object per
+     * line), oldest change first, starting after an optional (since, afterId)
+     * cursor. Only the fields needed for peer comparison are sent, and rows are
+     * written as the database returns them instead of being collected into one
+     * ApiResponse array.
+     *
+     * Called by integrity-monitoring-service to load and refresh its resident
+     * per-question peer index.
+     *
+     * GET /api/answers/peer-stream?questionIds={id,id,...}&since={iso-datetime}&afterId={id}&limit={n}
+     *
+     * @param questionIds  Required. Questions whose answers to stream.
+     * @param since        Optional. lastModified of the last row already seen.
+     * @param afterId      Optional. answerId of the last row already seen (breaks lastModified ties).
+     * @param limit        Optional. Maximum rows to stream (default 0 = all).
+     */
+    @GetMapping(value = "/peer-stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPeerAnswers(
+            @RequestParam List<String> questionIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "0") int limit) {
+
+        log.info("[AnswerSearchController] GET /api/answers/peer-stream — questionIds={} since={} afterId={}",
+                questionIds, since, afterId);
+
+        StreamingResponseBody body = out -> answerService.streamPeerAnswers(questionIds, since, afterId, limit, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Tail the answer change feed: events (answer saved / analysis saved) after
+     * the given cursor, oldest first. Events carry keys only; consumers re-read
+     * the answers they need (e.g. via /peer-stream).
+     *
+     * Called by downstream services (integrity-monitoring, feedback) to keep
+     * indexes and aggregates incrementally up to date. Only events whose
+     * transaction has ended are served, so resuming from nextCursor never
+     * skips an event that commits later.
+     *
+     * GET /api/answers/changes?after={cursor}&limit={n}
+     *
+     * @param after  Optional. nextCursor of the previous page (default: oldest retained event).
+     * @param limit  Optional. Maximum events to return (default 500, max 1000).
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ApiResponse<AnswerChangeFeedResponse>> getChanges(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "500") int limit) {
+
+        log.debug("[AnswerSearchController] GET /api/answers/changes — after={} limit={}", after, limit);
+        return ResponseEntity.ok(ApiResponse.success(changeFeedService.readChanges(after, limit)));
+    }
 }
@@ -53,6 +53,18 @@ public class InternalSubmissionController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    /**
+     * GET /api/internal/submissions/{id}/versions
+     * Returns every version snapshot (newest first) with answers and plagiarism sources.
+     * Used by lecturer dashboards; served by two queries regardless of version count.
+     */
+    @GetMapping("/{id}/versions")
+    public ResponseEntity<ApiResponse<List<VersionResponse>>> getVersionHistory(@PathVariable Long id) {
+        log.debug("[Internal] GET /api/internal/submissions/{}/versions", id);
+        List<VersionResponse> response = versionService.getVersionHistory(id);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     /**
      * GET /api/internal/submissions/{id}/answers
      * Returns all answers for a submission with AI scores and plagiarism scores.
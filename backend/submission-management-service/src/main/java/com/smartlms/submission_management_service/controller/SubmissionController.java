@@ -1,14 +1,21 @@
 package com.smartlms.submission_management_service.controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
+import com.smartlms.submission_management_service.dto.request.BulkGradeRequest;
 import com.smartlms.submission_management_service.dto.request.GradeRequest;
 import com.smartlms.submission_management_service.dto.request.SubmissionRequest;
 import com.smartlms.submission_management_service.dto.response.ApiResponse;
+import com.smartlms.submission_management_service.dto.response.BulkGradeResponse;
+import com.smartlms.submission_management_service.dto.response.GradingPageResponse;
 import com.smartlms.submission_management_service.dto.response.SubmissionResponse;
 import com.smartlms.submission_management_service.exception.AccessDeniedException;
 import com.smartlms.submission_management_service.exception.ResourceNotFoundException;
+import com.smartlms.submission_management_service.model.SubmissionStatus;
+import com.smartlms.submission_management_service.service.AnswerAutosaveBuffer;
+import com.smartlms.submission_management_service.service.GradingWorkbenchService;
 import com.smartlms.submission_management_service.service.SubmissionService;
 import com.smartlms.submission_management_service.util.JwtUtils;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,6 +25,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -57,6 +65,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class SubmissionController {
 
     private final SubmissionService submissionService;
+    private final AnswerAutosaveBuffer answerAutosaveBuffer;
+    private final GradingWorkbenchService gradingWorkbenchService;
 
     // ── Auth helpers ──────────────────────────────────────────────────────────
 
@@ -262,6 +272,40 @@ public class SubmissionController {
         return ResponseEntity.ok(ApiResponse.success(pageResult));
     }
 
+    /**
+     * Lecturer grading table for one assignment: one keyset page of submitted work,
+     * newest first, with only the columns the table shows.
+
+     * GET /api/submissions/grading?assignmentId=JAVA-001&flagged=true&limit=50
+     * GET /api/submissions/grading?assignmentId=JAVA-001&afterSubmittedAt=2025-01-23T10:30:00&afterId=812
+
+     * @param assignmentId     Assignment to list (required)
+     * @param afterSubmittedAt Cursor — the previous page's nextSubmittedAt; omit for the first page
+     * @param afterId          Cursor — the previous page's nextId
+     * @param status           Optional status filter (e.g. SUBMITTED, LATE, GRADED)
+     * @param flagged          Optional: true = flagged for plagiarism only, false = unflagged only
+     * @param late             Optional: true = late only, false = on-time only
+     * @param limit            Page size (default 50, max 200)
+     */
+    @GetMapping("/grading")
+    public ResponseEntity<ApiResponse<GradingPageResponse>> getGradingPage(
+            @RequestParam String assignmentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterSubmittedAt,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) SubmissionStatus status,
+            @RequestParam(required = false) Boolean flagged,
+            @RequestParam(required = false) Boolean late,
+            @RequestParam(defaultValue = "0") int limit,
+            HttpServletRequest httpRequest) {
+        Map<String, Object> c = requireAuth(httpRequest);
+        requireLecturer(c);
+        log.info("GET /api/submissions/grading - assignmentId={} after=({}, {}) status={} flagged={} late={}",
+                assignmentId, afterSubmittedAt, afterId, status, flagged, late);
+        GradingPageResponse page = gradingWorkbenchService.getGradingPage(
+                assignmentId, afterSubmittedAt, afterId, status, flagged, late, limit);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
     /**
      * Updates an existing submission.
 
@@ -376,6 +420,8 @@ public class SubmissionController {
         requireStudent(c);
         String callerId = JwtUtils.extractUserId(c);
         log.info("POST /api/submissions/{}/submit - Submitting by student={}", id, callerId);
+        // Buffered autosaves must be in the answers table before submit validates and snapshots them.
+        answerAutosaveBuffer.flushSubmission(String.valueOf(id));
         SubmissionResponse response = submissionService.submitSubmission(id, callerId);
         return ResponseEntity.ok(ApiResponse.success("Submission submitted successfully", response));
     }
@@ -424,4 +470,35 @@ public class SubmissionController {
         return ResponseEntity.ok(ApiResponse.success("Submission graded successfully", response));
     }
 
-}
\ No newline at end of file
+    /**
+     * Grades many submissions at once, e.g. a whole cohort imported from a spreadsheet.
+
+     * POST /api/submissions/grades/bulk
+     *
+     * Each entry follows the same rules as POST /{id}/grade. Entries that cannot be
+     * applied (unknown submission, deadline not passed, grade above max) are
+     * returned in {@code skipped}; all others are written in one transaction
+     * with set-based UPDATEs.
+
+     * Example Request Body:
+     * {
+     *   "grades": [
+     *     { "submissionId": 12, "grade": 78.0, "questionScores": { "q1": 8.0, "q2": 7.5 } },
+     *     { "submissionId": 13, "grade": 64.0, "questionFeedbacks": { "q2": "Cite your sources" } }
+     *   ]
+     * }
+     */
+    @PostMapping("/grades/bulk")
+    public ResponseEntity<ApiResponse<BulkGradeResponse>> bulkGradeSubmissions(
+            @RequestBody BulkGradeRequest request,
+            HttpServletRequest httpRequest) {
+        Map<String, Object> c = requireAuth(httpRequest);
+        requireLecturer(c);
+        // Override lecturerId from JWT — do not trust the request body.
+        request.setLecturerId(JwtUtils.extractUserId(c));
+        log.info("POST /api/submissions/grades/bulk - {} entries by lecturer={}",
+                request.getGrades() != null ? request.getGrades().size() : 0, request.getLecturerId());
+        BulkGradeResponse response = submissionService.bulkGradeSubmissions(request);
+        return ResponseEntity.ok(ApiResponse.success("Bulk grading completed", response));
+    }
+}
@@ -0,0 +1,47 @@
+package com.smartlms.submission_management_service.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request body for POST /api/submissions/grades/bulk
+ *
+ * Grades for many submissions at once (e.g. a cohort imported from a
+ * spreadsheet). Each entry carries the same fields as {@link GradeRequest}
+ * and follows the same rules; lecturerId applies to every entry.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkGradeRequest {
+
+    /** One entry per submission; a submission may appear only once. */
+    private List<Entry> grades;
+
+    /** Set from the JWT by the controller — never trusted from the body. */
+    private String lecturerId;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Entry {
+        private Long submissionId;
+        /** Overall numeric grade (percentage 0–100). */
+        private Double grade;
+        private String lecturerFeedback;
+        /** Per-question marks: { "questionId": mark, ... } */
+        private Map<String, Double> questionScores;
+        /** Per-question feedback texts: { "questionId": "feedback text", ... } */
+        private Map<String, String> questionFeedbacks;
+    }
+}
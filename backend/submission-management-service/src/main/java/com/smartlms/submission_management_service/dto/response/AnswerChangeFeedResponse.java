@@ -0,0 +1,43 @@
+package com.smartlms.submission_management_service.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * One page of the answer change feed (GET /api/answers/changes).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnswerChangeFeedResponse {
+
+    private List<Event> events;
+
+    /**
+     * Pass as {@code after} on the next call; equals the request cursor when the
+     * page is empty. Opaque ("txid:eventId"); no event ever appears behind it later.
+     */
+    private String nextCursor;
+
+    /** True when the page was full — call again immediately instead of waiting. */
+    private boolean hasMore;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Event {
+        private Long eventId;
+        private Long answerId;
+        private String submissionId;
+        private String questionId;
+        private String studentId;
+        /** ANSWER_SAVED or ANALYSIS_SAVED. */
+        private String changeType;
+        private String changedAt;
+    }
+}
@@ -21,6 +21,9 @@ public class AnswerResponse {
     /** Parent submission ID. */
     private String submissionId;
 
+    /** Student who wrote this answer. Null for rows saved before studentId was captured. */
+    private String studentId;
+
     /** Question this answer belongs to. */
     private String questionId;
 
@@ -0,0 +1,43 @@
+package com.smartlms.submission_management_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Outcome of POST /api/submissions/grades/bulk. Entries that could not be
+ * applied are listed in {@code skipped} with the reason; all others were
+ * written in one transaction.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkGradeResponse {
+
+    /** Submissions graded. */
+    private int graded;
+
+    /** Working-copy answer rows updated. */
+    private int answersUpdated;
+
+    /** Latest-version answer rows updated. */
+    private int versionAnswersUpdated;
+
+    private List<Skipped> skipped;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Skipped {
+        private Long submissionId;
+        private String reason;
+    }
+}
@@ -0,0 +1,33 @@
+package com.smartlms.submission_management_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of the lecturer grading table (GET /api/submissions/grading),
+ * newest submission first.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GradingPageResponse {
+
+    private List<GradingRowResponse> rows;
+
+    /**
+     * Pass as {@code afterSubmittedAt} / {@code afterId} to get the next page;
+     * null when there is no next page.
+     */
+    private LocalDateTime nextSubmittedAt;
+    private Long nextId;
+
+    private boolean hasMore;
+}
@@ -0,0 +1,49 @@
+package com.smartlms.submission_management_service.dto.response;
+
+import com.smartlms.submission_management_service.model.SubmissionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the lecturer grading table (GET /api/submissions/grading).
+ *
+ * Projected straight from the submissions table by a JPQL constructor
+ * expression, so the listing never loads description, feedback_text or
+ * question_marks_json. (submittedAt, id) is the page cursor.
+ */
+@Getter
+@AllArgsConstructor
+public class GradingRowResponse {
+
+    private Long id;
+
+    private String studentId;
+
+    private String studentName;
+
+    private String studentRegistrationId;
+
+    private SubmissionStatus status;
+
+    private LocalDateTime submittedAt;
+
+    private Boolean isLate;
+
+    private Integer versionNumber;
+
+    /** AI-computed grade at submit time. */
+    private Double grade;
+
+    /** Lecturer override; null until graded post-deadline. */
+    private Double lecturerGrade;
+
+    private Double maxGrade;
+
+    private Double aiScore;
+
+    private Double plagiarismScore;
+
+    private Integer totalWordCount;
+}
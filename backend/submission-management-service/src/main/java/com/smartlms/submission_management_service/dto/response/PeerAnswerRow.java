@@ -0,0 +1,32 @@
+package com.smartlms.submission_management_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of the /api/answers/peer-stream NDJSON feed.
+ *
+ * Projected straight from the answers table by a JPQL constructor expression,
+ * so the feed never loads the AI-feedback, plagiarism or grading columns of
+ * the Answer entity. (lastModified, answerId) is the feed's resume cursor.
+ */
+@Getter
+@AllArgsConstructor
+public class PeerAnswerRow {
+
+    private Long answerId;
+
+    private String questionId;
+
+    private String submissionId;
+
+    /** Null for rows saved before studentId was captured. */
+    private String studentId;
+
+    private LocalDateTime lastModified;
+
+    /** May be blank — consumers drop blank answers from their peer corpus. */
+    private String answerText;
+}
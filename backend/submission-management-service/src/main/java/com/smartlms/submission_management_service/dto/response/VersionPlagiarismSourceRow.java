@@ -0,0 +1,32 @@
+package com.smartlms.submission_management_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One plagiarism source row, projected flat together with the id of the
+ * version answer it belongs to, so every source of a set of versions can be
+ * read in one query and grouped in memory instead of one query per answer.
+ */
+@Getter
+@AllArgsConstructor
+public class VersionPlagiarismSourceRow {
+
+    private Long versionAnswerId;
+
+    private Long id;
+
+    private String sourceUrl;
+
+    private String sourceTitle;
+
+    private String sourceSnippet;
+
+    private String matchedText;
+
+    private Double similarityPercentage;
+
+    private LocalDateTime detectedAt;
+}
@@ -3,6 +3,7 @@ package com.smartlms.submission_management_service.model;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -15,14 +16,23 @@ import java.util.List;
  * automatically upserted (saved or updated) as the student types, via the
  * debounced auto-save mechanism in the frontend.
  *
- * submissionId + questionId form a logical unique key; the service layer
- * enforces this via findBySubmissionIdAndQuestionId before deciding
- * whether to INSERT or UPDATE.
+ * submissionId + questionId form a unique key, enforced by
+ * uk_answers_submission_id_question_id so answers can be written with
+ * INSERT ... ON CONFLICT (see AnswerUpsertStatement). Startup fails if it is
+ * missing (AnswerAutosaveBuffer); answers-unique-key.sql resolves duplicates.
+ *
+ * @DynamicUpdate: entity updates set only the changed columns, so e.g. the
+ * aiGeneratedMark pass on submit does not rewrite answer_text for every row.
  */
 @Entity
+@DynamicUpdate
 @Table(
     name = "answers",
     schema = "submission_schema",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_answers_submission_id_question_id",
+        columnNames = {"submission_id", "question_id"}
+    ),
     indexes = {
         // Covers upsert lookup (findBySubmissionIdAndQuestionId) and
         // ordered fetch (findBySubmissionIdOrderByQuestionId).
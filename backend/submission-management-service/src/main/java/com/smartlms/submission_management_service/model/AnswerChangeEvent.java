@@ -0,0 +1,70 @@
+package com.smartlms.submission_management_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transactional outbox row: one change to one Answer.
+ *
+ * Written in the same transaction as the answer upsert, so an event exists
+ * if and only if the change committed. Downstream services (integrity peer
+ * indexes, feedback aggregates) tail the feed by (txid, id) via
+ *   GET /api/answers/changes?after={cursor}&limit={n}
+ * which serves only events whose transaction has ended (see
+ * AnswerChangeFeedService), and re-read the answers they care about,
+ * instead of re-scanning full lists.
+ *
+ * Events carry keys only, never answer text. Rows are pruned after the
+ * configured retention period.
+ */
+@Entity
+@Table(
+    name = "answer_change_events",
+    schema = "submission_schema",
+    indexes = {
+        @Index(name = "idx_answer_change_events_created_at", columnList = "created_at"),
+        @Index(name = "idx_answer_change_events_txid_id", columnList = "txid, id")
+    }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnswerChangeEvent {
+
+    /** Orders events within one transaction; across transactions the feed orders by txid first. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "answer_id", nullable = false)
+    private Long answerId;
+
+    @Column(name = "submission_id", nullable = false)
+    private String submissionId;
+
+    @Column(name = "question_id", nullable = false)
+    private String questionId;
+
+    /** Null for answers saved before studentId was captured. */
+    @Column(name = "student_id")
+    private String studentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 20)
+    private AnswerChangeType changeType;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Id of the writing transaction (pg_current_xact_id()), set by the INSERT.
+     * Null only on events written before the column existed; those are not served.
+     */
+    @Column(name = "txid", updatable = false)
+    private Long txid;
+}
@@ -0,0 +1,11 @@
+package com.smartlms.submission_management_service.model;
+
+/**
+ * What changed on an answer row, as recorded in the answer change feed.
+ */
+public enum AnswerChangeType {
+    /** The student's text was inserted or edited (autosave). */
+    ANSWER_SAVED,
+    /** AI feedback, plagiarism, AI-detection or lecturer fields were written. */
+    ANALYSIS_SAVED
+}
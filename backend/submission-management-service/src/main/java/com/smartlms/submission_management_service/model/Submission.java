@@ -11,6 +11,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,7 +19,18 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "submissions", schema = "submission_schema")
+@Table(
+    name = "submissions",
+    schema = "submission_schema",
+    indexes = {
+        // Keyset pages of the grading table: WHERE assignment_id = ? ORDER BY submitted_at DESC, id DESC
+        @Index(name = "idx_submissions_assignment_submitted_id",
+               columnList = "assignment_id, submitted_at DESC, id DESC"),
+        // Same pages filtered by status
+        @Index(name = "idx_submissions_assignment_status_submitted_id",
+               columnList = "assignment_id, status, submitted_at DESC, id DESC")
+    }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -99,8 +99,9 @@ public class SubmissionVersion {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
-    /** The frozen answer snapshots belonging to this version. */
+    /** The frozen answer snapshots belonging to this version, ordered by questionId. */
     @OneToMany(mappedBy = "version", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
+    @OrderBy("questionId ASC")
     @Builder.Default
     private List<VersionAnswer> answers = new ArrayList<>();
 }
@@ -0,0 +1,70 @@
+package com.smartlms.submission_management_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transactional outbox row: one text snapshot to replicate to
+ * version-control-service.
+ *
+ * Written in the submit transaction, so a snapshot is queued if and only if
+ * the submit committed. VersionSyncRelay delivers pending rows in batches and
+ * stamps sentAt; failed deliveries are retried with exponential backoff via
+ * nextAttemptAt. (submissionId, versionNumber) is unique here and is the
+ * idempotency key on the receiving side, so a re-sent row is harmless.
+ * Sent rows are pruned after the configured retention period.
+ */
+@Entity
+@Table(
+    name = "version_sync_outbox",
+    schema = "submission_schema",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_version_sync_outbox_submission_version",
+        columnNames = {"submission_id", "version_number"}
+    ),
+    indexes = @Index(name = "idx_version_sync_outbox_pending", columnList = "sent_at, next_attempt_at")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VersionSyncOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "submission_id", nullable = false)
+    private Long submissionId;
+
+    @Column(name = "version_number", nullable = false)
+    private Integer versionNumber;
+
+    /** The TextSnapshotRequest body, serialised at submit time. */
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    /** Failed delivery attempts so far. */
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    /** Not relayed before this time (backoff after a failure, lease while in flight). */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    /** Error of the last failed attempt. */
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    /** Null until version-control-service has confirmed the snapshot. */
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,55 @@
+package com.smartlms.submission_management_service.repository;
+
+import com.smartlms.submission_management_service.model.AnswerChangeEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JPA repository for the answer change-feed outbox.
+ */
+@Repository
+public interface AnswerChangeEventRepository extends JpaRepository<AnswerChangeEvent, Long> {
+
+    /**
+     * Append an event stamped with the current transaction's id. Must run in
+     * the transaction that wrote the answer.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO submission_schema.answer_change_events " +
+                   "(answer_id, submission_id, question_id, student_id, change_type, created_at, txid) " +
+                   "VALUES (:answerId, :submissionId, :questionId, :studentId, :changeType, :createdAt, " +
+                   "pg_current_xact_id()::text::bigint)",
+           nativeQuery = true)
+    void append(@Param("answerId") Long answerId,
+                @Param("submissionId") String submissionId,
+                @Param("questionId") String questionId,
+                @Param("studentId") String studentId,
+                @Param("changeType") String changeType,
+                @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * The next page of the feed: settled events — written by a transaction below
+     * the current snapshot's xmin, so no longer in flight — after the
+     * (afterTx, afterId) cursor, in (txid, id) order. Served by
+     * idx_answer_change_events_txid_id.
+     */
+    @Query(value = "SELECT * FROM submission_schema.answer_change_events " +
+                   "WHERE (txid, id) > (:afterTx, :afterId) " +
+                   "AND txid < pg_snapshot_xmin(pg_current_snapshot())::text::bigint " +
+                   "ORDER BY txid, id LIMIT :limit",
+           nativeQuery = true)
+    List<AnswerChangeEvent> findSettledPage(@Param("afterTx") long afterTx,
+                                            @Param("afterId") long afterId,
+                                            @Param("limit") int limit);
+
+    /** Drop events older than the retention cut-off. */
+    @Modifying
+    @Query("DELETE FROM AnswerChangeEvent e WHERE e.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,24 +1,32 @@
 package com.smartlms.submission_management_service.repository;
 
+import com.smartlms.submission_management_service.dto.response.PeerAnswerRow;
 import com.smartlms.submission_management_service.model.Answer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * JPA repository for Answer entities.
  *
  * The primary query pattern is look-up by submissionId (to get all answers
- * for a submission) or by submissionId + questionId (for upsert logic in
- * the service layer).
+ * for a submission) or by submissionId + questionId. Autosave and analysis
+ * writes go through the single-statement methods of {@link AnswerRepositoryCustom}.
  */
 @Repository
-public interface AnswerRepository extends JpaRepository<Answer, Long> {
+public interface AnswerRepository extends JpaRepository<Answer, Long>, AnswerRepositoryCustom {
 
     /**
      * Returns all answers for a given submission, ordered by question ID
@@ -27,8 +35,8 @@ public interface AnswerRepository extends JpaRepository<Answer, Long> {
     List<Answer> findBySubmissionIdOrderByQuestionId(String submissionId);
 
     /**
-     * Used by the upsert logic: check whether an answer already exists
-     * before deciding to INSERT vs UPDATE.
+     * Look up one answer — used when a single-statement write returned no row,
+     * to tell "unchanged" or "no text" apart from "not created yet".
      */
     Optional<Answer> findBySubmissionIdAndQuestionId(String submissionId, String questionId);
 
@@ -40,4 +48,39 @@ public interface AnswerRepository extends JpaRepository<Answer, Long> {
      */
     @Query("SELECT a FROM Answer a WHERE a.questionId = :questionId ORDER BY a.lastModified DESC")
     List<Answer> findByQuestionId(@Param("questionId") String questionId, Pageable pageable);
+
+    /**
+     * Lean answer projection (see {@link #streamPeerAnswers}) of every submission
+     * of an assignment, in (questionId, id) order. Answer.submissionId is VARCHAR
+     * while submissions.id is BIGINT, hence the cast. Streams rows with a JDBC
+     * fetch size; must be consumed inside a transaction and closed by the caller.
+     * Used by the integrity service for assignment-wide plagiarism sweeps.
+     */
+    @Query("SELECT new com.smartlms.submission_management_service.dto.response.PeerAnswerRow(" +
+           "a.id, a.questionId, a.submissionId, a.studentId, a.lastModified, a.answerText) " +
+           "FROM Answer a " +
+           "WHERE a.submissionId IN " +
+           "(SELECT CAST(s.id AS String) FROM Submission s WHERE s.assignmentId = :assignmentId) " +
+           "ORDER BY a.questionId, a.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<PeerAnswerRow> streamAssignmentAnswers(@Param("assignmentId") String assignmentId);
+
+    /**
+     * Lean peer-answer projection for one or more questions, in (lastModified, id)
+     * order, starting strictly after the cursor (since, afterId). Streams rows with
+     * a JDBC fetch size instead of materialising the result, and selects only the
+     * columns the integrity service compares. Must be consumed inside a transaction
+     * and closed by the caller. Served by idx_answers_question_id_last_modified.
+     */
+    @Query("SELECT new com.smartlms.submission_management_service.dto.response.PeerAnswerRow(" +
+           "a.id, a.questionId, a.submissionId, a.studentId, a.lastModified, a.answerText) " +
+           "FROM Answer a " +
+           "WHERE a.questionId IN :questionIds " +
+           "AND (a.lastModified > :since OR (a.lastModified = :since AND a.id > :afterId)) " +
+           "ORDER BY a.lastModified, a.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<PeerAnswerRow> streamPeerAnswers(@Param("questionIds") Collection<String> questionIds,
+                                            @Param("since") LocalDateTime since,
+                                            @Param("afterId") long afterId,
+                                            Limit limit);
 }
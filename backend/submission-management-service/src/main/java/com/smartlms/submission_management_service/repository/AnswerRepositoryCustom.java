@@ -0,0 +1,57 @@
+package com.smartlms.submission_management_service.repository;
+
+import com.smartlms.submission_management_service.model.Answer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Single-statement, column-targeted writes for the answers table, implemented
+ * with plain JDBC in {@link AnswerRepositoryImpl}.
+ *
+ * The autosave and analysis paths used to load the whole Answer (including its
+ * TEXT columns) and write every column back: two round trips, and two overlapping
+ * requests could overwrite each other's fields. These statements write only the
+ * columns a request carries and return the row in the same round trip.
+ */
+public interface AnswerRepositoryCustom {
+
+    /**
+     * INSERT ... ON CONFLICT (submission_id, question_id) DO UPDATE for one
+     * autosave. Sets question_text and the text columns; student_id and
+     * max_points only when supplied; last_modified only when the text changed
+     * (to {@code now}). Returns the row, or empty when the stored row already
+     * matched the request and nothing was written.
+     */
+    Optional<Answer> upsertAnswerText(String submissionId, String questionId, String studentId,
+                                      String questionText, String answerText, int wordCount,
+                                      int characterCount, Double maxPoints, LocalDateTime now);
+
+    /**
+     * UPDATE only the non-null fields of {@code update} on the answer, provided it
+     * has at least one word. Returns the updated row, or empty when there is no
+     * such answer or it has no text.
+     */
+    Optional<Answer> updateAnalysis(String submissionId, String questionId, AnalysisUpdate update);
+
+    /**
+     * Set-based lecturer override of many answers (any number of submissions):
+     * UPDATE ... FROM (VALUES ...) in chunks of 1000 rows, instead of a
+     * SELECT + full-row UPDATE per question. Stamps lecturer_updated_at/_by on
+     * every matched row. Rows without a matching answer are ignored.
+     *
+     * @return number of answers updated
+     */
+    int updateLecturerGrades(List<LecturerQuestionGrade> grades, LocalDateTime now, String lecturerId);
+
+    /** Analysis columns to write; null means "leave unchanged". */
+    record AnalysisUpdate(Double grammarScore, Double clarityScore, Double completenessScore, Double relevanceScore,
+                          String aiStrengths, String aiImprovements, String aiSuggestions,
+                          LocalDateTime feedbackSavedAt,
+                          Double similarityScore, String plagiarismSeverity, Boolean plagiarismFlagged,
+                          String plagiarismSources, LocalDateTime plagiarismCheckedAt,
+                          Double aiDetectionScore, String aiDetectionLabel,
+                          Double aiGeneratedMark, Double lecturerMark, String lecturerFeedbackText) {
+    }
+}
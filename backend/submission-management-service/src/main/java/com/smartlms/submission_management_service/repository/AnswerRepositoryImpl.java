@@ -0,0 +1,103 @@
+package com.smartlms.submission_management_service.repository;
+
+import com.smartlms.submission_management_service.model.Answer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC implementation of {@link AnswerRepositoryCustom}. Runs inside the
+ * caller's JPA transaction (same connection). Parameters are bound with explicit
+ * SQL types so a null can be passed to COALESCE without Postgres having to guess.
+ */
+@RequiredArgsConstructor
+public class AnswerRepositoryImpl implements AnswerRepositoryCustom {
+
+    private static final RowMapper<Answer> ANSWER_ROW = new BeanPropertyRowMapper<>(Answer.class);
+
+    private static final String UPSERT_TEXT_SQL = AnswerUpsertStatement.SQL + " RETURNING a.*";
+
+    private static final String UPDATE_ANALYSIS_SQL =
+            "UPDATE submission_schema.answers SET " +
+            "grammar_score          = COALESCE(:grammarScore, grammar_score), " +
+            "clarity_score          = COALESCE(:clarityScore, clarity_score), " +
+            "completeness_score     = COALESCE(:completenessScore, completeness_score), " +
+            "relevance_score        = COALESCE(:relevanceScore, relevance_score), " +
+            "ai_strengths           = COALESCE(:aiStrengths, ai_strengths), " +
+            "ai_improvements        = COALESCE(:aiImprovements, ai_improvements), " +
+            "ai_suggestions         = COALESCE(:aiSuggestions, ai_suggestions), " +
+            "feedback_saved_at      = COALESCE(:feedbackSavedAt, feedback_saved_at), " +
+            "similarity_score       = COALESCE(:similarityScore, similarity_score), " +
+            "plagiarism_severity    = COALESCE(:plagiarismSeverity, plagiarism_severity), " +
+            "plagiarism_flagged     = COALESCE(:plagiarismFlagged, plagiarism_flagged), " +
+            "plagiarism_sources     = COALESCE(:plagiarismSources, plagiarism_sources), " +
+            "plagiarism_checked_at  = COALESCE(:plagiarismCheckedAt, plagiarism_checked_at), " +
+            "ai_detection_score     = COALESCE(:aiDetectionScore, ai_detection_score), " +
+            "ai_detection_label     = COALESCE(:aiDetectionLabel, ai_detection_label), " +
+            "ai_generated_mark      = COALESCE(:aiGeneratedMark, ai_generated_mark), " +
+            "lecturer_mark          = COALESCE(:lecturerMark, lecturer_mark), " +
+            "lecturer_feedback_text = COALESCE(:lecturerFeedbackText, lecturer_feedback_text) " +
+            "WHERE submission_id = :submissionId AND question_id = :questionId " +
+            "AND COALESCE(word_count, 0) >= 1 " +
+            "RETURNING *";
+
+    private static final String UPDATE_LECTURER_GRADES_SQL =
+            "UPDATE submission_schema.answers a SET " +
+            "lecturer_mark          = CASE WHEN v.set_mark THEN v.mark ELSE a.lecturer_mark END, " +
+            "lecturer_feedback_text = CASE WHEN v.set_feedback THEN v.feedback ELSE a.lecturer_feedback_text END, " +
+            "lecturer_updated_at    = ?, " +
+            "lecturer_updated_by    = ? " +
+            "FROM (VALUES %s) AS v(submission_id, question_id, set_mark, mark, set_feedback, feedback) " +
+            "WHERE a.submission_id = v.submission_id AND a.question_id = v.question_id";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    @Override
+    public Optional<Answer> upsertAnswerText(String submissionId, String questionId, String studentId,
+                                             String questionText, String answerText, int wordCount,
+                                             int characterCount, Double maxPoints, LocalDateTime now) {
+        return jdbc.getJdbcOperations().query(UPSERT_TEXT_SQL,
+                ps -> AnswerUpsertStatement.bind(ps, submissionId, questionId, studentId, questionText, answerText,
+                        wordCount, characterCount, maxPoints, now),
+                ANSWER_ROW).stream().findFirst();
+    }
+
+    @Override
+    public Optional<Answer> updateAnalysis(String submissionId, String questionId, AnalysisUpdate u) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("submissionId", submissionId, Types.VARCHAR)
+                .addValue("questionId", questionId, Types.VARCHAR)
+                .addValue("grammarScore", u.grammarScore(), Types.DOUBLE)
+                .addValue("clarityScore", u.clarityScore(), Types.DOUBLE)
+                .addValue("completenessScore", u.completenessScore(), Types.DOUBLE)
+                .addValue("relevanceScore", u.relevanceScore(), Types.DOUBLE)
+                .addValue("aiStrengths", u.aiStrengths(), Types.VARCHAR)
+                .addValue("aiImprovements", u.aiImprovements(), Types.VARCHAR)
+                .addValue("aiSuggestions", u.aiSuggestions(), Types.VARCHAR)
+                .addValue("feedbackSavedAt", u.feedbackSavedAt(), Types.TIMESTAMP)
+                .addValue("similarityScore", u.similarityScore(), Types.DOUBLE)
+                .addValue("plagiarismSeverity", u.plagiarismSeverity(), Types.VARCHAR)
+                .addValue("plagiarismFlagged", u.plagiarismFlagged(), Types.BOOLEAN)
+                .addValue("plagiarismSources", u.plagiarismSources(), Types.VARCHAR)
+                .addValue("plagiarismCheckedAt", u.plagiarismCheckedAt(), Types.TIMESTAMP)
+                .addValue("aiDetectionScore", u.aiDetectionScore(), Types.DOUBLE)
+                .addValue("aiDetectionLabel", u.aiDetectionLabel(), Types.VARCHAR)
+                .addValue("aiGeneratedMark", u.aiGeneratedMark(), Types.DOUBLE)
+                .addValue("lecturerMark", u.lecturerMark(), Types.DOUBLE)
+                .addValue("lecturerFeedbackText", u.lecturerFeedbackText(), Types.VARCHAR);
+        return jdbc.query(UPDATE_ANALYSIS_SQL, params, ANSWER_ROW).stream().findFirst();
+    }
+
+    @Override
+    public int updateLecturerGrades(List<LecturerQuestionGrade> grades, LocalDateTime now, String lecturerId) {
+        return LecturerGradeStatements.update(jdbc.getJdbcOperations(), UPDATE_LECTURER_GRADES_SQL, true,
+                grades, now, lecturerId);
+    }
+}
@@ -0,0 +1,69 @@
+package com.smartlms.submission_management_service.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+
+/**
+ * The one INSERT ... ON CONFLICT (submission_id, question_id) DO UPDATE that
+ * writes answer text, shared by the synchronous save
+ * ({@link AnswerRepositoryImpl#upsertAnswerText}) and the batched autosave flush
+ * (AnswerAutosaveBuffer), so both paths apply the same column rules:
+ *
+ *   - question_text and the text columns are always set;
+ *   - student_id and max_points only when supplied (a null keeps the stored value);
+ *   - last_modified moves to {@code now} only on INSERT or when the text changed;
+ *   - a row that already matches is not written at all (0 rows affected).
+ *
+ * Parameters (see {@link #bind}) are positional and typed so a null can be
+ * passed to COALESCE without Postgres having to guess its type.
+ */
+public final class AnswerUpsertStatement {
+
+    public static final String SQL =
+            "INSERT INTO submission_schema.answers AS a " +
+            "(submission_id, question_id, student_id, question_text, answer_text, word_count, character_count, " +
+            " max_points, last_modified, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (submission_id, question_id) DO UPDATE SET " +
+            "question_text   = EXCLUDED.question_text, " +
+            "answer_text     = EXCLUDED.answer_text, " +
+            "word_count      = EXCLUDED.word_count, " +
+            "character_count = EXCLUDED.character_count, " +
+            "student_id      = COALESCE(EXCLUDED.student_id, a.student_id), " +
+            "max_points      = COALESCE(EXCLUDED.max_points, a.max_points), " +
+            "last_modified   = CASE WHEN a.answer_text IS DISTINCT FROM EXCLUDED.answer_text " +
+            "                       THEN EXCLUDED.last_modified ELSE a.last_modified END " +
+            "WHERE (a.question_text, a.answer_text, a.word_count, a.character_count, a.student_id, a.max_points) " +
+            "      IS DISTINCT FROM " +
+            "      (EXCLUDED.question_text, EXCLUDED.answer_text, EXCLUDED.word_count, EXCLUDED.character_count, " +
+            "       COALESCE(EXCLUDED.student_id, a.student_id), COALESCE(EXCLUDED.max_points, a.max_points))";
+
+    private AnswerUpsertStatement() {
+    }
+
+    /** Bind one answer to {@link #SQL}; {@code now} is used for both last_modified and created_at. */
+    public static void bind(PreparedStatement ps, String submissionId, String questionId, String studentId,
+                            String questionText, String answerText, int wordCount, int characterCount,
+                            Double maxPoints, LocalDateTime now) throws SQLException {
+        Timestamp stamp = Timestamp.valueOf(now);
+        ps.setString(1, submissionId);
+        ps.setString(2, questionId);
+        setString(ps, 3, studentId);
+        setString(ps, 4, questionText);
+        setString(ps, 5, answerText);
+        ps.setInt(6, wordCount);
+        ps.setInt(7, characterCount);
+        if (maxPoints != null) ps.setDouble(8, maxPoints);
+        else ps.setNull(8, Types.DOUBLE);
+        ps.setTimestamp(9, stamp);
+        ps.setTimestamp(10, stamp);
+    }
+
+    private static void setString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value != null) ps.setString(index, value);
+        else ps.setNull(index, Types.VARCHAR);
+    }
+}
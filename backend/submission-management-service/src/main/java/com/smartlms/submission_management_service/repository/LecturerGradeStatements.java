@@ -0,0 +1,67 @@
+package com.smartlms.submission_management_service.repository;
+
+import org.springframework.jdbc.core.JdbcOperations;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs a set-based {@code UPDATE ... FROM (VALUES ...)} over lecturer grade
+ * rows, one statement per {@value #ROWS_PER_STATEMENT} rows (6 parameters a
+ * row keeps each statement well under the driver's bind-parameter limit).
+ *
+ * The statement template has two leading parameters (lecturer_updated_at,
+ * lecturer_updated_by) and one {@code %s} where the VALUES rows go, exposed as
+ * v(submission_id, question_id, set_mark, mark, set_feedback, feedback).
+ * Every value is CAST so Postgres never has to guess the type of a null.
+ */
+final class LecturerGradeStatements {
+
+    static final int ROWS_PER_STATEMENT = 1000;
+
+    private LecturerGradeStatements() {
+    }
+
+    /**
+     * @param submissionIdAsText true for tables keying submissions by VARCHAR (answers),
+     *                           false for BIGINT (submission_versions)
+     * @return total rows updated
+     */
+    static int update(JdbcOperations jdbc, String sqlTemplate, boolean submissionIdAsText,
+                      List<LecturerQuestionGrade> grades, LocalDateTime now, String lecturerId) {
+        String row = "(CAST(? AS " + (submissionIdAsText ? "varchar" : "bigint") + "), CAST(? AS varchar), " +
+                     "CAST(? AS boolean), CAST(? AS double precision), CAST(? AS boolean), CAST(? AS text))";
+        int updated = 0;
+        for (int from = 0; from < grades.size(); from += ROWS_PER_STATEMENT) {
+            List<LecturerQuestionGrade> chunk = grades.subList(from, Math.min(from + ROWS_PER_STATEMENT, grades.size()));
+            String sql = String.format(sqlTemplate, String.join(", ", Collections.nCopies(chunk.size(), row)));
+
+            Object[] args = new Object[2 + chunk.size() * 6];
+            int[] types = new int[args.length];
+            args[0] = Timestamp.valueOf(now);
+            types[0] = Types.TIMESTAMP;
+            args[1] = lecturerId;
+            types[1] = Types.VARCHAR;
+            int i = 2;
+            for (LecturerQuestionGrade g : chunk) {
+                args[i] = submissionIdAsText ? String.valueOf(g.submissionId()) : g.submissionId();
+                types[i++] = submissionIdAsText ? Types.VARCHAR : Types.BIGINT;
+                args[i] = g.questionId();
+                types[i++] = Types.VARCHAR;
+                args[i] = g.setMark();
+                types[i++] = Types.BOOLEAN;
+                args[i] = g.mark();
+                types[i++] = Types.DOUBLE;
+                args[i] = g.setFeedback();
+                types[i++] = Types.BOOLEAN;
+                args[i] = g.feedback();
+                types[i++] = Types.VARCHAR;
+            }
+            updated += jdbc.update(sql, args, types);
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,35 @@
+package com.smartlms.submission_management_service.repository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One lecturer override for one question of one submission, as written by the
+ * set-based grading updates. {@code setMark}/{@code setFeedback} say whether the
+ * request carried the field at all — a present null clears the stored value,
+ * an absent field leaves it unchanged.
+ */
+public record LecturerQuestionGrade(Long submissionId, String questionId,
+                                    boolean setMark, Double mark,
+                                    boolean setFeedback, String feedback) {
+
+    /** One row per question that has a mark and/or a feedback entry. */
+    public static List<LecturerQuestionGrade> of(Long submissionId, Map<String, Double> scores,
+                                                 Map<String, String> feedbacks) {
+        Map<String, Double> s = scores    != null ? scores    : Map.of();
+        Map<String, String> f = feedbacks != null ? feedbacks : Map.of();
+        Set<String> questionIds = new HashSet<>(s.keySet());
+        questionIds.addAll(f.keySet());
+
+        List<LecturerQuestionGrade> rows = new ArrayList<>(questionIds.size());
+        for (String questionId : questionIds) {
+            rows.add(new LecturerQuestionGrade(submissionId, questionId,
+                    s.containsKey(questionId), s.get(questionId),
+                    f.containsKey(questionId), f.get(questionId)));
+        }
+        return rows;
+    }
+}
@@ -5,8 +5,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import com.smartlms.submission_management_service.dto.response.GradingRowResponse;
 import com.smartlms.submission_management_service.model.Submission;
 import com.smartlms.submission_management_service.model.SubmissionStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -35,6 +37,45 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
     @Query("SELECT s FROM Submission s WHERE s.dueDate < :now AND s.status = 'SUBMITTED' AND s.isLate = false")
     List<Submission> findOverdueSubmissions(@Param("now") LocalDateTime now);
 
+    /**
+     * One keyset page of an assignment's submitted work for the grading table,
+     * newest first, as slim projections.
+     *
+     * Rows strictly after the cursor (afterSubmittedAt, afterId) in
+     * (submitted_at DESC, id DESC) order; the leading {@code submittedAt <=} bound
+     * lets the (assignment_id, submitted_at, id) index seek straight to the page,
+     * so every page costs the same however deep it is. Drafts (no submitted_at)
+     * are never listed. Null filters match everything; {@code flagged} means
+     * status FLAGGED, a plagiarism score (0-100) at or above {@code flagThreshold},
+     * or any answer whose stored plagiarismFlagged is set.
+     */
+    @Query("SELECT new com.smartlms.submission_management_service.dto.response.GradingRowResponse(" +
+           "s.id, s.studentId, s.studentName, s.studentRegistrationId, s.status, s.submittedAt, s.isLate, " +
+           "s.versionNumber, s.grade, s.lecturerGrade, s.maxGrade, s.aiScore, s.plagiarismScore, s.totalWordCount) " +
+           "FROM Submission s " +
+           "WHERE s.assignmentId = :assignmentId AND s.submittedAt IS NOT NULL " +
+           "AND s.submittedAt <= :afterSubmittedAt " +
+           "AND (s.submittedAt < :afterSubmittedAt OR s.id < :afterId) " +
+           "AND (:status IS NULL OR s.status = :status) " +
+           "AND (:late IS NULL OR s.isLate = :late) " +
+           "AND (:flagged IS NULL " +
+           "  OR (:flagged = true AND (s.status = 'FLAGGED' OR s.plagiarismScore >= :flagThreshold " +
+           "      OR EXISTS (SELECT 1 FROM Answer a WHERE a.submissionId = CAST(s.id AS String) " +
+           "                 AND a.plagiarismFlagged = true))) " +
+           "  OR (:flagged = false AND s.status <> 'FLAGGED' " +
+           "      AND (s.plagiarismScore IS NULL OR s.plagiarismScore < :flagThreshold) " +
+           "      AND NOT EXISTS (SELECT 1 FROM Answer a WHERE a.submissionId = CAST(s.id AS String) " +
+           "                      AND a.plagiarismFlagged = true))) " +
+           "ORDER BY s.submittedAt DESC, s.id DESC")
+    List<GradingRowResponse> findGradingPage(@Param("assignmentId") String assignmentId,
+                                             @Param("afterSubmittedAt") LocalDateTime afterSubmittedAt,
+                                             @Param("afterId") long afterId,
+                                             @Param("status") SubmissionStatus status,
+                                             @Param("late") Boolean late,
+                                             @Param("flagged") Boolean flagged,
+                                             @Param("flagThreshold") double flagThreshold,
+                                             Limit limit);
+
     Long countByStudentId(String studentId);
 
     Long countByStudentIdAndStatus(String studentId, SubmissionStatus status);
@@ -1,11 +1,13 @@
 package com.smartlms.submission_management_service.repository;
 
 import com.smartlms.submission_management_service.model.SubmissionVersion;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +25,33 @@ public interface SubmissionVersionRepository extends JpaRepository<SubmissionVer
            "ORDER BY v.versionNumber DESC LIMIT 1")
     Optional<SubmissionVersion> findLatestBySubmissionId(@Param("submissionId") Long submissionId);
 
+    /**
+     * One version with its answers, loaded by a single join-fetch query
+     * (answers ordered by questionId, see SubmissionVersion.answers).
+     */
+    @EntityGraph(attributePaths = "answers")
+    @Query("SELECT v FROM SubmissionVersion v WHERE v.id = :id")
+    Optional<SubmissionVersion> findWithAnswersById(@Param("id") Long id);
+
+    /**
+     * The latest version with its answers in one query. The version is chosen by
+     * a MAX subquery rather than LIMIT 1, which would cut the joined answer rows.
+     */
+    @Query("SELECT v FROM SubmissionVersion v LEFT JOIN FETCH v.answers " +
+           "WHERE v.submissionId = :submissionId AND v.versionNumber = " +
+           "(SELECT MAX(v2.versionNumber) FROM SubmissionVersion v2 WHERE v2.submissionId = :submissionId)")
+    Optional<SubmissionVersion> findLatestWithAnswersBySubmissionId(@Param("submissionId") Long submissionId);
+
+    /** The latest version of each of the given submissions, in one query. */
+    @Query("SELECT v FROM SubmissionVersion v WHERE v.submissionId IN :submissionIds AND v.versionNumber = " +
+           "(SELECT MAX(v2.versionNumber) FROM SubmissionVersion v2 WHERE v2.submissionId = v.submissionId)")
+    List<SubmissionVersion> findLatestBySubmissionIdIn(@Param("submissionIds") Collection<Long> submissionIds);
+
+    /** Every version of a submission with its answers, newest first, in one join-fetch query. */
+    @Query("SELECT DISTINCT v FROM SubmissionVersion v LEFT JOIN FETCH v.answers " +
+           "WHERE v.submissionId = :submissionId ORDER BY v.versionNumber DESC")
+    List<SubmissionVersion> findWithAnswersBySubmissionId(@Param("submissionId") Long submissionId);
+
     /** Fetch a specific version by submission + version number. */
     Optional<SubmissionVersion> findBySubmissionIdAndVersionNumber(Long submissionId, Integer versionNumber);
 
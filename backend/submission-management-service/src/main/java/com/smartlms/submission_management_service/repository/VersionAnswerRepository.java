@@ -2,17 +2,46 @@ package com.smartlms.submission_management_service.repository;
 
 import com.smartlms.submission_management_service.model.VersionAnswer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface VersionAnswerRepository extends JpaRepository<VersionAnswer, Long> {
+public interface VersionAnswerRepository extends JpaRepository<VersionAnswer, Long>, VersionAnswerRepositoryCustom {
 
     /** All answers for a version, ordered by question ID. */
     List<VersionAnswer> findByVersionIdOrderByQuestionId(Long versionId);
 
     /** Single answer for a specific version + question (for upsert during grading). */
     Optional<VersionAnswer> findByVersionIdAndQuestionId(Long versionId, String questionId);
+
+    /**
+     * Snapshot every working-copy answer of a submission into a version in ONE
+     * statement (INSERT ... SELECT), instead of one INSERT round trip per answer.
+     * Pending entity changes (e.g. ai_generated_mark set during submit) are flushed
+     * first so the copy sees them. Lecturer columns start null.
+     * Answer.submissionId is VARCHAR, hence the String parameter.
+     *
+     * @return number of answers snapshotted
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO submission_schema.version_answers " +
+                   "(version_id, question_id, question_text, answer_text, word_count, character_count, max_points, " +
+                   " grammar_score, clarity_score, completeness_score, relevance_score, " +
+                   " ai_strengths, ai_improvements, ai_suggestions, ai_generated_mark, " +
+                   " similarity_score, plagiarism_severity, plagiarism_flagged, plagiarism_checked_at, " +
+                   " snapshot_created_at) " +
+                   "SELECT :versionId, a.question_id, a.question_text, a.answer_text, a.word_count, a.character_count, " +
+                   "       a.max_points, a.grammar_score, a.clarity_score, a.completeness_score, a.relevance_score, " +
+                   "       a.ai_strengths, a.ai_improvements, a.ai_suggestions, a.ai_generated_mark, " +
+                   "       a.similarity_score, a.plagiarism_severity, a.plagiarism_flagged, a.plagiarism_checked_at, " +
+                   "       now() " +
+                   "FROM submission_schema.answers a " +
+                   "WHERE a.submission_id = :submissionId",
+           nativeQuery = true)
+    int insertSnapshotFromAnswers(@Param("versionId") Long versionId, @Param("submissionId") String submissionId);
 }
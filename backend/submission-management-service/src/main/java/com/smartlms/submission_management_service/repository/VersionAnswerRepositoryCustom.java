@@ -0,0 +1,21 @@
+package com.smartlms.submission_management_service.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Set-based lecturer writes to version_answers, implemented with plain JDBC in
+ * {@link VersionAnswerRepositoryImpl}.
+ */
+public interface VersionAnswerRepositoryCustom {
+
+    /**
+     * Lecturer override of the answers of each submission's LATEST version, for
+     * any number of submissions: UPDATE ... FROM (VALUES ...) joined to the latest
+     * submission_versions row, in chunks of 1000 rows. Older versions are never
+     * touched; rows without a matching version answer are ignored.
+     *
+     * @return number of version answers updated
+     */
+    int updateLatestLecturerGrades(List<LecturerQuestionGrade> grades, LocalDateTime now, String lecturerId);
+}
@@ -0,0 +1,36 @@
+package com.smartlms.submission_management_service.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link VersionAnswerRepositoryCustom}. Runs inside the
+ * caller's JPA transaction (same connection).
+ */
+@RequiredArgsConstructor
+public class VersionAnswerRepositoryImpl implements VersionAnswerRepositoryCustom {
+
+    private static final String UPDATE_LATEST_LECTURER_GRADES_SQL =
+            "UPDATE submission_schema.version_answers va SET " +
+            "lecturer_mark          = CASE WHEN v.set_mark THEN v.mark ELSE va.lecturer_mark END, " +
+            "lecturer_feedback_text = CASE WHEN v.set_feedback THEN v.feedback ELSE va.lecturer_feedback_text END, " +
+            "lecturer_updated_at    = ?, " +
+            "lecturer_updated_by    = ? " +
+            "FROM (VALUES %s) AS v(submission_id, question_id, set_mark, mark, set_feedback, feedback), " +
+            "     submission_schema.submission_versions sv " +
+            "WHERE sv.submission_id = v.submission_id " +
+            "AND sv.version_number = (SELECT MAX(sv2.version_number) FROM submission_schema.submission_versions sv2 " +
+            "                         WHERE sv2.submission_id = v.submission_id) " +
+            "AND va.version_id = sv.id AND va.question_id = v.question_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int updateLatestLecturerGrades(List<LecturerQuestionGrade> grades, LocalDateTime now, String lecturerId) {
+        return LecturerGradeStatements.update(jdbcTemplate, UPDATE_LATEST_LECTURER_GRADES_SQL, false,
+                grades, now, lecturerId);
+    }
+}
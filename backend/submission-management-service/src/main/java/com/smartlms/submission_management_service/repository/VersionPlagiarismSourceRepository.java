@@ -1,9 +1,13 @@
 package com.smartlms.submission_management_service.repository;
 
+import com.smartlms.submission_management_service.dto.response.VersionPlagiarismSourceRow;
 import com.smartlms.submission_management_service.model.VersionPlagiarismSource;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,6 +16,18 @@ public interface VersionPlagiarismSourceRepository extends JpaRepository<Version
     /** All sources for a specific version answer row. */
     List<VersionPlagiarismSource> findByVersionAnswerId(Long versionAnswerId);
 
+    /**
+     * Every source of the given versions in ONE query, flat, tagged with its
+     * version answer id (grouped by the caller). Replaces a findByVersionAnswerId
+     * call per answer when rendering version detail.
+     */
+    @Query("SELECT new com.smartlms.submission_management_service.dto.response.VersionPlagiarismSourceRow(" +
+           "s.versionAnswer.id, s.id, s.sourceUrl, s.sourceTitle, s.sourceSnippet, s.matchedText, " +
+           "s.similarityPercentage, s.detectedAt) " +
+           "FROM VersionPlagiarismSource s WHERE s.versionAnswer.version.id IN :versionIds " +
+           "ORDER BY s.versionAnswer.id, s.id")
+    List<VersionPlagiarismSourceRow> findRowsByVersionIds(@Param("versionIds") Collection<Long> versionIds);
+
     /** Delete all sources for a version answer (used before re-saving). */
     void deleteByVersionAnswerId(Long versionAnswerId);
 }
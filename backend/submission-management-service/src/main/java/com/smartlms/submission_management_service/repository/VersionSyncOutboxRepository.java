@@ -0,0 +1,22 @@
+package com.smartlms.submission_management_service.repository;
+
+import com.smartlms.submission_management_service.model.VersionSyncOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface VersionSyncOutboxRepository extends JpaRepository<VersionSyncOutbox, Long> {
+
+    /** Snapshots not yet confirmed by version-control-service. */
+    long countBySentAtIsNull();
+
+    /** Delete delivered rows sent before {@code cutoff}; pending rows are never pruned. */
+    @Modifying
+    @Query("DELETE FROM VersionSyncOutbox o WHERE o.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
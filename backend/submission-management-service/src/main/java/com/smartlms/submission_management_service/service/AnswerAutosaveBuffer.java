@@ -0,0 +1,220 @@
+package com.smartlms.submission_management_service.service;
+
+import com.smartlms.submission_management_service.dto.request.SaveAnswerRequest;
+import com.smartlms.submission_management_service.model.AnswerChangeType;
+import com.smartlms.submission_management_service.repository.AnswerUpsertStatement;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Write-coalescing buffer for autosaves.
+ *
+ * The editor autosaves every few seconds per question. In buffered mode
+ * AnswerService.saveAnswer only records the text here and returns; the
+ * buffer keeps the LATEST text per (submissionId, questionId) and writes every
+ * dirty entry once per {@code flush-interval-ms} as one JDBC batch of
+ *
+ *   INSERT ... ON CONFLICT (submission_id, question_id) DO UPDATE
+ *
+ * — the same {@link AnswerUpsertStatement} the synchronous save uses, stamped
+ * with the flush time. A student typing for a minute produces one write
+ * instead of twelve SELECT + full-row UPDATEs.
+ *
+ * Read-your-writes: every path that reads or overwrites a submission's answers
+ * (getAnswers, a synchronous saveAnswer, saveAnalysis, submitSubmission) calls
+ * flushSubmission first. Flushes are serialised, so a drained older text can
+ * never commit after a newer one.
+ *
+ * Buffered text is lost if the process dies before the next flush — at most
+ * one interval of typing, which the editor re-sends on its next autosave.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class AnswerAutosaveBuffer {
+
+    private static final String CONSTRAINT_PRESENT_SQL =
+            "SELECT COUNT(*) FROM pg_constraint " +
+            "WHERE conname = 'uk_answers_submission_id_question_id' " +
+            "AND conrelid = 'submission_schema.answers'::regclass";
+
+    private static final String DUPLICATE_GROUPS_SQL =
+            "SELECT submission_id, question_id, COUNT(*) AS copies FROM submission_schema.answers " +
+            "GROUP BY submission_id, question_id HAVING COUNT(*) > 1 " +
+            "ORDER BY submission_id, question_id LIMIT 20";
+
+    private static final String EVENT_SQL =
+            "INSERT INTO submission_schema.answer_change_events " +
+            "(answer_id, submission_id, question_id, student_id, change_type, created_at, txid) " +
+            "SELECT id, submission_id, question_id, student_id, ?, ?, pg_current_xact_id()::text::bigint " +
+            "FROM submission_schema.answers " +
+            "WHERE submission_id = ? AND question_id = ?";
+
+    record Key(String submissionId, String questionId) {
+    }
+
+    /** Latest accepted text for one answer. */
+    record Pending(String studentId, String questionText, String answerText, int wordCount, int characterCount,
+                   Double maxPoints) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxPending;
+
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public AnswerAutosaveBuffer(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${answer.autosave.max-pending:50000}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Accept an autosave; replaces any not-yet-flushed text for the same answer.
+     * Falls back to an immediate flush when the buffer is over {@code max-pending}.
+     */
+    public void accept(String submissionId, String questionId, SaveAnswerRequest request) {
+        String text = request.getAnswerText();
+        pending.put(new Key(submissionId, questionId), new Pending(
+                request.getStudentId(),
+                request.getQuestionText(),
+                text,
+                AnswerService.countWords(text),
+                text != null ? text.length() : 0,
+                request.getMaxPoints()));
+        if (pending.size() > maxPending) {
+            log.warn("[AutosaveBuffer] {} answers pending (max {}) — flushing inline", pending.size(), maxPending);
+            flushAll();
+        }
+    }
+
+    /** Write every buffered answer now. Runs every {@code flush-interval-ms}. */
+    @Scheduled(fixedDelayString = "${answer.autosave.flush-interval-ms:5000}")
+    public void flushAll() {
+        flush(key -> true);
+    }
+
+    /**
+     * Write the buffered answers of one submission now, in a transaction of its
+     * own, so the caller's following reads (or full-row writes) see them.
+     */
+    public void flushSubmission(String submissionId) {
+        if (pending.isEmpty()) return;
+        flush(key -> key.submissionId().equals(submissionId));
+    }
+
+    /**
+     * Every flush (and the synchronous save) relies on ON CONFLICT over
+     * uk_answers_submission_id_question_id. ddl-auto=update only logs a warning
+     * when it cannot add that constraint — e.g. because duplicate rows written
+     * before it existed — and every flush would then fail and re-queue forever.
+     * So startup fails instead, listing the duplicate groups. Resolving them is
+     * a data decision (a duplicate may hold marks or feedback): review and run
+     * answers-unique-key.sql, which archives the duplicates and adds the constraint.
+     */
+    @PostConstruct
+    void verifyConflictTarget() {
+        Integer present = jdbcTemplate.queryForObject(CONSTRAINT_PRESENT_SQL, Integer.class);
+        if (present != null && present > 0) return;
+
+        List<String> groups = jdbcTemplate.query(DUPLICATE_GROUPS_SQL, (rs, row) ->
+                "submission_id=" + rs.getString("submission_id") + " question_id=" + rs.getString("question_id")
+                        + " (" + rs.getInt("copies") + " rows)");
+        throw new IllegalStateException("submission_schema.answers has no uk_answers_submission_id_question_id "
+                + "constraint, which answer upserts require. Duplicate groups (first 20): "
+                + (groups.isEmpty() ? "none" : String.join("; ", groups))
+                + ". Review and run src/main/resources/answers-unique-key.sql, then restart.");
+    }
+
+    /** Number of answers waiting for the next flush. */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    private void flush(Predicate<Key> selector) {
+        flushLock.lock();
+        try {
+            List<Map.Entry<Key, Pending>> batch = drain(selector);
+            if (batch.isEmpty()) return;
+
+            long t0 = System.currentTimeMillis();
+            try {
+                int changed = transactionTemplate.execute(status -> write(batch));
+                log.info("[AutosaveBuffer] Flushed {} answers ({} changed) in {}ms",
+                        batch.size(), changed, System.currentTimeMillis() - t0);
+            } catch (RuntimeException e) {
+                // Put the entries back unless a newer autosave has replaced them meanwhile.
+                batch.forEach(entry -> pending.putIfAbsent(entry.getKey(), entry.getValue()));
+                log.error("[AutosaveBuffer] Flush of {} answers failed — will retry: {}", batch.size(), e.getMessage());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /** Remove and return the selected entries; an entry replaced mid-drain stays for the next flush. */
+    private List<Map.Entry<Key, Pending>> drain(Predicate<Key> selector) {
+        List<Map.Entry<Key, Pending>> batch = new ArrayList<>();
+        for (Map.Entry<Key, Pending> entry : pending.entrySet()) {
+            Key key = entry.getKey();
+            Pending value = entry.getValue();
+            if (selector.test(key) && pending.remove(key, value)) {
+                batch.add(Map.entry(key, value));
+            }
+        }
+        return batch;
+    }
+
+    /** Batch-upsert the entries, then append one outbox event per row actually written. */
+    private int write(List<Map.Entry<Key, Pending>> batch) {
+        // Stamped at flush, not at accept: the peer feed pages on last_modified with a
+        // short overlap, so the stamp must be close to the commit that makes the row visible.
+        LocalDateTime now = LocalDateTime.now();
+        int[] counts = jdbcTemplate.batchUpdate(AnswerUpsertStatement.SQL, batch, batch.size(), (ps, entry) -> {
+            Key key = entry.getKey();
+            Pending p = entry.getValue();
+            AnswerUpsertStatement.bind(ps, key.submissionId(), key.questionId(), p.studentId(), p.questionText(),
+                    p.answerText(), p.wordCount(), p.characterCount(), p.maxPoints(), now);
+        })[0];
+
+        List<Map.Entry<Key, Pending>> changed = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) changed.add(batch.get(i));
+        }
+        if (!changed.isEmpty()) {
+            Timestamp stamp = Timestamp.valueOf(now);
+            jdbcTemplate.batchUpdate(EVENT_SQL, changed, changed.size(), (ps, entry) -> {
+                ps.setString(1, AnswerChangeType.ANSWER_SAVED.name());
+                ps.setTimestamp(2, stamp);
+                ps.setString(3, entry.getKey().submissionId());
+                ps.setString(4, entry.getKey().questionId());
+            });
+        }
+        return changed.size();
+    }
+}
@@ -0,0 +1,129 @@
+package com.smartlms.submission_management_service.service;
+
+import com.smartlms.submission_management_service.dto.response.AnswerChangeFeedResponse;
+import com.smartlms.submission_management_service.model.Answer;
+import com.smartlms.submission_management_service.model.AnswerChangeEvent;
+import com.smartlms.submission_management_service.model.AnswerChangeType;
+import com.smartlms.submission_management_service.repository.AnswerChangeEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Transactional outbox and pull-based change feed for answer rows.
+ *
+ * record() runs inside the caller's answer-upsert transaction, so a change
+ * and its event commit (or roll back) together. Each event also stores the
+ * id of the transaction that wrote it (txid).
+ *
+ * Consumers poll readChanges(after, limit) with the cursor of the last event
+ * they processed and get at most {@code limit} newer events in (txid, id)
+ * order. Only settled events are served: those whose txid is below the
+ * xmin of the current snapshot, i.e. whose transaction has committed or
+ * rolled back. Every transaction still able to write an event has a txid at
+ * or above that xmin, so no event can later appear behind a cursor already
+ * handed out — the feed is gap-free without re-reading. A long-open
+ * transaction anywhere in the database delays the feed until it ends;
+ * events are held back, never skipped.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnswerChangeFeedService {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final AnswerChangeEventRepository eventRepository;
+
+    @Value("${answer-change-feed.retention-days:7}")
+    private int retentionDays;
+
+    /** Feed position: writing transaction id, then event id. Rendered as {@code "<txid>:<eventId>"}. */
+    public record Cursor(long txid, long eventId) {
+        public static final Cursor START = new Cursor(0L, 0L);
+
+        /** Parse a cursor returned by an earlier page; null or blank starts from the oldest retained event. */
+        public static Cursor parse(String value) {
+            if (value == null || value.isBlank()) return START;
+            int colon = value.indexOf(':');
+            try {
+                if (colon > 0) {
+                    return new Cursor(Long.parseLong(value.substring(0, colon).trim()),
+                            Long.parseLong(value.substring(colon + 1).trim()));
+                }
+            } catch (NumberFormatException ignored) {
+                // reported below
+            }
+            throw new IllegalArgumentException("Invalid change feed cursor: " + value);
+        }
+
+        @Override
+        public String toString() {
+            return txid + ":" + eventId;
+        }
+    }
+
+    /**
+     * Append an outbox event for {@code answer}. Must be called inside the
+     * transaction that wrote the answer, after the row has its id.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Answer answer, AnswerChangeType changeType) {
+        eventRepository.append(answer.getId(), answer.getSubmissionId(), answer.getQuestionId(),
+                answer.getStudentId(), changeType.name(), LocalDateTime.now());
+    }
+
+    /**
+     * Return the settled events after {@code after}, oldest first (see the class comment).
+     *
+     * @param after  Cursor of the last event the consumer processed (null to start from the oldest retained event)
+     * @param limit  Maximum events to return (capped at 1000)
+     */
+    @Transactional(readOnly = true)
+    public AnswerChangeFeedResponse readChanges(String after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Cursor cursor = Cursor.parse(after);
+
+        List<AnswerChangeEvent> page = eventRepository.findSettledPage(cursor.txid(), cursor.eventId(), pageSize);
+
+        List<AnswerChangeFeedResponse.Event> events = page.stream()
+                .map(e -> AnswerChangeFeedResponse.Event.builder()
+                        .eventId(e.getId())
+                        .answerId(e.getAnswerId())
+                        .submissionId(e.getSubmissionId())
+                        .questionId(e.getQuestionId())
+                        .studentId(e.getStudentId())
+                        .changeType(e.getChangeType().name())
+                        .changedAt(e.getCreatedAt() != null ? e.getCreatedAt().toString() : null)
+                        .build())
+                .toList();
+
+        Cursor next = page.isEmpty() ? cursor
+                : new Cursor(page.get(page.size() - 1).getTxid(), page.get(page.size() - 1).getId());
+        log.debug("[AnswerChangeFeed] readChanges after={} limit={} → {} events, next={}",
+                cursor, pageSize, events.size(), next);
+        return AnswerChangeFeedResponse.builder()
+                .events(events)
+                .nextCursor(next.toString())
+                .hasMore(events.size() == pageSize)
+                .build();
+    }
+
+    /** Delete events past the retention period. Runs hourly. */
+    @Scheduled(fixedDelayString = "${answer-change-feed.prune-interval-ms:3600000}",
+               initialDelayString = "${answer-change-feed.prune-interval-ms:3600000}")
+    @Transactional
+    public void pruneExpired() {
+        int deleted = eventRepository.deleteCreatedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("[AnswerChangeFeed] Pruned {} events older than {} days", deleted, retentionDays);
+        }
+    }
+}
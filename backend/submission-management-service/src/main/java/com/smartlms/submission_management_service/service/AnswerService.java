@@ -1,28 +1,43 @@
 package com.smartlms.submission_management_service.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.smartlms.submission_management_service.dto.request.SaveAnswerRequest;
 import com.smartlms.submission_management_service.dto.request.SaveAnswerAnalysisRequest;
 import com.smartlms.submission_management_service.dto.response.AnswerResponse;
 import com.smartlms.submission_management_service.dto.response.ApiResponse;
+import com.smartlms.submission_management_service.dto.response.PeerAnswerRow;
 import com.smartlms.submission_management_service.model.Answer;
+import com.smartlms.submission_management_service.model.AnswerChangeType;
 import com.smartlms.submission_management_service.repository.AnswerRepository;
+import com.smartlms.submission_management_service.repository.AnswerRepositoryCustom;
 import com.smartlms.submission_management_service.util.AnswerScoreUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Business logic for text-based answer storage.
  *
- * Each call to saveAnswer performs an UPSERT:
+ * Each call to saveAnswer performs an UPSERT as one INSERT ... ON CONFLICT statement:
  *   - If an Answer row already exists for the (submissionId, questionId) pair → UPDATE it.
  *   - Otherwise → INSERT a new Answer row.
+ * saveAnalysis likewise UPDATEs only the columns the request carries.
  *
  * This is safe to call on every debounced auto-save from the frontend
  * (approximately every 5 seconds while the student is typing).
@@ -32,7 +47,16 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AnswerService {
 
+    /** Cursor start for a full peer-stream load — before any answer can have been saved. */
+    private static final LocalDateTime STREAM_EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /** Rows written between explicit flushes of the peer stream. */
+    private static final int STREAM_FLUSH_EVERY = 200;
+
     private final AnswerRepository answerRepository;
+    private final AnswerChangeFeedService changeFeed;
+    private final AnswerAutosaveBuffer autosaveBuffer;
+    private final ObjectMapper objectMapper;
 
     /**
      * Save or update a student's typed answer for one question.
@@ -51,42 +75,61 @@ public class AnswerService {
         log.info("[AnswerService] saveAnswer — submissionId={} questionId={} wordCount={} chars={}",
                 submissionId, questionId, request.getWordCount(), textLen);
 
-        // Attempt to find an existing answer for this (submissionId, questionId) pair
-        boolean[] isNew = { false };
-        Answer answer = answerRepository
-                .findBySubmissionIdAndQuestionId(submissionId, questionId)
-                .orElseGet(() -> {
-                    log.info("[AnswerService] No existing answer — INSERT new row for submissionId={} questionId={}",
-                            submissionId, questionId);
-                    isNew[0] = true;
-                    return Answer.builder()
-                            .submissionId(submissionId)
-                            .questionId(questionId)
-                            .build();
-                });
-
-        if (!isNew[0]) {
-            log.debug("[AnswerService] Existing answer found id={} — UPDATE", answer.getId());
-        }
-
-        // Update mutable fields regardless of whether this is an INSERT or UPDATE.
+        // One INSERT ... ON CONFLICT DO UPDATE on (submission_id, question_id): no prior SELECT,
+        // and two overlapping autosaves can no longer both INSERT.
         // Word count is recomputed server-side from answerText so that a client sending
         // an inflated wordCount cannot bypass minimum-word-count enforcement at submit time.
+        // Postgres stores microseconds, so truncate to compare with the returned last_modified.
         String answerText = request.getAnswerText();
-        answer.setQuestionText(request.getQuestionText());
-        answer.setAnswerText(answerText);
-        answer.setWordCount(countWords(answerText));
-        answer.setCharacterCount(answerText != null ? answerText.length() : 0);
-        if (request.getStudentId() != null) answer.setStudentId(request.getStudentId());
-        if (request.getMaxPoints() != null) answer.setMaxPoints(request.getMaxPoints());
-
-        Answer saved = answerRepository.save(answer);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Optional<Answer> written = answerRepository.upsertAnswerText(
+                submissionId, questionId, request.getStudentId(), request.getQuestionText(),
+                answerText, countWords(answerText), textLen, request.getMaxPoints(), now);
+
+        Answer saved;
+        if (written.isPresent()) {
+            saved = written.get();
+            // last_modified only moves to `now` on INSERT or when the text changed.
+            if (now.equals(saved.getLastModified())) changeFeed.record(saved, AnswerChangeType.ANSWER_SAVED);
+        } else {
+            // Identical autosave (no edit since the last one): nothing was written.
+            log.debug("[AnswerService] saveAnswer — unchanged, no write for submissionId={} questionId={}",
+                    submissionId, questionId);
+            saved = answerRepository.findBySubmissionIdAndQuestionId(submissionId, questionId)
+                    .orElseThrow(() -> new IllegalStateException(
+                            "Answer vanished during upsert: submissionId=" + submissionId + " questionId=" + questionId));
+        }
         log.info("[AnswerService] saveAnswer DONE — answerId={} submissionId={} questionId={} wordCount={}",
                 saved.getId(), submissionId, questionId, saved.getWordCount());
 
         return ApiResponse.success("Answer saved", toResponse(saved));
     }
 
+    /**
+     * Autosave mode of saveAnswer: queue the text in {@link AnswerAutosaveBuffer}
+     * and acknowledge without touching the database. A later autosave of the same
+     * question replaces this one before it is written.
+     *
+     * The returned AnswerResponse has no id or timestamps — the row may not exist yet.
+     */
+    public ApiResponse<AnswerResponse> bufferAnswer(String submissionId,
+                                                    String questionId,
+                                                    SaveAnswerRequest request) {
+        autosaveBuffer.accept(submissionId, questionId, request);
+        String answerText = request.getAnswerText();
+        log.debug("[AnswerService] bufferAnswer — submissionId={} questionId={} pending={}",
+                submissionId, questionId, autosaveBuffer.pendingCount());
+
+        return ApiResponse.success("Answer buffered", AnswerResponse.builder()
+                .submissionId(submissionId)
+                .questionId(questionId)
+                .studentId(request.getStudentId())
+                .answerText(answerText)
+                .wordCount(countWords(answerText))
+                .characterCount(answerText != null ? answerText.length() : 0)
+                .build());
+    }
+
     /**
      * Retrieve all answers for a submission, in question-ID order.
      *
@@ -128,81 +171,78 @@ public class AnswerService {
         String submissionId = submissionIdStr;
         log.info("[AnswerService] saveAnalysis — submissionId={} questionId={}", submissionId, questionId);
 
-        // If the answer row doesn't exist yet (feedback fired before the 5s auto-save),
-        // skip silently — the frontend will retry on the next typing event.
-        Answer answer = answerRepository
-                .findBySubmissionIdAndQuestionId(submissionId, questionId)
-                .orElse(null);
-        if (answer == null) {
-            log.info("[AnswerService] saveAnalysis SKIPPED — answer row not yet created for submissionId={} questionId={}", submissionId, questionId);
-            return ApiResponse.success("Skipped — answer not yet saved", null);
-        }
-
-        // Guard: only persist analysis if student has written at least one word
-        int wc = answer.getWordCount() != null ? answer.getWordCount() : 0;
-        if (wc < 1) {
-            log.info("[AnswerService] saveAnalysis SKIPPED — wordCount={} for questionId={}", wc, questionId);
-            return ApiResponse.success("Skipped — no answer text", toResponse(answer));
-        }
-
         // ── AI feedback fields ────────────────────────────────────────────────
         boolean hasFeedback = request.getGrammarScore() != null
                 || request.getClarityScore() != null
                 || request.getCompletenessScore() != null
                 || request.getRelevanceScore() != null;
 
+        // ── Plagiarism fields ─────────────────────────────────────────────────
+        boolean hasPlagiarism = request.getSimilarityScore() != null
+                || request.getPlagiarismSeverity() != null;
+
+        // ── AI-generated content detection ───────────────────────────────────
+        boolean hasAiDetection = request.getAiDetectionScore() != null;
+
+        LocalDateTime now = LocalDateTime.now();
+        AnswerRepositoryCustom.AnalysisUpdate update = new AnswerRepositoryCustom.AnalysisUpdate(
+                hasFeedback ? request.getGrammarScore() : null,
+                hasFeedback ? request.getClarityScore() : null,
+                hasFeedback ? request.getCompletenessScore() : null,
+                hasFeedback ? request.getRelevanceScore() : null,
+                hasFeedback ? joinPipe(request.getStrengths()) : null,
+                hasFeedback ? joinPipe(request.getImprovements()) : null,
+                hasFeedback ? joinPipe(request.getSuggestions()) : null,
+                hasFeedback ? now : null,
+                hasPlagiarism ? request.getSimilarityScore() : null,
+                hasPlagiarism ? request.getPlagiarismSeverity() : null,
+                hasPlagiarism ? request.getPlagiarismFlagged() : null,
+                hasPlagiarism ? request.getPlagiarismSources() : null,
+                hasPlagiarism ? now : null,
+                request.getAiDetectionScore(),
+                hasAiDetection ? request.getAiDetectionLabel() : null,
+                // ── AI earned mark / lecturer per-question marks ──────────────
+                request.getAiGeneratedMark(),
+                request.getLecturerMark(),
+                request.getLecturerFeedbackText());
+
+        // One UPDATE of only the supplied columns, guarded by wordCount >= 1, returning the row —
+        // no full-entity rewrite of the TEXT columns, and no lost update if two analyses overlap.
+        Answer saved = answerRepository.updateAnalysis(submissionId, questionId, update).orElse(null);
+        if (saved == null) {
+            // If the answer row doesn't exist yet (feedback fired before the 5s auto-save),
+            // skip silently — the frontend will retry on the next typing event.
+            Answer answer = answerRepository.findBySubmissionIdAndQuestionId(submissionId, questionId).orElse(null);
+            if (answer == null) {
+                log.info("[AnswerService] saveAnalysis SKIPPED — answer row not yet created for submissionId={} questionId={}", submissionId, questionId);
+                return ApiResponse.success("Skipped — answer not yet saved", null);
+            }
+            // Guard: only persist analysis if student has written at least one word
+            log.info("[AnswerService] saveAnalysis SKIPPED — wordCount={} for questionId={}", answer.getWordCount(), questionId);
+            return ApiResponse.success("Skipped — no answer text", toResponse(answer));
+        }
+
         if (hasFeedback) {
-            if (request.getGrammarScore()      != null) answer.setGrammarScore(request.getGrammarScore());
-            if (request.getClarityScore()      != null) answer.setClarityScore(request.getClarityScore());
-            if (request.getCompletenessScore() != null) answer.setCompletenessScore(request.getCompletenessScore());
-            if (request.getRelevanceScore()    != null) answer.setRelevanceScore(request.getRelevanceScore());
-            if (request.getStrengths()    != null) answer.setAiStrengths(String.join("||", request.getStrengths()));
-            if (request.getImprovements() != null) answer.setAiImprovements(String.join("||", request.getImprovements()));
-            if (request.getSuggestions()  != null) answer.setAiSuggestions(String.join("||", request.getSuggestions()));
-            answer.setFeedbackSavedAt(LocalDateTime.now());
             log.info("[AnswerService] saveAnalysis — AI feedback saved for questionId={} grammar={} clarity={} completeness={} relevance={}",
                     questionId, request.getGrammarScore(), request.getClarityScore(),
                     request.getCompletenessScore(), request.getRelevanceScore());
         }
-
-        // ── Plagiarism fields ─────────────────────────────────────────────────
-        boolean hasPlagiarism = request.getSimilarityScore() != null
-                || request.getPlagiarismSeverity() != null;
-
         if (hasPlagiarism) {
-            if (request.getSimilarityScore()   != null) answer.setSimilarityScore(request.getSimilarityScore());
-            if (request.getPlagiarismSeverity() != null) answer.setPlagiarismSeverity(request.getPlagiarismSeverity());
-            if (request.getPlagiarismFlagged()  != null) answer.setPlagiarismFlagged(request.getPlagiarismFlagged());
-            if (request.getPlagiarismSources()  != null) answer.setPlagiarismSources(request.getPlagiarismSources());
-            answer.setPlagiarismCheckedAt(LocalDateTime.now());
             log.info("[AnswerService] saveAnalysis — plagiarism saved for questionId={} score={} severity={} flagged={}",
                     questionId, request.getSimilarityScore(), request.getPlagiarismSeverity(), request.getPlagiarismFlagged());
         }
-
-        // ── AI-generated content detection ───────────────────────────────────
-        if (request.getAiDetectionScore() != null) {
-            answer.setAiDetectionScore(request.getAiDetectionScore());
-            if (request.getAiDetectionLabel() != null) answer.setAiDetectionLabel(request.getAiDetectionLabel());
+        if (hasAiDetection) {
             log.info("[AnswerService] saveAnalysis — aiDetectionScore={} label={} for questionId={}",
                     request.getAiDetectionScore(), request.getAiDetectionLabel(), questionId);
         }
-
-        // ── AI earned mark ────────────────────────────────────────────────────
         if (request.getAiGeneratedMark() != null) {
-            answer.setAiGeneratedMark(request.getAiGeneratedMark());
             log.info("[AnswerService] saveAnalysis — aiGeneratedMark={} saved for questionId={}", request.getAiGeneratedMark(), questionId);
         }
-
-        // ── Lecturer per-question marks ───────────────────────────────────────
         if (request.getLecturerMark() != null) {
-            answer.setLecturerMark(request.getLecturerMark());
             log.info("[AnswerService] saveAnalysis — lecturer mark={} saved for questionId={}", request.getLecturerMark(), questionId);
         }
-        if (request.getLecturerFeedbackText() != null) {
-            answer.setLecturerFeedbackText(request.getLecturerFeedbackText());
-        }
 
-        Answer saved = answerRepository.save(answer);
+        changeFeed.record(saved, AnswerChangeType.ANALYSIS_SAVED);
         log.info("[AnswerService] saveAnalysis DONE — answerId={} questionId={}", saved.getId(), questionId);
         return ApiResponse.success("Analysis saved", toResponse(saved));
     }
@@ -221,20 +261,22 @@ public class AnswerService {
      * @param questionId          ID of the question to look up
      * @param excludeStudentId    Student to exclude (all their answers removed), or null
      * @param excludeSubmissionId Fallback: specific submission to exclude, or null
+     * @param limit               Maximum number of most-recent answers; must be positive
      * @return ApiResponse containing the list of peer AnswerResponse DTOs
      */
     @Transactional(readOnly = true)
     public ApiResponse<List<AnswerResponse>> getAnswersByQuestion(String questionId,
                                                                    String excludeStudentId,
-                                                                   String excludeSubmissionId) {
-        log.info("[AnswerService] getAnswersByQuestion — questionId={} excludeStudentId={} excludeSubmissionId={}",
-                questionId, excludeStudentId, excludeSubmissionId);
-
-        // Cap at 200 most-recent peer answers — enough for meaningful plagiarism
-        // comparison without loading the full table as student count grows.
-        final int PEER_COMPARISON_LIMIT = 200;
-        List<Answer> answers = answerRepository.findByQuestionId(
-                questionId, PageRequest.of(0, PEER_COMPARISON_LIMIT));
+                                                                   String excludeSubmissionId,
+                                                                   int limit) {
+        log.info("[AnswerService] getAnswersByQuestion — questionId={} excludeStudentId={} excludeSubmissionId={} limit={}",
+                questionId, excludeStudentId, excludeSubmissionId, limit);
+
+        // Always capped: a full per-question read is served by the NDJSON /peer-stream instead.
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive; stream all answers via /api/answers/peer-stream");
+        }
+        List<Answer> answers = answerRepository.findByQuestionId(questionId, PageRequest.of(0, limit));
 
         List<AnswerResponse> responses = answers.stream()
                 .filter(a -> {
@@ -257,12 +299,96 @@ public class AnswerService {
         return ApiResponse.success(responses);
     }
 
+    /**
+     * Write every answer of every submission of an assignment to {@code out} as
+     * NDJSON — one {@link PeerAnswerRow} per line, in (questionId, answerId) order —
+     * the same lean rows and streaming as {@link #streamPeerAnswers}.
+     *
+     * Used exclusively by the integrity-monitoring-service for assignment-wide
+     * plagiarism sweeps — not exposed to frontend clients.
+     *
+     * @param assignmentId  Assignment whose answers to stream
+     * @param out           Response body; flushed periodically, not closed
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long streamAssignmentAnswers(String assignmentId, OutputStream out) throws IOException {
+        log.info("[AnswerService] streamAssignmentAnswers — assignmentId={}", assignmentId);
+
+        long written;
+        try (Stream<PeerAnswerRow> rows = answerRepository.streamAssignmentAnswers(assignmentId)) {
+            written = writeRows(rows, out);
+        }
+
+        log.info("[AnswerService] streamAssignmentAnswers DONE — wrote {} rows for assignmentId={}", written, assignmentId);
+        return written;
+    }
+
+    /**
+     * Write the answers of the given questions to {@code out} as NDJSON — one
+     * {@link PeerAnswerRow} object per line, in (lastModified, answerId) order,
+     * starting strictly after the cursor (since, afterId).
+     *
+     * Rows are read from a streaming cursor and written as they arrive, so memory
+     * stays flat however many answers a question has. Blank answers are included
+     * so an incremental consumer sees an answer being cleared. The last line's
+     * (lastModified, answerId) is the cursor for the next call.
+     *
+     * Used exclusively by the integrity-monitoring-service to load and refresh its
+     * resident peer index — not exposed to frontend clients.
+     *
+     * @param questionIds  Questions whose answers to stream
+     * @param since        lastModified of the cursor, or null to start from the beginning
+     * @param afterId      Answer ID of the cursor (ties on lastModified)
+     * @param limit        Maximum rows to write; 0 or less for all
+     * @param out          Response body; flushed periodically, not closed
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long streamPeerAnswers(Collection<String> questionIds,
+                                  LocalDateTime since,
+                                  long afterId,
+                                  int limit,
+                                  OutputStream out) throws IOException {
+        log.info("[AnswerService] streamPeerAnswers — questionIds={} since={} afterId={} limit={}",
+                questionIds, since, afterId, limit);
+
+        long written;
+        try (Stream<PeerAnswerRow> rows = answerRepository.streamPeerAnswers(
+                questionIds,
+                since != null ? since : STREAM_EPOCH,
+                since != null ? afterId : 0L,
+                limit > 0 ? Limit.of(limit) : Limit.unlimited())) {
+            written = writeRows(rows, out);
+        }
+
+        log.info("[AnswerService] streamPeerAnswers DONE — wrote {} rows for questionIds={}", written, questionIds);
+        return written;
+    }
+
+    /** Write each row as one NDJSON line, flushing every STREAM_FLUSH_EVERY rows. */
+    private long writeRows(Stream<PeerAnswerRow> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(PeerAnswerRow.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long written = 0;
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (PeerAnswerRow row : (Iterable<PeerAnswerRow>) rows::iterator) {
+                writer.writeValue(gen, row);
+                gen.writeRaw('\n');
+                if (++written % STREAM_FLUSH_EVERY == 0) gen.flush();
+            }
+        }
+        return written;
+    }
+
     // ── Mapping helper ──────────────────────────────────────────────────────────
 
     private AnswerResponse toResponse(Answer a) {
         return AnswerResponse.builder()
                 .id(a.getId())
                 .submissionId(a.getSubmissionId())
+                .studentId(a.getStudentId())
                 .questionId(a.getQuestionId())
                 .questionText(a.getQuestionText())
                 .answerText(a.getAnswerText())
@@ -302,6 +428,10 @@ public class AnswerService {
         return AnswerScoreUtils.splitPipe(value);
     }
 
+    private static String joinPipe(List<String> values) {
+        return values != null ? String.join("||", values) : null;
+    }
+
     /**
      * Count words in a plain-text string by splitting on whitespace.
      * Returns 0 for null or blank input.
@@ -0,0 +1,81 @@
+package com.smartlms.submission_management_service.service;
+
+import com.smartlms.submission_management_service.dto.response.GradingPageResponse;
+import com.smartlms.submission_management_service.dto.response.GradingRowResponse;
+import com.smartlms.submission_management_service.model.SubmissionStatus;
+import com.smartlms.submission_management_service.repository.SubmissionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Lecturer grading table for one assignment.
+ *
+ * Pages are keyset-paginated on (submittedAt, id), newest first, and read as
+ * slim projections (GradingRowResponse), so a page costs the same for the
+ * first and the last of 1,500 submissions and never loads the TEXT columns
+ * of the Submission entity.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GradingWorkbenchService {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+
+    /** Cursor of the first page: after every real (submittedAt, id). */
+    static final LocalDateTime FIRST_PAGE_SUBMITTED_AT = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    /**
+     * Answer similarity from which a submission counts as flagged, on the 0-100
+     * scale stored in answers.similarity_score and submissions.plagiarism_score.
+     * The same cut-off as the lecturer dashboards and plagiarism reports, which
+     * flag an answer when plagiarismFlagged is set or its similarity is >= 20.
+     */
+    public static final double FLAGGED_SIMILARITY_SCORE = 20.0;
+
+    private final SubmissionRepository submissionRepository;
+
+    /**
+     * One page of the assignment's submitted work.
+     *
+     * @param afterSubmittedAt cursor from the previous page's nextSubmittedAt; null for the first page
+     * @param afterId          cursor from the previous page's nextId; ignored without afterSubmittedAt
+     * @param status           optional status filter
+     * @param flagged          optional: only flagged (true) or only unflagged (false) submissions — status
+     *                         FLAGGED, an answer with plagiarismFlagged set, or a plagiarism score at or
+     *                         above {@value #FLAGGED_SIMILARITY_SCORE}
+     * @param late             optional: only late (true) or only on-time (false) submissions
+     * @param limit            page size, capped at {@value #MAX_PAGE_SIZE}
+     */
+    @Transactional(readOnly = true)
+    public GradingPageResponse getGradingPage(String assignmentId, LocalDateTime afterSubmittedAt, Long afterId,
+                                              SubmissionStatus status, Boolean flagged, Boolean late, int limit) {
+        int pageSize = limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        LocalDateTime cursorAt = afterSubmittedAt != null ? afterSubmittedAt : FIRST_PAGE_SUBMITTED_AT;
+        long cursorId = afterSubmittedAt != null && afterId != null ? afterId : Long.MAX_VALUE;
+
+        // One extra row tells whether another page exists without a COUNT query
+        List<GradingRowResponse> rows = submissionRepository.findGradingPage(
+                assignmentId, cursorAt, cursorId, status, late, flagged, FLAGGED_SIMILARITY_SCORE,
+                Limit.of(pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) rows = rows.subList(0, pageSize);
+        GradingRowResponse last = hasMore ? rows.get(rows.size() - 1) : null;
+
+        log.debug("[GradingWorkbench] assignmentId={} rows={} hasMore={}", assignmentId, rows.size(), hasMore);
+        return GradingPageResponse.builder()
+                .rows(rows)
+                .nextSubmittedAt(last != null ? last.getSubmittedAt() : null)
+                .nextId(last != null ? last.getId() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+}
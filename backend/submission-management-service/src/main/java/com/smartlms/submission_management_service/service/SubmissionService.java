@@ -2,8 +2,10 @@ package com.smartlms.submission_management_service.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartlms.submission_management_service.dto.request.BulkGradeRequest;
 import com.smartlms.submission_management_service.dto.request.GradeRequest;
 import com.smartlms.submission_management_service.dto.request.SubmissionRequest;
+import com.smartlms.submission_management_service.dto.response.BulkGradeResponse;
 import com.smartlms.submission_management_service.dto.response.SubmissionResponse;
 import com.smartlms.submission_management_service.exception.AccessDeniedException;
 import com.smartlms.submission_management_service.exception.DeadlineNotPassedException;
@@ -13,6 +15,7 @@ import com.smartlms.submission_management_service.model.Submission;
 import com.smartlms.submission_management_service.model.SubmissionStatus;
 import com.smartlms.submission_management_service.model.SubmissionType;
 import com.smartlms.submission_management_service.repository.AnswerRepository;
+import com.smartlms.submission_management_service.repository.LecturerQuestionGrade;
 import com.smartlms.submission_management_service.repository.SubmissionRepository;
 import com.smartlms.submission_management_service.util.AnswerScoreUtils;
 import lombok.RequiredArgsConstructor;
@@ -293,12 +296,12 @@ public class SubmissionService {
                 submitted.getAiScore(), submitted.getPlagiarismScore());
 
         // ── Internal snapshot — same @Transactional: rolls back together ──────────
-        versionService.createVersionSnapshot(submitted, answers);
+        versionService.createVersionSnapshot(submitted);
 
-        // ── Async replication to version-control-service (fire-and-forget) ───────
-        // Runs in a background thread AFTER this transaction commits.
-        // Failure never affects the student's submit response.
-        versionSyncService.syncTextSnapshot(submitted, answers);
+        // ── Replication to version-control-service via the outbox ────────────────
+        // Queued in this transaction; VersionSyncRelay delivers it after commit,
+        // with retries. Delivery never affects the student's submit response.
+        versionSyncService.enqueueTextSnapshot(submitted, answers);
 
         return convertToResponse(submitted);
     }
@@ -323,55 +326,30 @@ public class SubmissionService {
         Submission submission = submissionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Submission not found with ID: " + id));
 
+        LocalDateTime now = LocalDateTime.now();
+
         // ── Deadline enforcement ──────────────────────────────────────────────
-        if (submission.getDueDate() != null
-                && !LocalDateTime.now().isAfter(submission.getDueDate())) {
+        if (!deadlinePassed(submission, now)) {
             throw new DeadlineNotPassedException(
                     "Assignment deadline has not passed yet. Lecturer marks and feedback "
                     + "cannot be changed before the deadline. The current grade is AI-generated.");
         }
 
         Double grade = request.getGrade();
-        if (grade != null && submission.getMaxGrade() != null && grade > submission.getMaxGrade()) {
+        if (exceedsMaxGrade(submission, grade)) {
             throw new IllegalArgumentException("Grade cannot exceed maximum grade of " + submission.getMaxGrade());
         }
 
-        LocalDateTime now        = LocalDateTime.now();
-        String        lecturerId = request.getLecturerId();
+        String lecturerId = request.getLecturerId();
 
         // ── Update submission-level fields ────────────────────────────────────
-        if (grade != null) submission.setLecturerGrade(grade);
-        if (request.getLecturerFeedback() != null) submission.setFeedbackText(request.getLecturerFeedback());
-        submission.setLecturerOverriddenAt(now);
-        submission.setLecturerOverriddenBy(lecturerId);
-        submission.setStatus(SubmissionStatus.GRADED);
-
-        if (request.getQuestionScores() != null && !request.getQuestionScores().isEmpty()) {
-            try {
-                submission.setQuestionMarksJson(objectMapper.writeValueAsString(request.getQuestionScores()));
-            } catch (JsonProcessingException e) {
-                log.warn("Failed to serialise questionScores for submission {}: {}", id, e.getMessage());
-            }
-        }
+        applyLecturerGrade(submission, grade, request.getLecturerFeedback(), request.getQuestionScores(),
+                lecturerId, now);
 
-        // ── Update working-copy Answer rows ───────────────────────────────────
-        Map<String, Double> scores    = request.getQuestionScores()    != null ? request.getQuestionScores()    : Map.of();
-        Map<String, String> feedbacks = request.getQuestionFeedbacks() != null ? request.getQuestionFeedbacks() : Map.of();
-
-        Set<String> allQuestionIds = new HashSet<>();
-        allQuestionIds.addAll(scores.keySet());
-        allQuestionIds.addAll(feedbacks.keySet());
-
-        for (String questionId : allQuestionIds) {
-            answerRepository.findBySubmissionIdAndQuestionId(String.valueOf(id), questionId)
-                    .ifPresent(answer -> {
-                        if (scores.containsKey(questionId))    answer.setLecturerMark(scores.get(questionId));
-                        if (feedbacks.containsKey(questionId)) answer.setLecturerFeedbackText(feedbacks.get(questionId));
-                        answer.setLecturerUpdatedAt(now);
-                        answer.setLecturerUpdatedBy(lecturerId);
-                        answerRepository.save(answer);
-                    });
-        }
+        // ── Update working-copy Answer rows (one set-based UPDATE) ────────────
+        answerRepository.updateLecturerGrades(
+                LecturerQuestionGrade.of(id, request.getQuestionScores(), request.getQuestionFeedbacks()),
+                now, lecturerId);
 
         Submission graded = submissionRepository.save(submission);
 
@@ -382,6 +360,106 @@ public class SubmissionService {
         return convertToResponse(graded);
     }
 
+    /**
+     * Grades many submissions in one transaction (e.g. a cohort imported from a
+     * spreadsheet), with the same rules as gradeSubmission per entry.
+     *
+     * Instead of a SELECT + UPDATE per question per submission, the writes are:
+     *   - one SELECT for all submissions; their fields are updated as managed
+     *     entities and flushed on commit as one JDBC batch;
+     *   - set-based UPDATE ... FROM (VALUES ...) for all answers, and again for the
+     *     latest version_answers (chunks of 1000 rows);
+     *   - one SELECT + batched UPDATE for the latest versions' overall grades.
+     *
+     * Entries that break a rule (unknown submission, deadline not passed, grade
+     * above max) are skipped and reported; the rest are applied. A missing or
+     * repeated submissionId rejects the whole request.
+     */
+    @Transactional
+    public BulkGradeResponse bulkGradeSubmissions(BulkGradeRequest request) {
+        List<BulkGradeRequest.Entry> entries = request.getGrades() != null ? request.getGrades() : List.of();
+        String        lecturerId = request.getLecturerId();
+        LocalDateTime now        = LocalDateTime.now();
+
+        Set<Long> ids = new HashSet<>();
+        for (BulkGradeRequest.Entry entry : entries) {
+            if (entry.getSubmissionId() == null) {
+                throw new IllegalArgumentException("Every grade entry needs a submissionId");
+            }
+            if (!ids.add(entry.getSubmissionId())) {
+                throw new IllegalArgumentException("Submission " + entry.getSubmissionId() + " appears more than once");
+            }
+        }
+
+        Map<Long, Submission> submissions = submissionRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Submission::getId, s -> s));
+
+        List<BulkGradeResponse.Skipped> skipped        = new ArrayList<>();
+        List<LecturerQuestionGrade>     questionGrades = new ArrayList<>();
+        Map<Long, Double>               versionGrades  = new HashMap<>();
+
+        for (BulkGradeRequest.Entry entry : entries) {
+            Submission submission = submissions.get(entry.getSubmissionId());
+            String reason = submission == null                          ? "Submission not found"
+                    : !deadlinePassed(submission, now)                  ? "Assignment deadline has not passed yet"
+                    : exceedsMaxGrade(submission, entry.getGrade())     ? "Grade cannot exceed maximum grade of " + submission.getMaxGrade()
+                    : null;
+            if (reason != null) {
+                skipped.add(new BulkGradeResponse.Skipped(entry.getSubmissionId(), reason));
+                continue;
+            }
+
+            applyLecturerGrade(submission, entry.getGrade(), entry.getLecturerFeedback(), entry.getQuestionScores(),
+                    lecturerId, now);
+            questionGrades.addAll(LecturerQuestionGrade.of(
+                    submission.getId(), entry.getQuestionScores(), entry.getQuestionFeedbacks()));
+            if (entry.getGrade() != null) versionGrades.put(submission.getId(), entry.getGrade());
+        }
+
+        int answersUpdated = questionGrades.isEmpty() ? 0
+                : answerRepository.updateLecturerGrades(questionGrades, now, lecturerId);
+        int versionAnswersUpdated = versionService.gradeLatestVersions(versionGrades, questionGrades, lecturerId, now);
+
+        int graded = entries.size() - skipped.size();
+        log.info("Bulk grading by={}: {} graded, {} skipped, {} answers, {} version answers",
+                lecturerId, graded, skipped.size(), answersUpdated, versionAnswersUpdated);
+
+        return BulkGradeResponse.builder()
+                .graded(graded)
+                .answersUpdated(answersUpdated)
+                .versionAnswersUpdated(versionAnswersUpdated)
+                .skipped(skipped)
+                .build();
+    }
+
+    // ── Grading helpers ───────────────────────────────────────────────────────
+
+    private static boolean deadlinePassed(Submission submission, LocalDateTime now) {
+        return submission.getDueDate() == null || now.isAfter(submission.getDueDate());
+    }
+
+    private static boolean exceedsMaxGrade(Submission submission, Double grade) {
+        return grade != null && submission.getMaxGrade() != null && grade > submission.getMaxGrade();
+    }
+
+    /** Submission-level lecturer override; the AI grade is never touched. */
+    private void applyLecturerGrade(Submission submission, Double grade, String feedback,
+                                    Map<String, Double> questionScores, String lecturerId, LocalDateTime now) {
+        if (grade != null) submission.setLecturerGrade(grade);
+        if (feedback != null) submission.setFeedbackText(feedback);
+        submission.setLecturerOverriddenAt(now);
+        submission.setLecturerOverriddenBy(lecturerId);
+        submission.setStatus(SubmissionStatus.GRADED);
+
+        if (questionScores != null && !questionScores.isEmpty()) {
+            try {
+                submission.setQuestionMarksJson(objectMapper.writeValueAsString(questionScores));
+            } catch (JsonProcessingException e) {
+                log.warn("Failed to serialise questionScores for submission {}: {}", submission.getId(), e.getMessage());
+            }
+        }
+    }
+
     // ─────────────────────────────────────────────────────────────────────────
     // Conversion
     // ─────────────────────────────────────────────────────────────────────────
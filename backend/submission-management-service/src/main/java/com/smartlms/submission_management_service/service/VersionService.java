@@ -4,6 +4,7 @@ import com.smartlms.submission_management_service.dto.request.GradeRequest;
 import com.smartlms.submission_management_service.dto.request.SavePlagiarismSourcesRequest;
 import com.smartlms.submission_management_service.dto.response.VersionAnswerResponse;
 import com.smartlms.submission_management_service.dto.response.VersionPlagiarismSourceResponse;
+import com.smartlms.submission_management_service.dto.response.VersionPlagiarismSourceRow;
 import com.smartlms.submission_management_service.dto.response.VersionResponse;
 import com.smartlms.submission_management_service.exception.DeadlineNotPassedException;
 import com.smartlms.submission_management_service.exception.ResourceNotFoundException;
@@ -26,6 +27,9 @@ import java.util.stream.Collectors;
  *   - createVersionSnapshot() is called inside the same @Transactional context
  *     as submitSubmission(), so if snapshot creation fails the whole submit rolls back.
  *   - All read methods use readOnly transactions.
+ *   - Detail reads are bounded: versions + answers come from one join-fetch query
+ *     and every plagiarism source from one flat projection query, however many
+ *     versions and answers there are.
  *   - gradeVersionAnswers() writes lecturer overrides only to version_answers rows
  *     on the LATEST version; it must be called after deadline enforcement.
  *   - Older versions are NEVER modified.
@@ -49,11 +53,15 @@ public class VersionService {
      * Must be called INSIDE the submitSubmission @Transactional context so that
      * a failure here rolls back the entire submit operation.
      *
+     * The answer rows are copied from the answers table by a single INSERT ... SELECT,
+     * so a 40-question submit costs two statements (header + answers) rather than 41.
+     * Each answer's aiGeneratedMark must already be set (submitSubmission does this);
+     * pending entity changes are flushed before the copy.
+     *
      * @param submission The saved Submission entity (with updated versionNumber/metrics).
-     * @param answers    All Answer rows for this submission at submit time.
      */
     @Transactional
-    public VersionResponse createVersionSnapshot(Submission submission, List<Answer> answers) {
+    public VersionResponse createVersionSnapshot(Submission submission) {
         int versionNumber = submission.getVersionNumber(); // already incremented by submission.submit()
 
         // Idempotency guard: never create a duplicate version
@@ -85,42 +93,16 @@ public class VersionService {
 
         SubmissionVersion savedVersion = versionRepository.save(version);
 
-        // ── Build version answer rows ─────────────────────────────────────────
-        List<VersionAnswer> versionAnswers = new ArrayList<>();
-        for (Answer a : answers) {
-            VersionAnswer va = VersionAnswer.builder()
-                    .version(savedVersion)
-                    .questionId(a.getQuestionId())
-                    .questionText(a.getQuestionText())
-                    .answerText(a.getAnswerText())
-                    .wordCount(a.getWordCount())
-                    .characterCount(a.getCharacterCount())
-                    .maxPoints(a.getMaxPoints())
-                    // AI feedback snapshot
-                    .grammarScore(a.getGrammarScore())
-                    .clarityScore(a.getClarityScore())
-                    .completenessScore(a.getCompletenessScore())
-                    .relevanceScore(a.getRelevanceScore())
-                    .aiStrengths(a.getAiStrengths())
-                    .aiImprovements(a.getAiImprovements())
-                    .aiSuggestions(a.getAiSuggestions())
-                    .aiGeneratedMark(computeAiMark(a))
-                    // Plagiarism summary snapshot
-                    .similarityScore(a.getSimilarityScore())
-                    .plagiarismSeverity(a.getPlagiarismSeverity())
-                    .plagiarismFlagged(a.getPlagiarismFlagged())
-                    .plagiarismCheckedAt(a.getPlagiarismCheckedAt())
-                    // Lecturer fields start null — filled post-deadline on latest version only
-                    .build();
-            versionAnswers.add(versionAnswerRepository.save(va));
-        }
-
-        savedVersion.setAnswers(versionAnswers);
+        // ── Copy the answers in one set-based INSERT ... SELECT ──────────────
+        int answerCount = versionAnswerRepository.insertSnapshotFromAnswers(
+                savedVersion.getId(), String.valueOf(submission.getId()));
 
         log.info("Version snapshot created: id={} submissionId={} versionNumber={} answerCount={}",
-                savedVersion.getId(), submission.getId(), versionNumber, versionAnswers.size());
+                savedVersion.getId(), submission.getId(), versionNumber, answerCount);
 
-        return toVersionResponse(savedVersion, true);
+        // Freshly snapshotted answers have no plagiarism sources yet
+        return toVersionResponse(savedVersion,
+                versionAnswerRepository.findByVersionIdOrderByQuestionId(savedVersion.getId()), Map.of());
     }
 
     // ─────────────────────────────────────────────────────────────────────────
@@ -135,24 +117,33 @@ public class VersionService {
     public List<VersionResponse> getVersions(Long submissionId) {
         return versionRepository.findBySubmissionIdOrderByVersionNumberDesc(submissionId)
                 .stream()
-                .map(v -> toVersionResponse(v, false))
+                .map(v -> toVersionResponse(v, null, Map.of()))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns every version of a submission (newest first) WITH answers and plagiarism
+     * sources. Used by lecturer dashboards; two queries regardless of version count.
+     */
+    @Transactional(readOnly = true)
+    public List<VersionResponse> getVersionHistory(Long submissionId) {
+        return toDetailedResponses(versionRepository.findWithAnswersBySubmissionId(submissionId));
+    }
+
     /**
      * Returns the full version detail (header + all answers + plagiarism sources).
      * Used for report pages.
      */
     @Transactional(readOnly = true)
     public VersionResponse getVersion(Long submissionId, Long versionId) {
-        SubmissionVersion version = versionRepository.findById(versionId)
+        SubmissionVersion version = versionRepository.findWithAnswersById(versionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Version not found: " + versionId));
 
         if (!version.getSubmissionId().equals(submissionId)) {
             throw new ResourceNotFoundException("Version " + versionId + " does not belong to submission " + submissionId);
         }
 
-        return toVersionResponse(version, true);
+        return toDetailedResponses(List.of(version)).get(0);
     }
 
     /**
@@ -161,10 +152,10 @@ public class VersionService {
      */
     @Transactional(readOnly = true)
     public VersionResponse getLatestVersion(Long submissionId) {
-        SubmissionVersion version = versionRepository.findLatestBySubmissionId(submissionId)
+        SubmissionVersion version = versionRepository.findLatestWithAnswersBySubmissionId(submissionId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "No versions found for submission: " + submissionId));
-        return toVersionResponse(version, true);
+        return toDetailedResponses(List.of(version)).get(0);
     }
 
     // ─────────────────────────────────────────────────────────────────────────
@@ -242,25 +233,13 @@ public class VersionService {
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "No versions found for submission: " + submissionId));
 
-        Map<String, Double>  scores    = request.getQuestionScores()    != null ? request.getQuestionScores()    : Map.of();
-        Map<String, String>  feedbacks = request.getQuestionFeedbacks() != null ? request.getQuestionFeedbacks() : Map.of();
-        String               lecturerId = request.getLecturerId();
-        LocalDateTime        now        = LocalDateTime.now();
-
-        Set<String> allQuestionIds = new HashSet<>();
-        allQuestionIds.addAll(scores.keySet());
-        allQuestionIds.addAll(feedbacks.keySet());
-
-        for (String questionId : allQuestionIds) {
-            versionAnswerRepository.findByVersionIdAndQuestionId(latest.getId(), questionId)
-                    .ifPresent(va -> {
-                        if (scores.containsKey(questionId))    va.setLecturerMark(scores.get(questionId));
-                        if (feedbacks.containsKey(questionId)) va.setLecturerFeedbackText(feedbacks.get(questionId));
-                        va.setLecturerUpdatedAt(now);
-                        va.setLecturerUpdatedBy(lecturerId);
-                        versionAnswerRepository.save(va);
-                    });
-        }
+        String        lecturerId = request.getLecturerId();
+        LocalDateTime now        = LocalDateTime.now();
+
+        // One set-based UPDATE for all questions instead of a SELECT + UPDATE per question
+        versionAnswerRepository.updateLatestLecturerGrades(
+                LecturerQuestionGrade.of(submissionId, request.getQuestionScores(), request.getQuestionFeedbacks()),
+                now, lecturerId);
 
         // Store the explicit overall grade on the version so toVersionResponse()
         // can use it directly instead of re-deriving it from per-question marks.
@@ -273,20 +252,76 @@ public class VersionService {
                 latest.getId(), submissionId, lecturerId);
     }
 
+    /**
+     * Bulk counterpart of gradeVersionAnswers for many submissions at once: the
+     * per-question overrides go out as set-based UPDATEs against each submission's
+     * latest version, and the overall grades are set on the latest version rows
+     * (loaded in one query, written back as one JDBC batch). Submissions without
+     * any version are skipped silently. Same caller-side deadline rule applies.
+     *
+     * @param grades          overall lecturer grade per submissionId (only non-null grades)
+     * @param questionGrades  per-question overrides across all submissions
+     * @return number of version answers updated
+     */
+    @Transactional
+    public int gradeLatestVersions(Map<Long, Double> grades, List<LecturerQuestionGrade> questionGrades,
+                                   String lecturerId, LocalDateTime now) {
+        int updated = questionGrades.isEmpty() ? 0
+                : versionAnswerRepository.updateLatestLecturerGrades(questionGrades, now, lecturerId);
+
+        if (!grades.isEmpty()) {
+            for (SubmissionVersion latest : versionRepository.findLatestBySubmissionIdIn(grades.keySet())) {
+                latest.setLecturerGrade(grades.get(latest.getSubmissionId()));
+            }
+        }
+
+        log.info("Lecturer grades written to latest versions: {} overall grades, {} version answers, by={}",
+                grades.size(), updated, lecturerId);
+        return updated;
+    }
+
     // ─────────────────────────────────────────────────────────────────────────
     // Conversion helpers
     // ─────────────────────────────────────────────────────────────────────────
 
-    private VersionResponse toVersionResponse(SubmissionVersion v, boolean includeAnswers) {
+    /**
+     * Maps versions whose answers are already loaded (join fetch), attaching the
+     * plagiarism sources of all of them from a single query.
+     */
+    private List<VersionResponse> toDetailedResponses(List<SubmissionVersion> versions) {
+        Map<Long, List<VersionPlagiarismSourceResponse>> sources = loadSources(versions);
+        return versions.stream()
+                .map(v -> toVersionResponse(v, v.getAnswers(), sources))
+                .collect(Collectors.toList());
+    }
+
+    /** All plagiarism sources of the given versions, grouped by version answer id. */
+    private Map<Long, List<VersionPlagiarismSourceResponse>> loadSources(List<SubmissionVersion> versions) {
+        List<Long> versionIds = versions.stream()
+                .filter(v -> !v.getAnswers().isEmpty())
+                .map(SubmissionVersion::getId)
+                .collect(Collectors.toList());
+        if (versionIds.isEmpty()) return Map.of();
+
+        return plagiarismSourceRepository.findRowsByVersionIds(versionIds).stream()
+                .collect(Collectors.groupingBy(VersionPlagiarismSourceRow::getVersionAnswerId,
+                        Collectors.mapping(VersionService::toSourceResponse, Collectors.toList())));
+    }
+
+    /**
+     * @param answers         the version's answers, or null for a header-only response
+     * @param sourcesByAnswer plagiarism sources keyed by version answer id
+     */
+    private VersionResponse toVersionResponse(SubmissionVersion v, List<VersionAnswer> answers,
+                                              Map<Long, List<VersionPlagiarismSourceResponse>> sourcesByAnswer) {
         List<VersionAnswerResponse> answerResponses = null;
         boolean hasLecturerOverride = false;
         boolean partiallyGraded = false;
         Double finalGrade = v.getAiGrade();
 
-        if (includeAnswers) {
-            List<VersionAnswer> answers = versionAnswerRepository.findByVersionIdOrderByQuestionId(v.getId());
+        if (answers != null) {
             answerResponses = answers.stream()
-                    .map(this::toVersionAnswerResponse)
+                    .map(va -> toVersionAnswerResponse(va, sourcesByAnswer.getOrDefault(va.getId(), List.of())))
                     .collect(Collectors.toList());
 
             // Use the stored lecturer grade if available; fall back to per-question
@@ -335,21 +370,20 @@ public class VersionService {
                 .build();
     }
 
-    private VersionAnswerResponse toVersionAnswerResponse(VersionAnswer va) {
-        List<VersionPlagiarismSourceResponse> sources = plagiarismSourceRepository
-                .findByVersionAnswerId(va.getId())
-                .stream()
-                .map(s -> VersionPlagiarismSourceResponse.builder()
-                        .id(s.getId())
-                        .sourceUrl(s.getSourceUrl())
-                        .sourceTitle(s.getSourceTitle())
-                        .sourceSnippet(s.getSourceSnippet())
-                        .matchedText(s.getMatchedText())
-                        .similarityPercentage(s.getSimilarityPercentage())
-                        .detectedAt(formatUtc(s.getDetectedAt()))
-                        .build())
-                .collect(Collectors.toList());
+    private static VersionPlagiarismSourceResponse toSourceResponse(VersionPlagiarismSourceRow s) {
+        return VersionPlagiarismSourceResponse.builder()
+                .id(s.getId())
+                .sourceUrl(s.getSourceUrl())
+                .sourceTitle(s.getSourceTitle())
+                .sourceSnippet(s.getSourceSnippet())
+                .matchedText(s.getMatchedText())
+                .similarityPercentage(s.getSimilarityPercentage())
+                .detectedAt(formatUtc(s.getDetectedAt()))
+                .build();
+    }
 
+    private VersionAnswerResponse toVersionAnswerResponse(VersionAnswer va,
+                                                          List<VersionPlagiarismSourceResponse> sources) {
         return VersionAnswerResponse.builder()
                 .id(va.getId())
                 .versionId(va.getVersion().getId())
@@ -380,16 +414,6 @@ public class VersionService {
                 .build();
     }
 
-    /**
-     * Weighted AI mark (0–10). Mirrors the formula in SubmissionService.
-     * Weights: relevance 40%, completeness 30%, clarity 15%, grammar 15%.
-     */
-    private Double computeAiMark(Answer a) {
-        // Prefer the pre-computed mark stored on the answer (set by AnswerService at analysis time).
-        if (a.getAiGeneratedMark() != null) return a.getAiGeneratedMark();
-        return AnswerScoreUtils.computeWeightedMark(a);
-    }
-
     private String buildCommitMessage(Submission s) {
         String title = s.getAssignmentTitle() != null ? s.getAssignmentTitle() : "Submission";
         return title + " — v" + s.getVersionNumber();
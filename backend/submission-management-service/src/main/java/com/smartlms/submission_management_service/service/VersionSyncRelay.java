@@ -0,0 +1,262 @@
+package com.smartlms.submission_management_service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartlms.submission_management_service.repository.VersionSyncOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.RestTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consumer side of the version_sync_outbox: delivers queued text snapshots to
+ * version-control-service POST /api/versions/text-snapshots.
+ *
+ * Each run claims up to {@code batch-size} due rows with FOR UPDATE SKIP
+ * LOCKED and pushes their nextAttemptAt out by {@code lease-ms}, so concurrent
+ * relays (several instances) never send the same row twice at once, and a row
+ * claimed by a relay that dies is picked up again once the lease runs out.
+ * The claim commits before the HTTP call; no transaction is held open across it.
+ *
+ * Delivery is at-least-once. The receiver is idempotent on
+ * (submissionId, versionNumber), so CREATED and DUPLICATE both mean
+ * delivered. FAILED rows — and every row of a request that failed as a
+ * whole — are retried with exponential backoff and jitter, capped at
+ * {@code max-backoff-ms}. Rows are never dropped; persistent failures are
+ * visible through {@link #pendingCount()} and the last_error column.
+ */
+@Service
+@Slf4j
+public class VersionSyncRelay {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private static final String CLAIM_SQL =
+            "UPDATE submission_schema.version_sync_outbox SET next_attempt_at = ? " +
+            "WHERE id IN (" +
+            "  SELECT id FROM submission_schema.version_sync_outbox " +
+            "  WHERE sent_at IS NULL AND next_attempt_at <= ? " +
+            "  ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, submission_id, version_number, payload, attempts";
+
+    private static final String MARK_SENT_SQL =
+            "UPDATE submission_schema.version_sync_outbox SET sent_at = ?, last_error = NULL WHERE id = ?";
+
+    private static final String MARK_FAILED_SQL =
+            "UPDATE submission_schema.version_sync_outbox " +
+            "SET attempts = attempts + 1, next_attempt_at = ?, last_error = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final VersionSyncOutboxRepository outboxRepository;
+    private final String vcsUrl;
+    private final int batchSize;
+    private final long leaseMs;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+
+    @Value("${version.sync.retention-days:7}")
+    private int retentionDays;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+
+    public VersionSyncRelay(JdbcTemplate jdbcTemplate,
+                            RestTemplate restTemplate,
+                            ObjectMapper objectMapper,
+                            VersionSyncOutboxRepository outboxRepository,
+                            @Value("${version.service.url:http://localhost:8082}") String vcsUrl,
+                            @Value("${version.sync.batch-size:50}") int batchSize,
+                            @Value("${version.sync.lease-ms:60000}") long leaseMs,
+                            @Value("${version.sync.base-backoff-ms:5000}") long baseBackoffMs,
+                            @Value("${version.sync.max-backoff-ms:600000}") long maxBackoffMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.outboxRepository = outboxRepository;
+        this.vcsUrl = vcsUrl;
+        this.batchSize = batchSize;
+        this.leaseMs = leaseMs;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    /** One claimed outbox row. */
+    private record Claimed(long id, long submissionId, int versionNumber, String payload, int attempts) {
+        String key() {
+            return submissionId + ":" + versionNumber;
+        }
+    }
+
+    /**
+     * Drain the outbox until no due rows remain. Runs every {@code relay-interval-ms}.
+     *
+     * Stops early when a request fails as a whole: VCS is then likely down or
+     * timing out, and each further batch would wait out the same timeout on the
+     * shared scheduler thread. The remaining rows are left to the next run.
+     */
+    @Scheduled(fixedDelayString = "${version.sync.relay-interval-ms:1000}")
+    public void relayPending() {
+        int claimed;
+        do {
+            claimed = relayBatch();
+        } while (claimed == batchSize);
+    }
+
+    /**
+     * Claim, send and settle one batch.
+     *
+     * @return Number of rows claimed (0 when the outbox has nothing due), or -1
+     *         when the request failed as a whole and every row was rescheduled
+     */
+    public int relayBatch() {
+        List<Claimed> batch = claim();
+        if (batch.isEmpty()) return 0;
+
+        long t0 = System.currentTimeMillis();
+        Map<String, String> failures = new HashMap<>();
+        List<Claimed> sent = new ArrayList<>();
+        boolean requestFailed = false;
+        try {
+            Map<String, JsonNode> results = send(batch);
+            for (Claimed row : batch) {
+                JsonNode result = results.get(row.key());
+                String status = result != null ? result.path("status").asText() : null;
+                if ("CREATED".equals(status) || "DUPLICATE".equals(status)) {
+                    sent.add(row);
+                } else {
+                    failures.put(row.key(), result == null ? "No result returned for snapshot"
+                            : result.path("error").asText("Snapshot rejected"));
+                }
+            }
+        } catch (Exception e) {
+            // Whole request failed (VCS down, timeout, unreadable response) — retry every row
+            log.warn("[VCS Sync] Batch of {} snapshots failed: {}", batch.size(), e.getMessage());
+            batch.forEach(row -> failures.put(row.key(), String.valueOf(e.getMessage())));
+            requestFailed = true;
+        }
+
+        markSent(sent);
+        markFailed(batch, failures);
+        delivered.addAndGet(sent.size());
+        failedAttempts.addAndGet(failures.size());
+
+        log.info("[VCS Sync] Relayed {} snapshots: {} delivered, {} to retry in {}ms",
+                batch.size(), sent.size(), failures.size(), System.currentTimeMillis() - t0);
+        return requestFailed ? -1 : batch.size();
+    }
+
+    /** Snapshots queued but not yet confirmed by version-control-service. */
+    @Transactional(readOnly = true)
+    public long pendingCount() {
+        return outboxRepository.countBySentAtIsNull();
+    }
+
+    /** Snapshots confirmed since startup. */
+    public long deliveredCount() {
+        return delivered.get();
+    }
+
+    /** Failed delivery attempts since startup (a row retried three times counts three). */
+    public long failedAttemptCount() {
+        return failedAttempts.get();
+    }
+
+    /** Delete delivered rows past the retention period. Runs hourly. */
+    @Scheduled(fixedDelayString = "${version.sync.prune-interval-ms:3600000}",
+               initialDelayString = "${version.sync.prune-interval-ms:3600000}")
+    @Transactional
+    public void pruneSent() {
+        int deleted = outboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("[VCS Sync] Pruned {} delivered outbox rows older than {} days", deleted, retentionDays);
+        }
+    }
+
+    // ── Internal helpers ──────────────────────────────────────────────────────
+
+    /** Claim due rows under a lease; the single statement commits on its own. */
+    private List<Claimed> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.query(CLAIM_SQL,
+                new Object[]{ Timestamp.valueOf(now.plusNanos(leaseMs * 1_000_000L)), Timestamp.valueOf(now), batchSize },
+                new int[]{ Types.TIMESTAMP, Types.TIMESTAMP, Types.INTEGER },
+                (rs, i) -> new Claimed(
+                        rs.getLong("id"),
+                        rs.getLong("submission_id"),
+                        rs.getInt("version_number"),
+                        rs.getString("payload"),
+                        rs.getInt("attempts")));
+    }
+
+    /** POST the batch and index the per-snapshot results by submissionId:versionNumber. */
+    private Map<String, JsonNode> send(List<Claimed> batch) throws Exception {
+        StringBuilder body = new StringBuilder("{\"snapshots\":[");
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) body.append(',');
+            body.append(batch.get(i).payload());
+        }
+        body.append("]}");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        String response = restTemplate.postForObject(vcsUrl + "/api/versions/text-snapshots",
+                new HttpEntity<>(body.toString(), headers), String.class);
+
+        Map<String, JsonNode> results = new HashMap<>();
+        for (JsonNode result : objectMapper.readTree(response).path("data").path("results")) {
+            results.put(result.path("submissionId").asLong() + ":" + result.path("versionNumber").asInt(), result);
+        }
+        return results;
+    }
+
+    private void markSent(List<Claimed> sent) {
+        if (sent.isEmpty()) return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(MARK_SENT_SQL,
+                sent.stream().map(row -> new Object[]{ now, row.id() }).toList(),
+                new int[]{ Types.TIMESTAMP, Types.BIGINT });
+    }
+
+    private void markFailed(List<Claimed> batch, Map<String, String> failures) {
+        if (failures.isEmpty()) return;
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> args = new ArrayList<>();
+        for (Claimed row : batch) {
+            String error = failures.get(row.key());
+            if (error == null) continue;
+            args.add(new Object[]{
+                    Timestamp.valueOf(now.plusNanos(backoffMs(row.attempts() + 1) * 1_000_000L)),
+                    error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error,
+                    row.id() });
+        }
+        jdbcTemplate.batchUpdate(MARK_FAILED_SQL, args, new int[]{ Types.TIMESTAMP, Types.VARCHAR, Types.BIGINT });
+    }
+
+    /**
+     * Delay before retry number {@code attempts}: base × 2^(attempts−1), capped,
+     * then jittered to 50–100 % so rows that failed together don't retry in lockstep.
+     */
+    public long backoffMs(int attempts) {
+        long exponential = baseBackoffMs << Math.min(Math.max(attempts - 1, 0), 20);
+        long capped = Math.min(exponential, maxBackoffMs);
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+}
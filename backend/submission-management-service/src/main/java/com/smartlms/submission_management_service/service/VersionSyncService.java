@@ -1,17 +1,18 @@
 package com.smartlms.submission_management_service.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smartlms.submission_management_service.model.Answer;
 import com.smartlms.submission_management_service.model.Submission;
+import com.smartlms.submission_management_service.model.VersionSyncOutbox;
+import com.smartlms.submission_management_service.repository.VersionSyncOutboxRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -19,55 +20,55 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
- * Asynchronous bridge that replicates each text submission snapshot to the
- * dedicated version-control-service (port 8082) after the SMS transaction commits.
+ * Producer side of the replication of text submission snapshots to the
+ * dedicated version-control-service (port 8082).
  *
- * The call is fire-and-forget: any failure is logged as WARN and swallowed so
- * it never affects the student's submit response.
- *
- * Why @Async here and not inside SubmissionService?
- *   Spring's @Async proxy only intercepts calls from OTHER beans. Calling an
- *   @Async method on 'this' inside SubmissionService would bypass the proxy
- *   and execute synchronously. By placing @Async on this separate @Service
- *   bean, the proxy is active and the call truly runs on a background thread.
+ * enqueueTextSnapshot() writes the snapshot to the version_sync_outbox table
+ * inside the submit transaction, so it commits (or rolls back) with the
+ * submission and can never be sent for a submit that did not happen.
+ * Delivery is VersionSyncRelay's job: it drains the outbox after commit, in
+ * batches, with retry and backoff, and the student's submit response never
+ * waits on version-control-service.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class VersionSyncService {
 
-    private final RestTemplate restTemplate;
-
-    @Value("${version.service.url:http://localhost:8082}")
-    private String vcsUrl;
+    private final VersionSyncOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Posts a text snapshot to version-control-service POST /api/versions/text-snapshot.
-     * Runs asynchronously so the SMS transaction has already committed before this executes.
+     * Queue the snapshot of {@code submission} (already submitted, so its
+     * versionNumber is final) for delivery. Must run inside the submit transaction.
      */
-    @Async
-    public void syncTextSnapshot(Submission submission, List<Answer> answers) {
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueTextSnapshot(Submission submission, List<Answer> answers) {
+        String payload;
         try {
-            Map<String, Object> payload = buildPayload(submission, answers);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
+            payload = objectMapper.writeValueAsString(buildPayload(submission, answers));
+        } catch (JsonProcessingException e) {
+            // Serialising plain maps cannot realistically fail; refuse the submit rather than lose the snapshot
+            throw new IllegalStateException("Could not serialise version snapshot for submission "
+                    + submission.getId(), e);
+        }
 
-            restTemplate.postForEntity(vcsUrl + "/api/versions/text-snapshot", request, Void.class);
+        outboxRepository.save(VersionSyncOutbox.builder()
+                .submissionId(submission.getId())
+                .versionNumber(submission.getVersionNumber())
+                .payload(payload)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
 
-            log.info("[VCS Sync] Snapshot synced — submissionId={} versionNumber={}",
-                    submission.getId(), submission.getVersionNumber());
-        } catch (Exception e) {
-            log.warn("[VCS Sync] Non-fatal: could not sync snapshot to VCS for submissionId={}: {}",
-                    submission.getId(), e.getMessage());
-        }
+        log.debug("[VCS Sync] Snapshot queued — submissionId={} versionNumber={}",
+                submission.getId(), submission.getVersionNumber());
     }
 
     private Map<String, Object> buildPayload(Submission submission, List<Answer> answers) {
         Map<String, Object> payload = new HashMap<>();
-        payload.put("submissionId", submission.getId());
-        payload.put("studentId",    submission.getStudentId());
+        payload.put("submissionId",  submission.getId());
+        payload.put("versionNumber", submission.getVersionNumber());
+        payload.put("studentId",     submission.getStudentId());
         payload.put("commitMessage",
                 (submission.getAssignmentTitle() != null ? submission.getAssignmentTitle() : "Assignment")
                 + " — v" + submission.getVersionNumber());
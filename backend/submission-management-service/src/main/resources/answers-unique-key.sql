@@ -0,0 +1,55 @@
+-- ============================================================
+-- Submission Management Service — answers unique key migration
+-- ============================================================
+-- NOT run automatically. The service refuses to start while
+-- submission_schema.answers lacks uk_answers_submission_id_question_id
+-- (answer upserts use ON CONFLICT on it). Hibernate cannot add the
+-- constraint while duplicate (submission_id, question_id) rows exist.
+--
+-- 1. Review the duplicates (step 1 below). A non-newest copy may hold
+--    lecturer marks, feedback, AI analysis or plagiarism results that
+--    the newest copy lacks — copy anything worth keeping first.
+-- 2. Run the transaction (step 2). It keeps the most recently modified
+--    row of each group, MOVES the others to answers_duplicate_archive
+--    (nothing is dropped), and adds the constraint.
+--
+--   psql -d lms_db -f answers-unique-key.sql
+-- ============================================================
+
+-- Step 1: duplicate groups, newest row first
+SELECT a.submission_id, a.question_id, a.id, a.last_modified,
+       a.lecturer_mark IS NOT NULL          AS has_lecturer_mark,
+       a.lecturer_feedback_text IS NOT NULL AS has_lecturer_feedback,
+       a.plagiarism_checked_at IS NOT NULL  AS has_plagiarism_result
+FROM submission_schema.answers a
+JOIN (SELECT submission_id, question_id
+      FROM submission_schema.answers
+      GROUP BY submission_id, question_id
+      HAVING COUNT(*) > 1) d USING (submission_id, question_id)
+ORDER BY a.submission_id, a.question_id, a.last_modified DESC, a.id DESC;
+
+-- Step 2: archive all but the newest row of each group, then add the key
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS submission_schema.answers_duplicate_archive
+    (LIKE submission_schema.answers INCLUDING DEFAULTS);
+ALTER TABLE submission_schema.answers_duplicate_archive
+    ADD COLUMN IF NOT EXISTS archived_at TIMESTAMP NOT NULL DEFAULT now();
+
+WITH ranked AS (
+    SELECT id, ROW_NUMBER() OVER (PARTITION BY submission_id, question_id
+                                  ORDER BY last_modified DESC, id DESC) AS rn
+    FROM submission_schema.answers
+), moved AS (
+    DELETE FROM submission_schema.answers a
+    USING ranked r
+    WHERE a.id = r.id AND r.rn > 1
+    RETURNING a.*
+)
+INSERT INTO submission_schema.answers_duplicate_archive
+SELECT moved.*, now() FROM moved;
+
+ALTER TABLE submission_schema.answers
+    ADD CONSTRAINT uk_answers_submission_id_question_id UNIQUE (submission_id, question_id);
+
+COMMIT;
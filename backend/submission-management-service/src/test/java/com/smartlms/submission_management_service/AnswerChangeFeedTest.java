@@ -0,0 +1,84 @@
+package com.smartlms.submission_management_service;
+
+import com.smartlms.submission_management_service.dto.response.AnswerChangeFeedResponse;
+import com.smartlms.submission_management_service.model.AnswerChangeEvent;
+import com.smartlms.submission_management_service.model.AnswerChangeType;
+import com.smartlms.submission_management_service.repository.AnswerChangeEventRepository;
+import com.smartlms.submission_management_service.service.AnswerChangeFeedService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for paging through the answer change feed — mocked outbox repository.
+ */
+@DisplayName("AnswerChangeFeedService — cursor paging")
+class AnswerChangeFeedTest {
+
+    private final AnswerChangeEventRepository repository = mock(AnswerChangeEventRepository.class);
+    private final AnswerChangeFeedService feed = new AnswerChangeFeedService(repository);
+
+    @Test
+    @DisplayName("A full page advances the cursor to its last event and reports more")
+    void fullPageHasMore() {
+        when(repository.findSettledPage(700L, 10L, 2)).thenReturn(List.of(event(701L, 11L), event(705L, 9L)));
+
+        AnswerChangeFeedResponse page = feed.readChanges("700:10", 2);
+
+        assertThat(page.getEvents()).extracting(AnswerChangeFeedResponse.Event::getEventId).containsExactly(11L, 9L);
+        assertThat(page.getNextCursor()).isEqualTo("705:9");
+        assertThat(page.isHasMore()).isTrue();
+    }
+
+    @Test
+    @DisplayName("An empty page keeps the caller's cursor")
+    void emptyPageKeepsCursor() {
+        when(repository.findSettledPage(anyLong(), anyLong(), anyInt())).thenReturn(List.of());
+
+        AnswerChangeFeedResponse page = feed.readChanges("812:42", 500);
+
+        assertThat(page.getEvents()).isEmpty();
+        assertThat(page.getNextCursor()).isEqualTo("812:42");
+        assertThat(page.isHasMore()).isFalse();
+    }
+
+    @Test
+    @DisplayName("No cursor starts from the oldest event; page size is capped at 1000")
+    void startsFromOldestWithCappedPage() {
+        when(repository.findSettledPage(anyLong(), anyLong(), anyInt())).thenReturn(List.of());
+
+        feed.readChanges(null, 50_000);
+
+        verify(repository).findSettledPage(0L, 0L, 1000);
+    }
+
+    @Test
+    @DisplayName("A malformed cursor is rejected")
+    void malformedCursorIsRejected() {
+        assertThatThrownBy(() -> feed.readChanges("42", 500)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> feed.readChanges("x:1", 500)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static AnswerChangeEvent event(long txid, long id) {
+        return AnswerChangeEvent.builder()
+                .id(id)
+                .txid(txid)
+                .answerId(id * 10)
+                .submissionId("100")
+                .questionId("q1")
+                .studentId("s1")
+                .changeType(AnswerChangeType.ANSWER_SAVED)
+                .createdAt(LocalDateTime.of(2026, 3, 1, 10, 0))
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.smartlms.submission_management_service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.smartlms.submission_management_service.dto.response.PeerAnswerRow;
+import com.smartlms.submission_management_service.repository.AnswerRepository;
+import com.smartlms.submission_management_service.service.AnswerAutosaveBuffer;
+import com.smartlms.submission_management_service.service.AnswerChangeFeedService;
+import com.smartlms.submission_management_service.service.AnswerService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the NDJSON peer-answer feed written by AnswerService —
+ * mocked repository, real Jackson serialisation.
+ */
+@DisplayName("AnswerService — peer-answer NDJSON stream")
+class AnswerPeerStreamTest {
+
+    private final AnswerRepository answerRepository = mock(AnswerRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final AnswerService answerService = new AnswerService(
+            answerRepository, mock(AnswerChangeFeedService.class), mock(AnswerAutosaveBuffer.class), objectMapper);
+
+    @Test
+    @DisplayName("Writes one JSON object per line, with the cursor fields on every row")
+    void writesOneRowPerLine() throws Exception {
+        LocalDateTime t = LocalDateTime.of(2026, 3, 1, 10, 15, 30);
+        when(answerRepository.streamPeerAnswers(any(), any(), anyLong(), any())).thenReturn(Stream.of(
+                new PeerAnswerRow(7L, "q1", "100", "s1", t, "first answer"),
+                new PeerAnswerRow(9L, "q2", "101", null, t.plusSeconds(1), "")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = answerService.streamPeerAnswers(List.of("q1", "q2"), null, 0L, 0, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(written).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("answerId").asLong()).isEqualTo(7L);
+        assertThat(first.get("lastModified").asText()).isEqualTo("2026-03-01T10:15:30");
+        assertThat(first.get("answerText").asText()).isEqualTo("first answer");
+
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertThat(second.get("studentId").isNull()).isTrue();
+        assertThat(second.get("answerText").asText()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Passes the (since, afterId) cursor and row limit through to the query")
+    void resumesFromCursor() throws Exception {
+        LocalDateTime since = LocalDateTime.of(2026, 3, 1, 10, 15, 30);
+        when(answerRepository.streamPeerAnswers(any(), any(), anyLong(), any())).thenReturn(Stream.empty());
+
+        answerService.streamPeerAnswers(List.of("q1"), since, 42L, 500, new ByteArrayOutputStream());
+
+        verify(answerRepository).streamPeerAnswers(eq(List.of("q1")), eq(since), eq(42L), eq(Limit.of(500)));
+    }
+
+    @Test
+    @DisplayName("Streams an assignment's answers in the same row format")
+    void streamsAssignmentAnswers() throws Exception {
+        LocalDateTime t = LocalDateTime.of(2026, 3, 1, 10, 15, 30);
+        when(answerRepository.streamAssignmentAnswers("A1")).thenReturn(Stream.of(
+                new PeerAnswerRow(3L, "q1", "100", "s1", t, "one"),
+                new PeerAnswerRow(4L, "q1", "101", "s2", t, "two"),
+                new PeerAnswerRow(5L, "q2", "100", "s1", t, "three")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = answerService.streamAssignmentAnswers("A1", out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(written).isEqualTo(3);
+        assertThat(lines).hasSize(3);
+        assertThat(objectMapper.readTree(lines[2]).get("questionId").asText()).isEqualTo("q2");
+        assertThat(objectMapper.readTree(lines[2]).get("submissionId").asText()).isEqualTo("100");
+    }
+}
@@ -0,0 +1,133 @@
+package com.smartlms.submission_management_service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartlms.submission_management_service.dto.request.BulkGradeRequest;
+import com.smartlms.submission_management_service.dto.response.BulkGradeResponse;
+import com.smartlms.submission_management_service.model.Submission;
+import com.smartlms.submission_management_service.model.SubmissionStatus;
+import com.smartlms.submission_management_service.repository.AnswerRepository;
+import com.smartlms.submission_management_service.repository.LecturerQuestionGrade;
+import com.smartlms.submission_management_service.repository.SubmissionRepository;
+import com.smartlms.submission_management_service.repository.VersionAnswerRepositoryImpl;
+import com.smartlms.submission_management_service.service.SubmissionService;
+import com.smartlms.submission_management_service.service.VersionService;
+import com.smartlms.submission_management_service.service.VersionSyncService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for bulk grading — mocked repositories and JDBC.
+ */
+@DisplayName("Bulk grading — set-based lecturer overrides")
+class BulkGradingTest {
+
+    private final SubmissionRepository submissionRepository = mock(SubmissionRepository.class);
+    private final AnswerRepository answerRepository = mock(AnswerRepository.class);
+    private final VersionService versionService = mock(VersionService.class);
+    private final SubmissionService service = new SubmissionService(submissionRepository, answerRepository,
+            versionService, mock(VersionSyncService.class), new ObjectMapper());
+
+    @Test
+    @DisplayName("Valid entries are applied with one answers UPDATE; invalid ones are skipped with a reason")
+    @SuppressWarnings("unchecked")
+    void appliesValidEntriesAndReportsSkipped() {
+        Submission open = submission(2L, LocalDateTime.now().plusDays(1));
+        Submission closed = submission(1L, LocalDateTime.now().minusDays(1));
+        when(submissionRepository.findAllById(any())).thenReturn(List.of(closed, open));
+        when(answerRepository.updateLecturerGrades(anyList(), any(), anyString())).thenReturn(2);
+
+        BulkGradeResponse response = service.bulkGradeSubmissions(BulkGradeRequest.builder()
+                .lecturerId("L1")
+                .grades(List.of(
+                        entry(1L, 80.0, Map.of("q1", 8.0, "q2", 7.0)),
+                        entry(2L, 70.0, Map.of("q1", 6.0)),
+                        entry(3L, 50.0, Map.of()),
+                        entry(1_000L, 50.0, Map.of())))
+                .build());
+
+        assertThat(response.getGraded()).isEqualTo(1);
+        assertThat(response.getAnswersUpdated()).isEqualTo(2);
+        assertThat(response.getSkipped()).extracting(BulkGradeResponse.Skipped::getSubmissionId)
+                .containsExactly(2L, 3L, 1_000L);
+        assertThat(closed.getLecturerGrade()).isEqualTo(80.0);
+        assertThat(closed.getStatus()).isEqualTo(SubmissionStatus.GRADED);
+        assertThat(open.getLecturerGrade()).isNull();
+
+        ArgumentCaptor<List<LecturerQuestionGrade>> rows = ArgumentCaptor.forClass(List.class);
+        verify(answerRepository, times(1)).updateLecturerGrades(rows.capture(), any(), eq("L1"));
+        assertThat(rows.getValue()).extracting(LecturerQuestionGrade::submissionId).containsOnly(1L);
+        assertThat(rows.getValue()).extracting(LecturerQuestionGrade::questionId).containsExactlyInAnyOrder("q1", "q2");
+        verify(versionService).gradeLatestVersions(eq(Map.of(1L, 80.0)), eq(rows.getValue()), eq("L1"), any());
+    }
+
+    @Test
+    @DisplayName("A submission listed twice rejects the whole request")
+    void duplicateSubmissionIsRejected() {
+        BulkGradeRequest request = BulkGradeRequest.builder()
+                .grades(List.of(entry(1L, 80.0, Map.of()), entry(1L, 60.0, Map.of())))
+                .build();
+
+        assertThatThrownBy(() -> service.bulkGradeSubmissions(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("more than once");
+        verify(versionService, times(0)).gradeLatestVersions(anyMap(), anyList(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Version answer overrides are written in one statement per 1000 rows")
+    void versionAnswerUpdatesAreChunked() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.update(anyString(), any(Object[].class), any(int[].class))).thenReturn(1);
+        VersionAnswerRepositoryImpl repository = new VersionAnswerRepositoryImpl(jdbcTemplate);
+
+        List<LecturerQuestionGrade> grades = new ArrayList<>();
+        for (long i = 0; i < 2_500; i++) {
+            grades.add(new LecturerQuestionGrade(i, "q1", true, 5.0, false, null));
+        }
+        int updated = repository.updateLatestLecturerGrades(grades, LocalDateTime.now(), "L1");
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(3)).update(anyString(), args.capture(), any(int[].class));
+        assertThat(args.getAllValues()).extracting(a -> a.length).containsExactly(6_002, 6_002, 3_002);
+        assertThat(updated).isEqualTo(3);
+    }
+
+    private static Submission submission(Long id, LocalDateTime dueDate) {
+        return Submission.builder()
+                .id(id)
+                .title("Essay")
+                .studentId("S" + id)
+                .studentName("Student " + id)
+                .dueDate(dueDate)
+                .maxGrade(100.0)
+                .status(SubmissionStatus.SUBMITTED)
+                .build();
+    }
+
+    private static BulkGradeRequest.Entry entry(Long submissionId, Double grade, Map<String, Double> scores) {
+        return BulkGradeRequest.Entry.builder()
+                .submissionId(submissionId)
+                .grade(grade)
+                .questionScores(scores)
+                .build();
+    }
+}
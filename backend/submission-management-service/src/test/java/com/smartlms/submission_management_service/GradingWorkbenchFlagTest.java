@@ -0,0 +1,86 @@
+package com.smartlms.submission_management_service;
+
+import com.smartlms.submission_management_service.dto.response.GradingRowResponse;
+import com.smartlms.submission_management_service.model.Answer;
+import com.smartlms.submission_management_service.model.Submission;
+import com.smartlms.submission_management_service.model.SubmissionStatus;
+import com.smartlms.submission_management_service.model.SubmissionType;
+import com.smartlms.submission_management_service.service.GradingWorkbenchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The grading table's flagged filter against a real persistence context
+ * (embedded H2): scores are on the stored 0-100 scale, and the per-answer
+ * plagiarismFlagged decision counts as well as the score.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true")
+@Import(GradingWorkbenchService.class)
+@DisplayName("GradingWorkbenchService — flagged filter")
+class GradingWorkbenchFlagTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 23, 10, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private GradingWorkbenchService service;
+
+    @BeforeEach
+    void submissions() {
+        submission("score-25", SubmissionStatus.SUBMITTED, 25.0, false);
+        submission("score-20", SubmissionStatus.SUBMITTED, 20.0, false);
+        submission("answer-flagged", SubmissionStatus.SUBMITTED, 12.0, true);
+        submission("status-flagged", SubmissionStatus.FLAGGED, null, false);
+        submission("score-19", SubmissionStatus.SUBMITTED, 19.9, false);
+        submission("unscored", SubmissionStatus.SUBMITTED, null, false);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Flagged: status FLAGGED, a score of 20 or more, or a flagged answer")
+    void flaggedRows() {
+        assertThat(service.getGradingPage("A1", null, null, null, true, null, 50).getRows())
+                .extracting(GradingRowResponse::getStudentId)
+                .containsExactlyInAnyOrder("score-25", "score-20", "answer-flagged", "status-flagged");
+    }
+
+    @Test
+    @DisplayName("Unflagged is the exact complement")
+    void unflaggedRows() {
+        assertThat(service.getGradingPage("A1", null, null, null, false, null, 50).getRows())
+                .extracting(GradingRowResponse::getStudentId)
+                .containsExactlyInAnyOrder("score-19", "unscored");
+    }
+
+    private void submission(String studentId, SubmissionStatus status, Double plagiarismScore, boolean answerFlagged) {
+        Submission submission = entityManager.persist(Submission.builder()
+                .title("Essay")
+                .studentId(studentId)
+                .studentName(studentId)
+                .assignmentId("A1")
+                .submissionType(SubmissionType.TEXT_ANSWER)
+                .status(status)
+                .submittedAt(T0)
+                .plagiarismScore(plagiarismScore)
+                .build());
+        entityManager.persist(Answer.builder()
+                .submissionId(String.valueOf(submission.getId()))
+                .studentId(studentId)
+                .questionId("q1")
+                .answerText("an answer")
+                .plagiarismFlagged(answerFlagged)
+                .build());
+    }
+}
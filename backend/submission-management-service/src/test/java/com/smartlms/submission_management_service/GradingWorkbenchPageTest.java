@@ -0,0 +1,86 @@
+package com.smartlms.submission_management_service;
+
+import com.smartlms.submission_management_service.dto.response.GradingPageResponse;
+import com.smartlms.submission_management_service.dto.response.GradingRowResponse;
+import com.smartlms.submission_management_service.model.SubmissionStatus;
+import com.smartlms.submission_management_service.repository.SubmissionRepository;
+import com.smartlms.submission_management_service.service.GradingWorkbenchService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for keyset paging of the lecturer grading table — mocked repository.
+ */
+@DisplayName("GradingWorkbenchService — keyset pages")
+class GradingWorkbenchPageTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 23, 10, 0);
+
+    private final SubmissionRepository repository = mock(SubmissionRepository.class);
+    private final GradingWorkbenchService service = new GradingWorkbenchService(repository);
+
+    @Test
+    @DisplayName("A page with an extra row reports more and a cursor at its last row")
+    void fullPageHasMore() {
+        when(repository.findGradingPage(eq("A1"), any(), anyLong(), any(), any(), any(), anyDouble(), eq(Limit.of(3))))
+                .thenReturn(rows(3));
+
+        GradingPageResponse page = service.getGradingPage("A1", null, null, null, null, null, 2);
+
+        assertThat(page.getRows()).extracting(GradingRowResponse::getId).containsExactly(3L, 2L);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(page.getNextId()).isEqualTo(2L);
+        assertThat(page.getNextSubmittedAt()).isEqualTo(T0.plusMinutes(2));
+    }
+
+    @Test
+    @DisplayName("The last page has no cursor")
+    void lastPageHasNoCursor() {
+        when(repository.findGradingPage(any(), any(), anyLong(), any(), any(), any(), anyDouble(), any()))
+                .thenReturn(rows(1));
+
+        GradingPageResponse page = service.getGradingPage("A1", T0.plusMinutes(5), 5L, null, null, null, 50);
+
+        assertThat(page.getRows()).hasSize(1);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextSubmittedAt()).isNull();
+        assertThat(page.getNextId()).isNull();
+    }
+
+    @Test
+    @DisplayName("The caller's cursor and filters reach the query; page size is capped")
+    void cursorAndFiltersArePassedThrough() {
+        when(repository.findGradingPage(any(), any(), anyLong(), any(), any(), any(), anyDouble(), any()))
+                .thenReturn(List.of());
+
+        service.getGradingPage("A1", T0, 812L, SubmissionStatus.LATE, true, null, 10_000);
+
+        verify(repository).findGradingPage(eq("A1"), eq(T0), eq(812L), eq(SubmissionStatus.LATE),
+                isNull(), eq(true), eq(20.0), eq(Limit.of(201)));
+    }
+
+    /** {@code count} rows, newest first: ids count..1, one minute apart. */
+    private static List<GradingRowResponse> rows(int count) {
+        List<GradingRowResponse> rows = new ArrayList<>();
+        for (long id = count; id >= 1; id--) {
+            rows.add(new GradingRowResponse(id, "S" + id, "Student " + id, null, SubmissionStatus.SUBMITTED,
+                    T0.plusMinutes(id), false, 1, null, null, 100.0, 70.0, 10.0, 250));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,143 @@
+package com.smartlms.submission_management_service;
+
+import com.smartlms.submission_management_service.dto.response.VersionAnswerResponse;
+import com.smartlms.submission_management_service.dto.response.VersionResponse;
+import com.smartlms.submission_management_service.model.SubmissionVersion;
+import com.smartlms.submission_management_service.model.VersionAnswer;
+import com.smartlms.submission_management_service.model.VersionPlagiarismSource;
+import com.smartlms.submission_management_service.service.VersionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regression tests for the version read paths against a real persistence
+ * context (embedded H2), counting the statements Hibernate actually prepares.
+ * Detail reads must stay at a fixed statement count however many versions and
+ * answers there are, including lazy loads triggered while mapping responses.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true"
+})
+@Import(VersionService.class)
+@DisplayName("VersionService — bounded statement count on version reads")
+class VersionReadQueryCountTest {
+
+    private static final long SUBMISSION_ID = 7L;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private VersionService service;
+
+    @Test
+    @DisplayName("History of 12 versions × 5 answers is read in two statements")
+    void historyIsTwoStatements() {
+        SubmissionVersion v12 = null, v1 = null;
+        for (int n = 1; n <= 12; n++) {
+            SubmissionVersion version = persistVersion(n, 5);
+            if (n == 1) v1 = version;
+            if (n == 12) v12 = version;
+        }
+        VersionAnswer v12q1 = v12.getAnswers().get(0);
+        VersionAnswer v1q3 = v1.getAnswers().get(2);
+        long first = persistSource(v12q1), second = persistSource(v12q1), third = persistSource(v1q3);
+        Statistics statistics = freshStatistics();
+
+        List<VersionResponse> history = service.getVersionHistory(SUBMISSION_ID);
+
+        assertThat(history).hasSize(12);
+        assertThat(history).allSatisfy(v -> assertThat(v.getAnswers()).hasSize(5));
+        assertThat(answer(history, v12q1.getId()).getPlagiarismSources()).extracting("id")
+                .containsExactly(first, second);
+        assertThat(answer(history, v1q3.getId()).getPlagiarismSources()).extracting("id").containsExactly(third);
+        assertThat(answer(history, v12.getAnswers().get(1).getId()).getPlagiarismSources()).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Latest version detail is read in two statements")
+    void latestDetailIsTwoStatements() {
+        persistVersion(1, 40);
+        persistVersion(2, 40);
+        persistVersion(3, 40);
+        Statistics statistics = freshStatistics();
+
+        VersionResponse latest = service.getLatestVersion(SUBMISSION_ID);
+
+        assertThat(latest.getVersionNumber()).isEqualTo(3);
+        assertThat(latest.getAnswers()).hasSize(40);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A version without answers skips the plagiarism source query")
+    void emptyVersionIsOneStatement() {
+        SubmissionVersion version = persistVersion(3, 0);
+        Statistics statistics = freshStatistics();
+
+        VersionResponse detail = service.getVersion(SUBMISSION_ID, version.getId());
+
+        assertThat(detail.getAnswers()).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /** Flush the fixtures, empty the persistence context and start counting from zero. */
+    private Statistics freshStatistics() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private SubmissionVersion persistVersion(int number, int answers) {
+        SubmissionVersion version = SubmissionVersion.builder()
+                .submissionId(SUBMISSION_ID)
+                .versionNumber(number)
+                .submittedAt(LocalDateTime.now())
+                .build();
+        for (int q = 1; q <= answers; q++) {
+            version.getAnswers().add(VersionAnswer.builder()
+                    .version(version)
+                    .questionId(String.format("q%02d", q))
+                    .answerText("answer " + q)
+                    .build());
+        }
+        return entityManager.persist(version);
+    }
+
+    private long persistSource(VersionAnswer answer) {
+        return entityManager.persist(VersionPlagiarismSource.builder()
+                .versionAnswer(answer)
+                .sourceUrl("https://example.org/" + answer.getId())
+                .sourceTitle("Example")
+                .similarityPercentage(42.0)
+                .detectedAt(LocalDateTime.now())
+                .build()).getId();
+    }
+
+    private static VersionAnswerResponse answer(List<VersionResponse> history, Long answerId) {
+        return history.stream()
+                .flatMap(v -> v.getAnswers().stream())
+                .filter(a -> a.getId().equals(answerId))
+                .findFirst()
+                .orElseThrow();
+    }
+}
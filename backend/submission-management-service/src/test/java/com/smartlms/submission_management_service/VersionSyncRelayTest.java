@@ -0,0 +1,149 @@
+package com.smartlms.submission_management_service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartlms.submission_management_service.repository.VersionSyncOutboxRepository;
+import com.smartlms.submission_management_service.service.VersionSyncRelay;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the version sync outbox relay — mocked JDBC and HTTP.
+ */
+@DisplayName("VersionSyncRelay — batched, idempotent delivery with retry")
+class VersionSyncRelayTest {
+
+    private static final String MARK_SENT = "UPDATE submission_schema.version_sync_outbox SET sent_at";
+    private static final String MARK_FAILED = "UPDATE submission_schema.version_sync_outbox SET attempts";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final VersionSyncRelay relay = new VersionSyncRelay(jdbcTemplate, restTemplate, new ObjectMapper(),
+            mock(VersionSyncOutboxRepository.class), "http://vcs", 50, 60_000, 5_000, 600_000);
+
+    @Test
+    @DisplayName("CREATED and DUPLICATE rows are marked sent; FAILED and missing rows are rescheduled")
+    @SuppressWarnings("unchecked")
+    void settlesEachRowByItsResult() throws Exception {
+        claimRows(1L, 2L, 3L, 4L);
+        when(restTemplate.postForObject(anyString(), any(), eq(String.class))).thenReturn("""
+                {"success":true,"data":{"results":[
+                  {"submissionId":1,"versionNumber":1,"status":"CREATED","versionId":10},
+                  {"submissionId":2,"versionNumber":1,"status":"DUPLICATE","versionId":20},
+                  {"submissionId":3,"versionNumber":1,"status":"FAILED","error":"boom"}
+                ]}}""");
+
+        assertThat(relay.relayBatch()).isEqualTo(4);
+
+        ArgumentCaptor<HttpEntity<String>> request = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate).postForObject(eq("http://vcs/api/versions/text-snapshots"), request.capture(), eq(String.class));
+        assertThat(new ObjectMapper().readTree(request.getValue().getBody()).path("snapshots")).hasSize(4);
+
+        assertThat(idsOf(MARK_SENT)).containsExactly(1L, 2L);
+        List<Object[]> failed = argsOf(MARK_FAILED);
+        assertThat(failed).extracting(a -> a[2]).containsExactly(3L, 4L);
+        assertThat(failed).extracting(a -> a[1]).containsExactly("boom", "No result returned for snapshot");
+        assertThat(relay.deliveredCount()).isEqualTo(2);
+        assertThat(relay.failedAttemptCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("When the request fails as a whole, every claimed row is rescheduled")
+    void requestFailureReschedulesAll() {
+        claimRows(1L, 2L);
+        when(restTemplate.postForObject(anyString(), any(), eq(String.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        assertThat(relay.relayBatch()).isEqualTo(-1);
+
+        verify(jdbcTemplate, never()).batchUpdate(startsWith(MARK_SENT),
+                anyList(), any(int[].class));
+        assertThat(argsOf(MARK_FAILED))
+                .extracting(a -> a[2]).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("A drain stops after a batch whose request failed as a whole")
+    void drainStopsOnRequestFailure() {
+        Long[] full = new Long[50];
+        for (int i = 0; i < full.length; i++) full[i] = i + 1L;
+        claimRows(full);
+        when(restTemplate.postForObject(anyString(), any(), eq(String.class)))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+
+        relay.relayPending();
+
+        verify(restTemplate, times(1)).postForObject(anyString(), any(), eq(String.class));
+    }
+
+    @Test
+    @DisplayName("An empty outbox makes no HTTP call")
+    void emptyOutboxIsNoOp() {
+        claimRows();
+
+        assertThat(relay.relayBatch()).isZero();
+        verify(restTemplate, never()).postForObject(anyString(), any(), eq(String.class));
+    }
+
+    @Test
+    @DisplayName("Backoff doubles per attempt, is jittered to 50–100 %, and is capped at the maximum")
+    void backoffIsExponentialAndCapped() {
+        assertThat(relay.backoffMs(1)).isBetween(2_500L, 5_000L);
+        assertThat(relay.backoffMs(3)).isBetween(10_000L, 20_000L);
+        assertThat(relay.backoffMs(40)).isBetween(300_000L, 600_000L);
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    /** Make the claim statement return one row per submission id, each at version 1. */
+    private void claimRows(Long... submissionIds) {
+        when(jdbcTemplate.query(anyString(), any(Object[].class), any(int[].class), any(RowMapper.class)))
+                .thenAnswer(invocation -> {
+                    RowMapper<?> mapper = invocation.getArgument(3);
+                    List<Object> rows = new ArrayList<>();
+                    for (Long id : submissionIds) {
+                        ResultSet rs = mock(ResultSet.class);
+                        when(rs.getLong("id")).thenReturn(id);
+                        when(rs.getLong("submission_id")).thenReturn(id);
+                        when(rs.getInt("version_number")).thenReturn(1);
+                        when(rs.getString("payload")).thenReturn("{\"submissionId\":" + id + ",\"versionNumber\":1}");
+                        when(rs.getInt("attempts")).thenReturn(0);
+                        rows.add(mapper.mapRow(rs, rows.size()));
+                    }
+                    return rows;
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> argsOf(String sqlPrefix) {
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith(sqlPrefix), args.capture(), any(int[].class));
+        return args.getValue();
+    }
+
+    /** Ids (last argument) of the rows passed to the matching batch update. */
+    private List<Object> idsOf(String sqlPrefix) {
+        return argsOf(sqlPrefix).stream().map(a -> a[a.length - 1]).toList();
+    }
+}
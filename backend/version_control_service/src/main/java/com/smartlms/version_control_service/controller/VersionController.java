@@ -10,12 +10,15 @@ import java.util.List;
 import java.util.UUID;
 
 import com.smartlms.version_control_service.dto.request.DiffRequest;
+import com.smartlms.version_control_service.dto.request.TextSnapshotBatchRequest;
 import com.smartlms.version_control_service.dto.request.TextSnapshotRequest;
 import com.smartlms.version_control_service.dto.request.VersionCreateRequest;
 import com.smartlms.version_control_service.dto.response.ApiResponse;
 import com.smartlms.version_control_service.dto.response.DiffResponse;
+import com.smartlms.version_control_service.dto.response.TextSnapshotBatchResponse;
 import com.smartlms.version_control_service.dto.response.VersionResponse;
 import com.smartlms.version_control_service.service.DiffService;
+import com.smartlms.version_control_service.service.TextSnapshotBatchService;
 import com.smartlms.version_control_service.service.VersionControlService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -42,6 +45,7 @@ public class VersionController {
 
     private final VersionControlService versionControlService;
     private final DiffService diffService;
+    private final TextSnapshotBatchService textSnapshotBatchService;
 
     @PostMapping("/create")
     public ResponseEntity<ApiResponse<VersionResponse>> createVersion(
@@ -108,6 +112,22 @@ public class VersionController {
                 .body(ApiResponse.success("Text snapshot created", response));
     }
 
+    /**
+     * Store a batch of text snapshots relayed from submission-management-service's
+     * outbox. Idempotent on (submissionId, versionNumber); each snapshot is stored in
+     * its own transaction and reported as CREATED, DUPLICATE or FAILED.
+     *
+     * POST /api/versions/text-snapshots
+     */
+    @PostMapping("/text-snapshots")
+    public ResponseEntity<ApiResponse<TextSnapshotBatchResponse>> createTextSnapshots(
+            @RequestBody TextSnapshotBatchRequest request) {
+        List<TextSnapshotRequest> snapshots = request.getSnapshots() != null ? request.getSnapshots() : List.of();
+        log.info("POST /api/versions/text-snapshots — {} snapshots", snapshots.size());
+        TextSnapshotBatchResponse response = textSnapshotBatchService.createTextSnapshots(snapshots);
+        return ResponseEntity.ok(ApiResponse.success("Text snapshots processed", response));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<VersionResponse>> getVersionById(@PathVariable Long id) {
         log.info("GET /api/versions/{} - Fetching version", id);
@@ -0,0 +1,26 @@
+package com.smartlms.version_control_service.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Request body for POST /api/versions/text-snapshots
+ *
+ * A batch of text snapshots, as relayed by submission-management-service's
+ * outbox. Each snapshot should carry its versionNumber so a re-sent batch is
+ * idempotent.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TextSnapshotBatchRequest {
+
+    private List<TextSnapshotRequest> snapshots;
+}
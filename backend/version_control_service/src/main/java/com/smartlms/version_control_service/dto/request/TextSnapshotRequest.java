@@ -24,6 +24,13 @@ public class TextSnapshotRequest {
     /** ID of the parent submission row (submission_schema.submissions). */
     private Long submissionId;
 
+    /**
+     * Version number assigned by submission-management-service. When set, the
+     * snapshot is idempotent on (submissionId, versionNumber): a repeated request
+     * returns the existing version. When null, the next free number is used.
+     */
+    private Integer versionNumber;
+
     /** Student who submitted (stored in version.createdBy). */
     private String studentId;
 
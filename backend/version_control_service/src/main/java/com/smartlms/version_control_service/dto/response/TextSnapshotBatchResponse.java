@@ -0,0 +1,45 @@
+package com.smartlms.version_control_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Per-snapshot outcome of POST /api/versions/text-snapshots, in request order.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TextSnapshotBatchResponse {
+
+    private List<Result> results;
+
+    public enum Status {
+        /** Stored now. */
+        CREATED,
+        /** (submissionId, versionNumber) was already stored — nothing written. */
+        DUPLICATE,
+        /** Not stored; the sender should retry. */
+        FAILED
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Result {
+        private Long submissionId;
+        private Integer versionNumber;
+        private Status status;
+        private Long versionId;
+        /** Set when status is FAILED. */
+        private String error;
+    }
+}
@@ -0,0 +1,73 @@
+package com.smartlms.version_control_service.service;
+
+import com.smartlms.version_control_service.dto.request.TextSnapshotRequest;
+import com.smartlms.version_control_service.dto.response.TextSnapshotBatchResponse;
+import com.smartlms.version_control_service.dto.response.TextSnapshotBatchResponse.Status;
+import com.smartlms.version_control_service.dto.response.VersionResponse;
+import com.smartlms.version_control_service.repository.SubmissionVersionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores a batch of text snapshots, each in its own transaction (via
+ * VersionControlService), so one bad snapshot never rolls back the others.
+ *
+ * Idempotent on (submissionId, versionNumber): a snapshot that is already
+ * stored — or that a concurrent request stores first, caught by the
+ * uq_submission_version constraint — is reported as DUPLICATE, which the
+ * sender treats as delivered.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TextSnapshotBatchService {
+
+    private final VersionControlService versionControlService;
+    private final SubmissionVersionRepository versionRepository;
+
+    public TextSnapshotBatchResponse createTextSnapshots(List<TextSnapshotRequest> snapshots) {
+        List<TextSnapshotBatchResponse.Result> results = new ArrayList<>(snapshots.size());
+        for (TextSnapshotRequest snapshot : snapshots) {
+            results.add(store(snapshot));
+        }
+        log.info("[TextSnapshotBatch] {} snapshots: {} created, {} duplicate, {} failed", snapshots.size(),
+                count(results, Status.CREATED), count(results, Status.DUPLICATE), count(results, Status.FAILED));
+        return TextSnapshotBatchResponse.builder().results(results).build();
+    }
+
+    private TextSnapshotBatchResponse.Result store(TextSnapshotRequest snapshot) {
+        TextSnapshotBatchResponse.Result.ResultBuilder result = TextSnapshotBatchResponse.Result.builder()
+                .submissionId(snapshot.getSubmissionId())
+                .versionNumber(snapshot.getVersionNumber());
+        if (snapshot.getSubmissionId() == null || snapshot.getVersionNumber() == null) {
+            return result.status(Status.FAILED).error("submissionId and versionNumber are required").build();
+        }
+
+        var existing = versionRepository.findBySubmissionIdAndVersionNumber(
+                snapshot.getSubmissionId(), snapshot.getVersionNumber());
+        if (existing.isPresent()) {
+            return result.status(Status.DUPLICATE).versionId(existing.get().getId()).build();
+        }
+
+        try {
+            VersionResponse created = versionControlService.createTextSnapshot(snapshot);
+            return result.status(Status.CREATED).versionId(created.getId()).build();
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with another request for the same (submissionId, versionNumber)
+            return result.status(Status.DUPLICATE).build();
+        } catch (Exception e) {
+            log.warn("[TextSnapshotBatch] Failed submissionId={} versionNumber={}: {}",
+                    snapshot.getSubmissionId(), snapshot.getVersionNumber(), e.getMessage());
+            return result.status(Status.FAILED).error(e.getMessage()).build();
+        }
+    }
+
+    private static long count(List<TextSnapshotBatchResponse.Result> results, Status status) {
+        return results.stream().filter(r -> r.getStatus() == status).count();
+    }
+}
@@ -135,7 +135,11 @@ public class VersionControlService {
      * all answer content inside the SubmissionVersion.metadata JSONB field.
      * No VersionFile or FileBlob entries are created.
      *
-     * Called by the frontend immediately after submitSubmission() succeeds.
+     * Called by the frontend immediately after submitSubmission() succeeds, and by
+     * submission-management-service's outbox relay (with versionNumber set).
+     *
+     * Idempotent when request.versionNumber is set: if (submissionId, versionNumber)
+     * already exists, that version is returned unchanged.
      */
     @Transactional
     public VersionResponse createTextSnapshot(TextSnapshotRequest request) {
@@ -144,8 +148,19 @@ public class VersionControlService {
                 request.getOverallGrade(), request.getMaxGrade(),
                 request.getAnswers() != null ? request.getAnswers().size() : 0);
 
-        Integer nextVersionNumber = versionRepository
-                .findMaxVersionNumberBySubmissionId(request.getSubmissionId()) + 1;
+        if (request.getVersionNumber() != null) {
+            var existing = versionRepository.findBySubmissionIdAndVersionNumber(
+                    request.getSubmissionId(), request.getVersionNumber());
+            if (existing.isPresent()) {
+                log.info("[TextSnapshot] DUPLICATE - submissionId={} versionNumber={} already stored as versionId={}",
+                        request.getSubmissionId(), request.getVersionNumber(), existing.get().getId());
+                return convertToResponse(existing.get());
+            }
+        }
+
+        Integer nextVersionNumber = request.getVersionNumber() != null
+                ? request.getVersionNumber()
+                : versionRepository.findMaxVersionNumberBySubmissionId(request.getSubmissionId()) + 1;
         log.debug("[TextSnapshot] nextVersionNumber={}", nextVersionNumber);
 
         Long parentVersionId = versionRepository
@@ -28,11 +28,10 @@ import { useState, useEffect, useCallback, use } from 'react';
 import { useRouter, useSearchParams } from 'next/navigation';
 import {
     submissionService,
-    versionService,
     getAssignmentWithFallback,
 } from '@/lib/api/submission-services';
 import { QuestionCard } from '@/components/submissions/QuestionCard';
-import type { AssignmentWithQuestions, TextAnswer, LiveFeedback, LivePlagiarismResult, TextSnapshotPayload } from '@/types/submission.types';
+import type { AssignmentWithQuestions, TextAnswer, LiveFeedback, LivePlagiarismResult } from '@/types/submission.types';
 
 // ─── Helpers ──────────────────────────────────────────────────
 
@@ -321,83 +320,9 @@ export default function AnswerPage({
             setSubmitDone(true);
             setShowConfirm(false);
 
-            // ── Send full text snapshot to version-control-service (fire-and-forget) ──
-            // All answer texts, AI scores, and plagiarism data (including internet
-            // matches) are embedded in the VCS snapshot JSONB in one shot.
-            // Failure is non-fatal and never affects the student's submit response.
-            try {
-                // Build per-question answer snapshots.
-                // projectedGrade is derived from gradeMap (the live earned mark shown
-                // in the dialog) rather than feedbackMap, so the stored value always
-                // matches exactly what the student saw before clicking Submit.
-                // gradeMap[q.id] is already in 0-maxPoints scale (actual earned marks).
-                const answerSnapshots = questions.map(q => {
-                    const text     = answerMap[q.id] ?? '';
-                    const fb       = feedbackMap[q.id];
-                    const plag     = plagiarismMap[q.id];
-                    const wc       = text.trim().split(/\s+/).filter(Boolean).length;
-                    const earnedMark = gradeMap[q.id];  // 0-maxPoints, null if no feedback
-                    const projectedGrade = earnedMark ?? null;  // actual earned mark, no conversion
-
-                    return {
-                        questionId:             q.id,
-                        questionText:           q.text,
-                        answerText:             text,
-                        wordCount:              wc,
-                        grammarScore:           fb?.grammarScore      ?? null,
-                        clarityScore:           fb?.clarityScore      ?? null,
-                        completenessScore:      fb?.completenessScore ?? null,
-                        relevanceScore:         fb?.relevanceScore    ?? null,
-                        strengths:              fb?.strengths         ?? [],
-                        improvements:           fb?.improvements      ?? [],
-                        suggestions:            fb?.suggestions       ?? [],
-                        similarityScore:        plag?.similarityScore        ?? null,
-                        plagiarismSeverity:     plag?.severity               ?? null,
-                        internetSimilarityScore: plag?.internetSimilarityScore ?? null,
-                        peerSimilarityScore:    plag?.peerSimilarityScore    ?? null,
-                        riskScore:              plag?.riskScore              ?? null,
-                        riskLevel:              plag?.riskLevel              ?? null,
-                        internetMatches:        plag?.internetMatches?.map(m => ({
-                            title:             m.title,
-                            url:               m.url,
-                            snippet:           m.snippet,
-                            similarityScore:   m.similarityScore,
-                            sourceDomain:      m.sourceDomain,
-                            sourceCategory:    m.sourceCategory,
-                            confidenceLevel:   m.confidenceLevel,
-                            matchedStudentText: m.matchedStudentText,
-                        })) ?? [],
-                        projectedGrade,
-                        maxPoints: q.maxPoints,
-                    };
-                });
-
-                // Overall AI score = sum(gradeMap earned marks) / sum(maxPoints) * 100.
-                // This mirrors the dialog total exactly, including 0 for ungraded questions.
-                const totalMaxPts = questions.reduce((s, q) => s + (q.maxPoints ?? 10), 0);
-                const totalEarnedPts = questions.reduce((s, q) => s + (gradeMap[q.id] ?? 0), 0);
-                const computedOverallGrade = totalMaxPts > 0
-                    ? Math.round((totalEarnedPts / totalMaxPts) * 1000) / 10
-                    : undefined;
-
-                const revertKey = `smartlms_revert_source_${assignmentId}`;
-                const revertSourceVersion = sessionStorage.getItem(revertKey);
-                if (revertSourceVersion) sessionStorage.removeItem(revertKey);
-
-                const snapshotPayload: TextSnapshotPayload = {
-                    submissionId,
-                    studentId,
-                    commitMessage: revertSourceVersion
-                        ? `Reverted from v${revertSourceVersion}`
-                        : `${assignment?.title ?? 'Assignment'} — v${versionNumber}`,
-                    totalWordCount: totalWords,
-                    overallGrade:  submittedResult?.grade ?? computedOverallGrade,
-                    maxGrade:      assignment?.totalMarks ?? undefined,
-                    answers:       answerSnapshots,
-                };
-                // Fire-and-forget — don't await, never block the UI
-                versionService.createTextSnapshot(snapshotPayload).catch(() => {});
-            } catch { /* snapshot build failure is non-fatal */ }
+            // The version-control snapshot is replicated by the submission service's
+            // outbox relay under the submission's own versionNumber; a second POST
+            // from here would be numbered max+1 by VCS and race it.
 
             // ── Notify the lecturer about the new submission ─────────────
             try {
@@ -1017,13 +1017,7 @@ export default function VersionHistoryPage({ params }: { params: Promise<{ id: s
                 })
             ));
 
-            // 4. Record which version was reverted so the answer page can tag the new snapshot
-            sessionStorage.setItem(
-                `smartlms_revert_source_${submission.assignmentId}`,
-                String(fullVersion.versionNumber),
-            );
-
-            // 5. Navigate to answer page
+            // 4. Navigate to answer page
             router.push(`/submissions/student/answer/${submission.assignmentId}`);
         } catch (err) {
             console.error('[VersionHistory] Revert failed:', err);
@@ -5,7 +5,7 @@
  * ─────────────────────────────────────────────────────────────
  * Shows a side-by-side comparison of two text-based submission versions.
  * Both versions must have metadata.type === 'TEXT_SUBMISSION' (i.e. snapshots
- * created by versionService.createTextSnapshot after the student submits).
+ * replicated from the submission service when the student submits).
  *
  * For each question (aligned by questionId):
  *   • AI score deltas  (grammar / clarity / completeness / relevance)
@@ -406,6 +406,8 @@ export function useAnswerEditor({
         const words = countWords(text);
         setAutoSaving(true);
         try {
+            // Buffered: the server coalesces these periodic saves and writes them on
+            // its next flush; the analysis PATCH below and submit flush first.
             await submissionService.saveAnswer(submissionId, questionId, {
                 answerText: text,
                 wordCount: words,
@@ -413,7 +415,7 @@ export function useAnswerEditor({
                 questionText,
                 studentId: studentId || undefined,
                 maxPoints,
-            });
+            }, { buffered: true });
             const savedAt = new Date();
             setLastSaved(savedAt);
             consecutiveFailuresRef.current = 0;
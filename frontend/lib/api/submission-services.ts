@@ -319,15 +319,21 @@ export const submissionService = {
 
     /**
      * Save (upsert) a student's typed answer for one question.
-     * PUT /api/submissions/{submissionId}/answers/{questionId}
+     * PUT /api/submissions/{submissionId}/answers/{questionId}[?buffered=true]
+     *
+     * `buffered` is for the debounced autosave: the server queues the text and
+     * answers 202 at once, writing it on its next flush (or when the submission
+     * is analysed, read or submitted). Explicit saves stay unbuffered.
      */
     saveAnswer(
         submissionId: string,
         questionId: string,
         payload: SaveAnswerPayload,
+        options?: { buffered?: boolean },
     ): Promise<void> {
+        const qs = options?.buffered ? '?buffered=true' : '';
         return apiRequest<void>(
-            `${SUBMISSION_API}/api/submissions/${submissionId}/answers/${questionId}`,
+            `${SUBMISSION_API}/api/submissions/${submissionId}/answers/${questionId}${qs}`,
             { method: 'PUT', body: JSON.stringify(payload) }
         );
     },